@@ -22,7 +22,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericArray;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericRecord;
-import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.avro.AvroCodecRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -108,8 +108,7 @@ public final class AvroBinaryDelta implements RawBinaryDelta {
         deltaT.put(DELTA, deltaQueue.poll());
         deltaArray.add(deltaT);
       }
-      GenericAvroConverter<GenericArray> converter = new GenericAvroConverter<>(schema);
-      serializedData = converter.encode(deltaArray);
+      serializedData = AvroCodecRegistry.<GenericArray>getCodec(schema).encode(deltaArray);
       if (LOG.isTraceEnabled()) {
         LOG.trace("Delta array: {}", deltaArray.toString());
       }
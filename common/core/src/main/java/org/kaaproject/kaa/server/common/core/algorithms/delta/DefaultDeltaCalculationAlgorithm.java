@@ -33,7 +33,7 @@ import org.apache.avro.generic.GenericEnumSymbol;
 import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.GenericRecord;
 import org.kaaproject.kaa.common.avro.AvroDataCanonizationUtils;
-import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.avro.AvroCodecRegistry;
 import org.kaaproject.kaa.server.common.core.configuration.BaseData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -758,8 +758,7 @@ public class DefaultDeltaCalculationAlgorithm implements DeltaCalculationAlgorit
    * @return the root node
    */
   private GenericRecord getRootNode(BaseData data, Schema schema) throws IOException {
-    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<GenericRecord>(schema);
-    return converter.decodeJson(data.getRawData());
+    return AvroCodecRegistry.<GenericRecord>getCodec(schema).decodeJson(data.getRawData());
   }
 
   /**
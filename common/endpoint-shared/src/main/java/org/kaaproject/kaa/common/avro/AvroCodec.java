@@ -0,0 +1,242 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.JsonDecoder;
+import org.apache.avro.io.JsonEncoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Binary and JSON codec of the Avro data of one schema. Codecs are obtained
+ * from the {@link AvroCodecRegistry} and are shared between threads. The
+ * datum reader and writer are created once per schema, while the binary
+ * encoders, decoders and output buffers are reused by each thread.
+ * Thread safe.
+ *
+ * <p>Binary data of a record doesn't hold its schema, so data written before
+ * fields were appended to the record schema ends too early. If the decoding
+ * runs out of data, the data is decoded again with the record schema without
+ * its trailing fields that have a default value, and those fields get the
+ * default value. This way such fields can be added to stored configurations
+ * without a migration.</p>
+ *
+ * @param <T> the type of the Avro data
+ */
+public class AvroCodec<T> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AvroCodec.class);
+
+  private static final Charset ENCODING_CHARSET = Charset.forName("UTF-8");
+  private static final Charset DECODING_CHARSET = Charset.forName("ISO-8859-1");
+
+  private final Schema schema;
+  private final DatumReader<T> datumReader;
+  private final DatumWriter<T> datumWriter;
+
+  private volatile List<DatumReader<T>> legacyReaders;
+
+  AvroCodec(Schema schema, DatumReader<T> datumReader, DatumWriter<T> datumWriter) {
+    this.schema = schema;
+    this.datumReader = datumReader;
+    this.datumWriter = datumWriter;
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Decode binary data.
+   *
+   * @param data  the data
+   * @param reuse the object to reuse, may be null
+   * @return the decoded object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public T decodeBinary(byte[] data, T reuse) throws IOException {
+    return decodeBinary(data, 0, data.length, reuse);
+  }
+
+  /**
+   * Decode binary data from the part of the array.
+   *
+   * @param data   the data
+   * @param offset the offset of the encoded object
+   * @param length the length of the encoded object
+   * @param reuse  the object to reuse, may be null
+   * @return the decoded object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public T decodeBinary(byte[] data, int offset, int length, T reuse) throws IOException {
+    BinaryDecoder decoder = AvroCodecRegistry.buffers().binaryDecoder(data, offset, length);
+    try {
+      return datumReader.read(reuse, decoder);
+    } catch (EOFException ex) {
+      T record = decodeLegacyBinary(data, offset, length);
+      if (record == null) {
+        throw ex;
+      }
+      return record;
+    }
+  }
+
+  /**
+   * Decodes binary data written with the record schema without some of its
+   * trailing fields that have a default value. The longest such schema which
+   * consumes exactly the given data is used.
+   *
+   * @return the decoded object, or null if no such schema matches the data
+   */
+  private T decodeLegacyBinary(byte[] data, int offset, int length) {
+    for (DatumReader<T> reader : getLegacyReaders()) {
+      BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, offset, length, null);
+      try {
+        T record = reader.read(null, decoder);
+        if (decoder.isEnd()) {
+          return record;
+        }
+      } catch (IOException | RuntimeException ex) {
+        LOG.trace("Data doesn't match legacy schema of {}", schema.getFullName());
+      }
+    }
+    return null;
+  }
+
+  private List<DatumReader<T>> getLegacyReaders() {
+    List<DatumReader<T>> readers = legacyReaders;
+    if (readers == null) {
+      readers = new ArrayList<>();
+      if (schema.getType() == Schema.Type.RECORD) {
+        List<Schema.Field> fields = schema.getFields();
+        int count = fields.size();
+        while (count > 0 && fields.get(count - 1).defaultValue() != null) {
+          count--;
+          readers.add(createResolvingReader(legacySchema(fields.subList(0, count))));
+        }
+      }
+      readers = Collections.unmodifiableList(readers);
+      legacyReaders = readers;
+    }
+    return readers;
+  }
+
+  private Schema legacySchema(List<Schema.Field> fields) {
+    Schema legacy = Schema.createRecord(schema.getName(), schema.getDoc(),
+        schema.getNamespace(), schema.isError());
+    List<Schema.Field> copies = new ArrayList<>(fields.size());
+    for (Schema.Field field : fields) {
+      copies.add(new Schema.Field(field.name(), field.schema(), field.doc(),
+          field.defaultValue()));
+    }
+    legacy.setFields(copies);
+    return legacy;
+  }
+
+  private DatumReader<T> createResolvingReader(Schema writer) {
+    if (datumReader instanceof SpecificDatumReader) {
+      return new SpecificDatumReader<T>(writer, schema);
+    }
+    return new GenericDatumReader<T>(writer, schema);
+  }
+
+  /**
+   * Decode json data.
+   *
+   * @param data the data
+   * @return the decoded object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public T decodeJson(String data) throws IOException {
+    JsonDecoder jsonDecoder = DecoderFactory.get().jsonDecoder(schema, data, true);
+    return datumReader.read(null, jsonDecoder);
+  }
+
+  /**
+   * Decode json data.
+   *
+   * @param data the data
+   * @return the decoded object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public T decodeJson(byte[] data) throws IOException {
+    return decodeJson(new String(data, DECODING_CHARSET));
+  }
+
+  /**
+   * Encode record to byte array.
+   *
+   * @param record the object to encode
+   * @return the byte[]
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public byte[] encode(T record) throws IOException {
+    AvroCodecRegistry.CodecBuffers buffers = AvroCodecRegistry.buffers();
+    BinaryEncoder encoder = buffers.binaryEncoder();
+    datumWriter.write(record, encoder);
+    encoder.flush();
+    return buffers.toByteArray();
+  }
+
+  /**
+   * Encode record to Json String.
+   *
+   * @param record the object to encode
+   * @return the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public String encodeToJson(T record) throws IOException {
+    return new String(encodeToJsonBytes(record), ENCODING_CHARSET);
+  }
+
+  /**
+   * Encode record to Json and then convert to byte array.
+   *
+   * @param record the object to encode
+   * @return the byte[]
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public byte[] encodeToJsonBytes(T record) throws IOException {
+    AvroCodecRegistry.CodecBuffers buffers = AvroCodecRegistry.buffers();
+    JsonEncoder jsonEncoder = EncoderFactory.get().jsonEncoder(
+        schema, buffers.outputStream(), true);
+    datumWriter.write(record, jsonEncoder);
+    jsonEncoder.flush();
+    return buffers.toByteArray();
+  }
+
+  @Override
+  public String toString() {
+    return "AvroCodec [schema=" + schema.getFullName() + "]";
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared registry of parsed Avro schemas and {@link AvroCodec codecs}.
+ *
+ * <p>Schemas are cached by their source, so the same schema string is parsed
+ * only once. Generic codecs are cached by the parsed schema, which has a cached
+ * structural hash code, so equal schemas parsed from differently formatted
+ * sources share one codec. Specific codecs are cached by the record class.
+ * Each cache is cleared once it holds more than {@link #MAX_CACHE_SIZE}
+ * entries.</p>
+ *
+ * <p>The registry also keeps the binary encoder, decoder and output buffer of
+ * each thread, which are reused by all codecs. Thread safe.</p>
+ */
+public final class AvroCodecRegistry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AvroCodecRegistry.class);
+
+  /**
+   * Maximum number of entries in each cache.
+   */
+  public static final int MAX_CACHE_SIZE = 1024;
+
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  /**
+   * Output buffers which grew above this size are not kept by the thread.
+   */
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+  private static final ConcurrentMap<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+  private static final ConcurrentMap<Schema, AvroCodec<?>> GENERIC_CODECS =
+      new ConcurrentHashMap<>();
+
+  private static final ConcurrentMap<Class<?>, AvroCodec<?>> SPECIFIC_CODECS =
+      new ConcurrentHashMap<>();
+
+  private static final ThreadLocal<CodecBuffers> BUFFERS = new ThreadLocal<CodecBuffers>() {
+    @Override
+    protected CodecBuffers initialValue() {
+      return new CodecBuffers();
+    }
+  };
+
+  private AvroCodecRegistry() {
+  }
+
+  /**
+   * Gets the parsed schema.
+   *
+   * @param schemaSrc the schema source
+   * @return the schema
+   */
+  public static Schema getSchema(String schemaSrc) {
+    Schema schema = SCHEMAS.get(schemaSrc);
+    if (schema == null) {
+      schema = new Schema.Parser().parse(schemaSrc);
+      Schema previous = put(SCHEMAS, schemaSrc, schema);
+      if (previous != null) {
+        schema = previous;
+      }
+    }
+    return schema;
+  }
+
+  /**
+   * Gets the generic codec of the schema.
+   *
+   * @param schemaSrc the schema source
+   * @param <T>       the type of the Avro data
+   * @return the codec
+   */
+  public static <T> AvroCodec<T> getCodec(String schemaSrc) {
+    return getCodec(getSchema(schemaSrc));
+  }
+
+  /**
+   * Gets the generic codec of the schema.
+   *
+   * @param schema the schema
+   * @param <T>    the type of the Avro data
+   * @return the codec
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> AvroCodec<T> getCodec(Schema schema) {
+    AvroCodec<T> codec = (AvroCodec<T>) GENERIC_CODECS.get(schema);
+    if (codec == null) {
+      codec = new AvroCodec<T>(schema, new GenericDatumReader<T>(schema),
+          new GenericDatumWriter<T>(schema));
+      AvroCodec<T> previous = (AvroCodec<T>) put(GENERIC_CODECS, schema, codec);
+      if (previous != null) {
+        codec = previous;
+      }
+    }
+    return codec;
+  }
+
+  /**
+   * Gets the codec of the specific record class.
+   *
+   * @param recordClass the record class
+   * @param <T>         the type of the record
+   * @return the codec
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends SpecificRecordBase> AvroCodec<T> getCodec(Class<T> recordClass) {
+    AvroCodec<T> codec = (AvroCodec<T>) SPECIFIC_CODECS.get(recordClass);
+    if (codec == null) {
+      codec = new AvroCodec<T>(SpecificData.get().getSchema(recordClass),
+          new SpecificDatumReader<T>(recordClass), new SpecificDatumWriter<T>(recordClass));
+      AvroCodec<T> previous = (AvroCodec<T>) put(SPECIFIC_CODECS, recordClass, codec);
+      if (previous != null) {
+        codec = previous;
+      }
+    }
+    return codec;
+  }
+
+  /**
+   * Removes all cached schemas and codecs.
+   */
+  public static void clear() {
+    SCHEMAS.clear();
+    GENERIC_CODECS.clear();
+    SPECIFIC_CODECS.clear();
+  }
+
+  static CodecBuffers buffers() {
+    return BUFFERS.get();
+  }
+
+  private static <K, V> V put(ConcurrentMap<K, V> cache, K key, V value) {
+    if (cache.size() >= MAX_CACHE_SIZE) {
+      LOG.debug("Avro codec cache size limit {} reached, clearing the cache", MAX_CACHE_SIZE);
+      cache.clear();
+    }
+    return cache.putIfAbsent(key, value);
+  }
+
+  /**
+   * Encoders, decoders and output buffer reused by one thread.
+   */
+  static final class CodecBuffers {
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+    private ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+
+    /**
+     * Gets the binary encoder writing to the empty output buffer.
+     */
+    BinaryEncoder binaryEncoder() {
+      // Reconfiguring flushes the bytes left by a failed encoding, so the
+      // buffer is reset afterwards.
+      encoder = EncoderFactory.get().binaryEncoder(out, encoder);
+      out.reset();
+      return encoder;
+    }
+
+    /**
+     * Gets the binary decoder reading the part of the array.
+     */
+    BinaryDecoder binaryDecoder(byte[] data, int offset, int length) {
+      decoder = DecoderFactory.get().binaryDecoder(data, offset, length, decoder);
+      return decoder;
+    }
+
+    /**
+     * Gets the empty output buffer.
+     */
+    ByteArrayOutputStream outputStream() {
+      out.reset();
+      return out;
+    }
+
+    /**
+     * Copies the content of the output buffer. The buffer is dropped if it
+     * grew too large.
+     */
+    byte[] toByteArray() {
+      byte[] result = out.toByteArray();
+      if (result.length > MAX_RETAINED_BUFFER_SIZE) {
+        out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+      } else {
+        out.reset();
+      }
+      return result;
+    }
+  }
+}
@@ -18,27 +18,16 @@ package org.kaaproject.kaa.common.avro;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericContainer;
-import org.apache.avro.generic.GenericDatumReader;
-import org.apache.avro.generic.GenericDatumWriter;
-import org.apache.avro.io.BinaryDecoder;
-import org.apache.avro.io.BinaryEncoder;
-import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.DatumWriter;
-import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.io.EncoderFactory;
-import org.apache.avro.io.JsonDecoder;
-import org.apache.avro.io.JsonEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
 
 /**
  * The Class AvroByteArrayConverter is used to convert
  * {#link org.apache.avro.generic.GenericContainer specific avro records} to/from bytes.
- * NOT Thread safe.
+ * Thread safe, the converter delegates to the shared {@link AvroCodec} of its
+ * schema obtained from the {@link AvroCodecRegistry}.
  *
  * @param <T> the generic type that extends GenericContainer
  */
@@ -47,16 +36,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
   private static final Logger LOG = LoggerFactory
       .getLogger(GenericAvroConverter.class);
 
-  private static final Charset ENCODING_CHARSET = Charset.forName("UTF-8");
-  private static final Charset DECODING_CHARSET = Charset.forName("ISO-8859-1");
-
-  private Schema schema;
-  private DatumReader<T> datumReader;
-  private DatumWriter<T> datumWriter;
-  private BinaryDecoder binaryDecoder;
-  private BinaryEncoder binaryEncoder;
-  private JsonDecoder jsonDecoder;
-  private JsonEncoder jsonEncoder;
+  private final AvroCodec<T> codec;
 
   /**
    * Instantiates a new generic Avro converter.
@@ -64,7 +44,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @param schemaSrc the schemaSrc
    */
   public GenericAvroConverter(String schemaSrc) {
-    this(new Schema.Parser().parse(schemaSrc));
+    this(AvroCodecRegistry.getSchema(schemaSrc));
   }
 
   /**
@@ -73,9 +53,11 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @param schema the schema
    */
   public GenericAvroConverter(Schema schema) {
-    this.schema = schema;
-    datumReader = new GenericDatumReader<T>(this.schema);
-    datumWriter = new GenericDatumWriter<T>(this.schema);
+    this.codec = AvroCodecRegistry.getCodec(schema);
+  }
+
+  public Schema getSchema() {
+    return codec.getSchema();
   }
 
   /**
@@ -86,14 +68,12 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @return the string
    */
   public static String toJson(byte[] rawData, String dataSchema) {
-    Schema schema = new Schema.Parser().parse(dataSchema);
-    GenericAvroConverter<GenericContainer> converter = new
-            GenericAvroConverter<GenericContainer>(schema);
+    AvroCodec<GenericContainer> converter = AvroCodecRegistry.getCodec(dataSchema);
 
     String json;
 
     try {
-      GenericContainer record = converter.decodeBinary(rawData);
+      GenericContainer record = converter.decodeBinary(rawData, null);
       json = converter.encodeToJson(record);
     } catch (IOException ex) {
       LOG.warn("Can't parse json data", ex);
@@ -110,9 +90,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @return the byte[]
    */
   public static byte[] toRawData(String json, String dataSchema) {
-    Schema schema = new Schema.Parser().parse(dataSchema);
-    GenericAvroConverter<GenericContainer> converter = new
-            GenericAvroConverter<GenericContainer>(schema);
+    AvroCodec<GenericContainer> converter = AvroCodecRegistry.getCodec(dataSchema);
 
     byte[] rawData;
 
@@ -146,8 +124,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public T decodeBinary(byte[] data, T reuse) throws IOException {
-    binaryDecoder = DecoderFactory.get().binaryDecoder(data, binaryDecoder);
-    return datumReader.read(reuse, binaryDecoder);
+    return codec.decodeBinary(data, reuse);
   }
 
   /**
@@ -169,7 +146,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public T decodeJson(byte[] data) throws IOException {
-    return decodeJson(new String(data, DECODING_CHARSET), null);
+    return codec.decodeJson(data);
   }
 
   /**
@@ -181,8 +158,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public T decodeJson(String data, T reuse) throws IOException {
-    jsonDecoder = DecoderFactory.get().jsonDecoder(this.schema, data, true);
-    return datumReader.read(null, jsonDecoder);
+    return codec.decodeJson(data);
   }
 
   /**
@@ -193,7 +169,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public String encodeToJson(T record) throws IOException {
-    return new String(encodeToJsonBytes(record), ENCODING_CHARSET);
+    return codec.encodeToJson(record);
   }
 
   /**
@@ -204,12 +180,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public byte[] encodeToJsonBytes(T record) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    jsonEncoder = EncoderFactory.get().jsonEncoder(this.schema, baos, true);
-    datumWriter.write(record, jsonEncoder);
-    jsonEncoder.flush();
-    baos.flush();
-    return baos.toByteArray();
+    return codec.encodeToJsonBytes(record);
   }
 
   /**
@@ -220,12 +191,7 @@ public class GenericAvroConverter<T extends GenericContainer> {
    * @throws IOException Signals that an I/O exception has occurred.
    */
   public byte[] encode(T record) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    binaryEncoder = EncoderFactory.get().binaryEncoder(baos, binaryEncoder);
-    datumWriter.write(record, binaryEncoder);
-    binaryEncoder.flush();
-    baos.flush();
-    return baos.toByteArray();
+    return codec.encode(record);
   }
 
 }
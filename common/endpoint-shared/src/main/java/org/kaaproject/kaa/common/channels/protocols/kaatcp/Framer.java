@@ -28,6 +28,7 @@ import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.PingResponse
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -107,6 +108,19 @@ public class Framer {
     return used;
   }
 
+  /**
+   * Process complete frame, which was cut from the incoming stream by the caller.
+   * The payload is only read during this call, so it may be a view of a
+   * reusable buffer.
+   *
+   * @param type    the frame message type
+   * @param payload the frame payload that follows the fixed header
+   * @throws KaaTcpProtocolException throws in case of protocol errors.
+   */
+  public void pushFrame(byte type, ByteBuffer payload) throws KaaTcpProtocolException {
+    callListeners(getFrameByType(type).decodeFrom(payload));
+  }
+
   /**
    * Notify all listeners on new Frame.
    */
@@ -92,6 +92,50 @@ public abstract class MqttFrame {
     return buffer;
   }
 
+  /**
+   * Return size of mqtt frame including fixed header.
+   *
+   * @return size of mqtt frame in bytes
+   */
+  public int getFrameSize() {
+    if (buffer != null) {
+      return buffer.capacity();
+    }
+    int remainingLegth = getRemainingLegth();
+    int headerSize = 1;
+    do {
+      remainingLegth /= 0x00000080;
+      ++headerSize;
+    }
+    while (remainingLegth > 0);
+    return headerSize + getRemainingLegth();
+  }
+
+  /**
+   * Write mqtt frame to the destination buffer, starting at its current position.
+   * Unlike {@link #getFrame()} the frame is packed directly into the destination,
+   * so no intermediate buffer is allocated.
+   *
+   * @param dst destination buffer with at least {@link #getFrameSize()} bytes remaining
+   */
+  public void writeFrame(ByteBuffer dst) {
+    if (buffer != null) {
+      ByteBuffer frame = buffer.duplicate();
+      frame.position(0);
+      dst.put(frame);
+      return;
+    }
+    byte[] kaaTcpHeader = new byte[6];
+    int headerSize = fillFixedHeader(getRemainingLegth(), kaaTcpHeader);
+    dst.put(kaaTcpHeader, 0, headerSize);
+    buffer = dst;
+    try {
+      pack();
+    } finally {
+      buffer = null;
+    }
+  }
+
   /**
    * Pack message into mqtt frame.
    */
@@ -211,6 +255,29 @@ public abstract class MqttFrame {
     return pos - position;
   }
 
+  /**
+   * Decode frame from the complete payload, which follows the fixed header.
+   * Unlike {@link #push(byte[], int)} the payload is not copied into the frame
+   * buffer and is only read during this call, so it may be a view of a reusable
+   * buffer.
+   *
+   * @param payload the frame payload
+   * @return decoded frame, see {@link #upgradeFrame()}
+   * @throws KaaTcpProtocolException the kaa tcp protocol exception
+   */
+  public MqttFrame decodeFrom(ByteBuffer payload) throws KaaTcpProtocolException {
+    remainingLength = 0;
+    buffer = payload.hasRemaining() ? payload.slice() : null;
+    try {
+      onFrameDone();
+      MqttFrame frame = upgradeFrame();
+      frame.buffer = null;
+      return frame;
+    } finally {
+      buffer = null;
+    }
+  }
+
   /**
    * Test if Mqtt frame decode complete.
    *
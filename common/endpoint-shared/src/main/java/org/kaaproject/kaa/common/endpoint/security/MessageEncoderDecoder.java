@@ -74,6 +74,7 @@ public class MessageEncoderDecoder {
   private final PublicKey publicKey;
   private PublicKey remotePublicKey;
   private SecretKey sessionKey;
+  private byte[] encodedSessionKey;
   private CipherPair sessionCipherPair;
 
   /**
@@ -153,16 +154,22 @@ public class MessageEncoderDecoder {
   }
 
   /**
-   * Gets the encoded session key.
+   * Gets the encoded session key. The session key is encrypted once per
+   * remote public key, so reconnects with the same session key send the same
+   * encoded key and the remote side can resume the session without the RSA
+   * decryption.
    *
    * @return the encoded session key
    * @throws GeneralSecurityException the general security exception
    */
   public byte[] getEncodedSessionKey() throws GeneralSecurityException {
-    SecretKey key = getSessionKey();
-    Cipher keyCipher = RSA_CIPHER.get();
-    keyCipher.init(Cipher.ENCRYPT_MODE, remotePublicKey);
-    return keyCipher.doFinal(key.getEncoded());
+    if (encodedSessionKey == null) {
+      SecretKey key = getSessionKey();
+      Cipher keyCipher = RSA_CIPHER.get();
+      keyCipher.init(Cipher.ENCRYPT_MODE, remotePublicKey);
+      encodedSessionKey = keyCipher.doFinal(key.getEncoded());
+    }
+    return encodedSessionKey;
   }
 
   /**
@@ -179,6 +186,23 @@ public class MessageEncoderDecoder {
     return sessionCipherPair.encCipher.doFinal(message);
   }
 
+  /**
+   * Encode part of the array using sessionKey.
+   *
+   * @param message the array that holds the message
+   * @param offset  the message offset in the array
+   * @param length  the message length
+   * @return the byte[]
+   * @throws GeneralSecurityException the general security exception
+   */
+  public byte[] encodeData(byte[] message, int offset, int length)
+      throws GeneralSecurityException {
+    if (sessionCipherPair == null) {
+      sessionCipherPair = new CipherPair(SESSION_CRYPT_ALGORITHM, getSessionKey());
+    }
+    return sessionCipherPair.encCipher.doFinal(message, offset, length);
+  }
+
 
   private void decodeSessionKey(byte[] encodedKey) throws
       InvalidKeyException,
@@ -219,6 +243,21 @@ public class MessageEncoderDecoder {
     return decodeData(message);
   }
 
+  /**
+   * Decode data using already decrypted session key, e.g. the one resumed
+   * from the previous session of the endpoint.
+   *
+   * @param message    the message
+   * @param sessionKey the session key
+   * @return the byte[]
+   * @throws GeneralSecurityException the general security exception
+   */
+  public byte[] decodeData(byte[] message, SecretKey sessionKey) throws GeneralSecurityException {
+    sessionCipherPair = null;
+    this.sessionKey = sessionKey;
+    return decodeData(message);
+  }
+
   /**
    * Sign message using private key.
    *
@@ -278,6 +317,7 @@ public class MessageEncoderDecoder {
    */
   public void setRemotePublicKey(byte[] remotePublicKey) throws GeneralSecurityException {
     this.remotePublicKey = KeyUtil.getPublic(remotePublicKey);
+    this.encodedSessionKey = null;
     if (LOG.isTraceEnabled()) {
       LOG.trace("RemotePublicKey {}",
           this.remotePublicKey != null ? bytesToHex(this.remotePublicKey.getEncoded()) : "empty");
@@ -292,6 +332,7 @@ public class MessageEncoderDecoder {
    */
   public void setRemotePublicKey(PublicKey remotePublicKey) throws GeneralSecurityException {
     this.remotePublicKey = remotePublicKey;
+    this.encodedSessionKey = null;
     if (LOG.isTraceEnabled()) {
       LOG.trace("RemotePublicKey {}",
           this.remotePublicKey != null ? bytesToHex(this.remotePublicKey.getEncoded()) : "empty");
@@ -311,6 +352,16 @@ public class MessageEncoderDecoder {
     return sessionKey;
   }
 
+  /**
+   * Gets the session key decrypted by the last {@link #decodeData(byte[], byte[])}
+   * call or generated for this session.
+   *
+   * @return the session key, or null if there is no session key yet
+   */
+  public SecretKey getCurrentSessionKey() {
+    return sessionKey;
+  }
+
   public CipherPair getSessionCipherPair() {
     return sessionCipherPair;
   }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.avro;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.endpoint.gen.BasicEndpointProfile;
+
+import java.io.EOFException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class AvroCodecRegistryTest {
+
+  private static final String SCHEMA = BasicEndpointProfile.SCHEMA$.toString();
+
+  @Test
+  public void testSchemaIsParsedOnce() {
+    Assert.assertSame(AvroCodecRegistry.getSchema(SCHEMA), AvroCodecRegistry.getSchema(SCHEMA));
+  }
+
+  @Test
+  public void testEqualSchemasShareCodec() {
+    AvroCodec<GenericRecord> codec = AvroCodecRegistry.getCodec(SCHEMA);
+    AvroCodec<GenericRecord> prettyCodec = AvroCodecRegistry.getCodec(
+        BasicEndpointProfile.SCHEMA$.toString(true));
+    Assert.assertSame(codec, prettyCodec);
+    Assert.assertSame(AvroCodecRegistry.getCodec(BasicEndpointProfile.class),
+        AvroCodecRegistry.getCodec(BasicEndpointProfile.class));
+  }
+
+  @Test
+  public void testGenericCodec() throws Exception {
+    AvroCodec<GenericRecord> codec = AvroCodecRegistry.getCodec(SCHEMA);
+    GenericRecord record = new GenericData.Record(codec.getSchema());
+    record.put("profileBody", "test");
+
+    GenericRecord copy = codec.decodeBinary(codec.encode(record), null);
+    Assert.assertEquals("test", copy.get("profileBody").toString());
+    copy = codec.decodeJson(codec.encodeToJson(record));
+    Assert.assertEquals("test", copy.get("profileBody").toString());
+  }
+
+  @Test
+  public void testDecodeBinaryFromOffset() throws Exception {
+    AvroCodec<BasicEndpointProfile> codec = AvroCodecRegistry.getCodec(BasicEndpointProfile.class);
+    byte[] data = codec.encode(new BasicEndpointProfile("test"));
+    byte[] padded = new byte[data.length + 2];
+    System.arraycopy(data, 0, padded, 1, data.length);
+
+    BasicEndpointProfile copy = codec.decodeBinary(padded, 1, data.length, null);
+    Assert.assertEquals("test", copy.getProfileBody());
+  }
+
+  @Test
+  public void testDecodeDataWithoutTrailingDefaultFields() throws Exception {
+    String fields = "{\"name\":\"name\",\"type\":\"string\"}";
+    String size = "{\"name\":\"size\",\"type\":\"int\",\"default\":5}";
+    String label = "{\"name\":\"label\",\"type\":[\"null\",\"string\"],\"default\":null}";
+    AvroCodec<GenericRecord> oldCodec = AvroCodecRegistry.getCodec(recordSchema(fields));
+    AvroCodec<GenericRecord> midCodec = AvroCodecRegistry.getCodec(
+        recordSchema(fields + "," + size));
+    AvroCodec<GenericRecord> newCodec = AvroCodecRegistry.getCodec(
+        recordSchema(fields + "," + size + "," + label));
+
+    GenericRecord record = new GenericData.Record(oldCodec.getSchema());
+    record.put("name", "test");
+    GenericRecord copy = newCodec.decodeBinary(oldCodec.encode(record), null);
+    Assert.assertEquals("test", copy.get("name").toString());
+    Assert.assertEquals(5, copy.get("size"));
+    Assert.assertNull(copy.get("label"));
+
+    record = new GenericData.Record(midCodec.getSchema());
+    record.put("name", "test");
+    record.put("size", 7);
+    copy = newCodec.decodeBinary(midCodec.encode(record), null);
+    Assert.assertEquals(7, copy.get("size"));
+    Assert.assertNull(copy.get("label"));
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncatedDataIsRejected() throws Exception {
+    AvroCodec<BasicEndpointProfile> codec = AvroCodecRegistry.getCodec(BasicEndpointProfile.class);
+    byte[] data = codec.encode(new BasicEndpointProfile("test"));
+    codec.decodeBinary(Arrays.copyOf(data, data.length - 2), null);
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    final AvroCodec<BasicEndpointProfile> codec = AvroCodecRegistry.getCodec(
+        BasicEndpointProfile.class);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        final String body = "profile" + i;
+        results.add(executor.submit(new Callable<Boolean>() {
+          @Override
+          public Boolean call() throws Exception {
+            for (int j = 0; j < 100; j++) {
+              byte[] data = codec.encode(new BasicEndpointProfile(body + j));
+              if (!(body + j).equals(codec.decodeBinary(data, null).getProfileBody())) {
+                return false;
+              }
+            }
+            return true;
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String recordSchema(String fields) {
+    return "{\"type\":\"record\",\"name\":\"Versioned\",\"fields\":[" + fields + "]}";
+  }
+}
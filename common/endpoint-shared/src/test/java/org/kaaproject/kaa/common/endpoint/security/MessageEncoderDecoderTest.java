@@ -114,6 +114,28 @@ public class MessageEncoderDecoderTest {
     Assert.assertEquals(message, decodedSecret2);
   }
 
+  @Test
+  public void resumedSessionKeyTest() throws Exception {
+    String message = "secret" + new Random().nextInt();
+
+    MessageEncoderDecoder client = new MessageEncoderDecoder(clientPrivate, clientPublic, serverPublic);
+    MessageEncoderDecoder server = new MessageEncoderDecoder(serverPrivate, serverPublic, clientPublic);
+
+    byte[] encodedSessionKey = client.getEncodedSessionKey();
+    Assert.assertArrayEquals(encodedSessionKey, client.getEncodedSessionKey());
+
+    byte[] secretData = client.encodeData(message.getBytes());
+    Assert.assertEquals(message, new String(server.decodeData(secretData, encodedSessionKey)));
+
+    MessageEncoderDecoder resumed = new MessageEncoderDecoder(serverPrivate, serverPublic);
+    byte[] secretData2 = client.encodeData((message + "2").getBytes());
+    Assert.assertEquals(message + "2",
+        new String(resumed.decodeData(secretData2, server.getCurrentSessionKey())));
+
+    client.setRemotePublicKey(theifPublic);
+    Assert.assertFalse(Arrays.equals(encodedSessionKey, client.getEncodedSessionKey()));
+  }
+
   @Test
   public void basicUpdateTest() throws Exception {
     MessageEncoderDecoder client = new MessageEncoderDecoder(clientPrivate, clientPublic, serverPublic);
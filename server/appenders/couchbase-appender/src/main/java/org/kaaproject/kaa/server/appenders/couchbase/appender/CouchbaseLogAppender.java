@@ -20,6 +20,7 @@ import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
 import org.kaaproject.kaa.server.appenders.couchbase.config.gen.CouchbaseConfig;
 import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.BatchedLogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
@@ -27,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CouchbaseLogAppender extends AbstractLogAppender<CouchbaseConfig> {
@@ -69,6 +71,38 @@ public class CouchbaseLogAppender extends AbstractLogAppender<CouchbaseConfig> {
     }
   }
 
+  @Override
+  protected void appendBatch(List<BatchedLogEventPack> batch) {
+    if (closed) {
+      LOG.info("Attempted to append to closed appender named [{}].", getName());
+      batch.forEach(entry -> entry.getCallback().onInternalError());
+      return;
+    }
+    List<LogEvent> logEvents = new ArrayList<>();
+    List<LogDeliveryCallback> callbacks = new ArrayList<>(batch.size());
+    for (BatchedLogEventPack entry : batch) {
+      try {
+        for (LogEventDto dto : generateLogEvent(entry.getLogEventPack(), entry.getHeader())) {
+          logEvents.add(new LogEvent(entry.getHeader(), dto));
+        }
+        callbacks.add(entry.getCallback());
+      } catch (Exception ex) {
+        LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed due to internal error", getName()), ex);
+        entry.getCallback().onInternalError();
+      }
+    }
+    try {
+      if (!logEvents.isEmpty()) {
+        LOG.debug("[{}] saving {} objects of {} log event packs", getApplicationToken(), logEvents.size(), callbacks.size());
+        logEventDao.save(logEvents);
+      }
+      callbacks.forEach(LogDeliveryCallback::onSuccess);
+    } catch (Exception ex) {
+      LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed due to internal error", getName()), ex);
+      callbacks.forEach(LogDeliveryCallback::onInternalError);
+    }
+  }
+
   @Override
   protected void initFromConfiguration(LogAppenderDto appender, CouchbaseConfig configuration) {
     LOG.debug("Initializing new instance of Couchbase log appender");
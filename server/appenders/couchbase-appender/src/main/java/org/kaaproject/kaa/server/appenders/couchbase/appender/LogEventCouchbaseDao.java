@@ -60,9 +60,15 @@ public class LogEventCouchbaseDao implements LogEventDao {
   public List<LogEvent> save(RecordHeader recordHeader, List<LogEventDto> logEventDtos) {
     List<LogEvent> logEvents = new ArrayList<>(logEventDtos.size());
     for (LogEventDto logEventDto : logEventDtos) {
-      LogEvent logEvent = new LogEvent(recordHeader, logEventDto);
-      logEvent.setId(getId(logEventDto.getId()));
-      logEvents.add(logEvent);
+      logEvents.add(new LogEvent(recordHeader, logEventDto));
+    }
+    return save(logEvents);
+  }
+
+  @Override
+  public List<LogEvent> save(List<LogEvent> logEvents) {
+    for (LogEvent logEvent : logEvents) {
+      logEvent.setId(getId(logEvent.getId()));
     }
     LOG.debug("Saving {} log events", logEvents.size());
     couchbaseTemplate.insert(logEvents);
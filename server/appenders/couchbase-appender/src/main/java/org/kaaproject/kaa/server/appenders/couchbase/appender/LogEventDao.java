@@ -25,6 +25,8 @@ public interface LogEventDao {
 
   List<LogEvent> save(RecordHeader header, List<LogEventDto> logEventDtos);
 
+  List<LogEvent> save(List<LogEvent> logEvents);
+
   void close();
 
 }
@@ -23,8 +23,8 @@ import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig;
 import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.BinaryLogEvent;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
-import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
@@ -110,16 +110,14 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
           try {
             LOG.debug("[{}] appending {} logs to kafka collection", topicName, logEventPack.getEvents()
                 .size());
-            GenericAvroConverter<GenericRecord> eventConverter = getConverter(logEventPack.getLogSchema()
-                .getSchema());
             GenericAvroConverter<GenericRecord> headerConverter = getConverter(header.getSchema()
                 .toString());
-            List<KafkaLogEventDto> dtoList = generateKafkaLogEvent(logEventPack, header, eventConverter);
+            List<KafkaLogEventDto> dtoList = generateKafkaLogEvent(logEventPack, header);
             LOG.debug("[{}] saving {} objects", topicName, dtoList.size());
             if (!dtoList.isEmpty()) {
               int logCount = dtoList.size();
               inputLogCount.getAndAdd(logCount);
-              logEventDao.save(dtoList, eventConverter, headerConverter, new LogAppenderCallback(
+              logEventDao.save(dtoList, headerConverter, new LogAppenderCallback(
                   listener, kafkaSuccessLogCount, kafkaFailureLogCount));
               LOG.debug("[{}] appended {} logs to kafka collection", topicName, logEventPack.getEvents()
                   .size());
@@ -154,23 +152,12 @@ public class KafkaLogAppender extends AbstractLogAppender<KafkaConfig> {
 
   }
 
-  protected List<KafkaLogEventDto> generateKafkaLogEvent(LogEventPack logEventPack, RecordHeader header,
-                                                         GenericAvroConverter<GenericRecord> eventConverter) throws IOException {
+  protected List<KafkaLogEventDto> generateKafkaLogEvent(LogEventPack logEventPack, RecordHeader header) {
     LOG.debug("Generate LogEventDto objects from LogEventPack [{}] and header [{}]", logEventPack, header);
-    List<KafkaLogEventDto> events = new ArrayList<>(logEventPack.getEvents().size());
-    try {
-      for (LogEvent logEvent : logEventPack.getEvents()) {
-        LOG.debug("Convert log events [{}] to dto objects.", logEvent);
-        if (logEvent == null | logEvent.getLogData() == null) {
-          continue;
-        }
-        LOG.trace("Avro record converter [{}] with log data [{}]", eventConverter, logEvent.getLogData());
-        GenericRecord decodedLog = eventConverter.decodeBinary(logEvent.getLogData());
-        events.add(new KafkaLogEventDto(header, decodedLog));
-      }
-    } catch (IOException ex) {
-      LOG.error("Unexpected IOException while decoding LogEvents", ex);
-      throw ex;
+    List<BinaryLogEvent> binaryEvents = generateBinaryLogEvents(logEventPack);
+    List<KafkaLogEventDto> events = new ArrayList<>(binaryEvents.size());
+    for (BinaryLogEvent binaryEvent : binaryEvents) {
+      events.add(new KafkaLogEventDto(logEventPack.getEndpointKey(), header, binaryEvent));
     }
     return events;
   }
@@ -16,6 +16,8 @@
 
 package org.kaaproject.kaa.server.appenders.kafka.appender;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
@@ -25,10 +27,16 @@ import org.apache.kafka.clients.producer.RecordMetadata;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat;
+import org.kaaproject.kaa.server.common.log.shared.appender.BinaryLogEvent;
+import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
@@ -41,14 +49,23 @@ public class KafkaLogEventDao implements LogEventDao {
   private static final Logger LOG = LoggerFactory.getLogger(KafkaLogEventDao.class);
 
   private static final String KEY_SERIALIZER = "org.apache.kafka.common.serialization.StringSerializer";
-  private static final String VALUE_SERIALIZER = "org.apache.kafka.common.serialization.StringSerializer";
+  private static final String VALUE_SERIALIZER = "org.apache.kafka.common.serialization.ByteArraySerializer";
+
+  /**
+   * Marker of the Avro single object encoding: the marker is followed by the
+   * little-endian CRC-64-AVRO fingerprint of the writer schema and the Avro
+   * binary data of the record.
+   */
+  private static final byte[] BINARY_VALUE_MARKER = {(byte) 0xC3, (byte) 0x01};
+  private static final int BINARY_VALUE_HEADER_SIZE = BINARY_VALUE_MARKER.length + Long.BYTES;
 
   private static final Random RANDOM = new Random();
 
-  private KafkaProducer<String, String> producer;
+  private KafkaProducer<String, byte[]> producer;
   private KafkaConfig configuration;
   private String topicName;
   private int partitionCount;
+  private boolean binaryValues;
 
   /**
    * Instantiates a new KafkaLogEventDao.
@@ -61,6 +78,7 @@ public class KafkaLogEventDao implements LogEventDao {
     this.configuration = configuration;
     this.topicName = configuration.getTopic();
     this.partitionCount = configuration.getPartitionCount();
+    this.binaryValues = configuration.getKafkaValueFormat() == KafkaValueFormat.AVRO_BINARY;
     StringBuilder serverList = new StringBuilder();
     for (KafkaServer server : configuration.getKafkaServers()) {
       serverList.append(server.getHost() + ":" + server.getPort() + ",");
@@ -82,29 +100,52 @@ public class KafkaLogEventDao implements LogEventDao {
         .toLowerCase());
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.RETRIES_CONFIG, configuration.getRetries());
     kafkaProperties.put(ProducerConfig.RETRIES_CONFIG, configuration.getRetries());
+    LOG.info("Init kafka cluster with property {}={}", ProducerConfig.BATCH_SIZE_CONFIG, configuration.getBatchSize());
+    kafkaProperties.put(ProducerConfig.BATCH_SIZE_CONFIG, configuration.getBatchSize());
+    LOG.info("Init kafka cluster with property {}={}", ProducerConfig.LINGER_MS_CONFIG, configuration.getLingerMs());
+    kafkaProperties.put(ProducerConfig.LINGER_MS_CONFIG, configuration.getLingerMs());
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, KEY_SERIALIZER);
     kafkaProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, KEY_SERIALIZER);
     LOG.info("Init kafka cluster with property {}={}", ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG,
         VALUE_SERIALIZER);
     kafkaProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VALUE_SERIALIZER);
-    producer = new KafkaProducer<String, String>(kafkaProperties);
+    producer = new KafkaProducer<String, byte[]>(kafkaProperties);
   }
 
   @Override
   public List<Future<RecordMetadata>> save(List<KafkaLogEventDto> logEventDtoList,
-                                           GenericAvroConverter<GenericRecord> eventConverter, GenericAvroConverter<GenericRecord> headerConverter,
+                                           GenericAvroConverter<GenericRecord> headerConverter,
                                            Callback callback) throws IOException {
     List<Future<RecordMetadata>> results = new ArrayList<Future<RecordMetadata>>();
     LOG.info("[{}] Sending events to Kafka using {} key defining strategy", topicName, configuration
         .getKafkaKeyType().toString());
+    RecordHeader header = null;
+    String headerJson = null;
+    Schema schema = null;
+    long fingerprint = 0;
     for (KafkaLogEventDto dto : logEventDtoList) {
-      ProducerRecord<String, String> recordToWrite;
+      byte[] value;
+      if (binaryValues) {
+        // events of a pack share the same schema, so it is fingerprinted once per pack
+        if (schema != dto.getEvent().getSchema()) {
+          schema = dto.getEvent().getSchema();
+          fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        }
+        value = formKafkaBinary(dto.getEvent(), fingerprint);
+      } else {
+        // events of a pack share the same header, so it is encoded once per pack
+        if (header != dto.getHeader()) {
+          header = dto.getHeader();
+          headerJson = headerConverter.encodeToJson(header);
+        }
+        value = formKafkaJson(dto, headerJson).getBytes(StandardCharsets.UTF_8);
+      }
+      ProducerRecord<String, byte[]> recordToWrite;
       if (configuration.getUseDefaultPartitioner()) {
-        recordToWrite = new ProducerRecord<String, String>(topicName, getKey(dto), formKafkaJson(dto,
-            eventConverter, headerConverter));
+        recordToWrite = new ProducerRecord<String, byte[]>(topicName, getKey(dto), value);
       } else {
-        recordToWrite = new ProducerRecord<String, String>(topicName, calculatePartitionId(dto), getKey(dto),
-            formKafkaJson(dto, eventConverter, headerConverter));
+        recordToWrite = new ProducerRecord<String, byte[]>(topicName, calculatePartitionId(dto), getKey(dto),
+            value);
       }
       results.add(producer.send(recordToWrite, callback));
     }
@@ -119,8 +160,16 @@ public class KafkaLogEventDao implements LogEventDao {
     }
   }
 
+  /**
+   * Calculates the partition of the event by the endpoint key hash, so that
+   * all events of an endpoint go to the same partition in order.
+   */
   private int calculatePartitionId(KafkaLogEventDto eventDto) {
-    return eventDto.hashCode() % partitionCount;
+    String endpointKeyHash = eventDto.getEndpointKeyHash();
+    if (endpointKeyHash == null) {
+      return 0;
+    }
+    return (endpointKeyHash.hashCode() & Integer.MAX_VALUE) % partitionCount;
   }
 
   private String parseAcknowledgement(String record) {
@@ -138,10 +187,8 @@ public class KafkaLogEventDao implements LogEventDao {
     }
   }
 
-  private String formKafkaJson(KafkaLogEventDto dto, GenericAvroConverter<GenericRecord> eventConverter,
-                               GenericAvroConverter<GenericRecord> headerConverter) throws IOException {
-    String eventJson = eventConverter.encodeToJson(dto.getEvent());
-    String headerJson = headerConverter.encodeToJson(dto.getHeader());
+  private String formKafkaJson(KafkaLogEventDto dto, String headerJson) throws IOException {
+    String eventJson = dto.getEvent().toJson();
     StringBuilder result = new StringBuilder("{");
     if (headerJson != null && !headerJson.isEmpty()) {
       result.append("\"header\":" + headerJson + ",");
@@ -150,6 +197,20 @@ public class KafkaLogEventDao implements LogEventDao {
     return result.toString();
   }
 
+  /**
+   * Forms the value of the event in the Avro single object encoding. The raw
+   * Avro data of the event is copied as is, without decoding.
+   */
+  static byte[] formKafkaBinary(BinaryLogEvent event, long schemaFingerprint) {
+    byte[] data = event.getData();
+    return ByteBuffer.allocate(BINARY_VALUE_HEADER_SIZE + data.length)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .put(BINARY_VALUE_MARKER)
+        .putLong(schemaFingerprint)
+        .put(data)
+        .array();
+  }
+
   private String getKey(KafkaLogEventDto dto) {
     switch (configuration.getKafkaKeyType()) {
       case ENDPOINTHASHKEY:
@@ -16,32 +16,39 @@
 
 package org.kaaproject.kaa.server.appenders.kafka.appender;
 
-import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.server.common.log.shared.appender.BinaryLogEvent;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 
 import java.io.Serializable;
+import java.util.Arrays;
 
 public class KafkaLogEventDto implements Serializable {
 
   private static final long serialVersionUID = 5708819593518595947L;
 
+  private final String endpointKeyHash;
   private final RecordHeader header;
-  private final GenericRecord event;
+  private final BinaryLogEvent event;
 
   /**
    * Instantiates a new KafkaLogEventDto.
    */
-  public KafkaLogEventDto(RecordHeader header, GenericRecord event) {
+  public KafkaLogEventDto(String endpointKeyHash, RecordHeader header, BinaryLogEvent event) {
     super();
+    this.endpointKeyHash = endpointKeyHash;
     this.header = header;
     this.event = event;
   }
 
+  public String getEndpointKeyHash() {
+    return endpointKeyHash;
+  }
+
   public RecordHeader getHeader() {
     return header;
   }
 
-  public GenericRecord getEvent() {
+  public BinaryLogEvent getEvent() {
     return event;
   }
 
@@ -49,7 +56,7 @@ public class KafkaLogEventDto implements Serializable {
   public int hashCode() {
     final int prime = 31;
     int result = 1;
-    result = prime * result + ((event == null) ? 0 : event.hashCode());
+    result = prime * result + ((event == null) ? 0 : Arrays.hashCode(event.getData()));
     result = prime * result + ((header == null) ? 0 : header.hashCode());
     return result;
   }
@@ -70,7 +77,7 @@ public class KafkaLogEventDto implements Serializable {
       if (other.event != null) {
         return false;
       }
-    } else if (!event.equals(other.event)) {
+    } else if (other.event == null || !Arrays.equals(event.getData(), other.event.getData())) {
       return false;
     }
     if (header == null) {
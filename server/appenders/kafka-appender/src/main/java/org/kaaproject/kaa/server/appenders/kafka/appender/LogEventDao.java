@@ -28,7 +28,7 @@ import java.util.concurrent.Future;
 public interface LogEventDao {
 
   List<Future<RecordMetadata>> save(List<KafkaLogEventDto> logEventDtoList,
-                                    GenericAvroConverter<GenericRecord> eventConverter, GenericAvroConverter<GenericRecord> headerConverter,
+                                    GenericAvroConverter<GenericRecord> headerConverter,
                                     Callback callback) throws IOException;
 
   void close();
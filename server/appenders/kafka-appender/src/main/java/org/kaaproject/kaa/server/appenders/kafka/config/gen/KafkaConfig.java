@@ -7,7 +7,7 @@ package org.kaaproject.kaa.server.appenders.kafka.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"KafkaConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"fields\":[{\"name\":\"kafkaServers\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KafkaServer\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":9092}]}},\"displayName\":\"Kafka bootstrap servers\",\"minRowCount\":1},{\"name\":\"topic\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Topic name\",\"by_default\":\"kaa\"},{\"name\":\"useDefaultPartitioner\",\"type\":\"boolean\",\"displayName\":\"Use default partitioner\",\"by_default\":true},{\"name\":\"partitionCount\",\"type\":\"int\",\"displayName\":\"Partition count\",\"by_default\":1},{\"name\":\"kafkaKeyType\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaKeyType\",\"symbols\":[\"ENDPOINTHASHKEY\",\"HASH\",\"UUID\",\"NULL\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NULL\",\"optional\":true,\"displayName\":\"Key type\"},{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"bufferMemorySize\",\"type\":\"long\",\"displayName\":\"Buffer memory size\",\"by_default\":33554432},{\"name\":\"kafkaCompression\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NONE\",\"optional\":true,\"displayName\":\"Compression type\"},{\"name\":\"kafkaAcknowledgement\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaAcknowledgement\",\"symbols\":[\"ALL\",\"ZERO\",\"ONE\",\"TWO\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"ONE\",\"optional\":true,\"displayName\":\"Acknowledgement type\"},{\"name\":\"retries\",\"type\":\"int\",\"displayName\":\"Retries\",\"by_default\":0}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"KafkaConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"fields\":[{\"name\":\"kafkaServers\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"KafkaServer\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"weight\":0.75,\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"weight\":0.25,\"by_default\":9092}]}},\"displayName\":\"Kafka bootstrap servers\",\"minRowCount\":1},{\"name\":\"topic\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Topic name\",\"by_default\":\"kaa\"},{\"name\":\"useDefaultPartitioner\",\"type\":\"boolean\",\"displayName\":\"Use default partitioner\",\"by_default\":true},{\"name\":\"partitionCount\",\"type\":\"int\",\"displayName\":\"Partition count\",\"by_default\":1},{\"name\":\"kafkaKeyType\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaKeyType\",\"symbols\":[\"ENDPOINTHASHKEY\",\"HASH\",\"UUID\",\"NULL\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NULL\",\"optional\":true,\"displayName\":\"Key type\"},{\"name\":\"executorThreadPoolSize\",\"type\":\"int\",\"displayName\":\"Executor thread pool size\",\"by_default\":1},{\"name\":\"bufferMemorySize\",\"type\":\"long\",\"displayName\":\"Buffer memory size\",\"by_default\":33554432},{\"name\":\"kafkaCompression\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaCompression\",\"symbols\":[\"NONE\",\"SNAPPY\",\"GZIP\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"NONE\",\"optional\":true,\"displayName\":\"Compression type\"},{\"name\":\"kafkaAcknowledgement\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaAcknowledgement\",\"symbols\":[\"ALL\",\"ZERO\",\"ONE\",\"TWO\"]},\"null\"],\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"ONE\",\"optional\":true,\"displayName\":\"Acknowledgement type\"},{\"name\":\"retries\",\"type\":\"int\",\"displayName\":\"Retries\",\"by_default\":0},{\"name\":\"kafkaValueFormat\",\"type\":[{\"type\":\"enum\",\"name\":\"KafkaValueFormat\",\"symbols\":[\"JSON\",\"AVRO_BINARY\"]},\"null\"],\"default\":\"JSON\",\"namespace\":\"org.kaaproject.kaa.server.appenders.kafka.config.gen\",\"by_default\":\"JSON\",\"optional\":true,\"displayName\":\"Value format\"},{\"name\":\"batchSize\",\"type\":\"int\",\"default\":16384,\"displayName\":\"Producer batch size (bytes)\",\"by_default\":16384},{\"name\":\"lingerMs\",\"type\":\"int\",\"default\":0,\"displayName\":\"Producer linger time (ms)\",\"by_default\":5}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
    private java.util.List<org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer> kafkaServers;
    private java.lang.String topic;
@@ -19,6 +19,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
    private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression;
    private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement;
    private int retries;
+   private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat kafkaValueFormat;
+   private int batchSize;
+   private int lingerMs;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -30,7 +33,7 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
   /**
    * All-args constructor.
    */
-  public KafkaConfig(java.util.List<org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer> kafkaServers, java.lang.String topic, java.lang.Boolean useDefaultPartitioner, java.lang.Integer partitionCount, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaKeyType kafkaKeyType, java.lang.Integer executorThreadPoolSize, java.lang.Long bufferMemorySize, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement, java.lang.Integer retries) {
+  public KafkaConfig(java.util.List<org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer> kafkaServers, java.lang.String topic, java.lang.Boolean useDefaultPartitioner, java.lang.Integer partitionCount, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaKeyType kafkaKeyType, java.lang.Integer executorThreadPoolSize, java.lang.Long bufferMemorySize, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement, java.lang.Integer retries, org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat kafkaValueFormat, java.lang.Integer batchSize, java.lang.Integer lingerMs) {
     this.kafkaServers = kafkaServers;
     this.topic = topic;
     this.useDefaultPartitioner = useDefaultPartitioner;
@@ -41,6 +44,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     this.kafkaCompression = kafkaCompression;
     this.kafkaAcknowledgement = kafkaAcknowledgement;
     this.retries = retries;
+    this.kafkaValueFormat = kafkaValueFormat;
+    this.batchSize = batchSize;
+    this.lingerMs = lingerMs;
   }
 
   public org.apache.avro.Schema getSchema() { return SCHEMA$; }
@@ -57,6 +63,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     case 7: return kafkaCompression;
     case 8: return kafkaAcknowledgement;
     case 9: return retries;
+    case 10: return kafkaValueFormat;
+    case 11: return batchSize;
+    case 12: return lingerMs;
     default: throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
   }
@@ -74,6 +83,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     case 7: kafkaCompression = (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression)value$; break;
     case 8: kafkaAcknowledgement = (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement)value$; break;
     case 9: retries = (java.lang.Integer)value$; break;
+    case 10: kafkaValueFormat = (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat)value$; break;
+    case 11: batchSize = (java.lang.Integer)value$; break;
+    case 12: lingerMs = (java.lang.Integer)value$; break;
     default: throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
   }
@@ -228,6 +240,51 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     this.retries = value;
   }
 
+  /**
+   * Gets the value of the 'kafkaValueFormat' field.
+   */
+  public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat getKafkaValueFormat() {
+    return kafkaValueFormat;
+  }
+
+  /**
+   * Sets the value of the 'kafkaValueFormat' field.
+   * @param value the value to set.
+   */
+  public void setKafkaValueFormat(org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat value) {
+    this.kafkaValueFormat = value;
+  }
+
+  /**
+   * Gets the value of the 'batchSize' field.
+   */
+  public java.lang.Integer getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the value of the 'batchSize' field.
+   * @param value the value to set.
+   */
+  public void setBatchSize(java.lang.Integer value) {
+    this.batchSize = value;
+  }
+
+  /**
+   * Gets the value of the 'lingerMs' field.
+   */
+  public java.lang.Integer getLingerMs() {
+    return lingerMs;
+  }
+
+  /**
+   * Sets the value of the 'lingerMs' field.
+   * @param value the value to set.
+   */
+  public void setLingerMs(java.lang.Integer value) {
+    this.lingerMs = value;
+  }
+
   /** Creates a new KafkaConfig RecordBuilder */
   public static org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder newBuilder() {
     return new org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder();
@@ -259,6 +316,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
     private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression kafkaCompression;
     private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement kafkaAcknowledgement;
     private int retries;
+    private org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat kafkaValueFormat;
+    private int batchSize;
+    private int lingerMs;
 
     /** Creates a new Builder */
     private Builder() {
@@ -308,6 +368,18 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.retries = data().deepCopy(fields()[9].schema(), other.retries);
         fieldSetFlags()[9] = true;
       }
+      if (isValidValue(fields()[10], other.kafkaValueFormat)) {
+        this.kafkaValueFormat = data().deepCopy(fields()[10].schema(), other.kafkaValueFormat);
+        fieldSetFlags()[10] = true;
+      }
+      if (isValidValue(fields()[11], other.batchSize)) {
+        this.batchSize = data().deepCopy(fields()[11].schema(), other.batchSize);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.lingerMs)) {
+        this.lingerMs = data().deepCopy(fields()[12].schema(), other.lingerMs);
+        fieldSetFlags()[12] = true;
+      }
     }
     
     /** Creates a Builder by copying an existing KafkaConfig instance */
@@ -353,6 +425,18 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         this.retries = data().deepCopy(fields()[9].schema(), other.retries);
         fieldSetFlags()[9] = true;
       }
+      if (isValidValue(fields()[10], other.kafkaValueFormat)) {
+        this.kafkaValueFormat = data().deepCopy(fields()[10].schema(), other.kafkaValueFormat);
+        fieldSetFlags()[10] = true;
+      }
+      if (isValidValue(fields()[11], other.batchSize)) {
+        this.batchSize = data().deepCopy(fields()[11].schema(), other.batchSize);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.lingerMs)) {
+        this.lingerMs = data().deepCopy(fields()[12].schema(), other.lingerMs);
+        fieldSetFlags()[12] = true;
+      }
     }
 
     /** Gets the value of the 'kafkaServers' field */
@@ -600,6 +684,79 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
       return this;
     }
 
+    /** Gets the value of the 'kafkaValueFormat' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat getKafkaValueFormat() {
+      return kafkaValueFormat;
+    }
+    
+    /** Sets the value of the 'kafkaValueFormat' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setKafkaValueFormat(org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat value) {
+      validate(fields()[10], value);
+      this.kafkaValueFormat = value;
+      fieldSetFlags()[10] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'kafkaValueFormat' field has been set */
+    public boolean hasKafkaValueFormat() {
+      return fieldSetFlags()[10];
+    }
+    
+    /** Clears the value of the 'kafkaValueFormat' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearKafkaValueFormat() {
+      kafkaValueFormat = null;
+      fieldSetFlags()[10] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'batchSize' field */
+    public java.lang.Integer getBatchSize() {
+      return batchSize;
+    }
+    
+    /** Sets the value of the 'batchSize' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setBatchSize(int value) {
+      validate(fields()[11], value);
+      this.batchSize = value;
+      fieldSetFlags()[11] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'batchSize' field has been set */
+    public boolean hasBatchSize() {
+      return fieldSetFlags()[11];
+    }
+    
+    /** Clears the value of the 'batchSize' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearBatchSize() {
+      fieldSetFlags()[11] = false;
+      return this;
+    }
+
+    /** Gets the value of the 'lingerMs' field */
+    public java.lang.Integer getLingerMs() {
+      return lingerMs;
+    }
+    
+    /** Sets the value of the 'lingerMs' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder setLingerMs(int value) {
+      validate(fields()[12], value);
+      this.lingerMs = value;
+      fieldSetFlags()[12] = true;
+      return this; 
+    }
+    
+    /** Checks whether the 'lingerMs' field has been set */
+    public boolean hasLingerMs() {
+      return fieldSetFlags()[12];
+    }
+    
+    /** Clears the value of the 'lingerMs' field */
+    public org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig.Builder clearLingerMs() {
+      fieldSetFlags()[12] = false;
+      return this;
+    }
+
     @Override
     public KafkaConfig build() {
       try {
@@ -614,6 +771,9 @@ public class KafkaConfig extends org.apache.avro.specific.SpecificRecordBase imp
         record.kafkaCompression = fieldSetFlags()[7] ? this.kafkaCompression : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression) defaultValue(fields()[7]);
         record.kafkaAcknowledgement = fieldSetFlags()[8] ? this.kafkaAcknowledgement : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement) defaultValue(fields()[8]);
         record.retries = fieldSetFlags()[9] ? this.retries : (java.lang.Integer) defaultValue(fields()[9]);
+        record.kafkaValueFormat = fieldSetFlags()[10] ? this.kafkaValueFormat : (org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat) defaultValue(fields()[10]);
+        record.batchSize = fieldSetFlags()[11] ? this.batchSize : (java.lang.Integer) defaultValue(fields()[11]);
+        record.lingerMs = fieldSetFlags()[12] ? this.lingerMs : (java.lang.Integer) defaultValue(fields()[12]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
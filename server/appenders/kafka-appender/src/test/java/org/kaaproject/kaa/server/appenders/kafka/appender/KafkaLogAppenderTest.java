@@ -16,6 +16,12 @@
 
 package org.kaaproject.kaa.server.appenders.kafka.appender;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.junit.Assert;
@@ -23,6 +29,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogHeaderStructureDto;
@@ -33,6 +40,8 @@ import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaAcknowledgement
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaCompression;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaConfig;
 import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaServer;
+import org.kaaproject.kaa.server.appenders.kafka.config.gen.KafkaValueFormat;
+import org.kaaproject.kaa.server.common.log.shared.appender.BinaryLogEvent;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
@@ -40,7 +49,10 @@ import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -114,6 +126,9 @@ public class KafkaLogAppenderTest {
     configuration.setExecutorThreadPoolSize(10);
     configuration.setPartitionCount(1);
     configuration.setUseDefaultPartitioner(true);
+    configuration.setKafkaValueFormat(KafkaValueFormat.JSON);
+    configuration.setBatchSize(16384);
+    configuration.setLingerMs(5);
 
     AvroByteArrayConverter<KafkaConfig> converter = new AvroByteArrayConverter<>(KafkaConfig.class);
     byte[] rawConfiguration = converter.toByteArray(configuration);
@@ -149,6 +164,52 @@ public class KafkaLogAppenderTest {
     Assert.assertEquals(20, callback.getSuccessCount());
   }
 
+  @Test
+  public void formKafkaBinaryTest() throws IOException {
+    byte[] data = logDataConverter.toByteArray(new LogData(Level.INFO, "test"));
+    BinaryLogEvent event = new BinaryLogEvent(data,
+        new GenericAvroConverter<GenericRecord>(LogData.getClassSchema()));
+    long fingerprint = SchemaNormalization.parsingFingerprint64(LogData.getClassSchema());
+
+    byte[] value = KafkaLogEventDao.formKafkaBinary(event, fingerprint);
+
+    ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+    Assert.assertEquals((byte) 0xC3, buffer.get());
+    Assert.assertEquals((byte) 0x01, buffer.get());
+    Assert.assertEquals(fingerprint, buffer.getLong());
+    byte[] payload = new byte[buffer.remaining()];
+    buffer.get(payload);
+    Assert.assertArrayEquals(data, payload);
+  }
+
+  @Test
+  public void decodeConfigurationWithoutValueFormatAndBatchingTest() throws IOException {
+    List<Schema.Field> fields = new ArrayList<>();
+    for (Schema.Field field : KafkaConfig.getClassSchema().getFields()) {
+      if (field.name().equals("kafkaValueFormat")) {
+        break;
+      }
+      fields.add(new Schema.Field(field.name(), field.schema(), field.doc(),
+          field.defaultValue()));
+    }
+    Schema legacySchema = Schema.createRecord(KafkaConfig.getClassSchema().getName(), null,
+        KafkaConfig.getClassSchema().getNamespace(), false);
+    legacySchema.setFields(fields);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new SpecificDatumWriter<KafkaConfig>(legacySchema).write(configuration, encoder);
+    encoder.flush();
+
+    KafkaConfig decoded = new AvroByteArrayConverter<>(KafkaConfig.class)
+        .fromByteArray(out.toByteArray());
+
+    Assert.assertEquals(TOPIC_NAME, decoded.getTopic());
+    Assert.assertEquals(configuration.getRetries(), decoded.getRetries());
+    Assert.assertEquals(KafkaValueFormat.JSON, decoded.getKafkaValueFormat());
+    Assert.assertEquals(16384, decoded.getBatchSize().intValue());
+    Assert.assertEquals(0, decoded.getLingerMs().intValue());
+  }
+
   class DeliveryCallback implements LogDeliveryCallback {
 
     private AtomicInteger successCount = new AtomicInteger();
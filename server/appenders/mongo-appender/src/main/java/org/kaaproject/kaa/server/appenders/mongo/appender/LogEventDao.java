@@ -28,6 +28,8 @@ public interface LogEventDao {
   List<LogEvent> save(List<LogEventDto> logEventDtos, ProfileInfo clientProfile,
                       ProfileInfo serverProfile, String collectionName);
 
+  void save(List<LogEvent> logEvents, String collectionName);
+
   void removeAll(String collectionName);
 
   void close();
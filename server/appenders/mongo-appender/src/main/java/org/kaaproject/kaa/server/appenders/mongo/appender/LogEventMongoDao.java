@@ -124,6 +124,12 @@ public class LogEventMongoDao implements LogEventDao {
     return logEvents;
   }
 
+  @Override
+  public void save(List<LogEvent> logEvents, String collectionName) {
+    LOG.debug("Saving {} log events", logEvents.size());
+    mongoTemplate.insert(logEvents, collectionName);
+  }
+
   @Override
   public void removeAll(String collectionName) {
     LOG.debug("Remove all documents from [{}] collection.", collectionName);
@@ -24,6 +24,7 @@ import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
 import org.kaaproject.kaa.server.appenders.mongo.config.gen.MongoDbConfig;
 import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.BatchedLogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.ProfileInfo;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 public class MongoDbLogAppender extends AbstractLogAppender<MongoDbConfig> {
@@ -91,6 +93,54 @@ public class MongoDbLogAppender extends AbstractLogAppender<MongoDbConfig> {
     }
   }
 
+  @Override
+  protected void appendBatch(List<BatchedLogEventPack> batch) {
+    if (closed) {
+      LOG.info("Attempted to append to closed appender named [{}].", getName());
+      batch.forEach(entry -> entry.getCallback().onInternalError());
+      return;
+    }
+    List<LogEvent> logEvents = new ArrayList<>();
+    List<LogDeliveryCallback> callbacks = new ArrayList<>(batch.size());
+    for (BatchedLogEventPack entry : batch) {
+      LogEventPack logEventPack = entry.getLogEventPack();
+      ProfileInfo clientProfile = (this.includeClientProfile)
+          ? logEventPack.getClientProfile() : null;
+      ProfileInfo serverProfile = (this.includeServerProfile)
+          ? logEventPack.getServerProfile() : null;
+      try {
+        for (LogEventDto dto : generateLogEvent(logEventPack, entry.getHeader())) {
+          logEvents.add(new LogEvent(dto, clientProfile, serverProfile));
+        }
+        callbacks.add(entry.getCallback());
+      } catch (Exception ex) {
+        LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed "
+            + "due to internal error", getName()), ex);
+        entry.getCallback().onInternalError();
+      }
+    }
+    try {
+      if (!logEvents.isEmpty()) {
+        LOG.debug("[{}] saving {} objects of {} log event packs",
+            collectionName, logEvents.size(), callbacks.size());
+        logEventDao.save(logEvents, collectionName);
+      }
+      callbacks.forEach(LogDeliveryCallback::onSuccess);
+    } catch (MongoSocketException ex) {
+      LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed "
+          + "due to network error", getName()), ex);
+      callbacks.forEach(LogDeliveryCallback::onConnectionError);
+    } catch (MongoInternalException | MongoServerException ex) {
+      LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed "
+          + "due to remote error", getName()), ex);
+      callbacks.forEach(LogDeliveryCallback::onRemoteError);
+    } catch (Exception ex) {
+      LOG.error(MessageFormat.format("[{0}] Attempted to append logs failed "
+          + "due to internal error", getName()), ex);
+      callbacks.forEach(LogDeliveryCallback::onInternalError);
+    }
+  }
+
   @Override
   protected void initFromConfiguration(LogAppenderDto appender, MongoDbConfig configuration) {
     LOG.debug("Initializing new instance of MongoDB log appender");
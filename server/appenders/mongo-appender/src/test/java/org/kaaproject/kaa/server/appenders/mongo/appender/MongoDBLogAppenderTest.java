@@ -43,6 +43,7 @@ import org.kaaproject.kaa.server.common.core.algorithms.generation.DefaultRecord
 import org.kaaproject.kaa.server.common.core.configuration.RawData;
 import org.kaaproject.kaa.server.common.core.configuration.RawDataFactory;
 import org.kaaproject.kaa.server.common.core.schema.RawSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.BatchedLogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
@@ -248,6 +249,39 @@ public class MongoDBLogAppenderTest {
     Assert.assertEquals(3, MongoDBTestRunner.getDB().getCollection(collectionName).count());
   }
 
+  @Test
+  public void doAppendBatchTest() throws IOException {
+    GenericAvroConverter<BasicEndpointProfile> converter = new GenericAvroConverter<BasicEndpointProfile>(BasicEndpointProfile.SCHEMA$);
+    BasicEndpointProfile theLog = new BasicEndpointProfile("test");
+    LogSchemaDto schemaDto = new LogSchemaDto();
+    LogSchema schema = new LogSchema(schemaDto, BasicEndpointProfile.SCHEMA$.toString());
+
+    List<BatchedLogEventPack> batch = new ArrayList<>();
+    List<TestLogDeliveryCallback> callbacks = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      List<LogEvent> events = new ArrayList<>();
+      for (int j = 0; j < 3; j++) {
+        LogEvent event = new LogEvent();
+        event.setLogData(converter.encode(theLog));
+        events.add(event);
+      }
+      EndpointProfileDataDto profileDto = new EndpointProfileDataDto(Integer.toString(i), ENDPOINT_KEY + i, 1, "", 0, null);
+      BaseLogEventPack logEventPack = new BaseLogEventPack(profileDto, DATE_CREATED, schema.getVersion(), events);
+      logEventPack.setLogSchema(schema);
+      TestLogDeliveryCallback callback = new TestLogDeliveryCallback();
+      callbacks.add(callback);
+      batch.add(new BatchedLogEventPack(logEventPack, callback));
+    }
+
+    logAppender.doAppendBatch(batch);
+
+    for (TestLogDeliveryCallback callback : callbacks) {
+      Assert.assertTrue(callback.success);
+    }
+    String collectionName = (String) ReflectionTestUtils.getField(logAppender, "collectionName");
+    Assert.assertEquals(6, MongoDBTestRunner.getDB().getCollection(collectionName).count());
+  }
+
   @Test
   public void doAppendWithServerProfileTest() throws Exception {
     // Reinitilize the log appender to include server profile data
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.rest.appender;
+
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Collects log event packs into batches. A batch is handed over to the sender
+ * once it holds at least maxBatchSize records or maxBatchDelay milliseconds
+ * after its first pack was added. Packs are never split between batches.
+ */
+class LogEventBatcher {
+
+  private final int maxBatchSize;
+  private final long maxBatchDelay;
+  private final ScheduledExecutorService scheduler;
+  private final Consumer<List<PendingPack>> sender;
+
+  private List<PendingPack> pending = new ArrayList<>();
+  private int pendingRecords;
+  private ScheduledFuture<?> flushTask;
+
+  /**
+   * Instantiates a new log event batcher.
+   *
+   * @param maxBatchSize  the number of records which triggers a flush
+   * @param maxBatchDelay the max time in milliseconds a pack waits for a flush,
+   *                      packs are sent immediately if not positive
+   * @param scheduler     the scheduler of delayed flushes
+   * @param sender        the sender of flushed batches
+   */
+  LogEventBatcher(int maxBatchSize, long maxBatchDelay, ScheduledExecutorService scheduler,
+                  Consumer<List<PendingPack>> sender) {
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelay = maxBatchDelay;
+    this.scheduler = scheduler;
+    this.sender = sender;
+  }
+
+  /**
+   * Adds the pack to the current batch.
+   *
+   * @param pack the pack
+   */
+  void add(PendingPack pack) {
+    List<PendingPack> batch = null;
+    synchronized (this) {
+      pending.add(pack);
+      pendingRecords += pack.getRecords().size();
+      if (pendingRecords >= maxBatchSize || maxBatchDelay <= 0) {
+        batch = takePending();
+      } else if (flushTask == null) {
+        flushTask = scheduler.schedule(this::flush, maxBatchDelay, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (batch != null) {
+      sender.accept(batch);
+    }
+  }
+
+  /**
+   * Sends the current batch, if any.
+   */
+  void flush() {
+    List<PendingPack> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      sender.accept(batch);
+    }
+  }
+
+  private List<PendingPack> takePending() {
+    List<PendingPack> batch = pending;
+    pending = new ArrayList<>();
+    pendingRecords = 0;
+    if (flushTask != null) {
+      flushTask.cancel(false);
+      flushTask = null;
+    }
+    return batch;
+  }
+
+  /**
+   * Request bodies of the events of one log event pack and the callback of
+   * the pack.
+   */
+  static class PendingPack {
+
+    private final List<String> records;
+    private final LogDeliveryCallback callback;
+
+    PendingPack(List<String> records, LogDeliveryCallback callback) {
+      this.records = records;
+      this.callback = callback;
+    }
+
+    List<String> getRecords() {
+      return records;
+    }
+
+    LogDeliveryCallback getCallback() {
+      return callback;
+    }
+  }
+}
@@ -17,27 +17,27 @@
 package org.kaaproject.kaa.server.appenders.rest.appender;
 
 import org.apache.http.HttpHost;
-import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.conn.ssl.SSLContextBuilder;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
+import org.kaaproject.kaa.server.appenders.rest.appender.LogEventBatcher.PendingPack;
+import org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat;
 import org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType;
 import org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType;
 import org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig;
@@ -48,26 +48,39 @@ import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
 
 public class RestLogAppender extends AbstractLogAppender<RestConfig> {
 
   private static final Logger LOG = LoggerFactory.getLogger(RestLogAppender.class);
 
-  private ExecutorService executor;
-  private CloseableHttpClient client;
+  private static final ContentType NDJSON = ContentType.create("application/x-ndjson", "UTF-8");
+
+  private ScheduledExecutorService scheduler;
+  private CloseableHttpAsyncClient client;
+  private LogEventBatcher batcher;
   private HttpHost target;
   private URI targetUri;
   private RestConfig configuration;
-  private boolean closed = false;
+  private volatile boolean closed = false;
 
   public RestLogAppender() {
     super(RestConfig.class);
@@ -76,10 +89,22 @@ public class RestLogAppender extends AbstractLogAppender<RestConfig> {
   @Override
   protected void initFromConfiguration(LogAppenderDto appender, RestConfig configuration) {
     this.configuration = configuration;
-    this.executor = Executors.newFixedThreadPool(configuration.getConnectionPoolSize());
+    ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+    scheduler.setRemoveOnCancelPolicy(true);
+    this.scheduler = scheduler;
     target = new HttpHost(configuration.getHost(),
         configuration.getPort(), configuration.getSsl() ? "https" : "http");
-    HttpClientBuilder builder = HttpClients.custom();
+    try {
+      targetUri = new URIBuilder()
+          .setHost(target.getHostName())
+          .setPort(target.getPort())
+          .setScheme(target.getSchemeName())
+          .setPath(configuration.getPath())
+          .build();
+    } catch (URISyntaxException ex) {
+      LOG.error("[{}] Failed to build request URI", getName(), ex);
+    }
+    HttpAsyncClientBuilder builder = HttpAsyncClients.custom();
     if (configuration.getUsername() != null && configuration.getPassword() != null) {
       LOG.info("Adding basic auth credentials provider");
       CredentialsProvider credsProvider = new BasicCredentialsProvider();
@@ -93,17 +118,19 @@ public class RestLogAppender extends AbstractLogAppender<RestConfig> {
       SSLContextBuilder sslBuilder = new SSLContextBuilder();
       try {
         sslBuilder.loadTrustMaterial(null, new TrustSelfSignedStrategy());
-        SSLConnectionSocketFactory sslsf = new SSLConnectionSocketFactory(sslBuilder.build());
-        builder.setSSLSocketFactory(sslsf);
+        builder.setSSLContext(sslBuilder.build());
       } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException ex) {
         LOG.error("Failed to init socket factory {}", ex.getMessage(), ex);
       }
     }
-    PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
-    cm.setDefaultMaxPerRoute(configuration.getConnectionPoolSize());
-    cm.setMaxTotal(configuration.getConnectionPoolSize());
-    builder.setConnectionManager(cm);
+    builder.setMaxConnPerRoute(configuration.getConnectionPoolSize());
+    builder.setMaxConnTotal(configuration.getConnectionPoolSize());
     this.client = builder.build();
+    this.client.start();
+    if (configuration.getBatchFormat() != BatchFormat.NONE) {
+      this.batcher = new LogEventBatcher(configuration.getMaxBatchSize(),
+          configuration.getMaxBatchDelay(), scheduler, this::sendBatch);
+    }
   }
 
   @Override
@@ -112,72 +139,128 @@ public class RestLogAppender extends AbstractLogAppender<RestConfig> {
     if (closed) {
       LOG.warn("Attempt to append data to already stopped appender");
       listener.onInternalError();
+      return;
     }
     if (targetUri == null) {
-      try {
-        targetUri = new URIBuilder()
-            .setHost(target.getHostName())
-            .setPort(target.getPort())
-            .setScheme(target.getSchemeName())
-            .setPath(configuration.getPath())
-            .build();
-      } catch (URISyntaxException ex) {
-        LOG.warn("[{}] failed to build request URI", this.getApplicationToken(), ex);
-        listener.onInternalError();
-      }
+      LOG.warn("[{}] Request URI is not configured", getName());
+      listener.onInternalError();
+      return;
     }
     LOG.trace("[{}] appending {} logs to rest endpoint",
         this.getApplicationToken(), logEventPack.getEvents().size());
-    final RestConfig configuration = this.configuration;
+    List<String> records = new ArrayList<>(logEventPack.getEvents().size());
     try {
-      for (final LogEventDto dto : generateLogEvent(logEventPack, header)) {
-        executor.submit(new Runnable() {
-
-          @Override
-          public void run() {
-            try {
-              LOG.trace("[{}] appending {} to rest endpoint",
-                  RestLogAppender.this.getApplicationToken(), dto);
-              final HttpRequest request = createRequest(configuration, dto);
-              LOG.trace("[{}] executing {}",
-                  RestLogAppender.this.getApplicationToken(), request.getRequestLine());
-
-              CloseableHttpResponse response = client.execute(target, request);
-              try {
-                int responseCode = response.getStatusLine().getStatusCode();
-                LOG.trace("[{}] received {} response code",
-                    RestLogAppender.this.getApplicationToken(), response);
-                if (responseCode >= 200 && responseCode < 400) {
-                  LOG.trace("[{}] logs appended successfully", getName());
-                  listener.onSuccess();
-                } else {
-                  LOG.warn("[{}] bad response code {}", getName(), responseCode);
-                  listener.onRemoteError();
-                }
-              } finally {
-                response.close();
-              }
-            } catch (IOException ex) {
-              LOG.error("[{}] Failed to send log event.", getName(), ex);
-              listener.onConnectionError();
-            } catch (Exception ex) {
-              LOG.error("[{}] Failed to send log event.", getName(), ex);
-              listener.onInternalError();
-            }
-          }
-        });
+      for (LogEventDto dto : generateLogEvent(logEventPack, header)) {
+        records.add(buildRequestBody(configuration, dto));
       }
     } catch (IOException ex) {
       LOG.error("[{}] Failed to send log events.", getName(), ex);
       listener.onInternalError();
+      return;
+    }
+    if (records.isEmpty()) {
+      listener.onSuccess();
+    } else if (batcher != null) {
+      batcher.add(new PendingPack(records, listener));
+    } else {
+      LogDeliveryCallback packCallback = new PackDeliveryCallback(listener, records.size());
+      ContentType contentType = buildContentType(configuration);
+      for (String record : records) {
+        send(encode(record), contentType, Collections.singletonList(packCallback), 0);
+      }
+    }
+  }
+
+  private void sendBatch(List<PendingPack> packs) {
+    List<LogDeliveryCallback> callbacks = new ArrayList<>(packs.size());
+    List<String> records = new ArrayList<>();
+    for (PendingPack pack : packs) {
+      callbacks.add(pack.getCallback());
+      records.addAll(pack.getRecords());
+    }
+    LOG.trace("[{}] sending batch of {} logs from {} packs",
+        getName(), records.size(), packs.size());
+    if (configuration.getBatchFormat() == BatchFormat.NDJSON) {
+      send(encode(buildNdjsonBody(records)), NDJSON, callbacks, 0);
+    } else {
+      send(encode(buildJsonArrayBody(records)), ContentType.APPLICATION_JSON, callbacks, 0);
+    }
+  }
+
+  private void send(final byte[] body, final ContentType contentType,
+                    final List<LogDeliveryCallback> callbacks, final int attempt) {
+    HttpEntityEnclosingRequestBase request = createRequest(configuration, body, contentType);
+    LOG.trace("[{}] executing {}", getApplicationToken(), request.getRequestLine());
+    try {
+      client.execute(target, request, new FutureCallback<HttpResponse>() {
+
+        @Override
+        public void completed(HttpResponse response) {
+          int responseCode = response.getStatusLine().getStatusCode();
+          LOG.trace("[{}] received {} response code", getApplicationToken(), responseCode);
+          if (responseCode >= 200 && responseCode < 400) {
+            LOG.trace("[{}] logs appended successfully", getName());
+            notifyCallbacks(callbacks, LogDeliveryCallback::onSuccess);
+          } else if (isRetriable(responseCode)) {
+            LOG.warn("[{}] bad response code {}, attempt {}", getName(), responseCode, attempt);
+            retry(body, contentType, callbacks, attempt, LogDeliveryCallback::onRemoteError);
+          } else {
+            LOG.warn("[{}] bad response code {}", getName(), responseCode);
+            notifyCallbacks(callbacks, LogDeliveryCallback::onRemoteError);
+          }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+          LOG.warn("[{}] Failed to send log events, attempt {}.", getName(), attempt, ex);
+          retry(body, contentType, callbacks, attempt, LogDeliveryCallback::onConnectionError);
+        }
+
+        @Override
+        public void cancelled() {
+          LOG.warn("[{}] Sending of log events was cancelled.", getName());
+          notifyCallbacks(callbacks, LogDeliveryCallback::onInternalError);
+        }
+      });
+    } catch (RuntimeException ex) {
+      LOG.error("[{}] Failed to send log events.", getName(), ex);
+      notifyCallbacks(callbacks, LogDeliveryCallback::onInternalError);
+    }
+  }
+
+  private void retry(final byte[] body, final ContentType contentType,
+                     final List<LogDeliveryCallback> callbacks, final int attempt,
+                     Consumer<LogDeliveryCallback> onFailure) {
+    if (closed || attempt >= configuration.getMaxRetries()) {
+      notifyCallbacks(callbacks, onFailure);
+      return;
+    }
+    long backoff = (long) configuration.getRetryBackoff() << Math.min(attempt, 16);
+    try {
+      scheduler.schedule(() -> send(body, contentType, callbacks, attempt + 1),
+          backoff, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      notifyCallbacks(callbacks, onFailure);
+    }
+  }
+
+  private static boolean isRetriable(int responseCode) {
+    return responseCode == 429 || responseCode >= 500;
+  }
+
+  private static void notifyCallbacks(List<LogDeliveryCallback> callbacks,
+                                      Consumer<LogDeliveryCallback> event) {
+    for (LogDeliveryCallback callback : callbacks) {
+      event.accept(callback);
     }
   }
 
-  private HttpRequest createRequest(RestConfig configuration, LogEventDto dto)
-      throws URISyntaxException {
-    String body = buildRequestBody(configuration, dto);
-    ContentType contentType = buildContentType(configuration);
-    StringEntity entity = new StringEntity(body, contentType);
+  private HttpEntityEnclosingRequestBase createRequest(RestConfig configuration, byte[] body,
+                                                       ContentType contentType) {
+    ByteArrayEntity entity = new ByteArrayEntity(body, contentType);
+    if (configuration.getGzip()) {
+      entity.setContentEncoding("gzip");
+    }
     final HttpEntityEnclosingRequestBase request;
 
     if (configuration.getMethod() == MethodType.POST) {
@@ -189,6 +272,20 @@ public class RestLogAppender extends AbstractLogAppender<RestConfig> {
     return request;
   }
 
+  private byte[] encode(String body) {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    if (!configuration.getGzip()) {
+      return bytes;
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException ex) {
+      throw new IllegalStateException("Failed to compress request body", ex);
+    }
+    return out.toByteArray();
+  }
+
   private ContentType buildContentType(RestConfig configuration) {
     ContentType contentType;
     if (configuration.getMimeType() == RequestType.TEXT) {
@@ -212,15 +309,82 @@ public class RestLogAppender extends AbstractLogAppender<RestConfig> {
     return body;
   }
 
+  static String buildJsonArrayBody(List<String> records) {
+    StringBuilder sb = new StringBuilder();
+    sb.append('[');
+    for (int i = 0; i < records.size(); i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(records.get(i));
+    }
+    return sb.append(']').toString();
+  }
+
+  static String buildNdjsonBody(List<String> records) {
+    StringBuilder sb = new StringBuilder();
+    for (String record : records) {
+      sb.append(record).append('\n');
+    }
+    return sb.toString();
+  }
+
   @Override
   public void close() {
     closed = true;
+    if (batcher != null) {
+      batcher.flush();
+    }
     try {
+      scheduler.shutdown();
+      scheduler.awaitTermination(5, TimeUnit.SECONDS);
       client.close();
-      executor.shutdown();
-      executor.awaitTermination(5, TimeUnit.SECONDS);
     } catch (IOException | InterruptedException ex) {
       LOG.error("Failed to close appender: {}", ex.getMessage(), ex);
     }
   }
+
+  /**
+   * Reports the result of a pack sent as one request per log event: success
+   * once all requests succeed, or the first failure.
+   */
+  private static class PackDeliveryCallback implements LogDeliveryCallback {
+
+    private final LogDeliveryCallback delegate;
+    private final AtomicInteger remaining;
+    private final AtomicBoolean reported = new AtomicBoolean();
+
+    PackDeliveryCallback(LogDeliveryCallback delegate, int requestCount) {
+      this.delegate = delegate;
+      this.remaining = new AtomicInteger(requestCount);
+    }
+
+    @Override
+    public void onSuccess() {
+      if (remaining.decrementAndGet() == 0 && reported.compareAndSet(false, true)) {
+        delegate.onSuccess();
+      }
+    }
+
+    @Override
+    public void onInternalError() {
+      if (reported.compareAndSet(false, true)) {
+        delegate.onInternalError();
+      }
+    }
+
+    @Override
+    public void onConnectionError() {
+      if (reported.compareAndSet(false, true)) {
+        delegate.onConnectionError();
+      }
+    }
+
+    @Override
+    public void onRemoteError() {
+      if (reported.compareAndSet(false, true)) {
+        delegate.onRemoteError();
+      }
+    }
+  }
 }
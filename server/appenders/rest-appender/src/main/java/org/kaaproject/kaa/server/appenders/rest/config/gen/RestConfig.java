@@ -8,7 +8,7 @@ package org.kaaproject.kaa.server.appenders.rest.config.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class RestConfig extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RestConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.rest.config.gen\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"by_default\":10000},{\"name\":\"ssl\",\"type\":\"boolean\",\"displayName\":\"Use SSL\",\"by_default\":\"false\"},{\"name\":\"verifySslCert\",\"type\":\"boolean\",\"displayName\":\"Validate SSL Certificate\",\"by_default\":\"false\"},{\"name\":\"username\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Username\"},{\"name\":\"password\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Password\",\"inputType\":\"password\"},{\"name\":\"connectionPoolSize\",\"type\":\"int\",\"displayName\":\"Thread/connection pool size\",\"by_default\":1},{\"name\":\"header\",\"type\":\"boolean\",\"displayName\":\"Include Kaa header\",\"by_default\":\"false\"},{\"name\":\"path\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Relative URI path\"},{\"name\":\"method\",\"type\":{\"type\":\"enum\",\"name\":\"MethodType\",\"symbols\":[\"PUT\",\"POST\"]},\"displayName\":\"Method\"},{\"name\":\"mimeType\",\"type\":{\"type\":\"enum\",\"name\":\"RequestType\",\"symbols\":[\"TEXT\",\"JSON\"]},\"displayName\":\"Request mime type\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"RestConfig\",\"namespace\":\"org.kaaproject.kaa.server.appenders.rest.config.gen\",\"fields\":[{\"name\":\"host\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Host\",\"by_default\":\"localhost\"},{\"name\":\"port\",\"type\":\"int\",\"displayName\":\"Port\",\"by_default\":10000},{\"name\":\"ssl\",\"type\":\"boolean\",\"displayName\":\"Use SSL\",\"by_default\":\"false\"},{\"name\":\"verifySslCert\",\"type\":\"boolean\",\"displayName\":\"Validate SSL Certificate\",\"by_default\":\"false\"},{\"name\":\"username\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Username\"},{\"name\":\"password\",\"type\":[{\"type\":\"string\",\"avro.java.string\":\"String\"},\"null\"],\"displayName\":\"Password\",\"inputType\":\"password\"},{\"name\":\"connectionPoolSize\",\"type\":\"int\",\"displayName\":\"Thread/connection pool size\",\"by_default\":1},{\"name\":\"header\",\"type\":\"boolean\",\"displayName\":\"Include Kaa header\",\"by_default\":\"false\"},{\"name\":\"path\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"},\"displayName\":\"Relative URI path\"},{\"name\":\"method\",\"type\":{\"type\":\"enum\",\"name\":\"MethodType\",\"symbols\":[\"PUT\",\"POST\"]},\"displayName\":\"Method\"},{\"name\":\"mimeType\",\"type\":{\"type\":\"enum\",\"name\":\"RequestType\",\"symbols\":[\"TEXT\",\"JSON\"]},\"displayName\":\"Request mime type\"},{\"name\":\"batchFormat\",\"type\":{\"type\":\"enum\",\"name\":\"BatchFormat\",\"symbols\":[\"NONE\",\"JSON_ARRAY\",\"NDJSON\"]},\"default\":\"NONE\",\"displayName\":\"Batch request body\",\"by_default\":\"NONE\"},{\"name\":\"maxBatchSize\",\"type\":\"int\",\"default\":500,\"displayName\":\"Max records per batch request\",\"by_default\":500},{\"name\":\"maxBatchDelay\",\"type\":\"int\",\"default\":0,\"displayName\":\"Max batch delay (ms)\",\"by_default\":0},{\"name\":\"gzip\",\"type\":\"boolean\",\"default\":false,\"displayName\":\"Gzip request body\",\"by_default\":\"false\"},{\"name\":\"maxRetries\",\"type\":\"int\",\"default\":0,\"displayName\":\"Max retries\",\"by_default\":3},{\"name\":\"retryBackoff\",\"type\":\"int\",\"default\":1000,\"displayName\":\"Initial retry backoff (ms)\",\"by_default\":1000}]}");
   private java.lang.String host;
   private int port;
   private boolean ssl;
@@ -20,6 +20,12 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
   private java.lang.String path;
   private org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType method;
   private org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType mimeType;
+  private org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat batchFormat;
+  private int maxBatchSize;
+  private int maxBatchDelay;
+  private boolean gzip;
+  private int maxRetries;
+  private int retryBackoff;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -32,7 +38,7 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
   /**
    * All-args constructor.
    */
-  public RestConfig(java.lang.String host, java.lang.Integer port, java.lang.Boolean ssl, java.lang.Boolean verifySslCert, java.lang.String username, java.lang.String password, java.lang.Integer connectionPoolSize, java.lang.Boolean header, java.lang.String path, org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType method, org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType mimeType) {
+  public RestConfig(java.lang.String host, java.lang.Integer port, java.lang.Boolean ssl, java.lang.Boolean verifySslCert, java.lang.String username, java.lang.String password, java.lang.Integer connectionPoolSize, java.lang.Boolean header, java.lang.String path, org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType method, org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType mimeType, org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat batchFormat, java.lang.Integer maxBatchSize, java.lang.Integer maxBatchDelay, java.lang.Boolean gzip, java.lang.Integer maxRetries, java.lang.Integer retryBackoff) {
     this.host = host;
     this.port = port;
     this.ssl = ssl;
@@ -44,6 +50,12 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
     this.path = path;
     this.method = method;
     this.mimeType = mimeType;
+    this.batchFormat = batchFormat;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelay = maxBatchDelay;
+    this.gzip = gzip;
+    this.maxRetries = maxRetries;
+    this.retryBackoff = retryBackoff;
   }
 
   public static org.apache.avro.Schema getClassSchema() {
@@ -100,6 +112,18 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
         return method;
       case 10:
         return mimeType;
+      case 11:
+        return batchFormat;
+      case 12:
+        return maxBatchSize;
+      case 13:
+        return maxBatchDelay;
+      case 14:
+        return gzip;
+      case 15:
+        return maxRetries;
+      case 16:
+        return retryBackoff;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -142,6 +166,24 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
       case 10:
         mimeType = (org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType) value$;
         break;
+      case 11:
+        batchFormat = (org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat) value$;
+        break;
+      case 12:
+        maxBatchSize = (java.lang.Integer) value$;
+        break;
+      case 13:
+        maxBatchDelay = (java.lang.Integer) value$;
+        break;
+      case 14:
+        gzip = (java.lang.Boolean) value$;
+        break;
+      case 15:
+        maxRetries = (java.lang.Integer) value$;
+        break;
+      case 16:
+        retryBackoff = (java.lang.Integer) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -323,6 +365,102 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
     this.mimeType = value;
   }
 
+  /**
+   * Gets the value of the 'batchFormat' field.
+   */
+  public org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat getBatchFormat() {
+    return batchFormat;
+  }
+
+  /**
+   * Sets the value of the 'batchFormat' field.
+   *
+   * @param value the value to set.
+   */
+  public void setBatchFormat(org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat value) {
+    this.batchFormat = value;
+  }
+
+  /**
+   * Gets the value of the 'maxBatchSize' field.
+   */
+  public java.lang.Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Sets the value of the 'maxBatchSize' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxBatchSize(java.lang.Integer value) {
+    this.maxBatchSize = value;
+  }
+
+  /**
+   * Gets the value of the 'maxBatchDelay' field.
+   */
+  public java.lang.Integer getMaxBatchDelay() {
+    return maxBatchDelay;
+  }
+
+  /**
+   * Sets the value of the 'maxBatchDelay' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxBatchDelay(java.lang.Integer value) {
+    this.maxBatchDelay = value;
+  }
+
+  /**
+   * Gets the value of the 'gzip' field.
+   */
+  public java.lang.Boolean getGzip() {
+    return gzip;
+  }
+
+  /**
+   * Sets the value of the 'gzip' field.
+   *
+   * @param value the value to set.
+   */
+  public void setGzip(java.lang.Boolean value) {
+    this.gzip = value;
+  }
+
+  /**
+   * Gets the value of the 'maxRetries' field.
+   */
+  public java.lang.Integer getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * Sets the value of the 'maxRetries' field.
+   *
+   * @param value the value to set.
+   */
+  public void setMaxRetries(java.lang.Integer value) {
+    this.maxRetries = value;
+  }
+
+  /**
+   * Gets the value of the 'retryBackoff' field.
+   */
+  public java.lang.Integer getRetryBackoff() {
+    return retryBackoff;
+  }
+
+  /**
+   * Sets the value of the 'retryBackoff' field.
+   *
+   * @param value the value to set.
+   */
+  public void setRetryBackoff(java.lang.Integer value) {
+    this.retryBackoff = value;
+  }
+
   /**
    * RecordBuilder for RestConfig instances.
    */
@@ -340,6 +478,12 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
     private java.lang.String path;
     private org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType method;
     private org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType mimeType;
+    private org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat batchFormat;
+    private int maxBatchSize;
+    private int maxBatchDelay;
+    private boolean gzip;
+    private int maxRetries;
+    private int retryBackoff;
 
     /**
      * Creates a new Builder
@@ -397,6 +541,30 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
         this.mimeType = data().deepCopy(fields()[10].schema(), other.mimeType);
         fieldSetFlags()[10] = true;
       }
+      if (isValidValue(fields()[11], other.batchFormat)) {
+        this.batchFormat = data().deepCopy(fields()[11].schema(), other.batchFormat);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.maxBatchSize)) {
+        this.maxBatchSize = data().deepCopy(fields()[12].schema(), other.maxBatchSize);
+        fieldSetFlags()[12] = true;
+      }
+      if (isValidValue(fields()[13], other.maxBatchDelay)) {
+        this.maxBatchDelay = data().deepCopy(fields()[13].schema(), other.maxBatchDelay);
+        fieldSetFlags()[13] = true;
+      }
+      if (isValidValue(fields()[14], other.gzip)) {
+        this.gzip = data().deepCopy(fields()[14].schema(), other.gzip);
+        fieldSetFlags()[14] = true;
+      }
+      if (isValidValue(fields()[15], other.maxRetries)) {
+        this.maxRetries = data().deepCopy(fields()[15].schema(), other.maxRetries);
+        fieldSetFlags()[15] = true;
+      }
+      if (isValidValue(fields()[16], other.retryBackoff)) {
+        this.retryBackoff = data().deepCopy(fields()[16].schema(), other.retryBackoff);
+        fieldSetFlags()[16] = true;
+      }
     }
 
     /**
@@ -448,6 +616,30 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
         this.mimeType = data().deepCopy(fields()[10].schema(), other.mimeType);
         fieldSetFlags()[10] = true;
       }
+      if (isValidValue(fields()[11], other.batchFormat)) {
+        this.batchFormat = data().deepCopy(fields()[11].schema(), other.batchFormat);
+        fieldSetFlags()[11] = true;
+      }
+      if (isValidValue(fields()[12], other.maxBatchSize)) {
+        this.maxBatchSize = data().deepCopy(fields()[12].schema(), other.maxBatchSize);
+        fieldSetFlags()[12] = true;
+      }
+      if (isValidValue(fields()[13], other.maxBatchDelay)) {
+        this.maxBatchDelay = data().deepCopy(fields()[13].schema(), other.maxBatchDelay);
+        fieldSetFlags()[13] = true;
+      }
+      if (isValidValue(fields()[14], other.gzip)) {
+        this.gzip = data().deepCopy(fields()[14].schema(), other.gzip);
+        fieldSetFlags()[14] = true;
+      }
+      if (isValidValue(fields()[15], other.maxRetries)) {
+        this.maxRetries = data().deepCopy(fields()[15].schema(), other.maxRetries);
+        fieldSetFlags()[15] = true;
+      }
+      if (isValidValue(fields()[16], other.retryBackoff)) {
+        this.retryBackoff = data().deepCopy(fields()[16].schema(), other.retryBackoff);
+        fieldSetFlags()[16] = true;
+      }
     }
 
     /**
@@ -808,6 +1000,199 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
       return this;
     }
 
+    /**
+     * Gets the value of the 'batchFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat getBatchFormat() {
+      return batchFormat;
+    }
+
+    /**
+     * Sets the value of the 'batchFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setBatchFormat(org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat value) {
+      validate(fields()[11], value);
+      this.batchFormat = value;
+      fieldSetFlags()[11] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'batchFormat' field has been set
+     */
+    public boolean hasBatchFormat() {
+      return fieldSetFlags()[11];
+    }
+
+    /**
+     * Clears the value of the 'batchFormat' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearBatchFormat() {
+      batchFormat = null;
+      fieldSetFlags()[11] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'maxBatchSize' field
+     */
+    public java.lang.Integer getMaxBatchSize() {
+      return maxBatchSize;
+    }
+
+    /**
+     * Sets the value of the 'maxBatchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setMaxBatchSize(int value) {
+      validate(fields()[12], value);
+      this.maxBatchSize = value;
+      fieldSetFlags()[12] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxBatchSize' field has been set
+     */
+    public boolean hasMaxBatchSize() {
+      return fieldSetFlags()[12];
+    }
+
+    /**
+     * Clears the value of the 'maxBatchSize' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearMaxBatchSize() {
+      fieldSetFlags()[12] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'maxBatchDelay' field
+     */
+    public java.lang.Integer getMaxBatchDelay() {
+      return maxBatchDelay;
+    }
+
+    /**
+     * Sets the value of the 'maxBatchDelay' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setMaxBatchDelay(int value) {
+      validate(fields()[13], value);
+      this.maxBatchDelay = value;
+      fieldSetFlags()[13] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxBatchDelay' field has been set
+     */
+    public boolean hasMaxBatchDelay() {
+      return fieldSetFlags()[13];
+    }
+
+    /**
+     * Clears the value of the 'maxBatchDelay' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearMaxBatchDelay() {
+      fieldSetFlags()[13] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'gzip' field
+     */
+    public java.lang.Boolean getGzip() {
+      return gzip;
+    }
+
+    /**
+     * Sets the value of the 'gzip' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setGzip(boolean value) {
+      validate(fields()[14], value);
+      this.gzip = value;
+      fieldSetFlags()[14] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'gzip' field has been set
+     */
+    public boolean hasGzip() {
+      return fieldSetFlags()[14];
+    }
+
+    /**
+     * Clears the value of the 'gzip' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearGzip() {
+      fieldSetFlags()[14] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'maxRetries' field
+     */
+    public java.lang.Integer getMaxRetries() {
+      return maxRetries;
+    }
+
+    /**
+     * Sets the value of the 'maxRetries' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setMaxRetries(int value) {
+      validate(fields()[15], value);
+      this.maxRetries = value;
+      fieldSetFlags()[15] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'maxRetries' field has been set
+     */
+    public boolean hasMaxRetries() {
+      return fieldSetFlags()[15];
+    }
+
+    /**
+     * Clears the value of the 'maxRetries' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearMaxRetries() {
+      fieldSetFlags()[15] = false;
+      return this;
+    }
+
+    /**
+     * Gets the value of the 'retryBackoff' field
+     */
+    public java.lang.Integer getRetryBackoff() {
+      return retryBackoff;
+    }
+
+    /**
+     * Sets the value of the 'retryBackoff' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder setRetryBackoff(int value) {
+      validate(fields()[16], value);
+      this.retryBackoff = value;
+      fieldSetFlags()[16] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'retryBackoff' field has been set
+     */
+    public boolean hasRetryBackoff() {
+      return fieldSetFlags()[16];
+    }
+
+    /**
+     * Clears the value of the 'retryBackoff' field
+     */
+    public org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig.Builder clearRetryBackoff() {
+      fieldSetFlags()[16] = false;
+      return this;
+    }
+
     @Override
     public RestConfig build() {
       try {
@@ -823,6 +1208,12 @@ public class RestConfig extends org.apache.avro.specific.SpecificRecordBase impl
         record.path = fieldSetFlags()[8] ? this.path : (java.lang.String) defaultValue(fields()[8]);
         record.method = fieldSetFlags()[9] ? this.method : (org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType) defaultValue(fields()[9]);
         record.mimeType = fieldSetFlags()[10] ? this.mimeType : (org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType) defaultValue(fields()[10]);
+        record.batchFormat = fieldSetFlags()[11] ? this.batchFormat : (org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat) defaultValue(fields()[11]);
+        record.maxBatchSize = fieldSetFlags()[12] ? this.maxBatchSize : (java.lang.Integer) defaultValue(fields()[12]);
+        record.maxBatchDelay = fieldSetFlags()[13] ? this.maxBatchDelay : (java.lang.Integer) defaultValue(fields()[13]);
+        record.gzip = fieldSetFlags()[14] ? this.gzip : (java.lang.Boolean) defaultValue(fields()[14]);
+        record.maxRetries = fieldSetFlags()[15] ? this.maxRetries : (java.lang.Integer) defaultValue(fields()[15]);
+        record.retryBackoff = fieldSetFlags()[16] ? this.retryBackoff : (java.lang.Integer) defaultValue(fields()[16]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
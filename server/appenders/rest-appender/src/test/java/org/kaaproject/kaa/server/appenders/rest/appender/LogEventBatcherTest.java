@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.rest.appender;
+
+import static org.mockito.Mockito.mock;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.appenders.rest.appender.LogEventBatcher.PendingPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class LogEventBatcherTest {
+
+  private ScheduledExecutorService scheduler;
+  private BlockingQueue<List<PendingPack>> sent;
+
+  @Before
+  public void before() {
+    scheduler = new ScheduledThreadPoolExecutor(1);
+    sent = new LinkedBlockingQueue<>();
+  }
+
+  @After
+  public void after() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testFlushOnSize() {
+    LogEventBatcher batcher = new LogEventBatcher(3, 60000, scheduler, sent::add);
+    batcher.add(pack("a", "b"));
+    Assert.assertTrue(sent.isEmpty());
+    batcher.add(pack("c", "d"));
+    Assert.assertEquals(1, sent.size());
+    Assert.assertEquals(2, sent.poll().size());
+  }
+
+  @Test
+  public void testFlushOnDelay() throws Exception {
+    LogEventBatcher batcher = new LogEventBatcher(100, 10, scheduler, sent::add);
+    batcher.add(pack("a"));
+    batcher.add(pack("b"));
+    List<PendingPack> batch = sent.poll(5, TimeUnit.SECONDS);
+    Assert.assertNotNull(batch);
+    Assert.assertEquals(2, batch.size());
+  }
+
+  @Test
+  public void testImmediateFlushWithoutDelay() {
+    LogEventBatcher batcher = new LogEventBatcher(100, 0, scheduler, sent::add);
+    batcher.add(pack("a"));
+    batcher.add(pack("b"));
+    Assert.assertEquals(2, sent.size());
+  }
+
+  @Test
+  public void testRequestBodies() {
+    List<String> records = Arrays.asList("{\"a\":1}", "{\"b\":2}");
+    Assert.assertEquals("[{\"a\":1},{\"b\":2}]", RestLogAppender.buildJsonArrayBody(records));
+    Assert.assertEquals("{\"a\":1}\n{\"b\":2}\n", RestLogAppender.buildNdjsonBody(records));
+  }
+
+  private static PendingPack pack(String... records) {
+    return new PendingPack(Arrays.asList(records), mock(LogDeliveryCallback.class));
+  }
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.appenders.rest.appender;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.common.dto.logs.LogHeaderStructureDto;
+import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
+import org.kaaproject.kaa.server.appenders.rest.config.gen.BatchFormat;
+import org.kaaproject.kaa.server.appenders.rest.config.gen.MethodType;
+import org.kaaproject.kaa.server.appenders.rest.config.gen.RequestType;
+import org.kaaproject.kaa.server.appenders.rest.config.gen.RestConfig;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+public class RestLogAppenderTest {
+
+  private static final String PATH = "/logs";
+  private static final long TIMEOUT_MS = 5000L;
+  private static final Schema LOG_SCHEMA = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"Message\",\"namespace\":\"org.kaaproject.kaa.test\","
+      + "\"fields\":[{\"name\":\"text\",\"type\":\"string\"}]}");
+
+  private HttpServer server;
+  private BlockingQueue<ReceivedRequest> requests;
+  private Queue<Integer> responseCodes;
+  private RestLogAppender appender;
+
+  @Before
+  public void before() throws IOException {
+    requests = new LinkedBlockingQueue<>();
+    responseCodes = new ConcurrentLinkedQueue<>();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(PATH, exchange -> {
+      byte[] body = readFully(exchange.getRequestBody());
+      requests.add(new ReceivedRequest(
+          exchange.getRequestHeaders().getFirst("Content-Encoding"), body));
+      Integer responseCode = responseCodes.poll();
+      exchange.sendResponseHeaders(responseCode != null ? responseCode : 200, -1);
+      exchange.close();
+    });
+    server.start();
+  }
+
+  @After
+  public void after() {
+    if (appender != null) {
+      closeAppender();
+    }
+    server.stop(0);
+  }
+
+  @Test
+  public void testSendsOneRequestPerRecord() throws Exception {
+    appender = createAppender(configuration(BatchFormat.NONE));
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a", "b"), callback);
+
+    callback.await();
+    Assert.assertEquals(new HashSet<>(Arrays.asList("{\"text\":\"a\"}", "{\"text\":\"b\"}")),
+        new HashSet<>(Arrays.asList(nextRequest().getBody(), nextRequest().getBody())));
+    closeAppender();
+    Assert.assertEquals(1, callback.getSuccessCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  @Test
+  public void testReportsFailedPackOnce() throws Exception {
+    responseCodes.addAll(Arrays.asList(500, 500, 500));
+    appender = createAppender(configuration(BatchFormat.NONE));
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a", "b", "c"), callback);
+
+    callback.await();
+    for (int i = 0; i < 3; i++) {
+      nextRequest();
+    }
+    closeAppender();
+    Assert.assertEquals(1, callback.getRemoteErrorCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  @Test
+  public void testNotifiesEachPackOfBatch() throws Exception {
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    configuration.setMaxBatchSize(2);
+    configuration.setMaxBatchDelay(60000);
+    appender = createAppender(configuration);
+    DeliveryCallback first = new DeliveryCallback();
+    DeliveryCallback second = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a"), first);
+    appender.doAppend(logEventPack("b"), second);
+
+    first.await();
+    second.await();
+    Assert.assertEquals("[{\"text\":\"a\"},{\"text\":\"b\"}]", nextRequest().getBody());
+    closeAppender();
+    Assert.assertTrue(requests.isEmpty());
+    Assert.assertEquals(1, first.getSuccessCount());
+    Assert.assertEquals(1, first.getCount());
+    Assert.assertEquals(1, second.getSuccessCount());
+    Assert.assertEquals(1, second.getCount());
+  }
+
+  @Test
+  public void testSendsNdjsonBatch() throws Exception {
+    appender = createAppender(configuration(BatchFormat.NDJSON));
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a", "b"), callback);
+
+    callback.await();
+    Assert.assertEquals("{\"text\":\"a\"}\n{\"text\":\"b\"}\n", nextRequest().getBody());
+    Assert.assertEquals(1, callback.getSuccessCount());
+  }
+
+  @Test
+  public void testRetriesThrottledAndServerErrors() throws Exception {
+    responseCodes.addAll(Arrays.asList(503, 429));
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    configuration.setMaxRetries(2);
+    appender = createAppender(configuration);
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a"), callback);
+
+    callback.await();
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals("[{\"text\":\"a\"}]", nextRequest().getBody());
+    }
+    closeAppender();
+    Assert.assertEquals(1, callback.getSuccessCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  @Test
+  public void testReportsFailureWhenRetriesAreExhausted() throws Exception {
+    responseCodes.addAll(Arrays.asList(500, 500, 500));
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    configuration.setMaxRetries(1);
+    appender = createAppender(configuration);
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a"), callback);
+
+    callback.await();
+    nextRequest();
+    nextRequest();
+    closeAppender();
+    Assert.assertTrue(requests.isEmpty());
+    Assert.assertEquals(1, callback.getRemoteErrorCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  @Test
+  public void testDoesNotRetryClientErrors() throws Exception {
+    responseCodes.add(400);
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    configuration.setMaxRetries(3);
+    appender = createAppender(configuration);
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a"), callback);
+
+    callback.await();
+    nextRequest();
+    closeAppender();
+    Assert.assertTrue(requests.isEmpty());
+    Assert.assertEquals(1, callback.getRemoteErrorCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  @Test
+  public void testCompressesRequestBody() throws Exception {
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    configuration.setGzip(true);
+    appender = createAppender(configuration);
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a", "b"), callback);
+
+    callback.await();
+    ReceivedRequest request = nextRequest();
+    Assert.assertEquals("gzip", request.getContentEncoding());
+    Assert.assertEquals("[{\"text\":\"a\"},{\"text\":\"b\"}]", new String(
+        readFully(new GZIPInputStream(new ByteArrayInputStream(request.getData()))),
+        StandardCharsets.UTF_8));
+    Assert.assertEquals(1, callback.getSuccessCount());
+  }
+
+  @Test
+  public void testUsesPreviousBehaviorForConfigurationWithoutBatchingFields()
+      throws Exception {
+    responseCodes.add(500);
+    RestConfig configuration = configuration(BatchFormat.JSON_ARRAY);
+    Schema legacySchema = legacySchema(RestConfig.getClassSchema(), "batchFormat");
+    GenericRecord legacyConfiguration = new GenericData.Record(legacySchema);
+    for (Schema.Field field : legacySchema.getFields()) {
+      Object value = configuration.get(field.pos());
+      if (value instanceof Enum) {
+        value = new GenericData.EnumSymbol(field.schema(), value.toString());
+      }
+      legacyConfiguration.put(field.name(), value);
+    }
+    appender = new RestLogAppender();
+    appender.init(appenderDto(
+        new GenericAvroConverter<GenericRecord>(legacySchema).encode(legacyConfiguration)));
+    DeliveryCallback callback = new DeliveryCallback();
+
+    appender.doAppend(logEventPack("a", "b"), callback);
+
+    callback.await();
+    Assert.assertEquals(new HashSet<>(Arrays.asList("{\"text\":\"a\"}", "{\"text\":\"b\"}")),
+        new HashSet<>(Arrays.asList(nextRequest().getBody(), nextRequest().getBody())));
+    closeAppender();
+    Assert.assertTrue(requests.isEmpty());
+    Assert.assertEquals(1, callback.getRemoteErrorCount());
+    Assert.assertEquals(1, callback.getCount());
+  }
+
+  private void closeAppender() {
+    appender.close();
+    appender = null;
+  }
+
+  private RestConfig configuration(BatchFormat batchFormat) {
+    RestConfig configuration = new RestConfig();
+    configuration.setHost("localhost");
+    configuration.setPort(server.getAddress().getPort());
+    configuration.setSsl(false);
+    configuration.setVerifySslCert(true);
+    configuration.setConnectionPoolSize(2);
+    configuration.setHeader(false);
+    configuration.setPath(PATH);
+    configuration.setMethod(MethodType.POST);
+    configuration.setMimeType(RequestType.JSON);
+    configuration.setBatchFormat(batchFormat);
+    configuration.setMaxBatchSize(10);
+    configuration.setMaxBatchDelay(0);
+    configuration.setGzip(false);
+    configuration.setMaxRetries(0);
+    configuration.setRetryBackoff(10);
+    return configuration;
+  }
+
+  private RestLogAppender createAppender(RestConfig configuration) throws IOException {
+    RestLogAppender appender = new RestLogAppender();
+    appender.init(appenderDto(
+        new AvroByteArrayConverter<>(RestConfig.class).toByteArray(configuration)));
+    return appender;
+  }
+
+  private static LogAppenderDto appenderDto(byte[] rawConfiguration) {
+    LogAppenderDto appenderDto = new LogAppenderDto();
+    appenderDto.setId("appenderId");
+    appenderDto.setName("rest");
+    appenderDto.setApplicationToken("appToken");
+    appenderDto.setHeaderStructure(Arrays.asList(LogHeaderStructureDto.values()));
+    appenderDto.setRawConfiguration(rawConfiguration);
+    return appenderDto;
+  }
+
+  /**
+   * Creates the record schema without the given field and the fields after it.
+   */
+  private static Schema legacySchema(Schema schema, String firstNewField) {
+    List<Schema.Field> fields = new ArrayList<>();
+    for (Schema.Field field : schema.getFields()) {
+      if (field.name().equals(firstNewField)) {
+        break;
+      }
+      fields.add(new Schema.Field(field.name(), field.schema(), field.doc(),
+          field.defaultValue()));
+    }
+    Schema legacy = Schema.createRecord(schema.getName(), schema.getDoc(),
+        schema.getNamespace(), false);
+    legacy.setFields(fields);
+    return legacy;
+  }
+
+  private static BaseLogEventPack logEventPack(String... texts) throws IOException {
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(LOG_SCHEMA);
+    List<LogEvent> events = new ArrayList<>(texts.length);
+    for (String text : texts) {
+      GenericRecord record = new GenericData.Record(LOG_SCHEMA);
+      record.put("text", text);
+      LogEvent event = new LogEvent();
+      event.setLogData(converter.encode(record));
+      events.add(event);
+    }
+    EndpointProfileDataDto profileDto = new EndpointProfileDataDto(
+        "1", "endpointKeyHash", 1, "", 1, "");
+    BaseLogEventPack logEventPack = new BaseLogEventPack(
+        profileDto, System.currentTimeMillis(), 1, events);
+    LogSchemaDto logSchemaDto = new LogSchemaDto();
+    logSchemaDto.setId("1");
+    logSchemaDto.setApplicationId("1");
+    logSchemaDto.setVersion(1);
+    logEventPack.setLogSchema(new LogSchema(logSchemaDto, LOG_SCHEMA.toString()));
+    return logEventPack;
+  }
+
+  private ReceivedRequest nextRequest() throws InterruptedException {
+    ReceivedRequest request = requests.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull("Request was not received", request);
+    return request;
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1024];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  private static class ReceivedRequest {
+
+    private final String contentEncoding;
+    private final byte[] data;
+
+    ReceivedRequest(String contentEncoding, byte[] data) {
+      this.contentEncoding = contentEncoding;
+      this.data = data;
+    }
+
+    String getContentEncoding() {
+      return contentEncoding;
+    }
+
+    byte[] getData() {
+      return data;
+    }
+
+    String getBody() {
+      return new String(data, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static class DeliveryCallback implements LogDeliveryCallback {
+
+    private final CountDownLatch notified = new CountDownLatch(1);
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger remoteErrorCount = new AtomicInteger();
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public void onSuccess() {
+      successCount.incrementAndGet();
+      notifyResult();
+    }
+
+    @Override
+    public void onInternalError() {
+      notifyResult();
+    }
+
+    @Override
+    public void onConnectionError() {
+      notifyResult();
+    }
+
+    @Override
+    public void onRemoteError() {
+      remoteErrorCount.incrementAndGet();
+      notifyResult();
+    }
+
+    private void notifyResult() {
+      count.incrementAndGet();
+      notified.countDown();
+    }
+
+    void await() throws InterruptedException {
+      Assert.assertTrue("Callback was not notified",
+          notified.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    int getSuccessCount() {
+      return successCount.get();
+    }
+
+    int getRemoteErrorCount() {
+      return remoteErrorCount.get();
+    }
+
+    int getCount() {
+      return count.get();
+    }
+  }
+}
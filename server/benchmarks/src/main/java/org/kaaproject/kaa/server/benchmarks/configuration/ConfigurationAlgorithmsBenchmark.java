@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.configuration;
+
+import org.apache.avro.Schema;
+import org.kaaproject.kaa.server.common.core.algorithms.delta.DefaultDeltaCalculationAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.delta.DeltaCalculationAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.delta.DeltaCalculatorException;
+import org.kaaproject.kaa.server.common.core.algorithms.delta.RawBinaryDelta;
+import org.kaaproject.kaa.server.common.core.algorithms.override.DefaultOverrideAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.override.OverrideAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.override.OverrideException;
+import org.kaaproject.kaa.server.common.core.algorithms.schema.SchemaGenerationAlgorithm;
+import org.kaaproject.kaa.server.common.core.algorithms.schema.SchemaGenerationAlgorithmFactoryImpl;
+import org.kaaproject.kaa.server.common.core.configuration.BaseData;
+import org.kaaproject.kaa.server.common.core.configuration.OverrideData;
+import org.kaaproject.kaa.server.common.core.schema.BaseSchema;
+import org.kaaproject.kaa.server.common.core.schema.DataSchema;
+import org.kaaproject.kaa.server.common.core.schema.OverrideSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures merge of a base configuration with group specific overrides and
+ * calculation of the configuration delta sent to an endpoint.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationAlgorithmsBenchmark {
+
+  private static final String SCHEMA = "configuration/schema.json";
+  private static final String BASE_CONFIGURATION = "configuration/config_weight_0.json";
+  private static final String OVERRIDE_CONFIGURATION_1 = "configuration/config_weight_1.json";
+  private static final String OVERRIDE_CONFIGURATION_2 = "configuration/config_weight_2.json";
+
+  private Schema protocolSchema;
+  private Schema baseSchema;
+  private BaseData baseData;
+  private List<OverrideData> overrides;
+  private BaseData mergedData;
+
+  private static String readResource(String name) throws IOException {
+    try (InputStream input = ConfigurationAlgorithmsBenchmark.class.getClassLoader()
+        .getResourceAsStream(name)) {
+      if (input == null) {
+        throw new IOException("Resource " + name + " not found");
+      }
+      ByteArrayOutputStream output = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        output.write(buffer, 0, read);
+      }
+      return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Generates the schemas and loads the configurations.
+   *
+   * @throws Exception in case of schema generation or merge errors
+   */
+  @Setup
+  public void setUp() throws Exception {
+    SchemaGenerationAlgorithm generator = new SchemaGenerationAlgorithmFactoryImpl()
+        .createSchemaGenerator(new DataSchema(readResource(SCHEMA)));
+    BaseSchema baseDataSchema = generator.getBaseSchema();
+    OverrideSchema overrideSchema = generator.getOverrideSchema();
+
+    baseSchema = new Schema.Parser().parse(baseDataSchema.getRawSchema());
+    protocolSchema = new Schema.Parser().parse(generator.getProtocolSchema().getRawSchema());
+
+    baseData = new BaseData(baseDataSchema, readResource(BASE_CONFIGURATION));
+    overrides = Arrays.asList(
+        new OverrideData(overrideSchema, readResource(OVERRIDE_CONFIGURATION_1)),
+        new OverrideData(overrideSchema, readResource(OVERRIDE_CONFIGURATION_2)));
+    mergedData = override();
+  }
+
+  @Benchmark
+  public BaseData override() throws OverrideException, IOException {
+    OverrideAlgorithm algorithm = new DefaultOverrideAlgorithm();
+    return algorithm.override(baseData, overrides);
+  }
+
+  @Benchmark
+  public RawBinaryDelta calculateDelta() throws DeltaCalculatorException, IOException {
+    DeltaCalculationAlgorithm algorithm = new DefaultDeltaCalculationAlgorithm(
+        protocolSchema, baseSchema);
+    return algorithm.calculate(baseData, mergedData);
+  }
+
+  @Benchmark
+  public RawBinaryDelta calculateResync() throws DeltaCalculatorException, IOException {
+    DeltaCalculationAlgorithm algorithm = new DefaultDeltaCalculationAlgorithm(
+        protocolSchema, baseSchema);
+    return algorithm.calculate(mergedData);
+  }
+}
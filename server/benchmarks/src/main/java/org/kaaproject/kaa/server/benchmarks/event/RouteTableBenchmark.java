@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.event;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.operations.service.event.EventClassFamilyVersion;
+import org.kaaproject.kaa.server.operations.service.event.RouteTable;
+import org.kaaproject.kaa.server.operations.service.event.RouteTableAddress;
+import org.kaaproject.kaa.server.operations.service.event.RouteTableKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures removal of routes from the route table of a user actor when an
+ * operations node leaves the cluster and when a local endpoint disconnects.
+ * The table holds {@code endpointCount * ecfVersionCount} routes spread
+ * evenly over {@code serverCount} remote nodes, plus the routes of a few
+ * local endpoints.
+ *
+ * <p>Removal modifies the table, so it is rebuilt before every invocation and
+ * each invocation is measured as a single shot.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class RouteTableBenchmark {
+
+  private static final String APP_TOKEN = "APP_TOKEN";
+  private static final String ECF_FQN = "org.kaaproject.kaa.benchmark.Ecf";
+  private static final int LOCAL_ENDPOINT_COUNT = 16;
+
+  @Param({"10000"})
+  private int endpointCount;
+
+  @Param({"10"})
+  private int ecfVersionCount;
+
+  @Param({"2", "10"})
+  private int serverCount;
+
+  private RouteTable routeTable;
+  private EndpointObjectHash localEndpoint;
+
+  private static String serverId(int index) {
+    return "server" + index;
+  }
+
+  /**
+   * Fills the route table.
+   */
+  @Setup(Level.Invocation)
+  public void setUp() {
+    routeTable = new RouteTable();
+    RouteTableKey[] keys = new RouteTableKey[ecfVersionCount];
+    for (int i = 0; i < ecfVersionCount; i++) {
+      keys[i] = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF_FQN, i + 1));
+    }
+    for (int i = 0; i < endpointCount; i++) {
+      RouteTableAddress address = new RouteTableAddress(
+          EndpointObjectHash.fromSha1("remote" + i), APP_TOKEN, serverId(i % serverCount));
+      for (RouteTableKey key : keys) {
+        routeTable.add(key, address);
+      }
+    }
+    for (int i = 0; i < LOCAL_ENDPOINT_COUNT; i++) {
+      localEndpoint = EndpointObjectHash.fromSha1("local" + i);
+      RouteTableAddress address = new RouteTableAddress(localEndpoint, APP_TOKEN);
+      for (RouteTableKey key : keys) {
+        routeTable.add(key, address);
+      }
+    }
+  }
+
+  @Benchmark
+  public RouteTable nodeDeparture() {
+    routeTable.clearRemoteServerData(serverId(0));
+    return routeTable;
+  }
+
+  @Benchmark
+  public RouteTableAddress endpointDisconnect() {
+    return routeTable.removeLocal(localEndpoint);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.filter;
+
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.ProfileFilterDto;
+import org.kaaproject.kaa.server.common.Base64Util;
+import org.kaaproject.kaa.server.operations.service.filter.CompiledFilterCache;
+import org.kaaproject.kaa.server.operations.service.filter.DefaultFilterEvaluator;
+import org.kaaproject.kaa.server.operations.service.filter.FilterEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures evaluation of profile filters against an endpoint profile. Parsed
+ * filters and schemas are shared through {@link CompiledFilterCache} as in the
+ * operations server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterEvaluatorBenchmark {
+
+  private static final String PROFILE_SCHEMA = "{\"type\":\"record\",\"name\":\"Profile\","
+      + "\"namespace\":\"org.kaaproject.kaa.schema.sample.profile\",\"fields\":["
+      + "{\"name\":\"model\",\"type\":\"string\"},"
+      + "{\"name\":\"osVersion\",\"type\":\"int\"},"
+      + "{\"name\":\"tags\",\"type\":{\"type\":\"array\",\"items\":\"string\"}}]}";
+
+  private static final String SERVER_PROFILE_SCHEMA = "{\"type\":\"record\","
+      + "\"name\":\"ServerProfile\",\"namespace\":\"org.kaaproject.kaa.schema.sample.profile\","
+      + "\"fields\":[{\"name\":\"region\",\"type\":\"string\"},"
+      + "{\"name\":\"tier\",\"type\":\"int\"}]}";
+
+  private static final String PROFILE_BODY = "{\"model\":\"sensor-x\",\"osVersion\":7,"
+      + "\"tags\":[\"indoor\",\"battery\",\"beta\"]}";
+
+  private static final String SERVER_PROFILE_BODY = "{\"region\":\"eu-west\",\"tier\":2}";
+
+  private static final byte[] ENDPOINT_KEY_HASH = new byte[]{
+      1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+
+  @Param({"keyHash", "clientProfile", "serverProfile"})
+  private String filterType;
+
+  private CompiledFilterCache filterCache;
+  private EndpointProfileDto profile;
+  private ProfileFilterDto filter;
+  private FilterEvaluator evaluator;
+
+  /**
+   * Prepares the endpoint profile, the filter and the initialized evaluator.
+   */
+  @Setup
+  public void setUp() {
+    profile = new EndpointProfileDto();
+    profile.setEndpointKeyHash(ENDPOINT_KEY_HASH);
+    profile.setClientProfileBody(PROFILE_BODY);
+    profile.setServerProfileBody(SERVER_PROFILE_BODY);
+
+    filter = new ProfileFilterDto();
+    filter.setId("1");
+    switch (filterType) {
+      case "clientProfile":
+        filter.setBody("#" + DefaultFilterEvaluator.CLIENT_PROFILE_VARIABLE_NAME
+            + ".model == 'sensor-x' and #" + DefaultFilterEvaluator.CLIENT_PROFILE_VARIABLE_NAME
+            + ".osVersion >= 5 and #" + DefaultFilterEvaluator.CLIENT_PROFILE_VARIABLE_NAME
+            + ".tags.contains('beta')");
+        filter.setEndpointProfileSchemaVersion(1);
+        break;
+      case "serverProfile":
+        filter.setBody("#" + DefaultFilterEvaluator.SERVER_PROFILE_VARIABLE_NAME
+            + ".region == 'eu-west' and #" + DefaultFilterEvaluator.SERVER_PROFILE_VARIABLE_NAME
+            + ".tier > 1");
+        filter.setServerProfileSchemaVersion(1);
+        break;
+      default:
+        filter.setBody("{'" + Base64Util.encode(ENDPOINT_KEY_HASH) + "'}.contains(#"
+            + DefaultFilterEvaluator.EP_KEYHASH_VARIABLE_NAME + ")");
+        break;
+    }
+
+    filterCache = new CompiledFilterCache();
+    evaluator = new DefaultFilterEvaluator(filterCache);
+    evaluator.init(profile, PROFILE_SCHEMA, SERVER_PROFILE_SCHEMA);
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return evaluator.matches(filter);
+  }
+
+  /**
+   * Evaluation for an endpoint seen for the first time, which includes
+   * decoding of the endpoint profiles.
+   */
+  @Benchmark
+  public boolean initAndMatch() {
+    FilterEvaluator newEvaluator = new DefaultFilterEvaluator(filterCache);
+    newEvaluator.init(profile, PROFILE_SCHEMA, SERVER_PROFILE_SCHEMA);
+    return newEvaluator.matches(filter);
+  }
+}
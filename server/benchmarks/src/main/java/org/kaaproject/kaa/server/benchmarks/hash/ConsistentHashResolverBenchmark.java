@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.hash;
+
+import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
+import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
+import org.kaaproject.kaa.server.hash.ConsistentHashResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolution of the operations node responsible for a user.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsistentHashResolverBenchmark {
+
+  private static final int PUBLIC_KEY_SIZE = 294;
+  private static final int USER_COUNT = 1024;
+
+  @Param({"3", "32"})
+  private int nodeCount;
+
+  @Param({"10", "100"})
+  private int replicas;
+
+  private ConsistentHashResolver resolver;
+  private String[] users;
+  private int userIndex;
+
+  /**
+   * Fills the hash circle with nodes and generates user ids.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(0);
+    List<OperationsNodeInfo> nodes = new ArrayList<>(nodeCount);
+    for (int i = 0; i < nodeCount; i++) {
+      byte[] publicKey = new byte[PUBLIC_KEY_SIZE];
+      random.nextBytes(publicKey);
+      ConnectionInfo connectionInfo = new ConnectionInfo("node" + i, 9090,
+          ByteBuffer.wrap(publicKey));
+      nodes.add(new OperationsNodeInfo(connectionInfo, null, System.currentTimeMillis(), null));
+    }
+    resolver = new ConsistentHashResolver(nodes, replicas);
+
+    users = new String[USER_COUNT];
+    for (int i = 0; i < USER_COUNT; i++) {
+      users[i] = "user" + random.nextLong();
+    }
+  }
+
+  @Benchmark
+  public OperationsNodeInfo getNode() {
+    userIndex = (userIndex + 1) % USER_COUNT;
+    return resolver.getNode(users[userIndex]);
+  }
+}
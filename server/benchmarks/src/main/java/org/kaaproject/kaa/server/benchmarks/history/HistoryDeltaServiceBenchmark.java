@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.history;
+
+import org.kaaproject.kaa.common.dto.ChangeDto;
+import org.kaaproject.kaa.common.dto.ChangeType;
+import org.kaaproject.kaa.common.dto.EndpointGroupDto;
+import org.kaaproject.kaa.common.dto.EndpointGroupStateDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.HistoryDto;
+import org.kaaproject.kaa.common.dto.ProfileFilterDto;
+import org.kaaproject.kaa.server.operations.service.cache.CacheService;
+import org.kaaproject.kaa.server.operations.service.cache.ConfigurationIdKey;
+import org.kaaproject.kaa.server.operations.service.delta.HistoryDelta;
+import org.kaaproject.kaa.server.operations.service.filter.FilterService;
+import org.kaaproject.kaa.server.operations.service.history.DefaultHistoryDeltaService;
+import org.kaaproject.kaa.server.operations.service.history.HistoryDeltaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures calculation of the endpoint group state change between two
+ * application sequence numbers. The cache and filter services are replaced
+ * with in-memory stubs, so only the delta calculation itself is measured.
+ *
+ * <p>The service updates the group states of the profile in place, so every
+ * invocation works on a fresh copy of the group state list.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryDeltaServiceBenchmark {
+
+  private static final String APPLICATION_TOKEN = "applicationToken";
+  private static final String DEFAULT_GROUP_ID = "group0";
+  private static final int OLD_SEQ_NUMBER = 1;
+
+  private static final ChangeType[] CHANGE_TYPES = new ChangeType[]{
+      ChangeType.ADD_CONF, ChangeType.ADD_TOPIC, ChangeType.ADD_PROF,
+      ChangeType.REMOVE_CONF, ChangeType.REMOVE_TOPIC};
+
+  @Param({"8", "64"})
+  private int groupCount;
+
+  @Param({"10", "100"})
+  private int changeCount;
+
+  private HistoryDeltaService historyDeltaService;
+  private EndpointProfileDto profile;
+  private List<EndpointGroupStateDto> groupStates;
+  private List<HistoryDto> history;
+  private List<ProfileFilterDto> filters;
+
+  @SuppressWarnings("unchecked")
+  private static <T> T stub(Class<T> type, InvocationHandler handler) {
+    return (T) Proxy.newProxyInstance(HistoryDeltaServiceBenchmark.class.getClassLoader(),
+        new Class<?>[]{type}, handler);
+  }
+
+  private static void inject(Object target, String fieldName, Object value)
+      throws ReflectiveOperationException {
+    Field field = target.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    field.set(target, value);
+  }
+
+  private static String groupId(int index) {
+    return "group" + index;
+  }
+
+  /**
+   * Generates the endpoint group states, the history and the service stubs.
+   *
+   * @throws ReflectiveOperationException if the stubs can't be injected
+   */
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    groupStates = new ArrayList<>(groupCount);
+    filters = new ArrayList<>(groupCount);
+    groupStates.add(new EndpointGroupStateDto(DEFAULT_GROUP_ID, null, "conf0"));
+    for (int i = 1; i < groupCount; i++) {
+      groupStates.add(new EndpointGroupStateDto(groupId(i), "filter" + i, "conf" + i));
+      ProfileFilterDto filter = new ProfileFilterDto();
+      filter.setId("filter" + i);
+      filter.setEndpointGroupId(groupId(i));
+      filters.add(filter);
+    }
+
+    history = new ArrayList<>(changeCount);
+    for (int i = 0; i < changeCount; i++) {
+      ChangeDto change = new ChangeDto();
+      change.setType(CHANGE_TYPES[i % CHANGE_TYPES.length]);
+      change.setEndpointGroupId(groupId(i % (groupCount * 2)));
+      change.setProfileFilterId("filter" + i);
+      change.setConfigurationId("conf" + i);
+      change.setTopicId("topic" + i);
+      HistoryDto update = new HistoryDto();
+      update.setSequenceNumber(OLD_SEQ_NUMBER + i + 1);
+      update.setChange(change);
+      history.add(update);
+    }
+
+    profile = new EndpointProfileDto();
+    profile.setEndpointKeyHash(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+    profile.setConfigurationVersion(1);
+    profile.setClientProfileVersion(1);
+    profile.setServerProfileVersion(1);
+
+    EndpointGroupDto defaultGroup = new EndpointGroupDto();
+    defaultGroup.setId(DEFAULT_GROUP_ID);
+    CacheService cacheService = stub(CacheService.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getHistory":
+          return history;
+        case "getConfIdByKey":
+          return "conf-" + ((ConfigurationIdKey) args[0]).getEndpointGroupId();
+        case "getDefaultGroup":
+          return defaultGroup;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    });
+    FilterService filterService = stub(FilterService.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getAllMatchingFilters":
+          return filters;
+        case "matches":
+          return ((String) args[1]).hashCode() % 2 == 0;
+        default:
+          throw new UnsupportedOperationException(method.getName());
+      }
+    });
+
+    DefaultHistoryDeltaService service = new DefaultHistoryDeltaService();
+    inject(service, "cacheService", cacheService);
+    inject(service, "filterService", filterService);
+    historyDeltaService = service;
+  }
+
+  private List<EndpointGroupStateDto> copyGroupStates() {
+    List<EndpointGroupStateDto> copy = new ArrayList<>(groupStates.size());
+    for (EndpointGroupStateDto state : groupStates) {
+      copy.add(new EndpointGroupStateDto(state.getEndpointGroupId(), state.getProfileFilterId(),
+          state.getConfigurationId()));
+    }
+    return copy;
+  }
+
+  @Benchmark
+  public HistoryDelta getDelta() {
+    profile.setGroupState(copyGroupStates());
+    return historyDeltaService.getDelta(profile, APPLICATION_TOKEN, OLD_SEQ_NUMBER,
+        OLD_SEQ_NUMBER + changeCount);
+  }
+
+  @Benchmark
+  public HistoryDelta getInitialDelta() {
+    return historyDeltaService.getDelta(profile, APPLICATION_TOKEN, OLD_SEQ_NUMBER + changeCount);
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.logs;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.common.dto.logs.LogEventDto;
+import org.kaaproject.kaa.common.dto.logs.LogHeaderStructureDto;
+import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.AbstractLogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.BinaryLogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares conversion of a log event pack to JSON, as done for document
+ * oriented appenders, with the binary event view.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogEventConversionBenchmark {
+
+  private static final String SMALL_SCHEMA = "{\"type\":\"record\",\"name\":\"LogData\","
+      + "\"namespace\":\"org.kaaproject.kaa.schema.sample.logging\",\"fields\":["
+      + "{\"name\":\"level\",\"type\":\"string\"},"
+      + "{\"name\":\"tag\",\"type\":\"string\"},"
+      + "{\"name\":\"message\",\"type\":\"string\"}]}";
+
+  private static final int WIDE_SCHEMA_FIELDS_PER_TYPE = 10;
+
+  @Param({"small", "wide"})
+  private String schema;
+
+  @Param({"10", "100"})
+  private int eventsPerPack;
+
+  private BenchmarkLogAppender appender;
+  private LogEventPack logEventPack;
+  private RecordHeader header;
+
+  private static String wideSchema() {
+    StringBuilder fields = new StringBuilder();
+    for (int i = 0; i < WIDE_SCHEMA_FIELDS_PER_TYPE; i++) {
+      fields.append("{\"name\":\"longField").append(i).append("\",\"type\":\"long\"},");
+      fields.append("{\"name\":\"doubleField").append(i).append("\",\"type\":\"double\"},");
+      fields.append("{\"name\":\"stringField").append(i).append("\",\"type\":\"string\"},");
+    }
+    fields.setLength(fields.length() - 1);
+    return "{\"type\":\"record\",\"name\":\"WideLogData\","
+        + "\"namespace\":\"org.kaaproject.kaa.schema.sample.logging\",\"fields\":["
+        + fields + "]}";
+  }
+
+  private static GenericRecord randomRecord(Schema schema, Random random) {
+    GenericRecord record = new GenericData.Record(schema);
+    for (Schema.Field field : schema.getFields()) {
+      switch (field.schema().getType()) {
+        case LONG:
+          record.put(field.name(), random.nextLong());
+          break;
+        case DOUBLE:
+          record.put(field.name(), random.nextDouble());
+          break;
+        default:
+          record.put(field.name(), "value-" + random.nextInt(100000));
+          break;
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Prepares the log event pack and the appender.
+   *
+   * @throws IOException in case of encoding errors
+   */
+  @Setup
+  public void setUp() throws IOException {
+    String schemaBody = "wide".equals(schema) ? wideSchema() : SMALL_SCHEMA;
+    GenericAvroConverter<GenericRecord> converter = new GenericAvroConverter<>(schemaBody);
+    Random random = new Random(0);
+    List<LogEvent> events = new ArrayList<>(eventsPerPack);
+    for (int i = 0; i < eventsPerPack; i++) {
+      LogEvent event = new LogEvent();
+      event.setLogData(converter.encode(randomRecord(converter.getSchema(), random)));
+      events.add(event);
+    }
+    EndpointProfileDataDto profileDto = new EndpointProfileDataDto(
+        "1", "endpointKeyHash", 1, "", 0, null);
+    BaseLogEventPack pack = new BaseLogEventPack(profileDto, System.currentTimeMillis(), 1, events);
+    LogSchemaDto logSchemaDto = new LogSchemaDto();
+    logSchemaDto.setVersion(1);
+    pack.setLogSchema(new LogSchema(logSchemaDto, schemaBody));
+    logEventPack = pack;
+
+    appender = new BenchmarkLogAppender();
+    appender.setApplicationToken("applicationToken");
+    appender.setHeader(Arrays.asList(LogHeaderStructureDto.values()));
+    appender.doAppend(logEventPack, null);
+    header = appender.lastHeader;
+  }
+
+  /**
+   * Conversion used before the header was encoded once per pack.
+   */
+  @Benchmark
+  public void jsonPerEventHeader(Blackhole blackhole) throws IOException {
+    GenericAvroConverter<GenericRecord> eventConverter = appender.converter(
+        logEventPack.getLogSchema().getSchema());
+    GenericAvroConverter<GenericRecord> headerConverter = appender.converter(
+        RecordHeader.getClassSchema().toString());
+    for (LogEvent logEvent : logEventPack.getEvents()) {
+      GenericRecord decodedLog = eventConverter.decodeBinary(logEvent.getLogData());
+      blackhole.consume(new LogEventDto(headerConverter.encodeToJson(header),
+          eventConverter.encodeToJson(decodedLog)));
+    }
+  }
+
+  @Benchmark
+  public List<LogEventDto> json() throws IOException {
+    return appender.generateLogEvent(logEventPack, header);
+  }
+
+  @Benchmark
+  public void binary(Blackhole blackhole) {
+    for (BinaryLogEvent event : appender.generateBinaryLogEvents(logEventPack)) {
+      blackhole.consume(event.getData());
+    }
+  }
+
+  @Benchmark
+  public void binaryDecoded(Blackhole blackhole) throws IOException {
+    for (BinaryLogEvent event : appender.generateBinaryLogEvents(logEventPack)) {
+      blackhole.consume(event.getRecord());
+    }
+  }
+
+  private static final class BenchmarkLogAppender extends AbstractLogAppender<RecordHeader> {
+
+    private final Map<String, GenericAvroConverter<GenericRecord>> converters = new HashMap<>();
+
+    private RecordHeader lastHeader;
+
+    private BenchmarkLogAppender() {
+      super(RecordHeader.class);
+    }
+
+    private GenericAvroConverter<GenericRecord> converter(String schema) {
+      return converters.computeIfAbsent(schema, GenericAvroConverter::new);
+    }
+
+    @Override
+    public void doAppend(LogEventPack logEventPack, RecordHeader header,
+                         LogDeliveryCallback listener) {
+      lastHeader = header;
+    }
+
+    @Override
+    protected List<LogEventDto> generateLogEvent(LogEventPack logEventPack, RecordHeader header)
+        throws IOException {
+      return super.generateLogEvent(logEventPack, header);
+    }
+
+    @Override
+    protected List<BinaryLogEvent> generateBinaryLogEvents(LogEventPack logEventPack) {
+      return super.generateBinaryLogEvents(logEventPack);
+    }
+
+    @Override
+    protected void initFromConfiguration(LogAppenderDto appender, RecordHeader configuration) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
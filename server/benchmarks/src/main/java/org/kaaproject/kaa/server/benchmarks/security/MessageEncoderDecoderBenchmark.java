@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.security;
+
+import org.kaaproject.kaa.common.endpoint.security.KeyUtil;
+import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the session encryption used by the operations server. The
+ * {@code decodeWithSessionKey} benchmark includes decryption of the RSA
+ * encrypted session key, as done for the first message of a session, while
+ * {@code decode} reuses the already established session cipher.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageEncoderDecoderBenchmark {
+
+  @Param({"256", "4096"})
+  private int messageSize;
+
+  private MessageEncoderDecoder client;
+  private MessageEncoderDecoder server;
+
+  private byte[] message;
+  private byte[] encodedMessage;
+  private byte[] encodedSessionKey;
+  private byte[] signature;
+
+  /**
+   * Generates key pairs and establishes the session between client and server.
+   *
+   * @throws GeneralSecurityException in case of key generation or encryption errors
+   */
+  @Setup
+  public void setUp() throws GeneralSecurityException {
+    KeyPair clientKeyPair = KeyUtil.generateKeyPair();
+    KeyPair serverKeyPair = KeyUtil.generateKeyPair();
+    client = new MessageEncoderDecoder(clientKeyPair.getPrivate(), clientKeyPair.getPublic(),
+        serverKeyPair.getPublic());
+    server = new MessageEncoderDecoder(serverKeyPair.getPrivate(), serverKeyPair.getPublic(),
+        clientKeyPair.getPublic());
+
+    message = new byte[messageSize];
+    new Random(0).nextBytes(message);
+    encodedMessage = client.encodeData(message);
+    encodedSessionKey = client.getEncodedSessionKey();
+    signature = client.sign(encodedSessionKey);
+    server.decodeData(encodedMessage, encodedSessionKey);
+  }
+
+  @Benchmark
+  public byte[] encode() throws GeneralSecurityException {
+    return server.encodeData(message);
+  }
+
+  @Benchmark
+  public byte[] decode() throws GeneralSecurityException {
+    return server.decodeData(encodedMessage);
+  }
+
+  @Benchmark
+  public byte[] decodeWithSessionKey() throws GeneralSecurityException {
+    return server.decodeData(encodedMessage, encodedSessionKey);
+  }
+
+  @Benchmark
+  public boolean verify() throws GeneralSecurityException {
+    return server.verify(encodedSessionKey, signature);
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.sync;
+
+import org.kaaproject.kaa.common.Constants;
+import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.endpoint.gen.LogEntry;
+import org.kaaproject.kaa.common.endpoint.gen.LogSyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequest;
+import org.kaaproject.kaa.common.endpoint.gen.SyncRequestMetaData;
+import org.kaaproject.kaa.server.sync.ClientSync;
+import org.kaaproject.kaa.server.sync.ConfigurationServerSync;
+import org.kaaproject.kaa.server.sync.LogDeliveryStatus;
+import org.kaaproject.kaa.server.sync.LogServerSync;
+import org.kaaproject.kaa.server.sync.ServerSync;
+import org.kaaproject.kaa.server.sync.SyncResponseStatus;
+import org.kaaproject.kaa.server.sync.SyncStatus;
+import org.kaaproject.kaa.server.sync.platform.AvroEncDec;
+import org.kaaproject.kaa.server.sync.platform.BinaryEncDec;
+import org.kaaproject.kaa.server.sync.platform.GrowingByteBuffer;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
+import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding of a client sync with a log upload and encoding of a
+ * server sync with log delivery statuses and a configuration delta, using the
+ * binary and the avro platform protocols. The buffer variants decode from a
+ * byte buffer and encode into a reused buffer. Run with {@code -prof gc} to
+ * compare the allocation rate per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlatformEncDecBenchmark {
+
+  private static final int SHA_1_LENGTH = 20;
+  private static final String SDK_TOKEN = "12345678900987654321abcdEFGH";
+
+  private static final int EXTENSION_HEADER_SIZE = 8;
+  private static final int META_DATA_EXTENSION_ID = 1;
+  private static final int LOGGING_EXTENSION_ID = 4;
+  private static final int META_DATA_FIELDS = 0x0F;
+
+  private static final int REQUEST_ID = 42;
+  private static final int TIMEOUT = 60;
+
+  @Param({"binary", "avro"})
+  private String protocol;
+
+  @Param({"1", "32"})
+  private int logEntries;
+
+  @Param({"128", "1024"})
+  private int payloadSize;
+
+  private PlatformEncDec encDec;
+  private byte[] clientSyncData;
+  private ByteBuffer clientSyncBuffer;
+  private ServerSync serverSync;
+  private GrowingByteBuffer serverSyncBuffer;
+
+  private static byte[] randomBytes(Random random, int size) {
+    byte[] data = new byte[size];
+    random.nextBytes(data);
+    return data;
+  }
+
+  private static void putExtensionHeader(ByteBuffer buf, int type, int options, int length) {
+    buf.putShort((short) type);
+    buf.put((byte) 0);
+    buf.put((byte) options);
+    buf.putInt(length);
+  }
+
+  private static int padded(int length) {
+    return (length + 3) & ~3;
+  }
+
+  /**
+   * Prepares the encoded client sync and the server sync to encode.
+   *
+   * @throws IOException in case of avro encoding errors
+   */
+  @Setup
+  public void setUp() throws IOException {
+    Random random = new Random(0);
+    byte[] keyHash = randomBytes(random, SHA_1_LENGTH);
+    byte[] profileHash = randomBytes(random, SHA_1_LENGTH);
+    List<byte[]> logs = new ArrayList<>(logEntries);
+    for (int i = 0; i < logEntries; i++) {
+      logs.add(randomBytes(random, payloadSize));
+    }
+
+    if ("avro".equals(protocol)) {
+      encDec = new AvroEncDec();
+      clientSyncData = avroClientSync(keyHash, profileHash, logs);
+    } else {
+      encDec = new BinaryEncDec();
+      clientSyncData = binaryClientSync(keyHash, profileHash, logs);
+    }
+
+    clientSyncBuffer = ByteBuffer.wrap(clientSyncData);
+    serverSyncBuffer = new GrowingByteBuffer(ByteBuffer.allocate(4 * 1024));
+
+    List<LogDeliveryStatus> statuses = new ArrayList<>(logEntries);
+    for (int i = 0; i < logEntries; i++) {
+      statuses.add(new LogDeliveryStatus(i, SyncStatus.SUCCESS, null));
+    }
+    serverSync = new ServerSync();
+    serverSync.setRequestId(REQUEST_ID);
+    serverSync.setStatus(SyncStatus.SUCCESS);
+    serverSync.setLogSync(new LogServerSync(statuses));
+    serverSync.setConfigurationSync(new ConfigurationServerSync(1, SyncResponseStatus.DELTA,
+        null, ByteBuffer.wrap(randomBytes(random, payloadSize))));
+  }
+
+  private byte[] binaryClientSync(byte[] keyHash, byte[] profileHash, List<byte[]> logs) {
+    byte[] sdkToken = SDK_TOKEN.getBytes(StandardCharsets.UTF_8);
+    int metaDataSize = 8 + keyHash.length + profileHash.length + sdkToken.length;
+    int logSyncSize = 4;
+    for (byte[] log : logs) {
+      logSyncSize += 4 + padded(log.length);
+    }
+    ByteBuffer buf = ByteBuffer.allocate(8 + EXTENSION_HEADER_SIZE + metaDataSize
+        + EXTENSION_HEADER_SIZE + logSyncSize);
+    buf.putInt(Constants.KAA_PLATFORM_PROTOCOL_BINARY_ID);
+    buf.putShort((short) 1);
+    buf.putShort((short) 2);
+
+    putExtensionHeader(buf, META_DATA_EXTENSION_ID, META_DATA_FIELDS, metaDataSize);
+    buf.putInt(REQUEST_ID);
+    buf.putInt(TIMEOUT);
+    buf.put(keyHash);
+    buf.put(profileHash);
+    buf.put(sdkToken);
+
+    putExtensionHeader(buf, LOGGING_EXTENSION_ID, 0, logSyncSize);
+    buf.putShort((short) REQUEST_ID);
+    buf.putShort((short) logs.size());
+    for (byte[] log : logs) {
+      buf.putInt(log.length);
+      buf.put(log);
+      buf.position(buf.position() + padded(log.length) - log.length);
+    }
+    return buf.array();
+  }
+
+  private byte[] avroClientSync(byte[] keyHash, byte[] profileHash, List<byte[]> logs)
+      throws IOException {
+    SyncRequestMetaData metaData = new SyncRequestMetaData();
+    metaData.setSdkToken(SDK_TOKEN);
+    metaData.setEndpointPublicKeyHash(ByteBuffer.wrap(keyHash));
+    metaData.setProfileHash(ByteBuffer.wrap(profileHash));
+    metaData.setTimeout((long) TIMEOUT);
+
+    List<LogEntry> entries = new ArrayList<>(logs.size());
+    for (byte[] log : logs) {
+      entries.add(new LogEntry(ByteBuffer.wrap(log)));
+    }
+    SyncRequest request = new SyncRequest();
+    request.setRequestId(REQUEST_ID);
+    request.setSyncRequestMetaData(metaData);
+    request.setLogSyncRequest(new LogSyncRequest(REQUEST_ID, entries));
+    return new AvroByteArrayConverter<>(SyncRequest.class).toByteArray(request);
+  }
+
+  @Benchmark
+  public ClientSync decode() throws PlatformEncDecException {
+    return encDec.decode(clientSyncData);
+  }
+
+  @Benchmark
+  public ClientSync decodeBuffer() throws PlatformEncDecException {
+    return encDec.decode(clientSyncBuffer);
+  }
+
+  @Benchmark
+  public byte[] encode() throws PlatformEncDecException {
+    return encDec.encode(serverSync);
+  }
+
+  @Benchmark
+  public ByteBuffer encodeBuffer() throws PlatformEncDecException {
+    return encDec.encode(serverSync, serverSyncBuffer);
+  }
+}
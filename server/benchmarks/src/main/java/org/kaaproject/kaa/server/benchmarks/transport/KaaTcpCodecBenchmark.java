@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.benchmarks.transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.KaaTcpProtocolException;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MessageFactory;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.SyncRequest;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.SyncResponse;
+import org.kaaproject.kaa.server.transports.tcp.transport.commands.KaaTcpCommandFactory;
+import org.kaaproject.kaa.server.transports.tcp.transport.netty.KaaTcpDecoder;
+import org.kaaproject.kaa.server.transports.tcp.transport.netty.KaaTcpFrameDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a KaaTcp sync round trip through the transport codec: decoding of
+ * a sync request frame and encoding of a sync response frame. Compares the
+ * previous byte array pipeline with the {@link KaaTcpFrameDecoder} based one.
+ * Run with {@code -prof gc} to compare the heap bytes allocated per sync,
+ * which is the amount of data copied between transport buffers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KaaTcpCodecBenchmark {
+
+  @Param({"128", "4096"})
+  private int payloadSize;
+
+  private byte[] request;
+  private byte[] response;
+  private MessageFactory factory;
+  private ByteBuf legacyInput;
+  private EmbeddedChannel channel;
+
+  /**
+   * Prepares the sync request frame and the decoding pipelines.
+   */
+  @Setup
+  public void setUp() {
+    request = new SyncRequest(new byte[payloadSize], false, true).getFrame().array();
+    response = new byte[payloadSize];
+    factory = new MessageFactory();
+    legacyInput = PooledByteBufAllocator.DEFAULT.directBuffer(request.length);
+    channel = new EmbeddedChannel(
+        new KaaTcpFrameDecoder(), new KaaTcpDecoder(new KaaTcpCommandFactory()));
+  }
+
+  /**
+   * Releases the buffers and closes the channel.
+   */
+  @TearDown
+  public void tearDown() {
+    legacyInput.release();
+    channel.finish();
+  }
+
+  /**
+   * Copies the frame to a byte array before decoding and encodes the response
+   * to a byte array which is copied to the output buffer.
+   */
+  @Benchmark
+  public void byteArrayPipeline() throws KaaTcpProtocolException {
+    legacyInput.clear().writeBytes(request);
+    // ByteArrayDecoder
+    byte[] data = new byte[legacyInput.readableBytes()];
+    legacyInput.readBytes(data);
+    factory.getFramer().pushBytes(data);
+    // KaaTcpEncoder + ByteArrayEncoder
+    byte[] out = new SyncResponse(response, false, true).getFrame().array();
+    ByteBuf outBuf = PooledByteBufAllocator.DEFAULT.directBuffer(out.length);
+    outBuf.writeBytes(out);
+    outBuf.release();
+  }
+
+  /**
+   * Decodes the frame from the input buffer and encodes the response directly
+   * into the output buffer.
+   */
+  @Benchmark
+  public void byteBufPipeline(Blackhole blackhole) {
+    ByteBuf in = PooledByteBufAllocator.DEFAULT.directBuffer(request.length);
+    in.writeBytes(request);
+    channel.writeInbound(in);
+    blackhole.consume(channel.readInbound());
+    SyncResponse frame = new SyncResponse(response, false, true);
+    int size = frame.getFrameSize();
+    ByteBuf out = PooledByteBufAllocator.DEFAULT.ioBuffer(size);
+    frame.writeFrame(out.nioBuffer(0, size));
+    out.writerIndex(size).release();
+  }
+}
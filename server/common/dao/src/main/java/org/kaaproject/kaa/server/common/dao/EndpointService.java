@@ -21,6 +21,7 @@ import org.kaaproject.kaa.common.dto.EndpointConfigurationDto;
 import org.kaaproject.kaa.common.dto.EndpointGroupDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.EndpointUserDto;
@@ -183,6 +184,17 @@ public interface EndpointService {
    */
   EndpointProfileDto saveEndpointProfile(EndpointProfileDto endpointProfileDto);
 
+  /**
+   * Update the endpoint group state, sequence number and configuration and
+   * topic hashes of the endpoint profile without saving the whole profile.
+   * The version of the endpoint profile is incremented.
+   *
+   * @param state the endpoint profile state
+   * @return the new version of the endpoint profile, or null if the endpoint
+   *         profile is not found
+   */
+  Long updateEndpointProfileState(EndpointProfileStateDto state);
+
   /**
    * Attach endpoint profile to user.
    *
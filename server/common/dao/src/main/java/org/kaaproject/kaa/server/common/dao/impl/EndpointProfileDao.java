@@ -18,6 +18,7 @@ package org.kaaproject.kaa.server.common.dao.impl;
 
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.PageLinkDto;
@@ -131,4 +132,17 @@ public interface EndpointProfileDao<T extends EndpointProfile> extends Dao<T, By
    * @return the updated endpoint profile with.
    */
   T updateServerProfile(byte[] keyHash, int version, String serverProfile);
+
+  /**
+   * Update the endpoint group state, sequence number, configuration hashes and
+   * topic hashes of the endpoint profile with the given key hash. Only these
+   * fields are written, and the version of the endpoint profile is
+   * incremented, so concurrent updates of the whole profile fail the
+   * optimistic lock check instead of overwriting the state.
+   *
+   * @param state the endpoint profile state
+   * @return the new version of the endpoint profile, or null if the endpoint
+   *         profile is not found
+   */
+  Long updateState(EndpointProfileStateDto state);
 }
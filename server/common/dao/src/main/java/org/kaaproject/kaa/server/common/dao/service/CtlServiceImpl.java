@@ -56,6 +56,7 @@ import org.kaaproject.kaa.server.common.dao.model.sql.CtlSchemaMetaInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -67,8 +68,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -102,6 +105,23 @@ public class CtlServiceImpl implements CtlService {
    */
   private static final ObjectMapper FORMATTER = new ObjectMapper();
   private final LockOptions lockOptions = new LockOptions(LockMode.PESSIMISTIC_WRITE);
+  /**
+   * The max count of flattened schemas kept in the cache, 0 disables the cache.
+   */
+  @Value("#{sql_dao[ctl_flat_schema_cache_size] ?: 1000}")
+  private int flatSchemaCacheSize;
+  /**
+   * Flattened schema strings by the bodies of the CTL schema and its
+   * dependencies. A change of any body in the dependency tree changes the
+   * key, so stale entries are never returned.
+   */
+  private final Map<FlatSchemaKey, String> flatSchemaCache = Collections.synchronizedMap(
+      new LinkedHashMap<FlatSchemaKey, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FlatSchemaKey, String> eldest) {
+          return size() > flatSchemaCacheSize;
+        }
+      });
   @Autowired
   private CtlSchemaDao<CtlSchema> ctlSchemaDao;
 
@@ -225,6 +245,7 @@ public class CtlServiceImpl implements CtlService {
         }
         ctlSchemaMetaInfoDao.lockRequest(lockOptions).setScope(true).lock(metaInfo);
         schema.update(ctlSchema);
+        flatSchemaCache.clear();
         return DaoUtil.getDto(ctlSchemaDao.save(schema, true));
       }
     } else {
@@ -326,6 +347,7 @@ public class CtlServiceImpl implements CtlService {
           CtlSchemaMetaInfo metaInfo = ctlSchema.getMetaInfo();
           ctlSchemaMetaInfoDao.lockRequest(lockOptions).setScope(true).lock(metaInfo);
           try {
+            flatSchemaCache.clear();
             ctlSchemaDao.removeById(ctlSchema.getStringId());
             List<CtlSchema> schemas = ctlSchemaDao.findAllByMetaInfoId(metaInfo.getStringId());
             if (schemas == null || schemas.isEmpty()) {
@@ -531,8 +553,33 @@ public class CtlServiceImpl implements CtlService {
     }
   }
 
+  /**
+   * Returns a new flattened schema on every call, so callers can't modify
+   * the schema seen by the others.
+   */
   @Override
   public Schema flatExportAsSchema(CTLSchemaDto schema) {
+    if (flatSchemaCacheSize > 0) {
+      return new Schema.Parser().parse(flatExportAsString(schema));
+    }
+    return parseFlat(schema);
+  }
+
+  @Override
+  public String flatExportAsString(CTLSchemaDto schema) {
+    if (flatSchemaCacheSize <= 0) {
+      return parseFlat(schema).toString();
+    }
+    FlatSchemaKey key = new FlatSchemaKey(schema);
+    String flatSchema = flatSchemaCache.get(key);
+    if (flatSchema == null) {
+      flatSchema = parseFlat(schema).toString();
+      flatSchemaCache.put(key, flatSchema);
+    }
+    return flatSchema;
+  }
+
+  private Schema parseFlat(CTLSchemaDto schema) {
     try {
       return this.parseDependencies(schema, new Schema.Parser());
     } catch (Exception cause) {
@@ -541,11 +588,6 @@ public class CtlServiceImpl implements CtlService {
     }
   }
 
-  @Override
-  public String flatExportAsString(CTLSchemaDto schema) {
-    return flatExportAsSchema(schema).toString();
-  }
-
   @Override
   public FileData flatExport(CTLSchemaDto schema) {
     try {
@@ -624,4 +666,47 @@ public class CtlServiceImpl implements CtlService {
     }
     return files;
   }
+
+  /**
+   * The bodies of a CTL schema and its dependencies. The hash code is
+   * calculated once, from the hash codes of the bodies, which the strings
+   * cache themselves.
+   */
+  private static final class FlatSchemaKey {
+
+    private final String body;
+    private final Set<FlatSchemaKey> dependencies;
+    private final int hash;
+
+    FlatSchemaKey(CTLSchemaDto schema) {
+      this.body = schema.getBody();
+      Set<FlatSchemaKey> dependencies = new HashSet<>();
+      if (schema.getDependencySet() != null) {
+        for (CTLSchemaDto dependency : schema.getDependencySet()) {
+          dependencies.add(new FlatSchemaKey(dependency));
+        }
+      }
+      this.dependencies = dependencies;
+      this.hash = 31 * body.hashCode() + dependencies.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof FlatSchemaKey)) {
+        return false;
+      }
+      FlatSchemaKey other = (FlatSchemaKey) obj;
+      return hash == other.hash
+          && body.equals(other.body)
+          && dependencies.equals(other.dependencies);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
 }
@@ -35,6 +35,7 @@ import org.kaaproject.kaa.common.dto.EndpointConfigurationDto;
 import org.kaaproject.kaa.common.dto.EndpointGroupDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.EndpointUserDto;
@@ -385,6 +386,12 @@ public class EndpointServiceImpl implements EndpointService {
     return dto;
   }
 
+  @Override
+  public Long updateEndpointProfileState(EndpointProfileStateDto state) {
+    validateHash(state.getEndpointKeyHash(), "Incorrect key hash for endpoint profile state.");
+    return endpointProfileDao.updateState(state);
+  }
+
   @Override
   public EndpointProfileDto attachEndpointToUser(String userExternalId, String tenantId, EndpointProfileDto profile) {
     validateString(userExternalId, "Incorrect userExternalId " + userExternalId);
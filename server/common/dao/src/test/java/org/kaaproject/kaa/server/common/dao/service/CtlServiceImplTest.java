@@ -16,6 +16,7 @@
 
 package org.kaaproject.kaa.server.common.dao.service;
 
+import org.apache.avro.Schema;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.junit.Assert;
@@ -329,4 +330,20 @@ public class CtlServiceImplTest extends AbstractTest {
     JsonNode actual = mapper.readTree(ctlService.flatExport(alpha).getFileData());
     Assert.assertEquals(expected, actual);
   }
+
+  @Test
+  public void testFlatExportAsSchemaIsCached() throws Exception {
+    Schema flatSchema = ctlService.flatExportAsSchema(alpha);
+    Assert.assertEquals(flatSchema,
+        ctlService.flatExportAsSchema(ctlService.findCtlSchemaById(alpha.getId())));
+    Assert.assertEquals(flatSchema.toString(), ctlService.flatExportAsString(alpha));
+    Assert.assertNotEquals(flatSchema, ctlService.flatExportAsSchema(beta));
+  }
+
+  @Test
+  public void testFlatExportAsSchemaReturnsCopies() throws Exception {
+    Schema flatSchema = ctlService.flatExportAsSchema(alpha);
+    flatSchema.addProp("modified", "true");
+    Assert.assertNull(ctlService.flatExportAsSchema(alpha).getProp("modified"));
+  }
 }
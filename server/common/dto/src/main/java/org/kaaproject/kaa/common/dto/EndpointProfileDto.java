@@ -62,6 +62,52 @@ public class EndpointProfileDto implements HasId, HasVersion, Serializable {
   private Long version;
   private boolean useConfigurationRawSchema;
 
+  public EndpointProfileDto() {
+    super();
+  }
+
+  /**
+   * Instantiates a new EndpointProfileDto with the fields of another one. The
+   * lists and the byte arrays are copied, their elements are shared.
+   *
+   * @param other the EndpointProfileDto object
+   */
+  public EndpointProfileDto(EndpointProfileDto other) {
+    this.id = other.id;
+    this.applicationId = other.applicationId;
+    this.endpointKey = getArrayCopy(other.endpointKey);
+    this.endpointKeyHash = getArrayCopy(other.endpointKeyHash);
+    this.endpointUserId = other.endpointUserId;
+    this.accessToken = other.accessToken;
+    this.sequenceNumber = other.sequenceNumber;
+    this.groupState = copyOf(other.groupState);
+    this.subscriptions = copyOf(other.subscriptions);
+    this.simpleTopicHash = other.simpleTopicHash;
+    this.topicHash = getArrayCopy(other.topicHash);
+    this.clientProfileBody = other.clientProfileBody;
+    this.serverProfileBody = other.serverProfileBody;
+    this.profileHash = getArrayCopy(other.profileHash);
+    this.configurationHash = getArrayCopy(other.configurationHash);
+    this.userConfigurationHash = getArrayCopy(other.userConfigurationHash);
+    this.epsConfigurationHash = getArrayCopy(other.epsConfigurationHash);
+    this.clientProfileVersion = other.clientProfileVersion;
+    this.serverProfileVersion = other.serverProfileVersion;
+    this.configurationVersion = other.configurationVersion;
+    this.notificationVersion = other.notificationVersion;
+    this.systemNfVersion = other.systemNfVersion;
+    this.userNfVersion = other.userNfVersion;
+    this.logSchemaVersion = other.logSchemaVersion;
+    this.ecfVersionStates = copyOf(other.ecfVersionStates);
+    this.serverHash = other.serverHash;
+    this.sdkToken = other.sdkToken;
+    this.version = other.version;
+    this.useConfigurationRawSchema = other.useConfigurationRawSchema;
+  }
+
+  private static <T> List<T> copyOf(List<T> list) {
+    return list != null ? new ArrayList<>(list) : null;
+  }
+
   @Override
   public String getId() {
     return id;
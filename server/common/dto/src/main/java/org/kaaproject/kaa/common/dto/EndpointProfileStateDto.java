@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.common.dto;
+
+import static org.kaaproject.kaa.common.dto.Util.getArrayCopy;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Snapshot of the endpoint profile fields that are calculated by the
+ * operations server: endpoint group state, sequence number, configuration
+ * hashes and topic hashes. The fields are updated in place, without writing
+ * the whole endpoint profile.
+ */
+public class EndpointProfileStateDto implements Serializable {
+
+  private static final long serialVersionUID = 4312418218541632167L;
+
+  private final byte[] endpointKeyHash;
+  private final List<EndpointGroupStateDto> groupState;
+  private final int sequenceNumber;
+  private final byte[] configurationHash;
+  private final byte[] userConfigurationHash;
+  private final byte[] epsConfigurationHash;
+  private final byte[] topicHash;
+  private final int simpleTopicHash;
+
+  /**
+   * Create the snapshot of the state fields of the endpoint profile.
+   *
+   * @param profile the endpoint profile
+   */
+  public EndpointProfileStateDto(EndpointProfileDto profile) {
+    this.endpointKeyHash = getArrayCopy(profile.getEndpointKeyHash());
+    this.groupState = profile.getGroupState() != null
+        ? new ArrayList<EndpointGroupStateDto>(profile.getGroupState()) : null;
+    this.sequenceNumber = profile.getSequenceNumber();
+    this.configurationHash = getArrayCopy(profile.getConfigurationHash());
+    this.userConfigurationHash = getArrayCopy(profile.getUserConfigurationHash());
+    this.epsConfigurationHash = getArrayCopy(profile.getEpsConfigurationHash());
+    this.topicHash = getArrayCopy(profile.getTopicHash());
+    this.simpleTopicHash = profile.getSimpleTopicHash();
+  }
+
+  public byte[] getEndpointKeyHash() {
+    return endpointKeyHash;
+  }
+
+  public List<EndpointGroupStateDto> getGroupState() {
+    return groupState;
+  }
+
+  public int getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  public byte[] getConfigurationHash() {
+    return configurationHash;
+  }
+
+  public byte[] getUserConfigurationHash() {
+    return userConfigurationHash;
+  }
+
+  public byte[] getEpsConfigurationHash() {
+    return epsConfigurationHash;
+  }
+
+  public byte[] getTopicHash() {
+    return topicHash;
+  }
+
+  public int getSimpleTopicHash() {
+    return simpleTopicHash;
+  }
+
+  @Override
+  public String toString() {
+    return "EndpointProfileStateDto{"
+        + "endpointKeyHash=" + Arrays.toString(endpointKeyHash)
+        + ", groupState=" + groupState
+        + ", sequenceNumber=" + sequenceNumber
+        + ", configurationHash=" + Arrays.toString(configurationHash)
+        + ", userConfigurationHash=" + Arrays.toString(userConfigurationHash)
+        + ", epsConfigurationHash=" + Arrays.toString(epsConfigurationHash)
+        + ", topicHash=" + Arrays.toString(topicHash)
+        + ", simpleTopicHash=" + simpleTopicHash
+        + '}';
+  }
+}
@@ -18,7 +18,7 @@ package org.kaaproject.kaa.server.common.log.shared.appender;
 
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.specific.SpecificRecordBase;
-import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.avro.AvroCodecRegistry;
 import org.kaaproject.kaa.common.avro.GenericAvroConverter;
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 import org.kaaproject.kaa.common.dto.logs.LogEventDto;
@@ -29,9 +29,9 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public abstract class AbstractLogAppender<T extends SpecificRecordBase> implements LogAppender {
@@ -39,9 +39,10 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
   private static final Logger LOG = LoggerFactory.getLogger(AbstractLogAppender.class);
 
   private static final int LOG_HEADER_VERSION = 1;
+  private static final String RECORD_HEADER_SCHEMA = RecordHeader.getClassSchema().toString();
   private final Class<T> configurationClass;
 
-  private Map<String, GenericAvroConverter<GenericRecord>> converters = new HashMap<>();
+  private Map<String, GenericAvroConverter<GenericRecord>> converters = new ConcurrentHashMap<>();
 
   private String appenderId;
 
@@ -77,6 +78,43 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
     }
   }
 
+  @Override
+  public void doAppendBatch(List<BatchedLogEventPack> batch) {
+    List<BatchedLogEventPack> valid = new ArrayList<>(batch.size());
+    for (BatchedLogEventPack entry : batch) {
+      if (entry.getLogEventPack() != null) {
+        entry.setHeader(generateHeader(entry.getLogEventPack()));
+        valid.add(entry);
+      } else {
+        LOG.warn("Can't append log events. LogEventPack object is null.");
+      }
+    }
+    if (!valid.isEmpty()) {
+      appendBatch(valid);
+    }
+  }
+
+  /**
+   * Log a batch of log event packs in <code>LogAppender</code> specific way.
+   * Headers of the packs are already generated. Default implementation
+   * appends the packs one by one. Appenders backed by a storage with a bulk
+   * write, such as MongoDB and Couchbase, override it. The Kafka producer
+   * batches records on its own and a Cassandra batch spanning many partitions
+   * only loads the coordinator, so these appenders keep the default.
+   *
+   * @param batch the log event packs with their headers and callbacks
+   */
+  protected void appendBatch(List<BatchedLogEventPack> batch) {
+    for (BatchedLogEventPack entry : batch) {
+      try {
+        doAppend(entry.getLogEventPack(), entry.getHeader(), entry.getCallback());
+      } catch (Exception ex) {
+        LOG.warn("[{}] Failed to append log event pack", getName(), ex);
+        entry.getCallback().onInternalError();
+      }
+    }
+  }
+
   /**
    * Change parameters of log appender.
    *
@@ -96,8 +134,8 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
     this.confirmDelivery = appender.isConfirmDelivery();
     byte[] rawConfiguration = appender.getRawConfiguration();
     try {
-      AvroByteArrayConverter<T> converter = new AvroByteArrayConverter<>(configurationClass);
-      T configuration = converter.fromByteArray(rawConfiguration);
+      T configuration = AvroCodecRegistry.getCodec(configurationClass)
+          .decodeBinary(rawConfiguration, null);
       initFromConfiguration(appender, configuration);
     } catch (IOException ex) {
       LOG.error("Unable to parse configuration for appender '" + getName() + "'", ex);
@@ -189,9 +227,8 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
     List<LogEventDto> events = new ArrayList<>(logEventPack.getEvents().size());
     GenericAvroConverter<GenericRecord> eventConverter = getConverter(
         logEventPack.getLogSchema().getSchema());
-    GenericAvroConverter<GenericRecord> headerConverter = getConverter(
-        header.getSchema().toString());
     try {
+      String encodedJsonLogHeader = encodeHeaderToJson(header);
       for (LogEvent logEvent : logEventPack.getEvents()) {
         LOG.debug("Convert log events [{}] to dto objects.", logEvent);
         if (logEvent == null || logEvent.getLogData() == null) {
@@ -200,8 +237,6 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
         LOG.trace("Avro record converter [{}] with log data [{}]",
             eventConverter, logEvent.getLogData());
         GenericRecord decodedLog = eventConverter.decodeBinary(logEvent.getLogData());
-        LOG.trace("Avro header record converter [{}]", headerConverter);
-        String encodedJsonLogHeader = headerConverter.encodeToJson(header);
         String encodedJsonLog = eventConverter.encodeToJson(decodedLog);
         events.add(new LogEventDto(encodedJsonLogHeader, encodedJsonLog));
       }
@@ -213,7 +248,42 @@ public abstract class AbstractLogAppender<T extends SpecificRecordBase> implemen
   }
 
   /**
-   * Gets the converter.
+   * Generate binary views of the log events. Unlike {@link #generateLogEvent}
+   * the events are neither decoded nor converted to JSON.
+   *
+   * @param logEventPack the log event pack
+   * @return the list
+   */
+  protected List<BinaryLogEvent> generateBinaryLogEvents(LogEventPack logEventPack) {
+    List<BinaryLogEvent> events = new ArrayList<>(logEventPack.getEvents().size());
+    GenericAvroConverter<GenericRecord> eventConverter = getConverter(
+        logEventPack.getLogSchema().getSchema());
+    for (LogEvent logEvent : logEventPack.getEvents()) {
+      if (logEvent == null || logEvent.getLogData() == null) {
+        continue;
+      }
+      events.add(new BinaryLogEvent(logEvent.getLogData(), eventConverter));
+    }
+    return events;
+  }
+
+  /**
+   * Encode the header to JSON. The header is the same for all events of the
+   * pack, so it should be encoded once per pack.
+   *
+   * @param header the header
+   * @return the JSON string
+   * @throws IOException the io exception
+   */
+  protected String encodeHeaderToJson(RecordHeader header) throws IOException {
+    GenericAvroConverter<GenericRecord> headerConverter = getConverter(RECORD_HEADER_SCHEMA);
+    LOG.trace("Avro header record converter [{}]", headerConverter);
+    return headerConverter.encodeToJson(header);
+  }
+
+  /**
+   * Gets the converter. Converters are thread safe and share the codecs of the
+   * {@link AvroCodecRegistry}, so the schema is parsed only once.
    *
    * @param schema the schema
    * @return the converter
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.kaaproject.kaa.server.common.log.shared.avro.gen.RecordHeader;
+
+/**
+ * Log event pack queued for a bulk append together with its delivery callback.
+ */
+public class BatchedLogEventPack {
+
+  private final LogEventPack logEventPack;
+  private final LogDeliveryCallback callback;
+  private RecordHeader header;
+
+  public BatchedLogEventPack(LogEventPack logEventPack, LogDeliveryCallback callback) {
+    this.logEventPack = logEventPack;
+    this.callback = callback;
+  }
+
+  public LogEventPack getLogEventPack() {
+    return logEventPack;
+  }
+
+  public LogDeliveryCallback getCallback() {
+    return callback;
+  }
+
+  /**
+   * Gets the record header. The header is generated by {@link AbstractLogAppender}
+   * before the batch is passed to the appender specific bulk append.
+   *
+   * @return the record header
+   */
+  public RecordHeader getHeader() {
+    return header;
+  }
+
+  public void setHeader(RecordHeader header) {
+    this.header = header;
+  }
+}
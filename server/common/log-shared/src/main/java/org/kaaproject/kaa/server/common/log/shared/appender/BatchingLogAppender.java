@@ -0,0 +1,214 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log appender decorator that accumulates log event packs of different
+ * endpoints and passes them to {@link LogAppender#doAppendBatch(List)} of the
+ * delegate once the batch is full or the max batch delay has elapsed.
+ *
+ * <p>Packs wait in a bounded queue. If the queue is full the pack is rejected
+ * with {@link LogDeliveryCallback#onInternalError()}, so the endpoint receives
+ * {@link LogDeliveryErrorCode#APPENDER_INTERNAL_ERROR} and retries the upload
+ * later instead of the appender queueing work without limit.</p>
+ *
+ * <p>{@link #close()} doesn't wait for the flusher thread. The flusher keeps
+ * flushing the queued packs for a limited time, rejects the rest and closes
+ * the delegate.</p>
+ */
+public class BatchingLogAppender implements LogAppender {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BatchingLogAppender.class);
+
+  private static final long CLOSE_TIMEOUT_MS = 5000L;
+  private static final long CLOSE_CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private final LogAppender delegate;
+  private final int maxBatchSize;
+  private final long maxBatchDelayNanos;
+  private final BlockingQueue<BatchedLogEventPack> queue;
+  private final Thread flusher;
+
+  private volatile boolean closed;
+  private volatile long closeDeadlineNanos;
+  private volatile boolean flusherStopped;
+
+  /**
+   * Create a new instance of BatchingLogAppender and start its flusher thread.
+   *
+   * @param delegate        the initialized appender
+   * @param maxBatchSize    the max count of log event packs in a batch
+   * @param maxBatchDelayMs the max time in milliseconds a pack waits for a batch to fill
+   * @param queueCapacity   the max count of log event packs waiting for append
+   */
+  public BatchingLogAppender(LogAppender delegate, int maxBatchSize, long maxBatchDelayMs,
+                             int queueCapacity) {
+    this.delegate = delegate;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMs);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.flusher = new Thread(this::flushLoop, "log-batch-" + delegate.getAppenderId());
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  @Override
+  public void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener) {
+    if (closed) {
+      LOG.info("Attempted to append to closed appender named [{}].", getName());
+      listener.onInternalError();
+    } else if (!queue.offer(new BatchedLogEventPack(logEventPack, listener))) {
+      LOG.warn("[{}] Log event pack rejected, batch queue is full", getName());
+      listener.onInternalError();
+    } else if (flusherStopped) {
+      // the pack was queued after the flusher rejected the pending ones
+      rejectPending();
+    }
+  }
+
+  @Override
+  public void doAppendBatch(List<BatchedLogEventPack> batch) {
+    for (BatchedLogEventPack entry : batch) {
+      doAppend(entry.getLogEventPack(), entry.getCallback());
+    }
+  }
+
+  /**
+   * Gets the count of log event packs waiting for append.
+   *
+   * @return the queue size
+   */
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  private void flushLoop() {
+    try {
+      flushUntilClosed();
+    } finally {
+      flusherStopped = true;
+      rejectPending();
+      delegate.close();
+    }
+  }
+
+  private void flushUntilClosed() {
+    while (!closed || (!queue.isEmpty() && System.nanoTime() - closeDeadlineNanos < 0)) {
+      List<BatchedLogEventPack> batch = new ArrayList<>(maxBatchSize);
+      try {
+        BatchedLogEventPack first = queue.poll(CLOSE_CHECK_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxBatchDelayNanos;
+        while (batch.size() < maxBatchSize) {
+          queue.drainTo(batch, maxBatchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= maxBatchSize || remaining <= 0 || closed) {
+            break;
+          }
+          BatchedLogEventPack next = queue.poll(
+              Math.min(remaining, CLOSE_CHECK_INTERVAL_NANOS), TimeUnit.NANOSECONDS);
+          if (next != null) {
+            batch.add(next);
+          }
+        }
+      } catch (InterruptedException ex) {
+        LOG.warn("[{}] Batch flusher interrupted", getName());
+        batch.forEach(entry -> entry.getCallback().onInternalError());
+        Thread.currentThread().interrupt();
+        return;
+      }
+      flush(batch);
+    }
+  }
+
+  private void flush(List<BatchedLogEventPack> batch) {
+    LOG.debug("[{}] Appending batch of {} log event packs", getName(), batch.size());
+    try {
+      delegate.doAppendBatch(batch);
+    } catch (Exception ex) {
+      LOG.warn("[{}] Failed to append batch of log event packs", getName(), ex);
+      batch.forEach(entry -> entry.getCallback().onInternalError());
+    }
+  }
+
+  private void rejectPending() {
+    List<BatchedLogEventPack> pending = new ArrayList<>();
+    queue.drainTo(pending);
+    pending.forEach(entry -> entry.getCallback().onInternalError());
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closeDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_TIMEOUT_MS);
+      closed = true;
+    }
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public void setName(String name) {
+    delegate.setName(name);
+  }
+
+  @Override
+  public String getAppenderId() {
+    return delegate.getAppenderId();
+  }
+
+  @Override
+  public void setAppenderId(String appenderId) {
+    delegate.setAppenderId(appenderId);
+  }
+
+  @Override
+  public void setApplicationToken(String applicationToken) {
+    delegate.setApplicationToken(applicationToken);
+  }
+
+  @Override
+  public void init(LogAppenderDto appender) {
+    delegate.init(appender);
+  }
+
+  @Override
+  public boolean isSchemaVersionSupported(int version) {
+    return delegate.isSchemaVersionSupported(version);
+  }
+
+  @Override
+  public boolean isDeliveryConfirmationRequired() {
+    return delegate.isDeliveryConfirmationRequired();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+
+import java.io.IOException;
+
+/**
+ * Binary view of a log event. Keeps the raw Avro data as it was received from
+ * the endpoint and decodes it to a {@link GenericRecord} only on request.
+ * Appenders that are able to store Avro binary data avoid the conversion to
+ * JSON done by {@link AbstractLogAppender#generateLogEvent}.
+ *
+ * <p>Not thread safe, the decoded record is cached by the event without
+ * synchronization.</p>
+ */
+public class BinaryLogEvent {
+
+  private final byte[] data;
+  private final GenericAvroConverter<GenericRecord> converter;
+  private GenericRecord record;
+
+  public BinaryLogEvent(byte[] data, GenericAvroConverter<GenericRecord> converter) {
+    this.data = data;
+    this.converter = converter;
+  }
+
+  /**
+   * Gets the raw Avro binary data of the event.
+   *
+   * @return the raw data
+   */
+  public byte[] getData() {
+    return data;
+  }
+
+  public Schema getSchema() {
+    return converter.getSchema();
+  }
+
+  /**
+   * Gets the decoded record. The data is decoded on the first call.
+   *
+   * @return the decoded record
+   * @throws IOException the io exception
+   */
+  public GenericRecord getRecord() throws IOException {
+    if (record == null) {
+      record = converter.decodeBinary(data);
+    }
+    return record;
+  }
+
+  /**
+   * Encodes the event to JSON.
+   *
+   * @return the JSON string
+   * @throws IOException the io exception
+   */
+  public String toJson() throws IOException {
+    return converter.encodeToJson(getRecord());
+  }
+}
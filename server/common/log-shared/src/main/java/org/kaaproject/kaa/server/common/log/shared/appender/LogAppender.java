@@ -18,6 +18,8 @@ package org.kaaproject.kaa.server.common.log.shared.appender;
 
 import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
 
+import java.util.List;
+
 public interface LogAppender {
 
   /**
@@ -70,6 +72,19 @@ public interface LogAppender {
    */
   void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener);
 
+  /**
+   * Do append a batch of log event packs. The callback of each pack is
+   * completed individually. Appenders that are able to write several packs
+   * in one request should override this method.
+   *
+   * @param batch the log event packs with their callbacks
+   */
+  default void doAppendBatch(List<BatchedLogEventPack> batch) {
+    for (BatchedLogEventPack entry : batch) {
+      doAppend(entry.getLogEventPack(), entry.getCallback());
+    }
+  }
+
   /**
    * Check if appender support schema version
    *
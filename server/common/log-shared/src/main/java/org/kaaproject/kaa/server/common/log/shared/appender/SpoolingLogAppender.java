@@ -0,0 +1,429 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.common.log.shared.spool.LogEventPackSerializer;
+import org.kaaproject.kaa.server.common.log.shared.spool.LogSpool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log appender decorator that writes log event packs to a {@link LogSpool}
+ * and confirms them as soon as they are durably spooled. A drain thread
+ * passes the spooled packs to {@link LogAppender#doAppendBatch(List)} of the
+ * delegate and removes them from the spool once the delegate confirms them,
+ * so slow or unavailable log storage doesn't hold endpoints back.
+ *
+ * <p>Delivery is at least once: packs whose delivery failed or was not
+ * confirmed before a restart are appended again. The drain rate may be
+ * limited to protect the log storage while a large backlog is drained. If a
+ * pack can't be spooled, e.g. because the spool is full, it is appended
+ * directly.</p>
+ *
+ * <p>Closing doesn't wait for the drain thread: the drain thread stops after
+ * the batch in progress, closes the delegate and releases the spool, see
+ * {@link #getTermination()}. When the appender is removed for good, see
+ * {@link #remove(long)}, the drain thread keeps draining the spool for a
+ * while, then reports the packs left in it as dropped and deletes the
+ * spool.</p>
+ */
+public class SpoolingLogAppender implements LogAppender {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SpoolingLogAppender.class);
+
+  private static final long CLOSE_CHECK_INTERVAL_MS = 100L;
+  private static final long IDLE_WAIT_MS = 1000L;
+  private static final long DELIVERY_TIMEOUT_MS = 60000L;
+  private static final long MIN_RETRY_BACKOFF_MS = 100L;
+  private static final long MAX_RETRY_BACKOFF_MS = 30000L;
+  private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final LogAppender delegate;
+  private final LogSpool spool;
+  private final int maxBatchSize;
+  private final double maxDrainRate;
+  private final Object signal = new Object();
+  private final AtomicLong drainedCount = new AtomicLong();
+  private final Thread drainer;
+  private final CompletableFuture<Void> termination = new CompletableFuture<>();
+
+  private volatile boolean closed;
+  private volatile boolean removed;
+  private volatile long removeDeadline;
+  private volatile double drainRate;
+
+  /**
+   * Create a new instance of SpoolingLogAppender and start its drain thread.
+   *
+   * @param delegate     the initialized appender
+   * @param spool        the spool of the appender
+   * @param maxBatchSize the max count of log event packs passed to the delegate at once
+   * @param maxDrainRate the max count of log event packs per second passed to the
+   *                     delegate, not limited if not positive
+   */
+  public SpoolingLogAppender(LogAppender delegate, LogSpool spool, int maxBatchSize,
+                             double maxDrainRate) {
+    this.delegate = delegate;
+    this.spool = spool;
+    this.maxDrainRate = maxDrainRate;
+    this.maxBatchSize = maxDrainRate > 0
+        ? Math.max(1, Math.min(maxBatchSize, (int) maxDrainRate))
+        : Math.max(1, maxBatchSize);
+    this.drainer = new Thread(this::drainLoop, "log-spool-" + delegate.getAppenderId());
+    this.drainer.setDaemon(true);
+    this.drainer.start();
+  }
+
+  @Override
+  public void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener) {
+    if (closed) {
+      LOG.info("Attempted to append to closed appender named [{}].", getName());
+      listener.onInternalError();
+      return;
+    }
+    try {
+      spool.append(LogEventPackSerializer.serialize(logEventPack));
+    } catch (IOException ex) {
+      if (closed) {
+        LOG.info("Attempted to append to closed appender named [{}].", getName());
+        listener.onInternalError();
+        return;
+      }
+      LOG.warn("[{}] Failed to spool log event pack, appending directly: {}",
+          getName(), ex.getMessage());
+      delegate.doAppend(logEventPack, listener);
+      return;
+    }
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+    listener.onSuccess();
+  }
+
+  /**
+   * Gets the size in bytes of the spooled log event packs.
+   *
+   * @return the spool size
+   */
+  public long getSpoolSize() {
+    return spool.getSize();
+  }
+
+  /**
+   * Gets the count of spooled log event packs not yet confirmed by the
+   * delegate.
+   *
+   * @return the lag
+   */
+  public long getLag() {
+    return spool.getPendingCount();
+  }
+
+  /**
+   * Gets the count of log event packs per second confirmed by the delegate
+   * during the last measurement window.
+   *
+   * @return the drain rate
+   */
+  public double getDrainRate() {
+    return drainRate;
+  }
+
+  /**
+   * Gets the future completed once the drain thread has closed the delegate
+   * and released the spool, after the appender is closed or removed.
+   *
+   * @return the termination future
+   */
+  public CompletableFuture<Void> getTermination() {
+    return termination.thenApply(ignored -> null);
+  }
+
+  private void drainLoop() {
+    long backoff = MIN_RETRY_BACKOFF_MS;
+    long nextDrainNanos = System.nanoTime();
+    long windowStart = System.nanoTime();
+    long windowDrained = 0;
+    try {
+      while (!closed || isDraining()) {
+        long now = System.nanoTime();
+        if (now - windowStart >= RATE_WINDOW_NANOS) {
+          long drained = drainedCount.get();
+          drainRate = (drained - windowDrained) * (double) RATE_WINDOW_NANOS / (now - windowStart);
+          windowDrained = drained;
+          windowStart = now;
+        }
+        List<byte[]> records;
+        synchronized (signal) {
+          records = spool.peek(maxBatchSize);
+          if (records.isEmpty()) {
+            if (removed) {
+              break;
+            }
+            signal.wait(IDLE_WAIT_MS);
+            continue;
+          }
+        }
+        if (maxDrainRate > 0) {
+          long delay = nextDrainNanos - System.nanoTime();
+          if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+          }
+          nextDrainNanos = Math.max(nextDrainNanos, System.nanoTime())
+              + (long) (records.size() * RATE_WINDOW_NANOS / maxDrainRate);
+        }
+        int confirmed = drain(records);
+        if (confirmed > 0) {
+          spool.commit(confirmed);
+          drainedCount.addAndGet(confirmed);
+        }
+        if (confirmed < records.size() && isRunning()) {
+          LOG.warn("[{}] Failed to append spooled log event packs, retrying in {} ms",
+              getName(), backoff);
+          pause(removed ? Math.min(backoff, removeDeadline - System.currentTimeMillis()) : backoff);
+          backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+        } else {
+          backoff = MIN_RETRY_BACKOFF_MS;
+        }
+      }
+    } catch (InterruptedException ex) {
+      LOG.info("[{}] Spool drainer interrupted", getName());
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        if (removed) {
+          deleteSpool();
+        } else {
+          delegate.close();
+          spool.close();
+        }
+      } finally {
+        termination.complete(null);
+      }
+    }
+  }
+
+  private boolean isDraining() {
+    return removed && System.currentTimeMillis() < removeDeadline;
+  }
+
+  private boolean isRunning() {
+    return !closed || isDraining();
+  }
+
+  /**
+   * Waits for the given time unless the appender is closed. Unlike waiting on
+   * the signal once, isn't cut short by the appended packs.
+   */
+  private void pause(long millis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + millis;
+    synchronized (signal) {
+      long remaining;
+      while (isRunning() && (remaining = deadline - System.currentTimeMillis()) > 0) {
+        signal.wait(remaining);
+      }
+    }
+  }
+
+  private void deleteSpool() {
+    delegate.close();
+    long dropped = spool.getPendingCount();
+    if (dropped > 0) {
+      LOG.warn("[{}] Dropped {} spooled log event packs of removed appender",
+          getName(), dropped);
+    }
+    spool.delete();
+  }
+
+  /**
+   * Passes the records to the delegate and waits for the confirmations.
+   *
+   * @param records the spooled records
+   * @return the count of leading records confirmed by the delegate
+   */
+  private int drain(List<byte[]> records) throws InterruptedException {
+    List<CompletableFuture<Boolean>> results = new ArrayList<>(records.size());
+    List<BatchedLogEventPack> batch = new ArrayList<>(records.size());
+    for (byte[] record : records) {
+      CompletableFuture<Boolean> result = new CompletableFuture<>();
+      results.add(result);
+      try {
+        LogEventPack pack = LogEventPackSerializer.deserialize(record);
+        batch.add(new BatchedLogEventPack(pack, new SpoolDeliveryCallback(result)));
+      } catch (IOException ex) {
+        LOG.error("[{}] Dropping malformed spooled log event pack", getName(), ex);
+        result.complete(true);
+      }
+    }
+    try {
+      if (!batch.isEmpty()) {
+        delegate.doAppendBatch(batch);
+      }
+      awaitConfirmations(
+          CompletableFuture.allOf(results.toArray(new CompletableFuture[results.size()])));
+    } catch (RuntimeException ex) {
+      LOG.warn("[{}] Failed to append spooled log event packs", getName(), ex);
+    }
+    int confirmed = 0;
+    for (CompletableFuture<Boolean> result : results) {
+      if (!Boolean.TRUE.equals(result.getNow(false))) {
+        break;
+      }
+      confirmed++;
+    }
+    return confirmed;
+  }
+
+  /**
+   * Waits for the delegate to confirm the passed packs. Stops waiting once the
+   * appender is closed, the unconfirmed packs stay in the spool.
+   */
+  private void awaitConfirmations(CompletableFuture<Void> confirmations)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+    while (!confirmations.isDone() && isRunning()) {
+      long remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        LOG.warn("[{}] Spooled log event packs not confirmed in time", getName());
+        return;
+      }
+      try {
+        confirmations.get(Math.min(remaining, CLOSE_CHECK_INTERVAL_MS), TimeUnit.MILLISECONDS);
+      } catch (ExecutionException | TimeoutException ex) {
+        // checked on the next iteration
+      }
+    }
+  }
+
+  /**
+   * Stops accepting log event packs and lets the drain thread pass the
+   * spooled ones to the delegate for up to the given time. Then the drain
+   * thread closes the delegate and deletes the spool, the packs still
+   * spooled are reported as dropped. Doesn't wait for the drain thread.
+   *
+   * @param drainTimeoutMs the max time in milliseconds to drain the spool
+   */
+  public synchronized void remove(long drainTimeoutMs) {
+    if (removed) {
+      return;
+    }
+    if (closed) {
+      termination.thenRun(spool::delete);
+      return;
+    }
+    removeDeadline = System.currentTimeMillis() + drainTimeoutMs;
+    removed = true;
+    closed = true;
+    synchronized (signal) {
+      signal.notifyAll();
+    }
+  }
+
+  /**
+   * Stops accepting log event packs. Doesn't wait for the drain thread, which
+   * stops after the batch in progress, then closes the delegate and the spool.
+   * The packs not confirmed by then stay in the spool.
+   */
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      synchronized (signal) {
+        signal.notifyAll();
+      }
+    }
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public void setName(String name) {
+    delegate.setName(name);
+  }
+
+  @Override
+  public String getAppenderId() {
+    return delegate.getAppenderId();
+  }
+
+  @Override
+  public void setAppenderId(String appenderId) {
+    delegate.setAppenderId(appenderId);
+  }
+
+  @Override
+  public void setApplicationToken(String applicationToken) {
+    delegate.setApplicationToken(applicationToken);
+  }
+
+  @Override
+  public void init(LogAppenderDto appender) {
+    delegate.init(appender);
+  }
+
+  @Override
+  public boolean isSchemaVersionSupported(int version) {
+    return delegate.isSchemaVersionSupported(version);
+  }
+
+  @Override
+  public boolean isDeliveryConfirmationRequired() {
+    return delegate.isDeliveryConfirmationRequired();
+  }
+
+  private static class SpoolDeliveryCallback implements LogDeliveryCallback {
+
+    private final CompletableFuture<Boolean> result;
+
+    SpoolDeliveryCallback(CompletableFuture<Boolean> result) {
+      this.result = result;
+    }
+
+    @Override
+    public void onSuccess() {
+      result.complete(true);
+    }
+
+    @Override
+    public void onInternalError() {
+      result.complete(false);
+    }
+
+    @Override
+    public void onConnectionError() {
+      result.complete(false);
+    }
+
+    @Override
+    public void onRemoteError() {
+      result.complete(false);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.spool;
+
+import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseProfileInfo;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseSchemaInfo;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.ProfileInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts log event packs to spool records and back. A record holds
+ * everything appenders read from a pack: the endpoint and user, the log
+ * schema, the profiles and the raw log events.
+ */
+public final class LogEventPackSerializer {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private LogEventPackSerializer() {
+  }
+
+  /**
+   * Serializes the log event pack.
+   *
+   * @param pack the log event pack
+   * @return the record
+   * @throws IOException if the pack can't be serialized
+   */
+  public static byte[] serialize(LogEventPack pack) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(FORMAT_VERSION);
+    writeString(out, pack.getEndpointKey());
+    writeString(out, pack.getUserId());
+    out.writeLong(pack.getDateCreated());
+    LogSchema logSchema = pack.getLogSchema();
+    writeString(out, logSchema.getId());
+    writeString(out, logSchema.getApplicationId());
+    writeString(out, logSchema.getCtlSchemaId());
+    out.writeInt(logSchema.getVersion());
+    writeString(out, logSchema.getSchema());
+    writeProfile(out, pack.getClientProfile());
+    writeProfile(out, pack.getServerProfile());
+    List<LogEvent> events = pack.getEvents();
+    out.writeInt(events.size());
+    for (LogEvent event : events) {
+      out.writeInt(event.getLogData().length);
+      out.write(event.getLogData());
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserializes the log event pack.
+   *
+   * @param record the record
+   * @return the log event pack
+   * @throws IOException if the record is malformed
+   */
+  public static LogEventPack deserialize(byte[] record) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    int version = in.readUnsignedByte();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported spool record version " + version);
+    }
+    String endpointKey = readString(in);
+    String userId = readString(in);
+    long dateCreated = in.readLong();
+    LogSchemaDto logSchemaDto = new LogSchemaDto();
+    logSchemaDto.setId(readString(in));
+    logSchemaDto.setApplicationId(readString(in));
+    logSchemaDto.setCtlSchemaId(readString(in));
+    logSchemaDto.setVersion(in.readInt());
+    LogSchema logSchema = new LogSchema(logSchemaDto, readString(in));
+    ProfileInfo clientProfile = readProfile(in);
+    ProfileInfo serverProfile = readProfile(in);
+    int eventCount = in.readInt();
+    List<LogEvent> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      byte[] data = new byte[in.readInt()];
+      in.readFully(data);
+      LogEvent event = new LogEvent();
+      event.setLogData(data);
+      events.add(event);
+    }
+    return new SpooledLogEventPack(endpointKey, userId, dateCreated, logSchema, events,
+        clientProfile, serverProfile);
+  }
+
+  private static void writeProfile(DataOutput out, ProfileInfo profile) throws IOException {
+    out.writeBoolean(profile != null);
+    if (profile != null) {
+      writeString(out, profile.getSchemaId());
+      writeString(out, profile.getSchema());
+      writeString(out, profile.getBody());
+    }
+  }
+
+  private static ProfileInfo readProfile(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    BaseSchemaInfo schemaInfo = new BaseSchemaInfo(readString(in), readString(in));
+    return new BaseProfileInfo(schemaInfo, readString(in));
+  }
+
+  private static void writeString(DataOutput out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] data = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(data.length);
+      out.write(data);
+    }
+  }
+
+  private static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] data = new byte[length];
+    in.readFully(data);
+    return new String(data, StandardCharsets.UTF_8);
+  }
+}
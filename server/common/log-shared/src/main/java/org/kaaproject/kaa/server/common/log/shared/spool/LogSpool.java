@@ -0,0 +1,372 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Durable FIFO queue of records stored in memory-mapped, append-only segment
+ * files. Each record is written as its length, the CRC32 of its payload and
+ * the payload itself, and is forced to disk before {@link #append(byte[])}
+ * returns. The read position is kept in a separate cursor file which is
+ * forced on every {@link #commit(int)}, segments are deleted once all of their
+ * records are committed.
+ *
+ * <p>On startup the records after the cursor are scanned, a segment ends at the
+ * first record with a bad length or checksum, so a record torn by a crash is
+ * dropped together with anything after it in the same segment.</p>
+ */
+public class LogSpool implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LogSpool.class);
+
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".spool";
+  private static final String CURSOR_FILE_NAME = "cursor";
+
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final int CURSOR_SIZE = 12;
+  private static final int ZERO_CHUNK_SIZE = 8192;
+
+  private final File dir;
+  private final int segmentSize;
+  private final long maxSize;
+  private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+  private final MappedByteBuffer cursor;
+
+  private long readSegment;
+  private int readPosition;
+  private long writeSegment;
+  private int writePosition;
+  private long pendingBytes;
+  private long pendingCount;
+  private boolean closed;
+
+  /**
+   * Opens the spool in the given directory and recovers the records which
+   * were not committed before.
+   *
+   * @param dir         the spool directory, created if missing
+   * @param segmentSize the size of a segment file in bytes
+   * @param maxSize     the max size in bytes of records waiting for commit
+   * @throws IOException if the spool files can't be opened
+   */
+  public LogSpool(File dir, int segmentSize, long maxSize) throws IOException {
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Failed to create spool directory " + dir);
+    }
+    this.dir = dir;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+    this.cursor = map(new File(dir, CURSOR_FILE_NAME), CURSOR_SIZE);
+    File[] files = dir.listFiles((parent, name) ->
+        name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+    if (files != null) {
+      for (File file : files) {
+        String name = file.getName();
+        long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+            name.length() - SEGMENT_SUFFIX.length()));
+        segments.put(id, map(file, file.length() > 0 ? file.length() : segmentSize));
+      }
+    }
+    recover();
+  }
+
+  private void recover() throws IOException {
+    long cursorSegment = cursor.getLong(0);
+    int cursorPosition = cursor.getInt(8);
+    while (!segments.isEmpty() && segments.firstKey() < cursorSegment) {
+      deleteSegment(segments.firstKey());
+    }
+    if (segments.isEmpty()) {
+      readSegment = cursorSegment;
+      readPosition = 0;
+      writeSegment = cursorSegment;
+      writePosition = 0;
+      segments.put(writeSegment, map(segmentFile(writeSegment), segmentSize));
+      saveCursor();
+      return;
+    }
+    readSegment = segments.firstKey();
+    readPosition = readSegment == cursorSegment ? cursorPosition : 0;
+    for (Map.Entry<Long, MappedByteBuffer> entry : segments.entrySet()) {
+      MappedByteBuffer segment = entry.getValue();
+      int position = entry.getKey() == readSegment ? readPosition : 0;
+      int length;
+      while ((length = recordLength(segment, position)) > 0) {
+        pendingBytes += RECORD_HEADER_SIZE + length;
+        pendingCount++;
+        position += RECORD_HEADER_SIZE + length;
+      }
+      writeSegment = entry.getKey();
+      writePosition = position;
+    }
+    zeroTail(segments.get(writeSegment), writePosition);
+    LOG.info("Recovered {} spooled records ({} bytes) from {}", pendingCount, pendingBytes, dir);
+  }
+
+  /**
+   * Appends the record and forces it to disk.
+   *
+   * @param payload the record payload
+   * @throws IOException if the spool is closed, full or the record is larger
+   *                     than a segment
+   */
+  public synchronized void append(byte[] payload) throws IOException {
+    if (closed) {
+      throw new IOException("Spool " + dir + " is closed");
+    }
+    int recordSize = RECORD_HEADER_SIZE + payload.length;
+    if (recordSize > segmentSize) {
+      throw new IOException("Record of " + payload.length + " bytes doesn't fit into a segment");
+    }
+    if (pendingBytes + recordSize > maxSize) {
+      throw new IOException("Spool " + dir + " is full");
+    }
+    MappedByteBuffer segment = segments.get(writeSegment);
+    if (writePosition + recordSize > segment.capacity()) {
+      writeSegment++;
+      writePosition = 0;
+      segment = map(segmentFile(writeSegment), segmentSize);
+      segments.put(writeSegment, segment);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    ByteBuffer data = segment.duplicate();
+    data.position(writePosition + RECORD_HEADER_SIZE);
+    data.put(payload);
+    segment.putInt(writePosition + 4, (int) crc.getValue());
+    segment.putInt(writePosition, payload.length);
+    segment.force();
+    writePosition += recordSize;
+    pendingBytes += recordSize;
+    pendingCount++;
+  }
+
+  /**
+   * Returns up to the given count of the oldest records without removing
+   * them from the spool.
+   *
+   * @param maxCount the max count of records
+   * @return the records, empty if the spool is empty
+   */
+  public synchronized List<byte[]> peek(int maxCount) {
+    List<byte[]> records = new ArrayList<>();
+    if (closed) {
+      return records;
+    }
+    skipExhausted();
+    long segmentId = readSegment;
+    int position = readPosition;
+    while (records.size() < maxCount && !(segmentId == writeSegment && position >= writePosition)) {
+      MappedByteBuffer segment = segments.get(segmentId);
+      int length = recordLength(segment, position);
+      if (length > 0) {
+        byte[] payload = new byte[length];
+        ByteBuffer data = segment.duplicate();
+        data.position(position + RECORD_HEADER_SIZE);
+        data.get(payload);
+        records.add(payload);
+        position += RECORD_HEADER_SIZE + length;
+      } else if (segmentId == writeSegment) {
+        break;
+      } else {
+        segmentId = segments.higherKey(segmentId);
+        position = 0;
+      }
+    }
+    return records;
+  }
+
+  /**
+   * Removes the given count of the oldest records from the spool.
+   *
+   * @param count the count of records, not more than returned by the last
+   *              {@link #peek(int)}
+   */
+  public synchronized void commit(int count) {
+    if (closed) {
+      return;
+    }
+    for (int i = 0; i < count; i++) {
+      skipExhausted();
+      if (readSegment == writeSegment && readPosition >= writePosition) {
+        throw new IllegalStateException("Spool " + dir + " has only " + i + " records to commit");
+      }
+      int recordSize = RECORD_HEADER_SIZE + segments.get(readSegment).getInt(readPosition);
+      readPosition += recordSize;
+      pendingBytes -= recordSize;
+      pendingCount--;
+    }
+    saveCursor();
+  }
+
+  /**
+   * Moves the read position to the next record, deleting the segments which
+   * have no records left.
+   */
+  private void skipExhausted() {
+    while (true) {
+      if (readSegment == writeSegment && readPosition >= writePosition) {
+        return;
+      }
+      if (recordLength(segments.get(readSegment), readPosition) > 0) {
+        return;
+      }
+      if (readSegment == writeSegment) {
+        LOG.warn("Dropping corrupted records at {} of segment {} in {}",
+            readPosition, readSegment, dir);
+        readPosition = writePosition;
+        pendingBytes = 0;
+        pendingCount = 0;
+      } else {
+        deleteSegment(readSegment);
+        readSegment = segments.firstKey();
+        readPosition = 0;
+      }
+      saveCursor();
+    }
+  }
+
+  /**
+   * Returns the size in bytes of the records waiting for commit.
+   *
+   * @return the size in bytes
+   */
+  public synchronized long getSize() {
+    return pendingBytes;
+  }
+
+  /**
+   * Returns the count of the records waiting for commit.
+   *
+   * @return the count of records
+   */
+  public synchronized long getPendingCount() {
+    return pendingCount;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      segments.values().forEach(MappedByteBuffer::force);
+      segments.clear();
+    }
+  }
+
+  /**
+   * Closes the spool and deletes its directory together with the records
+   * still waiting for commit.
+   */
+  public synchronized void delete() {
+    close();
+    File[] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (!file.delete()) {
+          LOG.warn("Failed to delete spool file {}", file);
+        }
+      }
+    }
+    if (!dir.delete()) {
+      LOG.warn("Failed to delete spool directory {}", dir);
+    }
+  }
+
+  private void saveCursor() {
+    cursor.putLong(0, readSegment);
+    cursor.putInt(8, readPosition);
+    cursor.force();
+  }
+
+  private void deleteSegment(long id) {
+    segments.remove(id);
+    File file = segmentFile(id);
+    if (!file.delete()) {
+      LOG.warn("Failed to delete spool segment {}", file);
+    }
+  }
+
+  private File segmentFile(long id) {
+    return new File(dir, String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Returns the payload length of a valid record at the given position.
+   *
+   * @return the payload length, or -1 if there is no valid record
+   */
+  private static int recordLength(MappedByteBuffer segment, int position) {
+    if (position + RECORD_HEADER_SIZE > segment.capacity()) {
+      return -1;
+    }
+    int length = segment.getInt(position);
+    if (length <= 0 || length > segment.capacity() - position - RECORD_HEADER_SIZE) {
+      return -1;
+    }
+    ByteBuffer data = segment.duplicate();
+    data.limit(position + RECORD_HEADER_SIZE + length);
+    data.position(position + RECORD_HEADER_SIZE);
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    return (int) crc.getValue() == segment.getInt(position + 4) ? length : -1;
+  }
+
+  /**
+   * Clears the leftovers of torn writes after the last valid record, so that
+   * the following appends can't be mixed up with them.
+   */
+  private static void zeroTail(MappedByteBuffer segment, int from) {
+    int end = from;
+    for (int i = from; i < segment.capacity(); i++) {
+      if (segment.get(i) != 0) {
+        end = i + 1;
+      }
+    }
+    if (end > from) {
+      byte[] zeros = new byte[ZERO_CHUNK_SIZE];
+      ByteBuffer data = segment.duplicate();
+      data.position(from);
+      while (data.position() < end) {
+        data.put(zeros, 0, Math.min(zeros.length, end - data.position()));
+      }
+      segment.force();
+    }
+  }
+
+  private static MappedByteBuffer map(File file, long size) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+         FileChannel channel = raf.getChannel()) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+  }
+}
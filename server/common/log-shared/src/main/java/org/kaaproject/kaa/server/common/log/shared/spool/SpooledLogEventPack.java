@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.spool;
+
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.ProfileInfo;
+
+import java.util.List;
+
+/**
+ * Log event pack read back from a spool record.
+ */
+class SpooledLogEventPack implements LogEventPack {
+
+  private final String endpointKey;
+
+  private final String userId;
+
+  private final long dateCreated;
+
+  private final LogSchema logSchema;
+
+  private final List<LogEvent> events;
+
+  private final ProfileInfo clientProfile;
+
+  private final ProfileInfo serverProfile;
+
+  SpooledLogEventPack(String endpointKey, String userId, long dateCreated, LogSchema logSchema,
+                      List<LogEvent> events, ProfileInfo clientProfile,
+                      ProfileInfo serverProfile) {
+    this.endpointKey = endpointKey;
+    this.userId = userId;
+    this.dateCreated = dateCreated;
+    this.logSchema = logSchema;
+    this.events = events;
+    this.clientProfile = clientProfile;
+    this.serverProfile = serverProfile;
+  }
+
+  @Override
+  public String getEndpointKey() {
+    return endpointKey;
+  }
+
+  @Override
+  public String getUserId() {
+    return userId;
+  }
+
+  @Override
+  public long getDateCreated() {
+    return dateCreated;
+  }
+
+  @Override
+  public LogSchema getLogSchema() {
+    return logSchema;
+  }
+
+  @Override
+  public List<LogEvent> getEvents() {
+    return events;
+  }
+
+  @Override
+  public ProfileInfo getClientProfile() {
+    return clientProfile;
+  }
+
+  @Override
+  public ProfileInfo getServerProfile() {
+    return serverProfile;
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class BatchingLogAppenderTest {
+
+  private static final long TIMEOUT_MS = 5000;
+  private static final long LONG_DELAY_MS = 60000;
+
+  @Test
+  public void testFlushesFullBatch() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 3, LONG_DELAY_MS, 10);
+    try {
+      for (int i = 0; i < 3; i++) {
+        appender.doAppend(pack("endpoint-" + i), new RecordingCallback());
+      }
+      await(() -> delegate.getBatches().size() == 1);
+      Assert.assertEquals(Arrays.asList("endpoint-0", "endpoint-1", "endpoint-2"),
+          delegate.getBatches().get(0));
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testFlushesAfterMaxDelay() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 10, 100, 10);
+    try {
+      long start = System.nanoTime();
+      appender.doAppend(pack("endpoint-0"), new RecordingCallback());
+      appender.doAppend(pack("endpoint-1"), new RecordingCallback());
+      await(() -> delegate.getBatches().size() == 1);
+      Assert.assertEquals(Arrays.asList("endpoint-0", "endpoint-1"), delegate.getBatches().get(0));
+      long delay = delegate.getFlushTimes().get(0) - start;
+      Assert.assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(100));
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testRejectsPacksWhenQueueIsFull() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    delegate.block();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 1, LONG_DELAY_MS, 1);
+    try {
+      RecordingCallback first = new RecordingCallback();
+      appender.doAppend(pack("endpoint-0"), first);
+      Assert.assertTrue(delegate.awaitEntered());
+      RecordingCallback second = new RecordingCallback();
+      appender.doAppend(pack("endpoint-1"), second);
+      RecordingCallback third = new RecordingCallback();
+      appender.doAppend(pack("endpoint-2"), third);
+      Assert.assertEquals("internalError", third.getResult());
+      Assert.assertEquals(1, appender.getQueueSize());
+
+      delegate.release();
+      await(() -> "success".equals(second.getResult()));
+      Assert.assertEquals("success", first.getResult());
+    } finally {
+      delegate.release();
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testPassesDelegateResultsToCallbacks() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 2, LONG_DELAY_MS, 10);
+    try {
+      RecordingCallback delivered = new RecordingCallback();
+      RecordingCallback failed = new RecordingCallback();
+      appender.doAppend(pack("endpoint"), delivered);
+      appender.doAppend(pack("fail-endpoint"), failed);
+      await(() -> delivered.getResult() != null && failed.getResult() != null);
+      Assert.assertEquals("success", delivered.getResult());
+      Assert.assertEquals("remoteError", failed.getResult());
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testRejectsBatchIfDelegateFails() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    delegate.setFailure(new IllegalStateException("append failed"));
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 2, LONG_DELAY_MS, 10);
+    try {
+      RecordingCallback first = new RecordingCallback();
+      RecordingCallback second = new RecordingCallback();
+      appender.doAppend(pack("endpoint-0"), first);
+      appender.doAppend(pack("endpoint-1"), second);
+      await(() -> first.getResult() != null && second.getResult() != null);
+      Assert.assertEquals("internalError", first.getResult());
+      Assert.assertEquals("internalError", second.getResult());
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testCloseFlushesQueuedPacksAndClosesDelegate() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 10, LONG_DELAY_MS, 10);
+    RecordingCallback first = new RecordingCallback();
+    RecordingCallback second = new RecordingCallback();
+    appender.doAppend(pack("endpoint-0"), first);
+    appender.doAppend(pack("endpoint-1"), second);
+
+    appender.close();
+    RecordingCallback afterClose = new RecordingCallback();
+    appender.doAppend(pack("endpoint-2"), afterClose);
+    Assert.assertEquals("internalError", afterClose.getResult());
+
+    await(delegate::isClosed);
+    Assert.assertEquals("success", first.getResult());
+    Assert.assertEquals("success", second.getResult());
+    Assert.assertEquals(Collections.singletonList(Arrays.asList("endpoint-0", "endpoint-1")),
+        delegate.getBatches());
+  }
+
+  @Test
+  public void testCloseDoesNotWaitForFlusher() throws Exception {
+    RecordingLogAppender delegate = new RecordingLogAppender();
+    delegate.block();
+    BatchingLogAppender appender = new BatchingLogAppender(delegate, 1, LONG_DELAY_MS, 10);
+    try {
+      appender.doAppend(pack("endpoint"), new RecordingCallback());
+      Assert.assertTrue(delegate.awaitEntered());
+      long start = System.nanoTime();
+      appender.close();
+      Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+      Assert.assertFalse(delegate.isClosed());
+    } finally {
+      delegate.release();
+    }
+    await(delegate::isClosed);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(condition.getAsBoolean());
+  }
+
+  private static LogEventPack pack(String endpointKey) {
+    EndpointProfileDataDto profile = new EndpointProfileDataDto("id", endpointKey, 1, "", 1, "");
+    return new BaseLogEventPack(profile, System.currentTimeMillis(), 1,
+        Collections.<LogEvent>emptyList());
+  }
+
+  private static class RecordingCallback implements LogDeliveryCallback {
+
+    private volatile String result;
+
+    String getResult() {
+      return result;
+    }
+
+    @Override
+    public void onSuccess() {
+      result = "success";
+    }
+
+    @Override
+    public void onInternalError() {
+      result = "internalError";
+    }
+
+    @Override
+    public void onConnectionError() {
+      result = "connectionError";
+    }
+
+    @Override
+    public void onRemoteError() {
+      result = "remoteError";
+    }
+  }
+
+  /**
+   * Records the appended batches. Packs of endpoints with the "fail" prefix
+   * are failed with a remote error, the other ones are confirmed.
+   */
+  private static class RecordingLogAppender implements LogAppender {
+
+    private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> flushTimes = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private volatile CountDownLatch blocker;
+    private volatile RuntimeException failure;
+    private volatile boolean closed;
+
+    void block() {
+      blocker = new CountDownLatch(1);
+    }
+
+    void release() {
+      if (blocker != null) {
+        blocker.countDown();
+      }
+    }
+
+    boolean awaitEntered() throws InterruptedException {
+      return entered.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    void setFailure(RuntimeException failure) {
+      this.failure = failure;
+    }
+
+    List<List<String>> getBatches() {
+      return new ArrayList<>(batches);
+    }
+
+    List<Long> getFlushTimes() {
+      return new ArrayList<>(flushTimes);
+    }
+
+    boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public void doAppendBatch(List<BatchedLogEventPack> batch) {
+      entered.countDown();
+      CountDownLatch currentBlocker = blocker;
+      if (currentBlocker != null) {
+        try {
+          currentBlocker.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      flushTimes.add(System.nanoTime());
+      List<String> keys = new ArrayList<>(batch.size());
+      batch.forEach(entry -> keys.add(entry.getLogEventPack().getEndpointKey()));
+      batches.add(keys);
+      if (failure != null) {
+        throw failure;
+      }
+      for (BatchedLogEventPack entry : batch) {
+        if (entry.getLogEventPack().getEndpointKey().startsWith("fail")) {
+          entry.getCallback().onRemoteError();
+        } else {
+          entry.getCallback().onSuccess();
+        }
+      }
+    }
+
+    @Override
+    public void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener) {
+      doAppendBatch(Collections.singletonList(new BatchedLogEventPack(logEventPack, listener)));
+    }
+
+    @Override
+    public String getName() {
+      return "recording";
+    }
+
+    @Override
+    public void setName(String name) {
+    }
+
+    @Override
+    public String getAppenderId() {
+      return "recording";
+    }
+
+    @Override
+    public void setAppenderId(String appenderId) {
+    }
+
+    @Override
+    public void setApplicationToken(String applicationToken) {
+    }
+
+    @Override
+    public void init(LogAppenderDto appender) {
+    }
+
+    @Override
+    public boolean isSchemaVersionSupported(int version) {
+      return true;
+    }
+
+    @Override
+    public boolean isDeliveryConfirmationRequired() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
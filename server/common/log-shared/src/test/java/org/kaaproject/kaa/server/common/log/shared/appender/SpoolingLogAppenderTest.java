@@ -0,0 +1,325 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.appender;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
+import org.kaaproject.kaa.common.dto.logs.LogAppenderDto;
+import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.spool.LogEventPackSerializer;
+import org.kaaproject.kaa.server.common.log.shared.spool.LogSpool;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class SpoolingLogAppenderTest {
+
+  private static final int SEGMENT_SIZE = 4096;
+  private static final long MAX_SIZE = 1024 * 1024;
+  private static final int BATCH_SIZE = 10;
+  private static final long TIMEOUT_MS = 5000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testPartialConfirmationCommitsLeadingPacks() throws Exception {
+    LogSpool spool = new LogSpool(folder.newFolder(), SEGMENT_SIZE, MAX_SIZE);
+    for (int i = 0; i < 3; i++) {
+      spool.append(LogEventPackSerializer.serialize(pack("endpoint-" + i)));
+    }
+    StubLogAppender delegate = new StubLogAppender(true, false, true);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    try {
+      await(() -> appender.getLag() == 0);
+      Assert.assertEquals(Arrays.asList("endpoint-0", "endpoint-1", "endpoint-2",
+          "endpoint-1", "endpoint-2"), delegate.getAppended());
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testRetriesWithBackoff() throws Exception {
+    LogSpool spool = new LogSpool(folder.newFolder(), SEGMENT_SIZE, MAX_SIZE);
+    spool.append(LogEventPackSerializer.serialize(pack("endpoint")));
+    StubLogAppender delegate = new StubLogAppender(false, false, true);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    try {
+      await(() -> appender.getLag() == 0);
+      List<Long> batchTimes = delegate.getBatchTimes();
+      Assert.assertEquals(3, batchTimes.size());
+      long firstBackoff = batchTimes.get(1) - batchTimes.get(0);
+      long secondBackoff = batchTimes.get(2) - batchTimes.get(1);
+      Assert.assertTrue(firstBackoff >= TimeUnit.MILLISECONDS.toNanos(100));
+      Assert.assertTrue(secondBackoff >= TimeUnit.MILLISECONDS.toNanos(200));
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testConfirmsSpooledPacks() throws Exception {
+    LogSpool spool = new LogSpool(folder.newFolder(), SEGMENT_SIZE, MAX_SIZE);
+    StubLogAppender delegate = new StubLogAppender();
+    delegate.setDefaultOutcome(false);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    try {
+      RecordingCallback callback = new RecordingCallback();
+      appender.doAppend(pack("endpoint"), callback);
+      Assert.assertEquals("success", callback.getResult());
+      Assert.assertEquals(1, appender.getLag());
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testAppendsDirectlyWhenSpoolIsFull() throws Exception {
+    LogSpool spool = new LogSpool(folder.newFolder(), SEGMENT_SIZE, 16);
+    StubLogAppender delegate = new StubLogAppender(false);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    try {
+      RecordingCallback callback = new RecordingCallback();
+      appender.doAppend(pack("endpoint"), callback);
+      Assert.assertEquals("remoteError", callback.getResult());
+      Assert.assertEquals(Collections.singletonList("endpoint"), delegate.getAppended());
+      Assert.assertEquals(0, appender.getLag());
+    } finally {
+      appender.close();
+    }
+  }
+
+  @Test
+  public void testRemoveDrainsAndDeletesSpool() throws Exception {
+    File dir = folder.newFolder();
+    LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, MAX_SIZE);
+    StubLogAppender delegate = new StubLogAppender();
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    appender.doAppend(pack("endpoint-0"), new RecordingCallback());
+    appender.doAppend(pack("endpoint-1"), new RecordingCallback());
+    appender.remove(TIMEOUT_MS);
+
+    RecordingCallback callback = new RecordingCallback();
+    appender.doAppend(pack("endpoint-2"), callback);
+    Assert.assertEquals("internalError", callback.getResult());
+
+    await(() -> delegate.isClosed() && !dir.exists());
+    Assert.assertEquals(Arrays.asList("endpoint-0", "endpoint-1"), delegate.getAppended());
+  }
+
+  @Test
+  public void testRemoveDropsUndeliveredPacks() throws Exception {
+    File dir = folder.newFolder();
+    LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, MAX_SIZE);
+    StubLogAppender delegate = new StubLogAppender();
+    delegate.setDefaultOutcome(false);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    appender.doAppend(pack("endpoint"), new RecordingCallback());
+    appender.remove(200);
+
+    await(() -> delegate.isClosed() && !dir.exists());
+    Assert.assertEquals(1, appender.getLag());
+  }
+
+  @Test
+  public void testCloseDoesNotWaitForConfirmations() throws Exception {
+    File dir = folder.newFolder();
+    LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, MAX_SIZE);
+    StubLogAppender delegate = new StubLogAppender();
+    delegate.setSilent(true);
+    SpoolingLogAppender appender = new SpoolingLogAppender(delegate, spool, BATCH_SIZE, 0);
+    appender.doAppend(pack("endpoint"), new RecordingCallback());
+    await(() -> delegate.getAppended().size() == 1);
+
+    long start = System.nanoTime();
+    appender.close();
+    Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+    appender.getTermination().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Assert.assertTrue(delegate.isClosed());
+
+    LogSpool reopened = new LogSpool(dir, SEGMENT_SIZE, MAX_SIZE);
+    try {
+      Assert.assertEquals(1, reopened.getPendingCount());
+    } finally {
+      reopened.close();
+    }
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(condition.getAsBoolean());
+  }
+
+  private static LogEventPack pack(String endpointKey) {
+    EndpointProfileDataDto profile = new EndpointProfileDataDto("id", endpointKey, 1, "", 1, "");
+    LogEvent event = new LogEvent();
+    event.setLogData(new byte[]{1, 2, 3});
+    BaseLogEventPack pack = new BaseLogEventPack(profile, System.currentTimeMillis(), 1,
+        Collections.singletonList(event));
+    LogSchemaDto logSchemaDto = new LogSchemaDto();
+    logSchemaDto.setVersion(1);
+    pack.setLogSchema(new LogSchema(logSchemaDto, "schema"));
+    return pack;
+  }
+
+  private static class RecordingCallback implements LogDeliveryCallback {
+
+    private volatile String result;
+
+    String getResult() {
+      return result;
+    }
+
+    @Override
+    public void onSuccess() {
+      result = "success";
+    }
+
+    @Override
+    public void onInternalError() {
+      result = "internalError";
+    }
+
+    @Override
+    public void onConnectionError() {
+      result = "connectionError";
+    }
+
+    @Override
+    public void onRemoteError() {
+      result = "remoteError";
+    }
+  }
+
+  /**
+   * Confirms or fails the appended packs in the given order, then the rest
+   * of them with the default outcome. A silent stub leaves the packs
+   * unconfirmed.
+   */
+  private static class StubLogAppender implements LogAppender {
+
+    private final Queue<Boolean> outcomes = new ConcurrentLinkedQueue<>();
+    private final List<String> appended = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> batchTimes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean defaultOutcome = true;
+    private volatile boolean silent;
+    private volatile boolean closed;
+
+    StubLogAppender(Boolean... outcomes) {
+      this.outcomes.addAll(Arrays.asList(outcomes));
+    }
+
+    void setDefaultOutcome(boolean defaultOutcome) {
+      this.defaultOutcome = defaultOutcome;
+    }
+
+    void setSilent(boolean silent) {
+      this.silent = silent;
+    }
+
+    List<String> getAppended() {
+      return new ArrayList<>(appended);
+    }
+
+    List<Long> getBatchTimes() {
+      return new ArrayList<>(batchTimes);
+    }
+
+    boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public void doAppend(LogEventPack logEventPack, LogDeliveryCallback listener) {
+      appended.add(logEventPack.getEndpointKey());
+      if (silent) {
+        return;
+      }
+      Boolean outcome = outcomes.poll();
+      if (outcome != null ? outcome : defaultOutcome) {
+        listener.onSuccess();
+      } else {
+        listener.onRemoteError();
+      }
+    }
+
+    @Override
+    public void doAppendBatch(List<BatchedLogEventPack> batch) {
+      batchTimes.add(System.nanoTime());
+      for (BatchedLogEventPack entry : batch) {
+        doAppend(entry.getLogEventPack(), entry.getCallback());
+      }
+    }
+
+    @Override
+    public String getName() {
+      return "stub";
+    }
+
+    @Override
+    public void setName(String name) {
+    }
+
+    @Override
+    public String getAppenderId() {
+      return "stub";
+    }
+
+    @Override
+    public void setAppenderId(String appenderId) {
+    }
+
+    @Override
+    public void setApplicationToken(String applicationToken) {
+    }
+
+    @Override
+    public void init(LogAppenderDto appender) {
+    }
+
+    @Override
+    public boolean isSchemaVersionSupported(int version) {
+      return true;
+    }
+
+    @Override
+    public boolean isDeliveryConfirmationRequired() {
+      return true;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
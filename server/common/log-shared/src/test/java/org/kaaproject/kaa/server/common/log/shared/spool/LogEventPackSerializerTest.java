@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.spool;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
+import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseProfileInfo;
+import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseSchemaInfo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LogEventPackSerializerTest {
+
+  private static final int LOG_SCHEMA_VERSION = 3;
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    BaseLogEventPack pack = pack("endpointKey", "userId");
+    pack.setClientProfile(new BaseProfileInfo(
+        new BaseSchemaInfo("10", "client profile schema"), "client profile body"));
+    pack.setServerProfile(new BaseProfileInfo(
+        new BaseSchemaInfo("20", "server profile schema"), "server profile body"));
+
+    LogEventPack restored = LogEventPackSerializer.deserialize(
+        LogEventPackSerializer.serialize(pack));
+
+    Assert.assertEquals("endpointKey", restored.getEndpointKey());
+    Assert.assertEquals("userId", restored.getUserId());
+    Assert.assertEquals(pack.getDateCreated(), restored.getDateCreated());
+    LogSchema logSchema = restored.getLogSchema();
+    Assert.assertEquals("1", logSchema.getId());
+    Assert.assertEquals("appId", logSchema.getApplicationId());
+    Assert.assertEquals("ctlSchemaId", logSchema.getCtlSchemaId());
+    Assert.assertEquals(LOG_SCHEMA_VERSION, logSchema.getVersion());
+    Assert.assertEquals("log schema", logSchema.getSchema());
+    Assert.assertEquals("10", restored.getClientProfile().getSchemaId());
+    Assert.assertEquals("client profile schema", restored.getClientProfile().getSchema());
+    Assert.assertEquals("client profile body", restored.getClientProfile().getBody());
+    Assert.assertEquals("20", restored.getServerProfile().getSchemaId());
+    Assert.assertEquals("server profile schema", restored.getServerProfile().getSchema());
+    Assert.assertEquals("server profile body", restored.getServerProfile().getBody());
+    Assert.assertEquals(2, restored.getEvents().size());
+    Assert.assertArrayEquals(bytes("first"), restored.getEvents().get(0).getLogData());
+    Assert.assertArrayEquals(bytes("second"), restored.getEvents().get(1).getLogData());
+  }
+
+  @Test
+  public void testRoundTripWithoutUserAndProfiles() throws Exception {
+    LogEventPack restored = LogEventPackSerializer.deserialize(
+        LogEventPackSerializer.serialize(pack("endpointKey", null)));
+
+    Assert.assertEquals("endpointKey", restored.getEndpointKey());
+    Assert.assertNull(restored.getUserId());
+    Assert.assertNull(restored.getClientProfile());
+    Assert.assertNull(restored.getServerProfile());
+    Assert.assertEquals(2, restored.getEvents().size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsUnknownVersion() throws Exception {
+    byte[] record = LogEventPackSerializer.serialize(pack("endpointKey", "userId"));
+    record[0] = 0;
+    LogEventPackSerializer.deserialize(record);
+  }
+
+  private static BaseLogEventPack pack(String endpointKey, String userId) {
+    EndpointProfileDataDto profile = new EndpointProfileDataDto("id", endpointKey, 1, "", 1, "");
+    List<LogEvent> events = new ArrayList<>();
+    events.add(event("first"));
+    events.add(event("second"));
+    BaseLogEventPack pack = new BaseLogEventPack(profile, System.currentTimeMillis(),
+        LOG_SCHEMA_VERSION, events);
+    pack.setUserId(userId);
+    LogSchemaDto logSchemaDto = new LogSchemaDto();
+    logSchemaDto.setId("1");
+    logSchemaDto.setApplicationId("appId");
+    logSchemaDto.setCtlSchemaId("ctlSchemaId");
+    logSchemaDto.setVersion(LOG_SCHEMA_VERSION);
+    pack.setLogSchema(new LogSchema(logSchemaDto, "log schema"));
+    return pack;
+  }
+
+  private static LogEvent event(String data) {
+    LogEvent event = new LogEvent();
+    event.setLogData(bytes(data));
+    return event;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+}
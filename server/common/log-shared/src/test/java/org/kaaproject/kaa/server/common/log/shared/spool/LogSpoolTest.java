@@ -0,0 +1,149 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.log.shared.spool;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class LogSpoolTest {
+
+  private static final int SEGMENT_SIZE = 64;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testAppendPeekCommit() throws Exception {
+    File dir = folder.newFolder();
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      spool.append(bytes("first"));
+      spool.append(bytes("second"));
+      Assert.assertEquals(2, spool.getPendingCount());
+      Assert.assertEquals(8 + 5 + 8 + 6, spool.getSize());
+      List<byte[]> records = spool.peek(10);
+      Assert.assertEquals(2, records.size());
+      Assert.assertEquals("first", string(records.get(0)));
+      Assert.assertEquals("second", string(records.get(1)));
+      spool.commit(1);
+      records = spool.peek(10);
+      Assert.assertEquals(1, records.size());
+      Assert.assertEquals("second", string(records.get(0)));
+      spool.commit(1);
+      Assert.assertTrue(spool.peek(10).isEmpty());
+      Assert.assertEquals(0, spool.getSize());
+    }
+  }
+
+  @Test
+  public void testRollsSegmentsAndDeletesDrainedOnes() throws Exception {
+    File dir = folder.newFolder();
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      for (int i = 0; i < 10; i++) {
+        spool.append(bytes("record-" + i));
+      }
+      Assert.assertTrue(segmentCount(dir) > 1);
+      List<byte[]> records = spool.peek(100);
+      Assert.assertEquals(10, records.size());
+      for (int i = 0; i < 10; i++) {
+        Assert.assertEquals("record-" + i, string(records.get(i)));
+      }
+      spool.commit(10);
+      Assert.assertTrue(spool.peek(100).isEmpty());
+      Assert.assertEquals(1, segmentCount(dir));
+    }
+  }
+
+  @Test
+  public void testRecoversUncommittedRecords() throws Exception {
+    File dir = folder.newFolder();
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      for (int i = 0; i < 5; i++) {
+        spool.append(bytes("record-" + i));
+      }
+      spool.peek(2);
+      spool.commit(2);
+    }
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      Assert.assertEquals(3, spool.getPendingCount());
+      List<byte[]> records = spool.peek(100);
+      Assert.assertEquals(3, records.size());
+      Assert.assertEquals("record-2", string(records.get(0)));
+      spool.append(bytes("record-5"));
+      Assert.assertEquals("record-5", string(spool.peek(100).get(3)));
+    }
+  }
+
+  @Test
+  public void testDropsTornRecordOnRecovery() throws Exception {
+    File dir = folder.newFolder();
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      spool.append(bytes("good"));
+      spool.append(bytes("torn"));
+    }
+    try (RandomAccessFile file = new RandomAccessFile(lastSegment(dir), "rw")) {
+      file.seek(8 + 4 + 8);
+      file.write('X');
+    }
+    try (LogSpool spool = new LogSpool(dir, SEGMENT_SIZE, 1024)) {
+      Assert.assertEquals(1, spool.getPendingCount());
+      spool.append(bytes("next"));
+      List<byte[]> records = spool.peek(100);
+      Assert.assertEquals(2, records.size());
+      Assert.assertEquals("good", string(records.get(0)));
+      Assert.assertEquals("next", string(records.get(1)));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testRejectsRecordsWhenFull() throws Exception {
+    try (LogSpool spool = new LogSpool(folder.newFolder(), SEGMENT_SIZE, 32)) {
+      spool.append(bytes("0123456789"));
+      spool.append(bytes("0123456789"));
+    }
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] value) {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  private static int segmentCount(File dir) {
+    return dir.listFiles((parent, name) -> name.endsWith(".spool")).length;
+  }
+
+  private static File lastSegment(File dir) {
+    File[] segments = dir.listFiles((parent, name) -> name.endsWith(".spool"));
+    File last = segments[0];
+    for (File segment : segments) {
+      if (segment.getName().compareTo(last.getName()) > 0) {
+        last = segment;
+      }
+    }
+    return last;
+  }
+}
@@ -21,6 +21,10 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
@@ -30,6 +34,8 @@ import io.netty.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -40,6 +46,11 @@ import java.util.concurrent.TimeUnit;
  *
  * <p>To stop Netty: netty.shutdown();</p>
  *
+ * <p>If native transport is enabled in {@link NettyServerOptions} and Linux
+ * epoll is available, epoll event loops are used and several acceptor channels
+ * may be bound to the same port with SO_REUSEPORT. Otherwise the server falls
+ * back to NIO.</p>
+ *
  * @author Yaroslav Zeygerman
  */
 public abstract class AbstractNettyServer extends Thread {
@@ -49,10 +60,11 @@ public abstract class AbstractNettyServer extends Thread {
   private static final Logger LOG = LoggerFactory.getLogger(AbstractNettyServer.class);
   private final String bindAddress;
   private final int bindPort;
+  private final NettyServerOptions options;
   private EventLoopGroup bossGroup;
   private EventLoopGroup workerGroup;
   private ServerBootstrap btsServer;
-  private Channel bindChannel;
+  private final List<Channel> bindChannels = new ArrayList<>();
 
   /**
    * NettyHttpServer constructor.
@@ -61,8 +73,20 @@ public abstract class AbstractNettyServer extends Thread {
    * @param port        bind port
    */
   public AbstractNettyServer(String bindAddress, int port) {
+    this(bindAddress, port, new NettyServerOptions());
+  }
+
+  /**
+   * NettyHttpServer constructor.
+   *
+   * @param bindAddress bind address
+   * @param port        bind port
+   * @param options     event loop and socket options
+   */
+  public AbstractNettyServer(String bindAddress, int port, NettyServerOptions options) {
     this.bindAddress = bindAddress;
     this.bindPort = port;
+    this.options = options;
   }
 
   protected abstract ChannelInitializer<SocketChannel> configureInitializer() throws Exception;
@@ -72,24 +96,37 @@ public abstract class AbstractNettyServer extends Thread {
    */
   public void init() {
     try {
-      LOG.info("NettyServer Initializing...");
-      bossGroup = new NioEventLoopGroup();
-
-      LOG.debug("NettyServer bossGroup created");
-      workerGroup = new NioEventLoopGroup();
-      LOG.debug("NettyServer workGroup created");
+      LOG.info("NettyServer Initializing with {}", options);
+      boolean useEpoll = isEpollEnabled();
+      int acceptors = useEpoll ? Math.max(1, options.getAcceptorThreads()) : 1;
       btsServer = new ServerBootstrap();
       LOG.debug("NettyServer ServerBootstrap created");
+      if (useEpoll) {
+        bossGroup = new EpollEventLoopGroup(acceptors);
+        workerGroup = new EpollEventLoopGroup(options.getWorkerThreads());
+        btsServer.group(bossGroup, workerGroup).channel(EpollServerSocketChannel.class);
+        if (acceptors > 1) {
+          btsServer.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+      } else {
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup(options.getWorkerThreads());
+        btsServer.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class);
+      }
+      LOG.debug("NettyServer event loop groups created");
       ChannelInitializer<SocketChannel> serverInit = configureInitializer();
       LOG.debug("NettyServer InitClass instance created");
 
       LOG.debug("NettyServer InitClass instance init()");
-      btsServer.group(bossGroup, workerGroup)
-          .channel(NioServerSocketChannel.class)
-          .childHandler(serverInit)
-          .option(ChannelOption.SO_REUSEADDR, true);
+      btsServer.childHandler(serverInit)
+          .option(ChannelOption.SO_REUSEADDR, true)
+          .childOption(ChannelOption.TCP_NODELAY, options.isTcpNoDelay())
+          .childOption(ChannelOption.SO_KEEPALIVE, options.isKeepAlive());
+      configureWriteBufferWaterMarks();
       LOG.debug("NettyServer ServerBootstrap group initialized");
-      bindChannel = btsServer.bind(bindAddress, bindPort).sync().channel();
+      for (int i = 0; i < acceptors; i++) {
+        bindChannels.add(btsServer.bind(bindAddress, bindPort).sync().channel());
+      }
     } catch (Exception exception) {
       LOG.error("NettyHttpServer init() failed", exception);
     }
@@ -99,7 +136,9 @@ public abstract class AbstractNettyServer extends Thread {
   public void run() {
     LOG.info("NettyHttpServer starting...");
     try {
-      bindChannel.closeFuture().sync();
+      for (Channel bindChannel : bindChannels) {
+        bindChannel.closeFuture().sync();
+      }
     } catch (InterruptedException exption) {
       LOG.error("NettyHttpServer error", exption);
     } finally {
@@ -108,6 +147,35 @@ public abstract class AbstractNettyServer extends Thread {
     }
   }
 
+  private boolean isEpollEnabled() {
+    if (!options.isNativeTransport()) {
+      return false;
+    }
+    if (!Epoll.isAvailable()) {
+      LOG.warn("Native epoll transport is not available, falling back to NIO",
+          Epoll.unavailabilityCause());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Netty checks that the low water mark doesn't exceed the high one on each
+   * update, so the marks are applied in the order that keeps them consistent
+   * with the defaults.
+   */
+  private void configureWriteBufferWaterMarks() {
+    int low = options.getWriteBufferLowWaterMark();
+    int high = options.getWriteBufferHighWaterMark();
+    if (high >= NettyServerOptions.DEFAULT_WRITE_BUFFER_LOW_WATER_MARK) {
+      btsServer.childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, high);
+      btsServer.childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, low);
+    } else {
+      btsServer.childOption(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, low);
+      btsServer.childOption(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, high);
+    }
+  }
+
   /**
    * Netty HTTP server shutdown.
    */
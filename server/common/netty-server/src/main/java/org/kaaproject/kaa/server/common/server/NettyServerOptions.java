@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.server;
+
+/**
+ * Event loop topology and socket options of {@link AbstractNettyServer}.
+ */
+public class NettyServerOptions {
+
+  public static final int DEFAULT_WRITE_BUFFER_LOW_WATER_MARK = 32 * 1024;
+  public static final int DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK = 64 * 1024;
+
+  /**
+   * Use Linux native epoll transport if it is available.
+   */
+  private boolean nativeTransport = false;
+
+  /**
+   * Count of server channels bound to the same port with SO_REUSEPORT.
+   * Used with native transport only.
+   */
+  private int acceptorThreads = 1;
+
+  /**
+   * Count of worker event loop threads, 0 means Netty default.
+   */
+  private int workerThreads = 0;
+
+  private boolean tcpNoDelay = true;
+
+  private boolean keepAlive = false;
+
+  private int writeBufferLowWaterMark = DEFAULT_WRITE_BUFFER_LOW_WATER_MARK;
+
+  private int writeBufferHighWaterMark = DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK;
+
+  public boolean isNativeTransport() {
+    return nativeTransport;
+  }
+
+  public void setNativeTransport(boolean nativeTransport) {
+    this.nativeTransport = nativeTransport;
+  }
+
+  public int getAcceptorThreads() {
+    return acceptorThreads;
+  }
+
+  public void setAcceptorThreads(int acceptorThreads) {
+    this.acceptorThreads = acceptorThreads;
+  }
+
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  public void setWorkerThreads(int workerThreads) {
+    this.workerThreads = workerThreads;
+  }
+
+  public boolean isTcpNoDelay() {
+    return tcpNoDelay;
+  }
+
+  public void setTcpNoDelay(boolean tcpNoDelay) {
+    this.tcpNoDelay = tcpNoDelay;
+  }
+
+  public boolean isKeepAlive() {
+    return keepAlive;
+  }
+
+  public void setKeepAlive(boolean keepAlive) {
+    this.keepAlive = keepAlive;
+  }
+
+  public int getWriteBufferLowWaterMark() {
+    return writeBufferLowWaterMark;
+  }
+
+  public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+    this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+  }
+
+  public int getWriteBufferHighWaterMark() {
+    return writeBufferHighWaterMark;
+  }
+
+  public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+    this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+  }
+
+  @Override
+  public String toString() {
+    return "NettyServerOptions [nativeTransport=" + nativeTransport
+        + ", acceptorThreads=" + acceptorThreads + ", workerThreads=" + workerThreads
+        + ", tcpNoDelay=" + tcpNoDelay + ", keepAlive=" + keepAlive
+        + ", writeBufferLowWaterMark=" + writeBufferLowWaterMark
+        + ", writeBufferHighWaterMark=" + writeBufferHighWaterMark + "]";
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.server;
+
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class AbstractNettyServerTest {
+
+  private static final String HOST = "127.0.0.1";
+
+  private TestNettyServer server;
+  private Socket client;
+
+  @After
+  public void after() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    if (server != null) {
+      server.shutdown();
+    }
+  }
+
+  @Test
+  public void testDefaultOptionsAreApplied() throws Exception {
+    SocketChannel channel = accept(new NettyServerOptions());
+
+    Assert.assertTrue(channel.config().getOption(ChannelOption.TCP_NODELAY));
+    Assert.assertFalse(channel.config().getOption(ChannelOption.SO_KEEPALIVE));
+    Assert.assertEquals(NettyServerOptions.DEFAULT_WRITE_BUFFER_LOW_WATER_MARK,
+        channel.config().getWriteBufferLowWaterMark());
+    Assert.assertEquals(NettyServerOptions.DEFAULT_WRITE_BUFFER_HIGH_WATER_MARK,
+        channel.config().getWriteBufferHighWaterMark());
+  }
+
+  @Test
+  public void testOptionsAreApplied() throws Exception {
+    NettyServerOptions options = new NettyServerOptions();
+    options.setTcpNoDelay(false);
+    options.setKeepAlive(true);
+    options.setWriteBufferLowWaterMark(1024);
+    options.setWriteBufferHighWaterMark(2048);
+
+    SocketChannel channel = accept(options);
+
+    Assert.assertFalse(channel.config().getOption(ChannelOption.TCP_NODELAY));
+    Assert.assertTrue(channel.config().getOption(ChannelOption.SO_KEEPALIVE));
+    Assert.assertEquals(1024, channel.config().getWriteBufferLowWaterMark());
+    Assert.assertEquals(2048, channel.config().getWriteBufferHighWaterMark());
+  }
+
+  @Test
+  public void testWaterMarksAboveDefaultsAreApplied() throws Exception {
+    NettyServerOptions options = new NettyServerOptions();
+    options.setWriteBufferLowWaterMark(128 * 1024);
+    options.setWriteBufferHighWaterMark(256 * 1024);
+
+    SocketChannel channel = accept(options);
+
+    Assert.assertEquals(128 * 1024, channel.config().getWriteBufferLowWaterMark());
+    Assert.assertEquals(256 * 1024, channel.config().getWriteBufferHighWaterMark());
+  }
+
+  @Test
+  public void testNioIsUsedByDefault() throws Exception {
+    Assert.assertTrue(accept(new NettyServerOptions()) instanceof NioSocketChannel);
+  }
+
+  @Test
+  public void testNativeTransportFallsBackToNio() throws Exception {
+    Assume.assumeFalse(Epoll.isAvailable());
+    NettyServerOptions options = new NettyServerOptions();
+    options.setNativeTransport(true);
+    options.setAcceptorThreads(2);
+
+    Assert.assertTrue(accept(options) instanceof NioSocketChannel);
+  }
+
+  @Test
+  public void testNativeTransportIsUsed() throws Exception {
+    Assume.assumeTrue(Epoll.isAvailable());
+    NettyServerOptions options = new NettyServerOptions();
+    options.setNativeTransport(true);
+    options.setAcceptorThreads(2);
+
+    Assert.assertTrue(accept(options) instanceof EpollSocketChannel);
+  }
+
+  private SocketChannel accept(NettyServerOptions options) throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    BlockingQueue<SocketChannel> accepted = new LinkedBlockingQueue<>();
+    server = new TestNettyServer(port, options, accepted);
+    server.init();
+    client = new Socket(HOST, port);
+    SocketChannel channel = accepted.poll(5, TimeUnit.SECONDS);
+    Assert.assertNotNull(channel);
+    return channel;
+  }
+
+  private static class TestNettyServer extends AbstractNettyServer {
+
+    private final BlockingQueue<SocketChannel> accepted;
+
+    TestNettyServer(int port, NettyServerOptions options,
+                    BlockingQueue<SocketChannel> accepted) {
+      super(HOST, port, options);
+      this.accepted = accepted;
+    }
+
+    @Override
+    protected ChannelInitializer<SocketChannel> configureInitializer() {
+      return new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel channel) {
+          accepted.add(channel);
+        }
+      };
+    }
+  }
+}
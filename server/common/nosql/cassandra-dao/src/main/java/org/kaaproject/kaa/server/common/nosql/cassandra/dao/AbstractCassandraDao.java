@@ -16,15 +16,24 @@
 
 package org.kaaproject.kaa.server.common.nosql.cassandra.dao;
 
+import com.codahale.metrics.MetricRegistry;
 import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.Metrics;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.StatementWrapper;
 import com.datastax.driver.core.UserType;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.Result;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import org.kaaproject.kaa.server.common.nosql.cassandra.dao.client.CassandraClient;
 import org.slf4j.Logger;
@@ -32,14 +41,24 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public abstract class AbstractCassandraDao<T, K> {
 
   private static final Logger LOG = LoggerFactory.getLogger(AbstractCassandraDao.class);
   private static final String KAA = "kaa";
+  private static final int DEFAULT_MULTI_GET_PARALLELISM = 32;
 
   /**
    * Cassandra client classes.
@@ -53,6 +72,8 @@ public abstract class AbstractCassandraDao<T, K> {
   private String writeConsistencyLevel;
   @Value("#{cassandra_properties[batch_type]}")
   private String batchType;
+  @Value("#{cassandra_properties[multi_get_parallelism] ?: 32}")
+  private int multiGetParallelism = DEFAULT_MULTI_GET_PARALLELISM;
 
   private Session session;
 
@@ -88,6 +109,125 @@ public abstract class AbstractCassandraDao<T, K> {
     return list;
   }
 
+  /**
+   * Reads the partitions with the given keys using asynchronous queries, with
+   * at most multi_get_parallelism queries in flight. The keys are grouped by
+   * their primary replica and the queries are sent to the replicas in turn,
+   * so that the in-flight queries are spread across the cluster. Each query
+   * carries the keyspace and its partition key as the routing key, so that a
+   * token aware load balancing policy sends it to a replica. The time of
+   * the whole read is recorded in the multi-get timer of the column family if
+   * the driver metrics are enabled.
+   *
+   * @param partitionKeys the serialized keys of single column partitions
+   * @param queryFactory  creates the query of the partition key
+   * @param resultMapper  maps the result of the query, may return null
+   * @param <R>           the result type
+   * @return the results in the order of the keys
+   */
+  protected <R> List<R> multiGet(List<ByteBuffer> partitionKeys,
+                                 Function<ByteBuffer, Statement> queryFactory,
+                                 Function<ResultSet, R> resultMapper) {
+    if (partitionKeys.isEmpty()) {
+      return Collections.emptyList();
+    }
+    long start = System.nanoTime();
+    String keyspace = getSession().getLoggedKeyspace();
+    Semaphore permits = new Semaphore(Math.max(1, multiGetParallelism));
+    ResultSetFuture[] futures = new ResultSetFuture[partitionKeys.size()];
+    try {
+      for (int index : orderByReplica(keyspace, partitionKeys)) {
+        ByteBuffer partitionKey = partitionKeys.get(index);
+        Statement statement = new PartitionStatement(queryFactory.apply(partitionKey),
+            keyspace, partitionKey);
+        statement.setConsistencyLevel(getReadConsistencyLevel());
+        permits.acquireUninterruptibly();
+        futures[index] = getSession().executeAsync(statement);
+        futures[index].addListener(permits::release, MoreExecutors.directExecutor());
+      }
+      List<R> results = new ArrayList<>(futures.length);
+      for (ResultSetFuture future : futures) {
+        results.add(resultMapper.apply(future.getUninterruptibly()));
+      }
+      return results;
+    } catch (RuntimeException ex) {
+      for (ResultSetFuture future : futures) {
+        if (future != null) {
+          future.cancel(true);
+        }
+      }
+      throw ex;
+    } finally {
+      long duration = System.nanoTime() - start;
+      LOG.debug("Read {} partitions of {} in {} ms", partitionKeys.size(),
+          getColumnFamilyName(), TimeUnit.NANOSECONDS.toMillis(duration));
+      Metrics metrics = getSession().getCluster().getMetrics();
+      if (metrics != null) {
+        metrics.getRegistry().timer(MetricRegistry.name(KAA, getColumnFamilyName(), "multi-get"))
+            .update(duration, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  /**
+   * Orders the indexes of the keys so that consecutive keys belong to
+   * different primary replicas where possible.
+   */
+  private List<Integer> orderByReplica(String keyspace, List<ByteBuffer> partitionKeys) {
+    Metadata metadata = getSession().getCluster().getMetadata();
+    Map<Host, List<Integer>> byReplica = new LinkedHashMap<>();
+    for (int i = 0; i < partitionKeys.size(); i++) {
+      Set<Host> replicas = metadata.getReplicas(keyspace, partitionKeys.get(i));
+      Host primary = replicas.isEmpty() ? null : replicas.iterator().next();
+      List<Integer> indexes = byReplica.get(primary);
+      if (indexes == null) {
+        indexes = new ArrayList<>();
+        byReplica.put(primary, indexes);
+      }
+      indexes.add(i);
+    }
+    List<Iterator<Integer>> groups = new ArrayList<>(byReplica.size());
+    for (List<Integer> indexes : byReplica.values()) {
+      groups.add(indexes.iterator());
+    }
+    List<Integer> order = new ArrayList<>(partitionKeys.size());
+    while (order.size() < partitionKeys.size()) {
+      for (Iterator<Integer> group : groups) {
+        if (group.hasNext()) {
+          order.add(group.next());
+        }
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Query of a single partition with the explicitly set keyspace and routing
+   * key, which the query builder statements don't provide on their own.
+   */
+  private static final class PartitionStatement extends StatementWrapper {
+
+    private final String keyspace;
+    private final ByteBuffer routingKey;
+
+    PartitionStatement(Statement statement, String keyspace, ByteBuffer partitionKey) {
+      super(statement);
+      this.keyspace = keyspace;
+      this.routingKey = partitionKey.duplicate();
+    }
+
+    @Override
+    public String getKeyspace() {
+      return keyspace;
+    }
+
+    @Override
+    public ByteBuffer getRoutingKey(ProtocolVersion protocolVersion,
+                                    CodecRegistry codecRegistry) {
+      return routingKey.duplicate();
+    }
+  }
+
   protected UserType getUserType(String userType) {
     return getSession().getCluster().getMetadata().getKeyspace(KAA).getUserType(userType);
   }
@@ -21,7 +21,9 @@ import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.in;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static org.kaaproject.kaa.server.common.dao.DaoConstants.OPT_LOCK;
 import static org.kaaproject.kaa.server.common.dao.impl.DaoUtil.getDto;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.CassandraDaoUtil.convertDtoToModelList;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.CassandraDaoUtil.convertKeyHashToString;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.CassandraDaoUtil.convertStringToKeyHash;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.CassandraDaoUtil.getByteBuffer;
@@ -36,12 +38,19 @@ import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.Cassand
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_BY_SDK_TOKEN_COLUMN_FAMILY_NAME;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_BY_SDK_TOKEN_SDK_TOKEN_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_COLUMN_FAMILY_NAME;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_CONFIG_HASH_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_ENDPOINT_ID_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_EPS_CONFIG_HASH_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_EP_KEY_HASH_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_GROUP_STATE_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_PROFILE_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_PROFILE_VERSION_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_SEQUENCE_NUMBER_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_SERVER_PROFILE_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_SERVER_PROFILE_VERSION_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_SIMPLE_TOPIC_HASH_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_TOPIC_HASH_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.cassandra.dao.model.CassandraModelConstants.EP_USER_CONFIG_HASH_PROPERTY;
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.Sets;
@@ -51,10 +60,12 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Update.Assignments;
 
 import org.apache.commons.codec.binary.Base64;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.PageLinkDto;
@@ -95,6 +106,16 @@ public class EndpointProfileCassandraDao
 
   private static final Logger LOG = LoggerFactory.getLogger(EndpointProfileCassandraDao.class);
 
+  /**
+   * Columns written by {@link #updateState(EndpointProfileStateDto)}.
+   */
+  private static final String[] STATE_COLUMNS = {
+      EP_GROUP_STATE_PROPERTY, EP_SEQUENCE_NUMBER_PROPERTY, EP_CONFIG_HASH_PROPERTY,
+      EP_USER_CONFIG_HASH_PROPERTY, EP_EPS_CONFIG_HASH_PROPERTY, EP_TOPIC_HASH_PROPERTY,
+      EP_SIMPLE_TOPIC_HASH_PROPERTY};
+
+  private static final int STATE_UPDATE_ATTEMPTS = 3;
+
   @Autowired
   private CassandraEpByAppIdDao cassandraEpByAppIdDao;
   @Autowired
@@ -232,20 +253,27 @@ public class EndpointProfileCassandraDao
   @Override
   public EndpointProfileBodyDto findBodyByKeyHash(byte[] endpointKeyHash) {
     LOG.debug("Try to find endpoint profile body by key hash [{}]", Utils.encodeHexString(endpointKeyHash));
-    String profile = null;
-    String serverSideProfile = null;
-    String appId = null;
-    int clientSideProfileVersion = 0;
-    int serverSideProfileVersion = 0;
-    ResultSet resultSet = execute(select(
+    ResultSet resultSet = execute(selectBody(getByteBuffer(endpointKeyHash)));
+    return toBodyDto(endpointKeyHash, resultSet.one());
+  }
+
+  private Statement selectBody(ByteBuffer endpointKeyHash) {
+    return select(
         EP_PROFILE_PROPERTY,
         EP_SERVER_PROFILE_PROPERTY,
         EP_APP_ID_PROPERTY,
         EP_PROFILE_VERSION_PROPERTY,
         EP_SERVER_PROFILE_VERSION_PROPERTY)
         .from(getColumnFamilyName())
-        .where(eq(EP_EP_KEY_HASH_PROPERTY, getByteBuffer(endpointKeyHash))));
-    Row row = resultSet.one();
+        .where(eq(EP_EP_KEY_HASH_PROPERTY, endpointKeyHash));
+  }
+
+  private EndpointProfileBodyDto toBodyDto(byte[] endpointKeyHash, Row row) {
+    String profile = null;
+    String serverSideProfile = null;
+    String appId = null;
+    int clientSideProfileVersion = 0;
+    int serverSideProfileVersion = 0;
     if (row != null) {
       profile = row.getString(EP_PROFILE_PROPERTY);
       appId = row.getString(EP_APP_ID_PROPERTY);
@@ -360,12 +388,16 @@ public class EndpointProfileCassandraDao
     List<EndpointProfileDto> cassandraEndpointProfileList = new ArrayList<>();
     LOG.debug("Found {} endpoint profiles by group id {}",
         keyHashList != null ? keyHashList.length : 0, endpointGroupId);
-    for (ByteBuffer keyHash : keyHashList) {
-      CassandraEndpointProfile profile = findByKeyHash(getBytes(keyHash));
+    List<ByteBuffer> keyHashes = Arrays.asList(keyHashList);
+    List<CassandraEndpointProfile> profiles = multiGet(keyHashes, this::selectProfile,
+        resultSet -> getMapper().map(resultSet).one());
+    for (int i = 0; i < profiles.size(); i++) {
+      CassandraEndpointProfile profile = profiles.get(i);
       if (profile != null) {
         cassandraEndpointProfileList.add(getDto(profile));
       } else {
-        LOG.debug("Can't find endpoint profile by id {}", Utils.encodeHexString(keyHash));
+        LOG.debug("Can't find endpoint profile by id {}",
+            Utils.encodeHexString(keyHashes.get(i)));
       }
     }
     return cassandraEndpointProfileList;
@@ -373,17 +405,13 @@ public class EndpointProfileCassandraDao
 
   private List<EndpointProfileBodyDto> findEndpointProfilesBodyList(ByteBuffer[] keyHashList,
                                                                     String endpointGroupId) {
-    final List<EndpointProfileBodyDto> endpointProfilesBodyDto = new ArrayList<>();
     LOG.debug("Found {} endpoint profiles body by group id {}",
         keyHashList != null ? keyHashList.length : 0, endpointGroupId);
-
-    for (ByteBuffer keyHash : keyHashList) {
-      EndpointProfileBodyDto endpointProfileBodyDto = findBodyByKeyHash(getBytes(keyHash));
-      if (endpointProfileBodyDto != null) {
-        endpointProfilesBodyDto.add(endpointProfileBodyDto);
-      } else {
-        LOG.debug("Can't find endpoint profile by id {}", Utils.encodeHexString(keyHash));
-      }
+    List<ByteBuffer> keyHashes = Arrays.asList(keyHashList);
+    List<Row> rows = multiGet(keyHashes, this::selectBody, ResultSet::one);
+    final List<EndpointProfileBodyDto> endpointProfilesBodyDto = new ArrayList<>(rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      endpointProfilesBodyDto.add(toBodyDto(getBytes(keyHashes.get(i)), rows.get(i)));
     }
     return endpointProfilesBodyDto;
   }
@@ -438,10 +466,15 @@ public class EndpointProfileCassandraDao
     if (endpointUser != null) {
       List<String> ids = endpointUser.getEndpointIds();
       if (ids != null && !ids.isEmpty()) {
-        Statement select = select().from(getColumnFamilyName())
-            .where(in(EP_EP_KEY_HASH_PROPERTY, convertStringIds(ids)));
-        LOG.trace("Execute statements {}", select);
-        profileList = findListByStatement(select);
+        List<CassandraEndpointProfile> profiles = multiGet(
+            Arrays.asList(convertStringIds(ids)), this::selectProfile,
+            resultSet -> getMapper().map(resultSet).one());
+        profileList = new ArrayList<>(profiles.size());
+        for (CassandraEndpointProfile profile : profiles) {
+          if (profile != null) {
+            profileList.add(profile);
+          }
+        }
       }
     }
     if (LOG.isTraceEnabled()) {
@@ -495,6 +528,71 @@ public class EndpointProfileCassandraDao
     return findById(key);
   }
 
+  @Override
+  public Long updateState(EndpointProfileStateDto state) {
+    LOG.debug("Updating endpoint profile state {}", state);
+    ByteBuffer epKeyHash = getByteBuffer(state.getEndpointKeyHash());
+    CassandraEndpointProfile profile = new CassandraEndpointProfile();
+    profile.setGroupStates(convertDtoToModelList(state.getGroupState()));
+    profile.setSequenceNumber(state.getSequenceNumber());
+    profile.setConfigurationHash(getByteBuffer(state.getConfigurationHash()));
+    profile.setUserConfigurationHash(getByteBuffer(state.getUserConfigurationHash()));
+    profile.setEpsConfigurationHash(getByteBuffer(state.getEpsConfigurationHash()));
+    profile.setTopicHash(getByteBuffer(state.getTopicHash()));
+    profile.setSimpleTopicHash(state.getSimpleTopicHash());
+    Set<String> newEndpointGroupIds = getEndpointProfilesGroupIdSet(profile);
+    CassandraEntityMapper<CassandraEndpointProfile> entityMapper =
+        CassandraEntityMapper.getEntityMapperForClass(getColumnFamilyClass(), cassandraClient);
+
+    for (int attempt = 0; attempt < STATE_UPDATE_ATTEMPTS; attempt++) {
+      CassandraEndpointProfile storedProfile = findById(epKeyHash);
+      if (storedProfile == null) {
+        LOG.warn("[{}] Stored profile is null. Can't update endpoint profile state.",
+            Utils.encodeHexString(state.getEndpointKeyHash()));
+        return null;
+      }
+      // The update is applied only if the profile is not changed since it was
+      // read, so the index rows below are calculated from the group states
+      // that are actually replaced.
+      long version = storedProfile.getVersion() == null ? 0L : storedProfile.getVersion();
+      Assignments assignments = QueryBuilder.update(EP_COLUMN_FAMILY_NAME)
+          .onlyIf(eq(OPT_LOCK, version))
+          .with(set(OPT_LOCK, version + 1));
+      for (String name : STATE_COLUMNS) {
+        assignments = assignments.and(
+            set(name, entityMapper.getColumnValueForName(name, profile, cassandraClient)));
+      }
+      Statement update = assignments.where(eq(EP_EP_KEY_HASH_PROPERTY, epKeyHash))
+          .setConsistencyLevel(getWriteConsistencyLevel());
+      if (!execute(update).wasApplied()) {
+        LOG.debug("[{}] Endpoint profile changed concurrently, retrying state update",
+            Utils.encodeHexString(state.getEndpointKeyHash()));
+        continue;
+      }
+
+      List<Statement> statementList = new ArrayList<>();
+      Set<String> oldEndpointGroupIds = getEndpointProfilesGroupIdSet(storedProfile);
+      for (String id : Sets.difference(newEndpointGroupIds, oldEndpointGroupIds)) {
+        statementList.add(cassandraEpByEndpointGroupIdDao.getSaveQuery(
+            new CassandraEpByEndpointGroupId(id, epKeyHash)));
+      }
+      for (String id : Sets.difference(oldEndpointGroupIds, newEndpointGroupIds)) {
+        statementList.add(delete()
+            .from(EP_BY_ENDPOINT_GROUP_ID_COLUMN_FAMILY_NAME)
+            .where(eq(EP_BY_ENDPOINT_GROUP_ID_ENDPOINT_GROUP_ID_PROPERTY, id))
+            .and(eq(EP_BY_ENDPOINT_GROUP_ID_ENDPOINT_KEY_HASH_PROPERTY, epKeyHash)));
+      }
+      if (!statementList.isEmpty()) {
+        executeBatch(statementList.toArray(new Statement[statementList.size()]));
+      }
+      return version + 1;
+    }
+    LOG.error("[{}] Can't update endpoint profile state. Endpoint profile already changed!",
+        Utils.encodeHexString(state.getEndpointKeyHash()));
+    throw new KaaOptimisticLockingFailureException("Can't update endpoint profile state."
+        + " Endpoint profile already changed!");
+  }
+
   private Set<String> getEndpointProfilesGroupIdSet(CassandraEndpointProfile profile) {
     Set<String> groupIdSet = new HashSet<>();
     List<CassandraEndpointGroupState> groupStateSet = new LinkedList<>();
@@ -510,6 +608,11 @@ public class EndpointProfileCassandraDao
     return groupIdSet;
   }
 
+  private Statement selectProfile(ByteBuffer endpointKeyHash) {
+    return select().from(getColumnFamilyName())
+        .where(eq(EP_EP_KEY_HASH_PROPERTY, endpointKeyHash));
+  }
+
   private ByteBuffer[] convertStringIds(List<String> ids) {
     ByteBuffer[] keyHashArray = new ByteBuffer[ids.size()];
     for (int i = 0; i < ids.size(); i++) {
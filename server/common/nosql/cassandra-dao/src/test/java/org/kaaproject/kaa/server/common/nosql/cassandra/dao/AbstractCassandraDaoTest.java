@@ -0,0 +1,232 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common.nosql.cassandra.dao;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.select;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.nosql.cassandra.dao.client.CassandraClient;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AbstractCassandraDaoTest {
+
+  private static final String KEYSPACE = "kaa_test";
+  private static final String COLUMN_FAMILY = "test_cf";
+  private static final String KEY_COLUMN = "key";
+  private static final String VALUE_COLUMN = "value";
+
+  private final Map<String, StubResultSetFuture> futures = new HashMap<>();
+  private final List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+
+  private Metadata metadata;
+  private TestCassandraDao dao;
+
+  @Before
+  public void before() {
+    metadata = Mockito.mock(Metadata.class);
+    Cluster cluster = Mockito.mock(Cluster.class);
+    Mockito.when(cluster.getMetadata()).thenReturn(metadata);
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.getLoggedKeyspace()).thenReturn(KEYSPACE);
+    Mockito.when(session.getCluster()).thenReturn(cluster);
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class))).thenAnswer(invocation -> {
+      Statement statement = (Statement) invocation.getArguments()[0];
+      statements.add(statement);
+      return futures.get(key(statement));
+    });
+    CassandraClient cassandraClient = Mockito.mock(CassandraClient.class);
+    Mockito.when(cassandraClient.getSession()).thenReturn(session);
+    dao = new TestCassandraDao(cassandraClient);
+  }
+
+  @Test
+  public void testResultsFollowKeyOrder() {
+    Host first = Mockito.mock(Host.class);
+    Host second = Mockito.mock(Host.class);
+    replicas("key-0", first);
+    replicas("key-1", first);
+    replicas("key-2", second);
+    futures.put("key-0", StubResultSetFuture.completed("value-0"));
+    futures.put("key-1", StubResultSetFuture.completed("value-1"));
+    futures.put("key-2", StubResultSetFuture.completed("value-2"));
+
+    List<String> values = dao.read(buffers("key-0", "key-1", "key-2"));
+
+    Assert.assertEquals(Arrays.asList("value-0", "value-1", "value-2"), values);
+    List<String> sent = new ArrayList<>();
+    for (Statement statement : statements) {
+      Assert.assertEquals(KEYSPACE, statement.getKeyspace());
+      sent.add(key(statement));
+    }
+    Assert.assertEquals(Arrays.asList("key-0", "key-2", "key-1"), sent);
+  }
+
+  @Test
+  public void testMissingRowIsMappedToNull() {
+    futures.put("key-0", StubResultSetFuture.completed("value-0"));
+    futures.put("key-1", StubResultSetFuture.completed(null));
+
+    List<String> values = dao.read(buffers("key-0", "key-1"));
+
+    Assert.assertEquals(Arrays.asList("value-0", null), values);
+  }
+
+  @Test
+  public void testFailureCancelsQueries() {
+    StubResultSetFuture failed = new StubResultSetFuture();
+    failed.setException(new IllegalStateException("read failed"));
+    StubResultSetFuture pending = new StubResultSetFuture();
+    futures.put("key-0", failed);
+    futures.put("key-1", pending);
+
+    try {
+      dao.read(buffers("key-0", "key-1"));
+      Assert.fail("Failed query didn't fail the read");
+    } catch (IllegalStateException ex) {
+      Assert.assertEquals("read failed", ex.getMessage());
+    }
+    Assert.assertTrue(pending.isCancelled());
+  }
+
+  @Test
+  public void testEmptyKeysAreNotQueried() {
+    Assert.assertTrue(dao.read(Collections.emptyList()).isEmpty());
+    Assert.assertTrue(statements.isEmpty());
+  }
+
+  private void replicas(String key, Host host) {
+    Mockito.when(metadata.getReplicas(KEYSPACE, buffer(key)))
+        .thenReturn(Collections.singleton(host));
+  }
+
+  private static List<ByteBuffer> buffers(String... keys) {
+    List<ByteBuffer> buffers = new ArrayList<>(keys.length);
+    for (String key : keys) {
+      buffers.add(buffer(key));
+    }
+    return buffers;
+  }
+
+  private static ByteBuffer buffer(String key) {
+    return ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String key(Statement statement) {
+    ByteBuffer routingKey = statement.getRoutingKey(ProtocolVersion.NEWEST_SUPPORTED,
+        CodecRegistry.DEFAULT_INSTANCE);
+    return StandardCharsets.UTF_8.decode(routingKey).toString();
+  }
+
+  private static class TestCassandraDao extends AbstractCassandraDao<Object, String> {
+
+    TestCassandraDao(CassandraClient cassandraClient) {
+      this.cassandraClient = cassandraClient;
+    }
+
+    List<String> read(List<ByteBuffer> keys) {
+      return multiGet(keys,
+          key -> select().from(COLUMN_FAMILY).where(eq(KEY_COLUMN, key)),
+          resultSet -> {
+            Row row = resultSet.one();
+            return row != null ? row.getString(VALUE_COLUMN) : null;
+          });
+    }
+
+    @Override
+    protected Class<Object> getColumnFamilyClass() {
+      return Object.class;
+    }
+
+    @Override
+    protected String getColumnFamilyName() {
+      return COLUMN_FAMILY;
+    }
+  }
+
+  private static class StubResultSetFuture extends AbstractFuture<ResultSet>
+      implements ResultSetFuture {
+
+    static StubResultSetFuture completed(String value) {
+      Row row = null;
+      if (value != null) {
+        row = Mockito.mock(Row.class);
+        Mockito.when(row.getString(VALUE_COLUMN)).thenReturn(value);
+      }
+      ResultSet resultSet = Mockito.mock(ResultSet.class);
+      Mockito.when(resultSet.one()).thenReturn(row);
+      StubResultSetFuture future = new StubResultSetFuture();
+      future.set(resultSet);
+      return future;
+    }
+
+    @Override
+    protected boolean set(ResultSet value) {
+      return super.set(value);
+    }
+
+    @Override
+    protected boolean setException(Throwable throwable) {
+      return super.setException(throwable);
+    }
+
+    @Override
+    public ResultSet getUninterruptibly() {
+      try {
+        return Uninterruptibles.getUninterruptibly(this);
+      } catch (ExecutionException ex) {
+        throw (RuntimeException) ex.getCause();
+      }
+    }
+
+    @Override
+    public ResultSet getUninterruptibly(long timeout, TimeUnit unit) throws TimeoutException {
+      try {
+        return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+      } catch (ExecutionException ex) {
+        throw (RuntimeException) ex.getCause();
+      }
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.kaaproject.kaa.common.dto.EndpointGroupDto;
 import org.kaaproject.kaa.common.dto.EndpointGroupStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.EndpointUserDto;
@@ -165,6 +166,44 @@ public class EndpointProfileCassandraDaoTest extends AbstractCassandraTest {
     }
   }
 
+  @Test
+  public void testUpdateState() throws Exception {
+    List<EndpointGroupStateDto> cfGroupStateSave = new ArrayList<>();
+    cfGroupStateSave.add(new EndpointGroupStateDto("555", null, null));
+    cfGroupStateSave.add(new EndpointGroupStateDto("666", null, null));
+    byte[] keyHash = generateBytes();
+    EndpointProfileDto endpointProfileSave = generateEndpointProfileForTestUpdate(null, keyHash, cfGroupStateSave);
+    EndpointProfile saved = endpointProfileDao.save(endpointProfileSave);
+
+    EndpointProfileDto changed = saved.toDto();
+    List<EndpointGroupStateDto> cfGroupStateUpdate = new ArrayList<>();
+    cfGroupStateUpdate.add(new EndpointGroupStateDto("555", null, null));
+    cfGroupStateUpdate.add(new EndpointGroupStateDto("777", null, null));
+    changed.setGroupState(cfGroupStateUpdate);
+    changed.setSequenceNumber(changed.getSequenceNumber() + 1);
+    Long version = endpointProfileDao.updateState(new EndpointProfileStateDto(changed));
+
+    EndpointProfile found = endpointProfileDao.findByKeyHash(keyHash);
+    Assert.assertEquals(Long.valueOf(saved.getVersion() + 1), version);
+    Assert.assertEquals(version, found.getVersion());
+    Assert.assertEquals(changed.getSequenceNumber(), found.toDto().getSequenceNumber());
+    String[] endpointGroupId = {"555", "777", "666"};
+    for (int i = 0; i < endpointGroupId.length; i++) {
+      PageLinkDto pageLink = new PageLinkDto(endpointGroupId[i], "10", "0");
+      EndpointProfilesPageDto page = endpointProfileDao.findByEndpointGroupId(pageLink);
+      Assert.assertEquals(i < 2, !page.getEndpointProfiles().isEmpty());
+    }
+  }
+
+  @Test(expected = KaaOptimisticLockingFailureException.class)
+  public void testUpdateWithStaleVersionAfterUpdateState() throws Exception {
+    byte[] keyHash = generateBytes();
+    EndpointProfileDto endpointProfileSave = generateEndpointProfileForTestUpdate(null, keyHash, new ArrayList<>());
+    EndpointProfileDto saved = endpointProfileDao.save(endpointProfileSave).toDto();
+    endpointProfileDao.updateState(new EndpointProfileStateDto(saved));
+    endpointProfileDao.save(saved);
+  }
+
   @Test
   public void testSave() throws Exception {
     EndpointProfileDto endpointProfile = generateEndpointProfile(null, null, null, null);
@@ -22,12 +22,18 @@ import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelC
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.ENDPOINT_PROFILE;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_ACCESS_TOKEN;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_APPLICATION_ID;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_CONFIGURATION_HASH;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_ENDPOINT_KEY_HASH;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_EPS_CONFIGURATION_HASH;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_GROUP_STATE;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_PROFILE_VERSION;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_SDK_TOKEN;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_SEQ_NUM;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_SERVER_PROFILE_PROPERTY;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_SERVER_PROFILE_VERSION_PROPERTY;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_SIMPLE_TOPIC_HASH;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_TOPIC_HASH;
+import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_USER_CONFIGURATION_HASH;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_USER_ID;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.EP_USE_RAW_SCHEMA;
 import static org.kaaproject.kaa.server.common.nosql.mongo.dao.model.MongoModelConstants.ID;
@@ -40,6 +46,7 @@ import com.mongodb.util.JSON;
 
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.PageLinkDto;
@@ -293,4 +300,22 @@ public class EndpointProfileMongoDao
             .set(EP_SERVER_PROFILE_VERSION_PROPERTY, version));
     return findById(ByteBuffer.wrap(keyHash));
   }
+
+  @Override
+  public Long updateState(EndpointProfileStateDto state) {
+    LOG.debug("Update endpoint profile state {}", state);
+    Query query = query(where(EP_ENDPOINT_KEY_HASH).is(state.getEndpointKeyHash()));
+    query.fields().include(OPT_LOCK);
+    MongoEndpointProfile profile = findAndModify(query,
+        update(EP_GROUP_STATE, MongoDaoUtil.convertDtoToModelList(state.getGroupState()))
+            .set(EP_SEQ_NUM, state.getSequenceNumber())
+            .set(EP_CONFIGURATION_HASH, state.getConfigurationHash())
+            .set(EP_USER_CONFIGURATION_HASH, state.getUserConfigurationHash())
+            .set(EP_EPS_CONFIGURATION_HASH, state.getEpsConfigurationHash())
+            .set(EP_TOPIC_HASH, state.getTopicHash())
+            .set(EP_SIMPLE_TOPIC_HASH, state.getSimpleTopicHash())
+            .inc(OPT_LOCK, 1),
+        returnNew);
+    return profile != null ? profile.getVersion() : null;
+  }
 }
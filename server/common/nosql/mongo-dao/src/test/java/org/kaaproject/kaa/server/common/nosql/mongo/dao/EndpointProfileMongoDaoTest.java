@@ -27,6 +27,7 @@ import org.kaaproject.kaa.common.dto.EndpointGroupDto;
 import org.kaaproject.kaa.common.dto.EndpointGroupStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesBodyDto;
 import org.kaaproject.kaa.common.dto.EndpointProfilesPageDto;
 import org.kaaproject.kaa.common.dto.PageLinkDto;
@@ -262,6 +263,31 @@ public class EndpointProfileMongoDaoTest extends AbstractMongoTest {
     return UUID.randomUUID().toString();
   }
 
+  @Test
+  public void testUpdateState() {
+    List<EndpointGroupStateDto> groupState = new ArrayList<EndpointGroupStateDto>();
+    groupState.add(new EndpointGroupStateDto("111", null, null));
+    EndpointProfileDto endpointProfile = generateEndpointProfileForTestUpdate(null, "TEST_KEY_HASH".getBytes(), groupState);
+    EndpointProfile saved = endpointProfileDao.save(endpointProfile);
+
+    EndpointProfileDto changed = saved.toDto();
+    List<EndpointGroupStateDto> changedGroupState = new ArrayList<EndpointGroupStateDto>();
+    changedGroupState.add(new EndpointGroupStateDto("222", "333", null));
+    changed.setGroupState(changedGroupState);
+    changed.setSequenceNumber(saved.toDto().getSequenceNumber() + 1);
+    changed.setConfigurationHash("CONFIGURATION_HASH".getBytes());
+    changed.setSimpleTopicHash(42);
+    Long version = endpointProfileDao.updateState(new EndpointProfileStateDto(changed));
+
+    EndpointProfileDto found = endpointProfileDao.findByKeyHash("TEST_KEY_HASH".getBytes()).toDto();
+    Assert.assertEquals(changedGroupState, found.getGroupState());
+    Assert.assertEquals(changed.getSequenceNumber(), found.getSequenceNumber());
+    Assert.assertArrayEquals("CONFIGURATION_HASH".getBytes(), found.getConfigurationHash());
+    Assert.assertEquals(42, found.getSimpleTopicHash());
+    Assert.assertEquals(Long.valueOf(saved.getVersion() + 1), version);
+    Assert.assertEquals(version, found.getVersion());
+  }
+
   @Test(expected = KaaOptimisticLockingFailureException.class)
   public void testOptimisticLockWithConcurrency() throws Throwable {
     final EndpointProfileDto endpointProfile = generateEndpointProfileDto(null, null);
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common;
+
+import java.nio.ByteBuffer;
+
+public class ByteBufferUtil {
+
+  private ByteBufferUtil() {
+  }
+
+  /**
+   * Returns a copy of the remaining bytes of the buffer without changing its
+   * position. The backing array is never returned, so the result stays valid
+   * when the buffer is reused. Use it instead of {@link ByteBuffer#array()}
+   * for buffers that may be views of a larger or reusable buffer.
+   *
+   * @param buffer the buffer
+   * @return the remaining bytes of the buffer
+   */
+  public static byte[] toByteArray(ByteBuffer buffer) {
+    byte[] result = new byte[buffer.remaining()];
+    buffer.duplicate().get(result);
+    return result;
+  }
+}
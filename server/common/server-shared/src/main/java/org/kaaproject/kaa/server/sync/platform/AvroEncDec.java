@@ -17,7 +17,8 @@
 package org.kaaproject.kaa.server.sync.platform;
 
 import org.kaaproject.kaa.common.Constants;
-import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
+import org.kaaproject.kaa.common.avro.AvroCodec;
+import org.kaaproject.kaa.common.avro.AvroCodecRegistry;
 import org.kaaproject.kaa.common.endpoint.gen.BootstrapSyncRequest;
 import org.kaaproject.kaa.common.endpoint.gen.BootstrapSyncResponse;
 import org.kaaproject.kaa.common.endpoint.gen.ConfigurationSyncRequest;
@@ -105,16 +106,16 @@ public class AvroEncDec implements PlatformEncDec {
 
   private static final Logger LOG = LoggerFactory.getLogger(AvroEncDec.class);
 
-  private final AvroByteArrayConverter<SyncRequest> clientSyncConverter;
-  private final AvroByteArrayConverter<SyncResponse> serverSyncConverter;
+  private final AvroCodec<SyncRequest> clientSyncCodec;
+  private final AvroCodec<SyncResponse> serverSyncCodec;
 
   /**
    * Instantiates a new avro enc dec.
    */
   public AvroEncDec() {
     super();
-    this.clientSyncConverter = new AvroByteArrayConverter<>(SyncRequest.class);
-    this.serverSyncConverter = new AvroByteArrayConverter<>(SyncResponse.class);
+    this.clientSyncCodec = AvroCodecRegistry.getCodec(SyncRequest.class);
+    this.serverSyncCodec = AvroCodecRegistry.getCodec(SyncResponse.class);
   }
 
   /**
@@ -671,7 +672,7 @@ public class AvroEncDec implements PlatformEncDec {
       if (LOG.isTraceEnabled()) {
         LOG.trace("Decoding avro data {}", Arrays.toString(data));
       }
-      SyncRequest source = clientSyncConverter.fromByteArray(data);
+      SyncRequest source = clientSyncCodec.decodeBinary(data, null);
       LOG.trace("Decoding client sync {}", source);
       if (source == null) {
         return null;
@@ -703,7 +704,7 @@ public class AvroEncDec implements PlatformEncDec {
 
     LOG.trace("Encoded server sync {}", response);
     try {
-      byte[] data = serverSyncConverter.toByteArray(response);
+      byte[] data = serverSyncCodec.encode(response);
       if (LOG.isTraceEnabled()) {
         LOG.trace("Encoded avro data {}", Arrays.toString(data));
       }
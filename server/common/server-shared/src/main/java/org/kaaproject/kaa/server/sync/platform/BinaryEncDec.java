@@ -63,6 +63,7 @@ import org.kaaproject.kaa.server.sync.bootstrap.ProtocolVersionId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.text.MessageFormat;
@@ -74,6 +75,11 @@ import java.util.List;
  * This class is an implementation of {@link PlatformEncDec} that uses internal
  * binary protocol for data serialization.
  *
+ * <p>When decoding from a {@link ByteBuffer}, profile body, log records and
+ * event data of the result are views of the source buffer instead of copies.
+ * When encoding into a {@link GrowingByteBuffer}, the caller may reuse the
+ * buffer for the subsequent responses.</p>
+ *
  * @author Andrew Shvayka
  */
 @KaaPlatformProtocol
@@ -206,6 +212,21 @@ public class BinaryEncDec implements PlatformEncDec {
     return ByteBuffer.wrap(getNewByteArray(buf, size, withPadding));
   }
 
+  private static ByteBuffer getByteBufferView(ByteBuffer buf, int size) {
+    if (size > buf.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    ByteBuffer view = buf.slice();
+    view.limit(size);
+    buf.position(buf.position() + size);
+    handlePadding(buf, size);
+    return view;
+  }
+
+  private static ByteBuffer getPayload(ByteBuffer buf, int size, boolean asView) {
+    return asView ? getByteBufferView(buf, size) : getNewByteBuffer(buf, size);
+  }
+
   private static void handlePadding(ByteBuffer buf, int size) {
     int padding = size % PADDING_SIZE;
     if (padding > 0) {
@@ -230,7 +251,16 @@ public class BinaryEncDec implements PlatformEncDec {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Decoding binary data {}", Arrays.toString(data));
     }
-    ByteBuffer buf = ByteBuffer.wrap(data);
+    return decode(ByteBuffer.wrap(data), false);
+  }
+
+  @Override
+  public ClientSync decode(ByteBuffer data) throws PlatformEncDecException {
+    LOG.trace("Decoding binary data {}", data);
+    return decode(data.slice(), true);
+  }
+
+  private ClientSync decode(ByteBuffer buf, boolean asViews) throws PlatformEncDecException {
     if (buf.remaining() < MIN_SIZE_OF_MESSAGE_HEADER) {
       throw new PlatformEncDecException(
           MessageFormat.format("Message header is to small {0} to be kaa binary message!",
@@ -252,7 +282,7 @@ public class BinaryEncDec implements PlatformEncDec {
     int extensionsCount = getIntFromUnsignedShort(buf);
     LOG.trace("received data for protocol id {} and version {} that contain {} extensions",
         protocolId, protocolVersion, extensionsCount);
-    ClientSync sync = parseExtensions(buf, protocolVersion, extensionsCount);
+    ClientSync sync = parseExtensions(buf, protocolVersion, extensionsCount, asViews);
     sync.setUseConfigurationRawSchema(false);
     LOG.trace("Decoded binary data {}", sync);
     return sync;
@@ -260,8 +290,25 @@ public class BinaryEncDec implements PlatformEncDec {
 
   @Override
   public byte[] encode(ServerSync sync) throws PlatformEncDecException {
-    LOG.trace("Encoding server sync {}", sync);
     GrowingByteBuffer buf = new GrowingByteBuffer(DEFAULT_BUFFER_SIZE);
+    encode(buf, sync);
+    byte[] result = buf.toByteArray();
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Encoded binary data {}", result);
+    }
+    return result;
+  }
+
+  @Override
+  public ByteBuffer encode(ServerSync sync, GrowingByteBuffer buffer)
+      throws PlatformEncDecException {
+    buffer.clear();
+    encode(buffer, sync);
+    return buffer.toByteBuffer();
+  }
+
+  private void encode(GrowingByteBuffer buf, ServerSync sync) {
+    LOG.trace("Encoding server sync {}", sync);
     buf.putInt(getId());
     buf.putShort(PROTOCOL_VERSION);
     buf.putShort(NOTHING); // will be updated later
@@ -303,11 +350,6 @@ public class BinaryEncDec implements PlatformEncDec {
     }
 
     buf.putShort(EXTENSIONS_COUNT_POSITION, extensionCount);
-    byte[] result = buf.toByteArray();
-    if (LOG.isTraceEnabled()) {
-      LOG.trace("Encoded binary data {}", result);
-    }
-    return result;
   }
 
   private void encode(GrowingByteBuffer buf, BootstrapServerSync bootstrapSync) {
@@ -425,12 +467,8 @@ public class BinaryEncDec implements PlatformEncDec {
     int option = 0;
     ByteBuffer confSchemaBody = configurationSync.getConfSchemaBody();
     ByteBuffer confDeltaBody = configurationSync.getConfDeltaBody();
-    boolean confSchemaPresent = confSchemaBody != null
-        && confSchemaBody.hasArray()
-        && confSchemaBody.array().length != 0;
-    boolean confBodyPresent = confDeltaBody != null
-        && confDeltaBody.hasArray()
-        && confDeltaBody.array().length != 0;
+    boolean confSchemaPresent = confSchemaBody != null && confSchemaBody.hasRemaining();
+    boolean confBodyPresent = confDeltaBody != null && confDeltaBody.hasRemaining();
     if (confSchemaPresent) {
       option |= 0x01;
     }
@@ -441,16 +479,16 @@ public class BinaryEncDec implements PlatformEncDec {
     final int extPosition = buf.position();
 
     if (confSchemaPresent) {
-      buf.putInt(confSchemaBody.array().length);
+      buf.putInt(confSchemaBody.remaining());
     }
     if (confBodyPresent) {
-      buf.putInt(confDeltaBody.array().length);
+      buf.putInt(confDeltaBody.remaining());
     }
     if (confSchemaPresent) {
-      put(buf, confSchemaBody.array());
+      put(buf, confSchemaBody);
     }
     if (confBodyPresent) {
-      put(buf, confDeltaBody.array());
+      put(buf, confDeltaBody);
     }
 
     buf.putInt(extPosition - SIZE_OF_INT, buf.position() - extPosition);
@@ -495,11 +533,11 @@ public class BinaryEncDec implements PlatformEncDec {
         buf.put(nf.getType() == NotificationType.SYSTEM ? SYSTEM : CUSTOM);
         buf.put(NOTHING);
         buf.putShort(nf.getUid() != null ? (short) nf.getUid().length() : (short) 0);
-        buf.putInt(nf.getBody().array().length);
+        buf.putInt(nf.getBody().remaining());
         long topicId = nf.getTopicId() != null ? nf.getTopicIdAsLong() : 0L;
         buf.putLong(topicId);
         putUtf(buf, nf.getUid());
-        put(buf, nf.getBody().array());
+        put(buf, nf.getBody());
       }
     }
 
@@ -542,7 +580,7 @@ public class BinaryEncDec implements PlatformEncDec {
       buf.putShort((short) eventSync.getEvents().size());
       for (Event event : eventSync.getEvents()) {
         boolean eventDataIsEmpty = event.getEventData() == null
-            || event.getEventData().array().length == 0;
+            || !event.getEventData().hasRemaining();
         if (!eventDataIsEmpty) {
           buf.putShort(EVENT_DATA_IS_EMPTY_OPTION);
         } else {
@@ -550,12 +588,12 @@ public class BinaryEncDec implements PlatformEncDec {
         }
         buf.putShort((short) event.getEventClassFqn().length());
         if (!eventDataIsEmpty) {
-          buf.putInt(event.getEventData().array().length);
+          buf.putInt(event.getEventData().remaining());
         }
         buf.put(Base64Util.decode(event.getSource()));
         putUtf(buf, event.getEventClassFqn());
         if (!eventDataIsEmpty) {
-          put(buf, event.getEventData().array());
+          put(buf, event.getEventData());
         }
       }
     }
@@ -583,7 +621,17 @@ public class BinaryEncDec implements PlatformEncDec {
 
   private void put(GrowingByteBuffer buf, byte[] data) {
     buf.put(data);
-    int padding = data.length % BinaryEncDec.PADDING_SIZE;
+    putPadding(buf, data.length);
+  }
+
+  private void put(GrowingByteBuffer buf, ByteBuffer data) {
+    int size = data.remaining();
+    buf.put(data);
+    putPadding(buf, size);
+  }
+
+  private void putPadding(GrowingByteBuffer buf, int size) {
+    int padding = size % BinaryEncDec.PADDING_SIZE;
     if (padding > 0) {
       padding = PADDING_SIZE - padding;
       for (int i = 0; i < padding; i++) {
@@ -592,7 +640,8 @@ public class BinaryEncDec implements PlatformEncDec {
     }
   }
 
-  private ClientSync parseExtensions(ByteBuffer buf, int protocolVersion, int extensionsCount)
+  private ClientSync parseExtensions(ByteBuffer buf, int protocolVersion, int extensionsCount,
+                                     boolean asViews)
       throws PlatformEncDecException {
     ClientSync sync = new ClientSync();
     for (short extPos = 0; extPos < extensionsCount; extPos++) {
@@ -618,13 +667,13 @@ public class BinaryEncDec implements PlatformEncDec {
           parseClientSyncMetaData(sync, buf, options, payloadLength);
           break;
         case PROFILE_EXTENSION_ID:
-          parseProfileClientSync(sync, buf, options, payloadLength);
+          parseProfileClientSync(sync, buf, options, payloadLength, asViews);
           break;
         case USER_EXTENSION_ID:
           parseUserClientSync(sync, buf, options, payloadLength);
           break;
         case LOGGING_EXTENSION_ID:
-          parseLogClientSync(sync, buf, options, payloadLength);
+          parseLogClientSync(sync, buf, options, payloadLength, asViews);
           break;
         case CONFIGURATION_EXTENSION_ID:
           parseConfigurationClientSync(sync, buf, options, payloadLength);
@@ -633,7 +682,7 @@ public class BinaryEncDec implements PlatformEncDec {
           parseNotificationClientSync(sync, buf, options, payloadLength);
           break;
         case EVENT_EXTENSION_ID:
-          parseEventClientSync(sync, buf, options, payloadLength);
+          parseEventClientSync(sync, buf, options, payloadLength, asViews);
           break;
         default:
           break;
@@ -699,10 +748,11 @@ public class BinaryEncDec implements PlatformEncDec {
   private void parseProfileClientSync(ClientSync sync,
                                       ByteBuffer buf,
                                       int options,
-                                      int payloadLength) {
+                                      int payloadLength,
+                                      boolean asViews) {
     int payloadLimitPosition = buf.position() + payloadLength;
     ProfileClientSync profileSync = new ProfileClientSync();
-    profileSync.setProfileBody(getNewByteBuffer(buf, buf.getInt()));
+    profileSync.setProfileBody(getPayload(buf, buf.getInt(), asViews));
     while (buf.position() < payloadLimitPosition) {
       byte fieldId = buf.get();
       // reading unused reserved field
@@ -749,13 +799,14 @@ public class BinaryEncDec implements PlatformEncDec {
   private void parseLogClientSync(ClientSync sync,
                                   ByteBuffer buf,
                                   int options,
-                                  int payloadLength) {
+                                  int payloadLength,
+                                  boolean asViews) {
     LogClientSync logSync = new LogClientSync();
     logSync.setRequestId(getIntFromUnsignedShort(buf));
     int size = getIntFromUnsignedShort(buf);
     List<LogEntry> logs = new ArrayList<>(size);
     for (int i = 0; i < size; i++) {
-      logs.add(new LogEntry(getNewByteBuffer(buf, buf.getInt())));
+      logs.add(new LogEntry(getPayload(buf, buf.getInt(), asViews)));
     }
     logSync.setLogEntries(logs);
     sync.setLogSync(logSync);
@@ -778,7 +829,8 @@ public class BinaryEncDec implements PlatformEncDec {
   private void parseEventClientSync(ClientSync sync,
                                     ByteBuffer buf,
                                     int options,
-                                    int payloadLength) {
+                                    int payloadLength,
+                                    boolean asViews) {
     EventClientSync eventSync = new EventClientSync();
     if (hasOption(options, EVENT_SEQ_NUMBER_REQUEST_OPTION)) {
       eventSync.setSeqNumberRequest(true);
@@ -793,7 +845,7 @@ public class BinaryEncDec implements PlatformEncDec {
           eventSync.setEventListenersRequests(parseListenerRequests(buf));
           break;
         case EVENT_LIST_FIELD_ID:
-          eventSync.setEvents(parseEvents(buf));
+          eventSync.setEvents(parseEvents(buf, asViews));
           break;
         default:
           break;
@@ -891,7 +943,7 @@ public class BinaryEncDec implements PlatformEncDec {
     return requests;
   }
 
-  private List<Event> parseEvents(ByteBuffer buf) {
+  private List<Event> parseEvents(ByteBuffer buf, boolean asViews) {
     int eventsCount = getIntFromUnsignedShort(buf);
     List<Event> events = new ArrayList<>(eventsCount);
     for (int i = 0; i < eventsCount; i++) {
@@ -908,7 +960,7 @@ public class BinaryEncDec implements PlatformEncDec {
       }
       event.setEventClassFqn(getUtf8String(buf, fqnLength));
       if (dataSize > 0) {
-        event.setEventData(getNewByteBuffer(buf, dataSize));
+        event.setEventData(getPayload(buf, dataSize, asViews));
       } else {
         event.setEventData(EMPTY_BUFFER);
       }
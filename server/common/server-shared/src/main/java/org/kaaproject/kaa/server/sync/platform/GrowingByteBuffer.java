@@ -22,7 +22,7 @@ import java.util.Arrays;
 
 /**
  * This class wraps {@link ByteBuffer} and provides ability to automatically resize the buffer when
- * needed.
+ * needed. The buffer may be reused for several messages with {@link #clear()}.
  *
  * @author Andrew Shvayka
  */
@@ -39,6 +39,18 @@ public class GrowingByteBuffer {
     data = ByteBuffer.wrap(new byte[size]);
   }
 
+  /**
+   * Creates the buffer that writes to the given, possibly direct, buffer
+   * until it is full. The given buffer is cleared.
+   *
+   * @param buffer the initial storage
+   */
+  public GrowingByteBuffer(ByteBuffer buffer) {
+    super();
+    data = buffer;
+    data.clear();
+  }
+
   /**
    * Put byte to byte buffer.
    *
@@ -63,6 +75,19 @@ public class GrowingByteBuffer {
     return this;
   }
 
+  /**
+   * Put remaining bytes of the source buffer. Position of the source buffer
+   * is not changed.
+   *
+   * @param src is the source buffer
+   * @return current instance of <code>GrowingByteBuffer</code>
+   */
+  public GrowingByteBuffer put(ByteBuffer src) {
+    resizeIfNeeded(src.remaining());
+    data.put(src.duplicate());
+    return this;
+  }
+
   /**
    * Put short number to byte buffer.
    *
@@ -135,6 +160,20 @@ public class GrowingByteBuffer {
     return data.position();
   }
 
+  public int capacity() {
+    return data.capacity();
+  }
+
+  /**
+   * Discards the written data, keeping the allocated storage.
+   *
+   * @return current instance of <code>GrowingByteBuffer</code>
+   */
+  public GrowingByteBuffer clear() {
+    data.clear();
+    return this;
+  }
+
   private void checkPosition(int position) {
     if (data.capacity() < position) {
       throw new IllegalArgumentException(
@@ -145,15 +184,47 @@ public class GrowingByteBuffer {
 
   private void resizeIfNeeded(int size) {
     if (size > data.remaining()) {
-      int position = data.position();
-      data = ByteBuffer.wrap(Arrays.copyOf(
-          data.array(), Math.max(data.position() + size, data.array().length * 2)));
-      data.position(position);
+      int capacity = Math.max(data.position() + size, data.capacity() * 2);
+      if (data.hasArray()) {
+        int position = data.position();
+        data = ByteBuffer.wrap(Arrays.copyOfRange(
+            data.array(), data.arrayOffset(), data.arrayOffset() + capacity));
+        data.position(position);
+      } else {
+        ByteBuffer grown = data.isDirect()
+            ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        data.flip();
+        grown.put(data);
+        data = grown;
+      }
     }
   }
 
+  /**
+   * Returns a copy of the written data.
+   *
+   * @return the written data
+   */
   public byte[] toByteArray() {
-    return Arrays.copyOf(data.array(), data.position());
+    if (data.hasArray()) {
+      return Arrays.copyOfRange(data.array(), data.arrayOffset(),
+          data.arrayOffset() + data.position());
+    }
+    byte[] result = new byte[data.position()];
+    toByteBuffer().get(result);
+    return result;
+  }
+
+  /**
+   * Returns a view of the written data without copying it. The view is valid
+   * until the buffer is cleared or written to.
+   *
+   * @return the written data
+   */
+  public ByteBuffer toByteBuffer() {
+    ByteBuffer view = data.duplicate();
+    view.flip();
+    return view;
   }
 
 }
@@ -16,9 +16,12 @@
 
 package org.kaaproject.kaa.server.sync.platform;
 
+import org.kaaproject.kaa.server.common.ByteBufferUtil;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.ServerSync;
 
+import java.nio.ByteBuffer;
+
 /**
  * The PlatformEncDec is used to decode platform level data to
  * {@link ClientSync} and encode {@link ServerSync}.
@@ -48,4 +51,33 @@ public interface PlatformEncDec {
    */
   byte[] encode(ServerSync sync) throws PlatformEncDecException;
 
+  /**
+   * Decodes remaining bytes of the buffer to {@link ClientSync}. Byte buffer
+   * fields of the result may be views of the given buffer, so the buffer must
+   * not be modified or reused while the result is in use.
+   *
+   * @param data the data to decode
+   * @return the client sync
+   * @throws PlatformEncDecException signals that decode exception has occurred.
+   */
+  default ClientSync decode(ByteBuffer data) throws PlatformEncDecException {
+    return decode(ByteBufferUtil.toByteArray(data));
+  }
+
+  /**
+   * Encodes {@link ServerSync} to platform data into the given buffer. The
+   * buffer is cleared before encoding.
+   *
+   * @param sync   the sync to encode
+   * @param buffer the buffer to encode to
+   * @return the view of the encoded data, valid until the buffer is reused
+   * @throws PlatformEncDecException signals that encode exception has occurred.
+   */
+  default ByteBuffer encode(ServerSync sync, GrowingByteBuffer buffer)
+      throws PlatformEncDecException {
+    buffer.clear();
+    buffer.put(encode(sync));
+    return buffer.toByteBuffer();
+  }
+
 }
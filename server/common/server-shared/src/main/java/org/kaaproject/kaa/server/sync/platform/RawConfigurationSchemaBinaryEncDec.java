@@ -20,6 +20,8 @@ package org.kaaproject.kaa.server.sync.platform;
 import org.kaaproject.kaa.common.Constants;
 import org.kaaproject.kaa.server.sync.ClientSync;
 
+import java.nio.ByteBuffer;
+
 @KaaPlatformProtocol
 public class RawConfigurationSchemaBinaryEncDec extends BinaryEncDec {
 
@@ -34,4 +36,11 @@ public class RawConfigurationSchemaBinaryEncDec extends BinaryEncDec {
     sync.setUseConfigurationRawSchema(true);
     return sync;
   }
+
+  @Override
+  public ClientSync decode(ByteBuffer data) throws PlatformEncDecException {
+    ClientSync sync = super.decode(data);
+    sync.setUseConfigurationRawSchema(true);
+    return sync;
+  }
 }
@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -47,12 +48,17 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Neighbor Connection Class. Hold thrift connection pool to specific operations
  * server. Provides sendEventMessage() for send messages to neighbor Operations
  * Server
  *
+ * <p>Messages are queued without blocking the caller and sent by a pool of
+ * workers, one per connection, in batches bounded by size and time. Messages
+ * which don't fit into the bounded queue are dropped and counted.</p>
+ *
  * @author Andrey Panasenko
  * @author Andrew Shvayka
  */
@@ -60,16 +66,6 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
 
   private static final Logger LOG = LoggerFactory.getLogger(NeighborConnection.class);
 
-  /**
-   * SOCKET_TIMEOUT on opened connection in seconds.
-   */
-  private static final long DEFAULT_SOCKET_TIMEOUT_CONNECTION_TO_NEIGHBOR = 20;
-
-  /**
-   * Default maximum number of event messages queue.
-   */
-  private static final int DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH = 1024 * 1024;
-
   /**
    * ID of connection in thriftHost:thriftPort format.
    */
@@ -92,14 +88,23 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
   /**
    * Real maximum number of event messages queue.
    */
-  private final int messageQueueLength = DEFAULT_EVENT_MESSAGE_QUEUE_LENGTH;
+  private final int messageQueueLength;
+
+  private final int maxBatchSize;
+
+  /**
+   * Time in milliseconds to wait for more messages to fill a batch.
+   */
+  private final long maxBatchDelay;
+
+  private final AtomicLong droppedMessageCount = new AtomicLong();
 
 
   private ThriftFactory<OperationsThriftService.Iface> clientFactory;
   private Thrift<OperationsThriftService.Iface> thrift;
 
 
-  private LinkedBlockingQueue<V> messageQueue;
+  private final LinkedBlockingQueue<V> messageQueue;
 
   /**
    * Fixed Thread pool to run event workers.
@@ -113,6 +118,26 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
 
   private boolean started;
 
+  /**
+   * Create new instance of <code>NeighborConnection</code>.
+   *
+   * @param connectionInfo is connection info
+   * @param config is connection settings
+   * @param template is template
+   */
+  public NeighborConnection(ConnectionInfo connectionInfo, NeighborConnectionConfig config,
+                            T template) {
+    this.connectionInfo = connectionInfo;
+    this.maxNumberConnection = config.getMaxNumberConnections();
+    this.socketTimeout = config.getSocketTimeout();
+    this.messageQueueLength = config.getMessageQueueLength();
+    this.maxBatchSize = Math.max(config.getMaxBatchSize(), 1);
+    this.maxBatchDelay = config.getMaxBatchDelay();
+    this.messageQueue = new LinkedBlockingQueue<>(messageQueueLength);
+    this.template = template;
+    this.id = Neighbors.getServerId(connectionInfo);
+  }
+
   /**
    * Create new instance of <code>NeighborConnection</code>.
    *
@@ -123,17 +148,19 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
    */
   public NeighborConnection(ConnectionInfo connectionInfo, int maxNumberConnection,
                             long socketTimeout, T template) {
-    this.connectionInfo = connectionInfo;
-    this.maxNumberConnection = maxNumberConnection;
-    this.socketTimeout = socketTimeout;
-    this.template = template;
-    this.id = Neighbors.getServerId(connectionInfo);
+    this(connectionInfo, createConfig(maxNumberConnection, socketTimeout), template);
   }
 
   public NeighborConnection(ConnectionInfo connectionInfo,
                             int maxNumberNeighborConnections, T template) {
-    this(connectionInfo, maxNumberNeighborConnections,
-        DEFAULT_SOCKET_TIMEOUT_CONNECTION_TO_NEIGHBOR, template);
+    this(connectionInfo, new NeighborConnectionConfig(maxNumberNeighborConnections), template);
+  }
+
+  private static NeighborConnectionConfig createConfig(int maxNumberConnection,
+                                                       long socketTimeout) {
+    NeighborConnectionConfig config = new NeighborConnectionConfig(maxNumberConnection);
+    config.setSocketTimeout(socketTimeout);
+    return config;
   }
 
   /**
@@ -164,7 +191,6 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
   public synchronized void start() {
     if (!started) {
       executor = Executors.newFixedThreadPool(maxNumberConnection);
-      messageQueue = new LinkedBlockingQueue<>(messageQueueLength);
       workers = new LinkedList<>();
       clientFactory = ThriftFactory.create(OperationsThriftService.Iface.class);
       InetSocketAddress address = new InetSocketAddress(
@@ -214,19 +240,44 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
   }
 
   /**
-   * Send list of event message to the neighbor operations server.
+   * Queue list of event message for sending to the neighbor operations server.
+   * The call never blocks: messages which don't fit into the queue are dropped.
    *
    * @param messages a list of messages that will be sent to  to the neighbor server
-   * @throws InterruptedException in case of queuing error occurred.
+   * @return true if all messages were queued, false if some of them were dropped
    */
-  public void sendMessages(Collection<V> messages) throws InterruptedException {
+  public boolean sendMessages(Collection<V> messages) {
+    int dropped = 0;
     for (V e : messages) {
-      if (!messageQueue.offer(e, 1, TimeUnit.MINUTES)) {
-        LOG.error("NeighborConnection [{}] event messages queue is full "
-            + "more than 1 minute. Operation impossible.", getId());
-        throw new InterruptedException("Event messages queue is full more than 10 minutes");
+      if (!messageQueue.offer(e)) {
+        dropped++;
       }
     }
+    if (dropped > 0) {
+      long total = droppedMessageCount.addAndGet(dropped);
+      LOG.warn("NeighborConnection [{}] event messages queue is full, {} messages dropped, "
+          + "{} messages dropped in total", getId(), dropped, total);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of messages waiting to be sent.
+   *
+   * @return the message queue size
+   */
+  public int getQueueSize() {
+    return messageQueue.size();
+  }
+
+  /**
+   * Returns the number of messages dropped because the queue was full.
+   *
+   * @return the dropped message count
+   */
+  public long getDroppedMessageCount() {
+    return droppedMessageCount.get();
   }
 
   /**
@@ -295,7 +346,9 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
 
   /**
    * EventWorker Class. Provides sending EventMessages asynchronously.
-   * EventWorker blocks if messageQueue is empty in poll() operation.
+   * EventWorker blocks if messageQueue is empty in poll() operation, then
+   * collects up to maxBatchSize messages, waiting at most maxBatchDelay for
+   * the batch to fill up.
    */
   public class EventWorker implements Runnable {
 
@@ -312,13 +365,13 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
 
     @Override
     public void run() {
-      LinkedList<V> messages = new LinkedList<>(); // NOSONAR
+      List<V> messages = new ArrayList<>(maxBatchSize);
       while (operate) {
         try {
           V event = messageQueue.poll(1, TimeUnit.HOURS);
           if (event != null) {
-            messages.push(event);
-            messageQueue.drainTo(messages);
+            messages.add(event);
+            fillBatch(messages);
             template.process(client, messages);
             LOG.debug("EventWorker [{}:<{}>] {} messages sent", id, uniqueId, messages.size());
             messages.clear();
@@ -332,5 +385,22 @@ public final class NeighborConnection<T extends NeighborTemplate<V>, V> {
         }
       }
     }
+
+    private void fillBatch(List<V> messages) throws InterruptedException {
+      messageQueue.drainTo(messages, maxBatchSize - messages.size());
+      if (maxBatchDelay <= 0) {
+        return;
+      }
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelay);
+      while (messages.size() < maxBatchSize) {
+        long remaining = deadline - System.nanoTime();
+        V event = remaining > 0 ? messageQueue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+        if (event == null) {
+          return;
+        }
+        messages.add(event);
+        messageQueue.drainTo(messages, maxBatchSize - messages.size());
+      }
+    }
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.thrift;
+
+/**
+ * Settings of the message pipeline of a {@link NeighborConnection}.
+ */
+public class NeighborConnectionConfig {
+
+  /**
+   * SOCKET_TIMEOUT on opened connection in seconds.
+   */
+  public static final long DEFAULT_SOCKET_TIMEOUT = 20;
+
+  /**
+   * Default maximum number of queued messages.
+   */
+  public static final int DEFAULT_MESSAGE_QUEUE_LENGTH = 1024 * 1024;
+
+  /**
+   * Default maximum number of messages sent in one call.
+   */
+  public static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+  /**
+   * Default time in milliseconds to wait for more messages before sending a
+   * batch which is not full.
+   */
+  public static final long DEFAULT_MAX_BATCH_DELAY = 0;
+
+  private int maxNumberConnections;
+
+  private long socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+
+  private int messageQueueLength = DEFAULT_MESSAGE_QUEUE_LENGTH;
+
+  private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+  private long maxBatchDelay = DEFAULT_MAX_BATCH_DELAY;
+
+  public NeighborConnectionConfig(int maxNumberConnections) {
+    this.maxNumberConnections = maxNumberConnections;
+  }
+
+  /**
+   * Maximum number of connections, and so the number of batches sent
+   * concurrently, to the neighbor.
+   */
+  public int getMaxNumberConnections() {
+    return maxNumberConnections;
+  }
+
+  public void setMaxNumberConnections(int maxNumberConnections) {
+    this.maxNumberConnections = maxNumberConnections;
+  }
+
+  /**
+   * Socket and request timeout in seconds.
+   */
+  public long getSocketTimeout() {
+    return socketTimeout;
+  }
+
+  public void setSocketTimeout(long socketTimeout) {
+    this.socketTimeout = socketTimeout;
+  }
+
+  /**
+   * Maximum number of messages waiting to be sent. Messages which don't fit
+   * into the queue are dropped.
+   */
+  public int getMessageQueueLength() {
+    return messageQueueLength;
+  }
+
+  public void setMessageQueueLength(int messageQueueLength) {
+    this.messageQueueLength = messageQueueLength;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  public long getMaxBatchDelay() {
+    return maxBatchDelay;
+  }
+
+  public void setMaxBatchDelay(long maxBatchDelay) {
+    this.maxBatchDelay = maxBatchDelay;
+  }
+}
@@ -47,7 +47,7 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
 
   private final ConcurrentMap<String, NeighborConnection<T, V>> neigbors;
 
-  private final int maxNumberNeighborConnections;
+  private final NeighborConnectionConfig connectionConfig;
 
   private final T template;
 
@@ -58,9 +58,21 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
    * until node is set.
    */
   public Neighbors(KaaThriftService serviceType, T template, int maxNumberNeighborConnections) {
+    this(serviceType, template, new NeighborConnectionConfig(maxNumberNeighborConnections));
+  }
+
+  /**
+   * Create new instance of <code>Neighbors</code>.
+   *
+   * @param serviceType the thrift service type
+   * @param template the template used to send messages
+   * @param connectionConfig the settings of neighbor connections
+   */
+  public Neighbors(KaaThriftService serviceType, T template,
+                   NeighborConnectionConfig connectionConfig) {
     this.serviceType = serviceType;
     this.template = template;
-    this.maxNumberNeighborConnections = maxNumberNeighborConnections;
+    this.connectionConfig = connectionConfig;
     this.neigbors = new ConcurrentHashMap<String, NeighborConnection<T, V>>();
   }
 
@@ -104,11 +116,8 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
   public void sendMessages(ConnectionInfo info, Collection<V> msgs) {
     NeighborConnection<T, V> neighbor = neigbors.get(getServerId(info));
     if (neighbor != null) {
-      try {
-        neighbor.sendMessages(msgs);
-      } catch (InterruptedException ex) {
+      if (!neighbor.sendMessages(msgs)) {
         LOG.error("Failed to send message to {}", neighbor.getId());
-        throw new RuntimeException(ex);
       }
     } else {
       LOG.warn("Can't find server for id {}", getServerId(info));
@@ -131,9 +140,7 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
     }
     for (NeighborConnection<T, V> neighbor : neigbors.values()) {
       LOG.trace("Broadcasting to {} neighbor", neighbor);
-      try {
-        neighbor.sendMessages(msgs);
-      } catch (InterruptedException ex) {
+      if (!neighbor.sendMessages(msgs)) {
         LOG.warn("Failed to send message to {}", neighbor.getId());
       }
     }
@@ -158,6 +165,33 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
     return new LinkedList<NeighborConnection<T, V>>(neigbors.values());
   }
 
+  /**
+   * Returns the number of messages queued for all neighbors.
+   *
+   * @return the queued message count
+   */
+  public int getQueueSize() {
+    int size = 0;
+    for (NeighborConnection<T, V> neighbor : neigbors.values()) {
+      size += neighbor.getQueueSize();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of messages dropped because the queues of the
+   * neighbors were full.
+   *
+   * @return the dropped message count
+   */
+  public long getDroppedMessageCount() {
+    long count = 0;
+    for (NeighborConnection<T, V> neighbor : neigbors.values()) {
+      count += neighbor.getDroppedMessageCount();
+    }
+    return count;
+  }
+
   /**
    * Return specific Neighbor connection by Id.
    *
@@ -219,7 +253,7 @@ public class Neighbors<T extends NeighborTemplate<V>, V> {
     if (!zkId.equals(opId)) {
       LOG.trace("Adding {} to {}", opId, neigbors);
       neigbors.putIfAbsent(opId, new NeighborConnection<T, V>(opServer.getConnectionInfo(),
-          maxNumberNeighborConnections, template));
+          connectionConfig, template));
 
       neigbors.get(opId).start();
       LOG.info("Operations server {} added/updated to {} Neighbors list. Now {} neighbors",
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.server.sync.platform.GrowingByteBuffer;
+
+import java.nio.ByteBuffer;
+
+public class ByteBufferUtilTest {
+
+  @Test
+  public void testCopiesBufferThatFillsWholeArray() {
+    byte[] data = {1, 2, 3, 4};
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    byte[] result = ByteBufferUtil.toByteArray(buffer);
+    Assert.assertArrayEquals(data, result);
+    Assert.assertNotSame(data, result);
+    Assert.assertEquals(0, buffer.position());
+  }
+
+  @Test
+  public void testResponseThatExactlyFillsReusedBufferIsNotOverwritten() {
+    GrowingByteBuffer responseBuffer = new GrowingByteBuffer(4);
+    responseBuffer.put(new byte[] {1, 2, 3, 4});
+    Assert.assertEquals(responseBuffer.capacity(), responseBuffer.position());
+    byte[] first = ByteBufferUtil.toByteArray(responseBuffer.toByteBuffer());
+
+    responseBuffer.clear();
+    responseBuffer.put(new byte[] {5, 6, 7, 8});
+    byte[] second = ByteBufferUtil.toByteArray(responseBuffer.toByteBuffer());
+
+    Assert.assertArrayEquals(new byte[] {1, 2, 3, 4}, first);
+    Assert.assertArrayEquals(new byte[] {5, 6, 7, 8}, second);
+  }
+
+  @Test
+  public void testCopiesRemainingBytesOfView() {
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5});
+    buffer.position(1);
+    buffer.limit(4);
+    Assert.assertArrayEquals(new byte[] {2, 3, 4}, ByteBufferUtil.toByteArray(buffer.slice()));
+    Assert.assertArrayEquals(new byte[] {2, 3, 4}, ByteBufferUtil.toByteArray(buffer));
+  }
+}
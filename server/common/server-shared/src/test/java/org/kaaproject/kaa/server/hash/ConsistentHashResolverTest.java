@@ -88,7 +88,7 @@ public class ConsistentHashResolverTest {
 
   private List<OperationsNodeInfo> createNodeListWithOneNode() {
     ConnectionInfo connectionInfo = new ConnectionInfo("thrift1", 4234, ByteBuffer.allocate(16));
-    OperationsNodeInfo operationsNodeInfo = new OperationsNodeInfo(connectionInfo, null, 523634L, null);
+    OperationsNodeInfo operationsNodeInfo = new OperationsNodeInfo(connectionInfo, null, 523634L, null, null);
     return Arrays.asList(operationsNodeInfo);
   }
 
@@ -105,9 +105,9 @@ public class ConsistentHashResolverTest {
     ConnectionInfo connectionInfo1 = new ConnectionInfo("thrift1", 4241, buffer1);
     ConnectionInfo connectionInfo2 = new ConnectionInfo("thrift2", 4242, buffer2);
     ConnectionInfo connectionInfo3 = new ConnectionInfo("thrift3", 4243, buffer3);
-    OperationsNodeInfo operationsNodeInfo1 = new OperationsNodeInfo(connectionInfo1, null, 1231L, null);
-    OperationsNodeInfo operationsNodeInfo2 = new OperationsNodeInfo(connectionInfo2, null, 1232L, null);
-    OperationsNodeInfo operationsNodeInfo3 = new OperationsNodeInfo(connectionInfo3, null, 1233L, null);
+    OperationsNodeInfo operationsNodeInfo1 = new OperationsNodeInfo(connectionInfo1, null, 1231L, null, null);
+    OperationsNodeInfo operationsNodeInfo2 = new OperationsNodeInfo(connectionInfo2, null, 1232L, null, null);
+    OperationsNodeInfo operationsNodeInfo3 = new OperationsNodeInfo(connectionInfo3, null, 1233L, null, null);
     return Arrays.asList(operationsNodeInfo1, operationsNodeInfo2, operationsNodeInfo3);
   }
 }
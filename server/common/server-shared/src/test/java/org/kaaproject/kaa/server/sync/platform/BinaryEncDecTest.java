@@ -360,6 +360,62 @@ public class BinaryEncDecTest {
     Assert.assertEquals(MAGIC_NUMBER, logSync.getLogEntries().get(0).getData().array()[MAGIC_NUMBER]);
   }
 
+  @Test
+  public void testLogClientSyncFromBuffer() throws PlatformEncDecException {
+    ByteBuffer buf = ByteBuffer.wrap(new byte[4 + 4 + 128]);
+    buf.putShort(BIG_MAGIC_NUMBER);
+    buf.put((byte) 0);
+    buf.put((byte) 1);
+    buf.putInt(127);
+    byte[] logData = new byte[127];
+    logData[MAGIC_NUMBER] = MAGIC_NUMBER;
+    buf.put(logData);
+    buf.put((byte) 0);
+
+    byte[] data = concat(buildHeader(Constants.KAA_PLATFORM_PROTOCOL_BINARY_ID, 1, 2), getValidMetaData(),
+        buildExtensionHeader(BinaryEncDec.LOGGING_EXTENSION_ID, 0, 0, buf.array().length), buf.array());
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length + MAGIC_INDEX);
+    direct.position(MAGIC_INDEX);
+    direct.put(data);
+    direct.position(MAGIC_INDEX);
+
+    ClientSync sync = encDec.decode(direct);
+    Assert.assertEquals(MAGIC_INDEX, direct.position());
+    Assert.assertNotNull(sync.getClientSyncMetaData());
+    LogClientSync logSync = sync.getLogSync();
+    Assert.assertEquals(BIG_MAGIC_NUMBER, logSync.getRequestId());
+    Assert.assertEquals(1, logSync.getLogEntries().size());
+    ByteBuffer logEntry = logSync.getLogEntries().get(0).getData();
+    Assert.assertEquals(logData.length, logEntry.remaining());
+    Assert.assertEquals(MAGIC_NUMBER, logEntry.get(MAGIC_NUMBER));
+  }
+
+  @Test
+  public void testEncodeIntoReusedBuffer() throws PlatformEncDecException {
+    EventServerSync eSync = new EventServerSync();
+    Event event = new Event();
+    event.setEventClassFqn("fqn");
+    event.setSource(Base64Util.encode(new byte[SHA_1_LENGTH]));
+    byte[] eventData = new byte[MAGIC_NUMBER + MAGIC_INDEX];
+    eventData[MAGIC_INDEX] = MAGIC_NUMBER;
+    event.setEventData(ByteBuffer.wrap(eventData, MAGIC_INDEX, MAGIC_NUMBER).slice());
+    eSync.setEvents(Collections.singletonList(event));
+    ServerSync sync = new ServerSync();
+    sync.setRequestId(MAGIC_NUMBER);
+    sync.setStatus(SyncStatus.SUCCESS);
+    sync.setEventSync(eSync);
+
+    byte[] expected = encDec.encode(sync);
+    GrowingByteBuffer buffer = new GrowingByteBuffer(ByteBuffer.allocateDirect(16));
+    for (int i = 0; i < 2; i++) {
+      ByteBuffer encoded = encDec.encode(sync, buffer);
+      byte[] actual = new byte[encoded.remaining()];
+      encoded.get(actual);
+      Assert.assertArrayEquals(expected, actual);
+    }
+    Assert.assertEquals(MAGIC_NUMBER, expected[expected.length - MAGIC_NUMBER - 2]);
+  }
+
   @Test
   public void testConfigurationClientSyncWithEmptyHash() throws PlatformEncDecException {
     ByteBuffer buf = ByteBuffer.wrap(new byte[4]);
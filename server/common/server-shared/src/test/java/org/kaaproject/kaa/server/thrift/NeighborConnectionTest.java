@@ -73,6 +73,19 @@ public class NeighborConnectionTest {
     verify(executorSpy, timeout(1000)).shutdown();
   }
 
+  @Test
+  public void sendMessagesQueueFullTest() {
+    NeighborConnectionConfig config = new NeighborConnectionConfig(1);
+    config.setMessageQueueLength(2);
+    ConnectionInfo connectionInfo = new ConnectionInfo("thriftHost", 10101, ByteBuffer.allocate(10));
+    NeighborConnection<NeighborTemplate<Event>, Event> connection = new NeighborConnection<>(connectionInfo, config, template);
+
+    Assert.assertTrue(connection.sendMessages(Arrays.asList(new Event(), new Event())));
+    Assert.assertFalse(connection.sendMessages(Collections.singleton(new Event())));
+    Assert.assertEquals(2, connection.getQueueSize());
+    Assert.assertEquals(1, connection.getDroppedMessageCount());
+  }
+
   private ExecutorService getSpyOnExecutorAndInjectIt() {
     ExecutorService executorSpy = spy((ExecutorService) ReflectionTestUtils.getField(neighborConnection, "executor"));
     ReflectionTestUtils.setField(neighborConnection, "executor", executorSpy);
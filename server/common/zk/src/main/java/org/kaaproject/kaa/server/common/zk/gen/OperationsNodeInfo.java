@@ -8,11 +8,12 @@ package org.kaaproject.kaa.server.common.zk.gen;
 @SuppressWarnings("all")
 @org.apache.avro.specific.AvroGenerated
 public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"OperationsNodeInfo\",\"namespace\":\"org.kaaproject.kaa.server.common.zk.gen\",\"fields\":[{\"name\":\"connectionInfo\",\"type\":{\"type\":\"record\",\"name\":\"ConnectionInfo\",\"fields\":[{\"name\":\"thriftHost\",\"type\":\"string\"},{\"name\":\"thriftPort\",\"type\":\"int\"},{\"name\":\"publicKey\",\"type\":[\"bytes\",\"null\"]}]}},{\"name\":\"loadInfo\",\"type\":{\"type\":\"record\",\"name\":\"LoadInfo\",\"fields\":[{\"name\":\"endpointCount\",\"type\":\"int\"},{\"name\":\"loadAverage\",\"type\":\"double\"}]}},{\"name\":\"timeStarted\",\"type\":\"long\"},{\"name\":\"transports\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"TransportMetaData\",\"fields\":[{\"name\":\"id\",\"type\":\"int\"},{\"name\":\"minSupportedVersion\",\"type\":\"int\"},{\"name\":\"maxSupportedVersion\",\"type\":\"int\"},{\"name\":\"connectionInfo\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"VersionConnectionInfoPair\",\"fields\":[{\"name\":\"version\",\"type\":\"int\"},{\"name\":\"conenctionInfo\",\"type\":\"bytes\"}]}}}]}}}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"OperationsNodeInfo\",\"namespace\":\"org.kaaproject.kaa.server.common.zk.gen\",\"fields\":[{\"name\":\"connectionInfo\",\"type\":{\"type\":\"record\",\"name\":\"ConnectionInfo\",\"fields\":[{\"name\":\"thriftHost\",\"type\":\"string\"},{\"name\":\"thriftPort\",\"type\":\"int\"},{\"name\":\"publicKey\",\"type\":[\"bytes\",\"null\"]}]}},{\"name\":\"loadInfo\",\"type\":{\"type\":\"record\",\"name\":\"LoadInfo\",\"fields\":[{\"name\":\"endpointCount\",\"type\":\"int\"},{\"name\":\"loadAverage\",\"type\":\"double\"}]}},{\"name\":\"timeStarted\",\"type\":\"long\"},{\"name\":\"transports\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"TransportMetaData\",\"fields\":[{\"name\":\"id\",\"type\":\"int\"},{\"name\":\"minSupportedVersion\",\"type\":\"int\"},{\"name\":\"maxSupportedVersion\",\"type\":\"int\"},{\"name\":\"connectionInfo\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"VersionConnectionInfoPair\",\"fields\":[{\"name\":\"version\",\"type\":\"int\"},{\"name\":\"conenctionInfo\",\"type\":\"bytes\"}]}}}]}}},{\"name\":\"loadStats\",\"type\":[\"null\",{\"type\":\"record\",\"name\":\"LoadStats\",\"fields\":[{\"name\":\"syncRate\",\"type\":\"double\"},{\"name\":\"syncLatencyP99\",\"type\":\"double\"},{\"name\":\"mailboxDepth\",\"type\":\"int\"},{\"name\":\"heapUsage\",\"type\":\"double\"},{\"name\":\"logThroughput\",\"type\":\"double\"}]}],\"default\":null}]}");
   private org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo connectionInfo;
   private org.kaaproject.kaa.server.common.zk.gen.LoadInfo loadInfo;
   private long timeStarted;
   private java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData> transports;
+  private org.kaaproject.kaa.server.common.zk.gen.LoadStats loadStats;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -25,11 +26,12 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
   /**
    * All-args constructor.
    */
-  public OperationsNodeInfo(org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo connectionInfo, org.kaaproject.kaa.server.common.zk.gen.LoadInfo loadInfo, java.lang.Long timeStarted, java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData> transports) {
+  public OperationsNodeInfo(org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo connectionInfo, org.kaaproject.kaa.server.common.zk.gen.LoadInfo loadInfo, java.lang.Long timeStarted, java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData> transports, org.kaaproject.kaa.server.common.zk.gen.LoadStats loadStats) {
     this.connectionInfo = connectionInfo;
     this.loadInfo = loadInfo;
     this.timeStarted = timeStarted;
     this.transports = transports;
+    this.loadStats = loadStats;
   }
 
   public static org.apache.avro.Schema getClassSchema() {
@@ -73,6 +75,8 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
         return timeStarted;
       case 3:
         return transports;
+      case 4:
+        return loadStats;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -94,6 +98,9 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
       case 3:
         transports = (java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData>) value$;
         break;
+      case 4:
+        loadStats = (org.kaaproject.kaa.server.common.zk.gen.LoadStats) value$;
+        break;
       default:
         throw new org.apache.avro.AvroRuntimeException("Bad index");
     }
@@ -163,6 +170,22 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
     this.transports = value;
   }
 
+  /**
+   * Gets the value of the 'loadStats' field.
+   */
+  public org.kaaproject.kaa.server.common.zk.gen.LoadStats getLoadStats() {
+    return loadStats;
+  }
+
+  /**
+   * Sets the value of the 'loadStats' field.
+   *
+   * @param value the value to set.
+   */
+  public void setLoadStats(org.kaaproject.kaa.server.common.zk.gen.LoadStats value) {
+    this.loadStats = value;
+  }
+
   /**
    * RecordBuilder for OperationsNodeInfo instances.
    */
@@ -173,6 +196,7 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
     private org.kaaproject.kaa.server.common.zk.gen.LoadInfo loadInfo;
     private long timeStarted;
     private java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData> transports;
+    private org.kaaproject.kaa.server.common.zk.gen.LoadStats loadStats;
 
     /**
      * Creates a new Builder
@@ -202,6 +226,10 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
         this.transports = data().deepCopy(fields()[3].schema(), other.transports);
         fieldSetFlags()[3] = true;
       }
+      if (isValidValue(fields()[4], other.loadStats)) {
+        this.loadStats = data().deepCopy(fields()[4].schema(), other.loadStats);
+        fieldSetFlags()[4] = true;
+      }
     }
 
     /**
@@ -225,6 +253,10 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
         this.transports = data().deepCopy(fields()[3].schema(), other.transports);
         fieldSetFlags()[3] = true;
       }
+      if (isValidValue(fields()[4], other.loadStats)) {
+        this.loadStats = data().deepCopy(fields()[4].schema(), other.loadStats);
+        fieldSetFlags()[4] = true;
+      }
     }
 
     /**
@@ -358,6 +390,39 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
       return this;
     }
 
+    /**
+     * Gets the value of the 'loadStats' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.LoadStats getLoadStats() {
+      return loadStats;
+    }
+
+    /**
+     * Sets the value of the 'loadStats' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo.Builder setLoadStats(org.kaaproject.kaa.server.common.zk.gen.LoadStats value) {
+      validate(fields()[4], value);
+      this.loadStats = value;
+      fieldSetFlags()[4] = true;
+      return this;
+    }
+
+    /**
+     * Checks whether the 'loadStats' field has been set
+     */
+    public boolean hasLoadStats() {
+      return fieldSetFlags()[4];
+    }
+
+    /**
+     * Clears the value of the 'loadStats' field
+     */
+    public org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo.Builder clearLoadStats() {
+      loadStats = null;
+      fieldSetFlags()[4] = false;
+      return this;
+    }
+
     @Override
     public OperationsNodeInfo build() {
       try {
@@ -366,6 +431,7 @@ public class OperationsNodeInfo extends org.apache.avro.specific.SpecificRecordB
         record.loadInfo = fieldSetFlags()[1] ? this.loadInfo : (org.kaaproject.kaa.server.common.zk.gen.LoadInfo) defaultValue(fields()[1]);
         record.timeStarted = fieldSetFlags()[2] ? this.timeStarted : (java.lang.Long) defaultValue(fields()[2]);
         record.transports = fieldSetFlags()[3] ? this.transports : (java.util.List<org.kaaproject.kaa.server.common.zk.gen.TransportMetaData>) defaultValue(fields()[3]);
+        record.loadStats = fieldSetFlags()[4] ? this.loadStats : (org.kaaproject.kaa.server.common.zk.gen.LoadStats) defaultValue(fields()[4]);
         return record;
       } catch (Exception e) {
         throw new org.apache.avro.AvroRuntimeException(e);
@@ -16,14 +16,25 @@
 
 package org.kaaproject.kaa.server.common.avro;
 
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
 import org.junit.Assert;
 import org.junit.Test;
 import org.kaaproject.kaa.common.avro.AvroByteArrayConverter;
 import org.kaaproject.kaa.server.common.zk.gen.ConnectionInfo;
 import org.kaaproject.kaa.server.common.zk.gen.ControlNodeInfo;
+import org.kaaproject.kaa.server.common.zk.gen.LoadInfo;
+import org.kaaproject.kaa.server.common.zk.gen.LoadStats;
+import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
+import org.kaaproject.kaa.server.common.zk.gen.TransportMetaData;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AvroByteArrayConverterTest {
 
@@ -55,4 +66,54 @@ public class AvroByteArrayConverterTest {
       Assert.assertTrue(false);
     }
   }
+
+  @Test
+  public void convertOperationsNodeInfoTest() throws IOException {
+    OperationsNodeInfo nodeInfo = operationsNodeInfo();
+    nodeInfo.setLoadStats(new LoadStats(10.0, 20.0, 3, 0.5, 40.0));
+
+    AvroByteArrayConverter<OperationsNodeInfo> converter =
+        new AvroByteArrayConverter<>(OperationsNodeInfo.class);
+    OperationsNodeInfo copy = converter.fromByteArray(converter.toByteArray(nodeInfo));
+    Assert.assertEquals(nodeInfo.getLoadInfo(), copy.getLoadInfo());
+    Assert.assertEquals(nodeInfo.getLoadStats(), copy.getLoadStats());
+  }
+
+  /**
+   * Node info written by operations nodes which don't report load statistics.
+   */
+  @Test
+  public void convertOperationsNodeInfoWithoutLoadStatsTest() throws IOException {
+    OperationsNodeInfo nodeInfo = operationsNodeInfo();
+    List<Schema.Field> fields = new ArrayList<>();
+    for (Schema.Field field : OperationsNodeInfo.SCHEMA$.getFields()) {
+      if (!"loadStats".equals(field.name())) {
+        fields.add(new Schema.Field(
+            field.name(), field.schema(), field.doc(), field.defaultValue()));
+      }
+    }
+    Schema legacySchema = Schema.createRecord(OperationsNodeInfo.SCHEMA$.getName(), null,
+        OperationsNodeInfo.SCHEMA$.getNamespace(), false);
+    legacySchema.setFields(fields);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(out, null);
+    new SpecificDatumWriter<OperationsNodeInfo>(legacySchema).write(nodeInfo, encoder);
+    encoder.flush();
+
+    AvroByteArrayConverter<OperationsNodeInfo> converter =
+        new AvroByteArrayConverter<>(OperationsNodeInfo.class);
+    OperationsNodeInfo copy = converter.fromByteArray(out.toByteArray());
+    Assert.assertEquals(nodeInfo.getLoadInfo(), copy.getLoadInfo());
+    Assert.assertEquals(nodeInfo.getTimeStarted(), copy.getTimeStarted());
+    Assert.assertNull(copy.getLoadStats());
+  }
+
+  private static OperationsNodeInfo operationsNodeInfo() {
+    OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
+    nodeInfo.setConnectionInfo(new ConnectionInfo("kaahost1", 1001, null));
+    nodeInfo.setLoadInfo(new LoadInfo(100, 1.0));
+    nodeInfo.setTimeStarted(1000L);
+    nodeInfo.setTransports(new ArrayList<TransportMetaData>());
+    return nodeInfo;
+  }
 }
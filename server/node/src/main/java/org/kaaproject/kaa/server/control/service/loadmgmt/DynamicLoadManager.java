@@ -218,7 +218,8 @@ public class DynamicLoadManager implements OperationsNodeListener, BootstrapNode
     int accessPointId = ServerNameUtil.crc32(nodeInfo.getConnectionInfo());
     LOG.info("Operations server [{}][{}] updated", accessPointId, dnsName);
     if (opsServersMap.containsKey(accessPointId)) {
-      opsServersMap.get(accessPointId).history.addOpsServerLoad(nodeInfo.getLoadInfo());
+      opsServersMap.get(accessPointId).history.addOpsServerLoad(
+          nodeInfo.getLoadInfo(), nodeInfo.getLoadStats());
     } else {
       addNewOperationsServer(accessPointId, dnsName, nodeInfo);
     }
@@ -449,7 +450,7 @@ public class DynamicLoadManager implements OperationsNodeListener, BootstrapNode
       this.opsServer = opsServer;
       this.nodeInfo = nodeInfo;
       history = new OperationsServerLoadHistory(opsLoadHistoryTtl);
-      history.addOpsServerLoad(nodeInfo.getLoadInfo());
+      history.addOpsServerLoad(nodeInfo.getLoadInfo(), nodeInfo.getLoadStats());
     }
   }
 }
@@ -24,6 +24,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
 /**
  * Load Distribution Service startup Class.
  *
@@ -65,11 +69,35 @@ public class LoadDistributionService extends Thread {
   private int opsServerHistoryTtl;
 
   /**
-   * The dynamic_mgmt.
+   * Bean name of the rebalancer used to calculate redirection rules.
+   */
+  @Value("#{properties[loadmgmt_rebalancer] ?: 'endpointCountRebalancer'}")
+  private String rebalancerName;
+
+  /**
+   * Available rebalancers by bean name.
    */
   @Autowired
+  private Map<String, Rebalancer> rebalancers;
+
+  /**
+   * The dynamic_mgmt.
+   */
   private Rebalancer rebalancer;
 
+  /**
+   * Resolves the configured rebalancer.
+   */
+  @PostConstruct
+  public void initRebalancer() {
+    rebalancer = rebalancers.get(rebalancerName);
+    if (rebalancer == null) {
+      throw new IllegalStateException("Unknown rebalancer " + rebalancerName
+          + ", available rebalancers are " + rebalancers.keySet());
+    }
+    LOG.info("Using {} rebalancer", rebalancerName);
+  }
+
   /* (non-Javadoc)
    * @see java.lang.Thread#toString()
    */
@@ -79,6 +107,7 @@ public class LoadDistributionService extends Thread {
     sb.append("\nLoad Distribution Service properties:\n");
     sb.append("\trecalculation_period: " + recalculationPeriod + "\n");
     sb.append("\tops_server_history_ttl: " + opsServerHistoryTtl + "\n");
+    sb.append("\tloadmgmt_rebalancer: " + rebalancerName + "\n");
     return sb.toString();
   }
 
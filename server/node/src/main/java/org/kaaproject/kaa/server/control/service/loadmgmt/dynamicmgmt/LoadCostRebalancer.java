@@ -0,0 +1,273 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt;
+
+import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
+import org.kaaproject.kaa.server.common.zk.gen.LoadStats;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.OperationsServerLoadHistory.OperationsServerLoad;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebalancer which compares operations servers by a load cost calculated from
+ * several load signals: endpoint count, sync request rate, p99 sync latency,
+ * pending sync requests, heap usage and log throughput.
+ *
+ * <p>Each signal is smoothed over the server load history using an
+ * exponentially weighted moving average and normalized by its mean value
+ * across the cluster. The cost of a server is the weighted average of its
+ * normalized signals, so the mean cost across the cluster is 1. Signals which
+ * are not reported by any server are ignored. Redirection rules are generated
+ * from the servers with cost above the mean to the servers with cost below
+ * the mean, the same way as in {@link EndpointCountRebalancer}.</p>
+ */
+@Service
+public class LoadCostRebalancer implements Rebalancer {
+  private static final Logger LOG = LoggerFactory.getLogger(LoadCostRebalancer.class);
+
+  private static final double DEFAULT_SMOOTHING_FACTOR = 0.3;
+  private static final double DEFAULT_MIN_COST_DIFF = 0.2;
+  private static final double DEFAULT_MIN_INIT_REDIRECT = 0.75;
+  private static final double DEFAULT_MIN_SESSION_REDIRECT = 0.0;
+
+  private static final int ENDPOINT_COUNT = 0;
+  private static final int SYNC_RATE = 1;
+  private static final int SYNC_LATENCY = 2;
+  private static final int MAILBOX_DEPTH = 3;
+  private static final int HEAP_USAGE = 4;
+  private static final int LOG_THROUGHPUT = 5;
+  private static final int SIGNAL_COUNT = 6;
+
+  private final AtomicLong ruleIdSeq = new AtomicLong();
+
+  /**
+   * Weight of the latest load report in the smoothed signal values, in (0, 1].
+   */
+  @Value("#{properties[loadmgmt_cost_smoothing_factor] ?: 0.3}")
+  private double smoothingFactor = DEFAULT_SMOOTHING_FACTOR;
+
+  /**
+   * Minimum difference between the highest and the lowest load cost that
+   * triggers rebalancing.
+   */
+  @Value("#{properties[loadmgmt_cost_min_diff] ?: 0.2}")
+  private double minCostDiff = DEFAULT_MIN_COST_DIFF;
+
+  @Value("#{properties[loadmgmt_cost_weight_endpoint_count] ?: 1.0}")
+  private double endpointCountWeight = 1.0;
+
+  @Value("#{properties[loadmgmt_cost_weight_sync_rate] ?: 1.0}")
+  private double syncRateWeight = 1.0;
+
+  @Value("#{properties[loadmgmt_cost_weight_sync_latency] ?: 1.0}")
+  private double syncLatencyWeight = 1.0;
+
+  @Value("#{properties[loadmgmt_cost_weight_mailbox_depth] ?: 0.5}")
+  private double mailboxDepthWeight = 0.5;
+
+  @Value("#{properties[loadmgmt_cost_weight_heap_usage] ?: 0.5}")
+  private double heapUsageWeight = 0.5;
+
+  @Value("#{properties[loadmgmt_cost_weight_log_throughput] ?: 0.5}")
+  private double logThroughputWeight = 0.5;
+
+  /**
+   * Maximum redirect probability for new sessions.
+   */
+  @Value("#{properties[loadmgmt_max_init_redirect_probability]}")
+  private double maxInitRedirectProbability = DEFAULT_MIN_INIT_REDIRECT;
+
+  /**
+   * Maximum redirect probability for existing sessions.
+   */
+  @Value("#{properties[loadmgmt_max_session_redirect_probability]}")
+  private double maxSessionRedirectProbability = DEFAULT_MIN_SESSION_REDIRECT;
+
+  /**
+   * Load mgmt data recalculation period.
+   */
+  @Value("#{properties[recalculation_period]}")
+  private int recalculationPeriod;
+
+  @Override
+  public Map<Integer, List<RedirectionRule>> recalculate(
+      Map<Integer, OperationsServerLoadHistory> opsServerLoadHistory) {
+
+    Map<Integer, List<RedirectionRule>> result = new HashMap<>();
+    Map<Integer, double[]> signals = new LinkedHashMap<>();
+    for (Entry<Integer, OperationsServerLoadHistory> opsEntry : opsServerLoadHistory.entrySet()) {
+      double[] smoothed = smooth(opsEntry.getValue().getHistory());
+      if (smoothed != null) {
+        signals.put(opsEntry.getKey(), smoothed);
+      }
+    }
+    if (signals.size() < 2) {
+      LOG.debug("Not enough ops server load history for rebalancing");
+      return result;
+    }
+
+    Map<Integer, Double> costs = calculateCosts(signals);
+    if (costs.isEmpty()) {
+      LOG.debug("No load signals reported by ops servers");
+      return result;
+    }
+    double minCost = Double.MAX_VALUE;
+    double maxCost = -Double.MAX_VALUE;
+    for (double cost : costs.values()) {
+      minCost = Math.min(minCost, cost);
+      maxCost = Math.max(maxCost, cost);
+    }
+    LOG.info("Load cost range is [{}, {}]", minCost, maxCost);
+    if (maxCost - minCost < minCostDiff) {
+      LOG.debug("Load cost difference is too small to trigger recalculation. "
+          + "Min required diff is {}", minCostDiff);
+      return result;
+    }
+
+    Map<Integer, Double> weights = calculateWeights(costs);
+    for (Entry<Integer, Double> opsEntry : weights.entrySet()) {
+      double curWeight = opsEntry.getValue();
+      if (curWeight >= 0) {
+        continue;
+      }
+      List<RedirectionRule> redirectionRules = new ArrayList<>();
+      for (Entry<Integer, Double> targetWeight : weights.entrySet()) {
+        if (targetWeight.getValue() < 0) {
+          continue;
+        }
+        double initRedirectProbability = Math.abs(curWeight)
+            * targetWeight.getValue() * maxInitRedirectProbability;
+        double sessionRedirectProbability = Math.abs(curWeight)
+            * targetWeight.getValue() * maxSessionRedirectProbability;
+        if (initRedirectProbability > 0 || sessionRedirectProbability > 0) {
+          RedirectionRule rule = new RedirectionRule(targetWeight.getKey(),
+              ruleIdSeq.getAndIncrement(), initRedirectProbability,
+              sessionRedirectProbability, recalculationPeriod * 1000L);
+          LOG.debug("Calculated new rule for accessPointId: {} -> {}", opsEntry.getKey(), rule);
+          redirectionRules.add(rule);
+        }
+      }
+      result.put(opsEntry.getKey(), redirectionRules);
+    }
+    return result;
+  }
+
+  private double[] smooth(List<OperationsServerLoad> history) {
+    double[] smoothed = null;
+    for (OperationsServerLoad load : history) {
+      double[] current = toSignals(load);
+      if (smoothed == null) {
+        smoothed = current;
+      } else {
+        for (int i = 0; i < SIGNAL_COUNT; i++) {
+          smoothed[i] = smoothingFactor * current[i] + (1 - smoothingFactor) * smoothed[i];
+        }
+      }
+    }
+    return smoothed;
+  }
+
+  private static double[] toSignals(OperationsServerLoad load) {
+    double[] result = new double[SIGNAL_COUNT];
+    result[ENDPOINT_COUNT] = load.getLoadInfo().getEndpointCount();
+    LoadStats loadStats = load.getLoadStats();
+    if (loadStats != null) {
+      result[SYNC_RATE] = loadStats.getSyncRate();
+      result[SYNC_LATENCY] = loadStats.getSyncLatencyP99();
+      result[MAILBOX_DEPTH] = loadStats.getMailboxDepth();
+      result[HEAP_USAGE] = loadStats.getHeapUsage();
+      result[LOG_THROUGHPUT] = loadStats.getLogThroughput();
+    }
+    return result;
+  }
+
+  private Map<Integer, Double> calculateCosts(Map<Integer, double[]> signals) {
+    double[] signalWeights = new double[SIGNAL_COUNT];
+    signalWeights[ENDPOINT_COUNT] = endpointCountWeight;
+    signalWeights[SYNC_RATE] = syncRateWeight;
+    signalWeights[SYNC_LATENCY] = syncLatencyWeight;
+    signalWeights[MAILBOX_DEPTH] = mailboxDepthWeight;
+    signalWeights[HEAP_USAGE] = heapUsageWeight;
+    signalWeights[LOG_THROUGHPUT] = logThroughputWeight;
+
+    double[] means = new double[SIGNAL_COUNT];
+    for (double[] serverSignals : signals.values()) {
+      for (int i = 0; i < SIGNAL_COUNT; i++) {
+        means[i] += serverSignals[i] / signals.size();
+      }
+    }
+    double totalWeight = 0;
+    for (int i = 0; i < SIGNAL_COUNT; i++) {
+      if (means[i] > 0 && signalWeights[i] > 0) {
+        totalWeight += signalWeights[i];
+      }
+    }
+
+    Map<Integer, Double> costs = new LinkedHashMap<>();
+    if (totalWeight == 0) {
+      return costs;
+    }
+    for (Entry<Integer, double[]> serverSignals : signals.entrySet()) {
+      double cost = 0;
+      for (int i = 0; i < SIGNAL_COUNT; i++) {
+        if (means[i] > 0 && signalWeights[i] > 0) {
+          cost += signalWeights[i] * serverSignals.getValue()[i] / means[i];
+        }
+      }
+      cost /= totalWeight;
+      LOG.debug("Calculated load cost of {} is {}", serverSignals.getKey(), cost);
+      costs.put(serverSignals.getKey(), cost);
+    }
+    return costs;
+  }
+
+  private Map<Integer, Double> calculateWeights(Map<Integer, Double> costs) {
+    Map<Integer, Double> weights = new LinkedHashMap<>();
+    double totalPosWeight = 0;
+    double totalNegWeight = 0;
+    for (Entry<Integer, Double> costEntry : costs.entrySet()) {
+      double weight = 1.0 - costEntry.getValue();
+      if (weight > 0) {
+        totalPosWeight += weight;
+      } else {
+        totalNegWeight = Math.max(totalNegWeight, Math.abs(weight));
+      }
+      weights.put(costEntry.getKey(), weight);
+    }
+    for (Entry<Integer, Double> weightEntry : weights.entrySet()) {
+      double weight = weightEntry.getValue();
+      if (weight > 0) {
+        weightEntry.setValue(weight / totalPosWeight);
+      } else if (weight < 0) {
+        weightEntry.setValue(weight / totalNegWeight);
+      }
+      LOG.debug("Calculated redirection weight of {} is {}",
+          weightEntry.getKey(), weightEntry.getValue());
+    }
+    return weights;
+  }
+}
@@ -17,6 +17,7 @@
 package org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt;
 
 import org.kaaproject.kaa.server.common.zk.gen.LoadInfo;
+import org.kaaproject.kaa.server.common.zk.gen.LoadStats;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -38,8 +39,18 @@ public class OperationsServerLoadHistory {
    * @param load the load
    */
   public void addOpsServerLoad(LoadInfo load) {
+    addOpsServerLoad(load, null);
+  }
+
+  /**
+   * Adds the Operations server load and load statistics to the history.
+   *
+   * @param load      the load
+   * @param loadStats the load statistics, null if not reported by the server
+   */
+  public void addOpsServerLoad(LoadInfo load, LoadStats loadStats) {
     removeOldHistory();
-    history.add(new OperationsServerLoad(load));
+    history.add(new OperationsServerLoad(load, loadStats));
   }
 
 
@@ -90,10 +101,12 @@ public class OperationsServerLoadHistory {
   public class OperationsServerLoad {
     private final long time;
     private LoadInfo loadInfo;
+    private LoadStats loadStats;
 
-    protected OperationsServerLoad(LoadInfo load) {
+    protected OperationsServerLoad(LoadInfo load, LoadStats loadStats) {
       time = System.currentTimeMillis();
       this.loadInfo = load;
+      this.loadStats = loadStats;
     }
 
 
@@ -118,5 +131,14 @@ public class OperationsServerLoadHistory {
     public void setLoadInfo(LoadInfo loadInfo) {
       this.loadInfo = loadInfo;
     }
+
+    /**
+     * Gets the load statistics.
+     *
+     * @return the load statistics, null if not reported by the server
+     */
+    public LoadStats getLoadStats() {
+      return loadStats;
+    }
   }
 }
@@ -25,7 +25,7 @@ import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.common.hash.Sha1HashUtils;
 import org.kaaproject.kaa.server.common.Base64Util;
-import org.kaaproject.kaa.server.common.core.structure.Pair;
+import org.kaaproject.kaa.server.common.ByteBufferUtil;
 import org.kaaproject.kaa.server.common.dao.EndpointService;
 import org.kaaproject.kaa.server.common.dao.EndpointSpecificConfigurationService;
 import org.kaaproject.kaa.server.common.dao.UserConfigurationService;
@@ -256,7 +256,9 @@ public class DefaultOperationsService implements OperationsService {
    * @return the byte[]
    */
   private static byte[] toByteArray(ByteBuffer buffer) {
-    return Arrays.copyOf(buffer.array(), buffer.array().length);
+    byte[] result = new byte[buffer.remaining()];
+    buffer.duplicate().get(result);
+    return result;
   }
 
   @Override
@@ -355,43 +357,29 @@ public class DefaultOperationsService implements OperationsService {
                                               boolean updateConfiguration) {
     LOG.debug("[{}][{}] going to sync endpoint group states", appToken, endpointId);
 
-    Function<EndpointProfileDto, Pair<EndpointProfileDto, HistoryDelta>> updateFunction =
-        profile -> {
-          AppSeqNumber appSeqNumber = cacheService.getAppSeqNumber(appToken);
-          int curAppSeqNumber = appSeqNumber.getSeqNumber();
-          HistoryDelta historyDelta = fetchHistory(endpointId, appToken, profile, curAppSeqNumber);
-          profile.setGroupState(historyDelta.getEndpointGroupStates());
-          profile.setSequenceNumber(curAppSeqNumber);
-          if (historyDelta.isConfigurationChanged() || updateConfiguration) {
-            LOG.debug("[{}][{}] configuration change detected", appToken, endpointId);
-            try {
-              syncEndpointConfiguration(appToken, endpointId, profile);
-            } catch (GetDeltaException ex) {
-              // TODO: Figure out how to act in case of failover here.
-              LOG.error("[{}][{}] Failed to sync endpoint configuration {}", appToken, endpointId, ex);
-            }
-          }
-          if (historyDelta.isTopicListChanged()) {
-            LOG.debug("[{}][{}] topic list change detected", appToken, endpointId);
-            syncTopicList(appToken, endpointId, profile);
-          }
-          return new Pair<>(profile, historyDelta);
-        };
-
-    Pair<EndpointProfileDto, HistoryDelta> result = updateFunction.apply(endpointProfile);
-    endpointProfile = result.getV1();
-    HistoryDelta historyDelta = result.getV2();
+    AppSeqNumber appSeqNumber = cacheService.getAppSeqNumber(appToken);
+    int curAppSeqNumber = appSeqNumber.getSeqNumber();
+    HistoryDelta historyDelta = fetchHistory(
+        endpointId, appToken, endpointProfile, curAppSeqNumber);
+    endpointProfile.setGroupState(historyDelta.getEndpointGroupStates());
+    endpointProfile.setSequenceNumber(curAppSeqNumber);
+    if (historyDelta.isConfigurationChanged() || updateConfiguration) {
+      LOG.debug("[{}][{}] configuration change detected", appToken, endpointId);
+      try {
+        syncEndpointConfiguration(appToken, endpointId, endpointProfile);
+      } catch (GetDeltaException ex) {
+        // TODO: Figure out how to act in case of failover here.
+        LOG.error("[{}][{}] Failed to sync endpoint configuration {}", appToken, endpointId, ex);
+      }
+    }
+    if (historyDelta.isTopicListChanged()) {
+      LOG.debug("[{}][{}] topic list change detected", appToken, endpointId);
+      syncTopicList(appToken, endpointId, endpointProfile);
+    }
 
     if (historyDelta.isSmthChanged() || updateConfiguration) {
-      LOG.debug("[{}][{}] going to save new profile", appToken, endpointId);
-      endpointProfile = profileService.updateProfile(endpointProfile, (storedProfile, newProfile) -> {
-        if (updateConfiguration) {
-          storedProfile.setUserConfigurationHash(newProfile.getUserConfigurationHash());
-          storedProfile.setEpsConfigurationHash(newProfile.getEpsConfigurationHash());
-        }
-        storedProfile.setGroupState(new ArrayList<>());
-        return updateFunction.apply(storedProfile).getV1();
-      });
+      LOG.debug("[{}][{}] going to save new profile state", appToken, endpointId);
+      profileService.updateProfileState(endpointProfile);
     }
     return endpointProfile;
   }
@@ -549,7 +537,7 @@ public class DefaultOperationsService implements OperationsService {
         metaData.getApplicationToken(),
         endpointKeyHash,
         request.getEndpointAccessToken(),
-        request.getProfileBody().array(),
+        ByteBufferUtil.toByteArray(request.getProfileBody()),
         metaData.getSdkToken());
     EndpointProfileDto endpointProfile = profileService.updateProfile(updateRequest);
     LOG.debug("profile updated. id: {}, endpointKeyHash: {}",
@@ -27,16 +27,22 @@ import org.kaaproject.kaa.server.operations.service.OperationsService;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.cluster.ClusterService;
 import org.kaaproject.kaa.server.operations.service.event.EventService;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.kaaproject.kaa.server.operations.service.notification.NotificationDeltaService;
 import org.kaaproject.kaa.server.operations.service.security.KeyStoreService;
+import org.kaaproject.kaa.server.operations.service.security.SessionResumptionCache;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
 @Component
 public class AkkaContext {
 
@@ -48,6 +54,47 @@ public class AkkaContext {
 
   private static final String IO_WORKER_COUNT_PROP_NAME = "io_worker_count";
 
+  private static final String APPLICATION_ACTOR_SHARD_COUNT = "application_actor_shard_count";
+
+  private static final String ENDPOINT_SYNC_MODE = "endpoint_sync_mode";
+
+  private static final String ENDPOINT_SYNC_MODE_ASYNC = "async";
+
+  /**
+   * Bulkhead for the database calls of endpoint actors.
+   */
+  public static final String DAO_BULKHEAD = "dao";
+
+  /**
+   * Bulkhead for the log appender calls of application log actors.
+   */
+  public static final String APPENDERS_BULKHEAD = "appenders";
+
+  /**
+   * Bulkhead for the user verifier calls of application user verifier actors.
+   */
+  public static final String VERIFIERS_BULKHEAD = "verifiers";
+
+  private static final String BULKHEADS = "bulkheads";
+
+  private static final String BULKHEAD_POOL_SIZE = "pool-size";
+
+  private static final String BULKHEAD_QUEUE_SIZE = "queue-size";
+
+  private static final String LOG_BATCH_SIZE = "log_batch_size";
+
+  private static final String LOG_BATCH_MAX_DELAY = "log_batch_max_delay";
+
+  private static final String LOG_BATCH_QUEUE_SIZE = "log_batch_queue_size";
+
+  private static final String LOG_SPOOL_DIR = "log_spool_dir";
+
+  private static final String LOG_SPOOL_SEGMENT_SIZE = "log_spool_segment_size";
+
+  private static final String LOG_SPOOL_MAX_SIZE = "log_spool_max_size";
+
+  private static final String LOG_SPOOL_DRAIN_RATE = "log_spool_drain_rate";
+
   private static final String AKKA_CONF_FILE_NAME = "akka.conf";
   private final Config config;
   @Autowired
@@ -89,11 +136,18 @@ public class AkkaContext {
   private RegistrationService registrationService;
   @Autowired
   private CtlService ctlService;
+  @Autowired
+  private OperationsLoadStats loadStats;
+  @Autowired
+  private SessionResumptionCache sessionResumptionCache;
   @Value("#{properties[support_unencrypted_connection]}")
   private Boolean supportUnencryptedConnection;
 
+  private final Map<String, Bulkhead> bulkheads = new HashMap<>();
+
   public AkkaContext() {
-    config = ConfigFactory.parseResources(AKKA_CONF_FILE_NAME).withFallback(ConfigFactory.load());
+    config = ConfigFactory.parseResources(AKKA_CONF_FILE_NAME).withFallback(ConfigFactory.load())
+        .resolve();
   }
 
   public Config getConfig() {
@@ -104,6 +158,93 @@ public class AkkaContext {
     return config.getInt(IO_WORKER_COUNT_PROP_NAME);
   }
 
+  public int getApplicationActorShardCount() {
+    return config.getInt(APPLICATION_ACTOR_SHARD_COUNT);
+  }
+
+  public boolean isAsyncEndpointSync() {
+    return ENDPOINT_SYNC_MODE_ASYNC.equalsIgnoreCase(config.getString(ENDPOINT_SYNC_MODE));
+  }
+
+  public int getLogBatchSize() {
+    return config.getInt(LOG_BATCH_SIZE);
+  }
+
+  public long getLogBatchMaxDelay() {
+    return config.getLong(LOG_BATCH_MAX_DELAY);
+  }
+
+  public int getLogBatchQueueSize() {
+    return config.getInt(LOG_BATCH_QUEUE_SIZE);
+  }
+
+  public String getLogSpoolDir() {
+    return config.getString(LOG_SPOOL_DIR);
+  }
+
+  public int getLogSpoolSegmentSize() {
+    return config.getInt(LOG_SPOOL_SEGMENT_SIZE);
+  }
+
+  public long getLogSpoolMaxSize() {
+    return config.getLong(LOG_SPOOL_MAX_SIZE);
+  }
+
+  public double getLogSpoolDrainRate() {
+    return config.getDouble(LOG_SPOOL_DRAIN_RATE);
+  }
+
+  /**
+   * Returns bounded executor for database bound endpoint sync steps. It is the
+   * executor of the {@link #DAO_BULKHEAD dao bulkhead}.
+   *
+   * @return the endpoint sync executor or null if the dao bulkhead is disabled
+   */
+  public ExecutorService getEndpointSyncExecutor() {
+    Bulkhead bulkhead = getBulkhead(DAO_BULKHEAD);
+    return bulkhead != null ? bulkhead.getExecutor() : null;
+  }
+
+  /**
+   * Returns the bulkhead configured in the bulkheads section of akka.conf.
+   * Bulkhead is created on the first call and its saturation metrics are
+   * registered. Returns null if the bulkhead is not configured or is disabled
+   * by zero pool size.
+   *
+   * @param name the bulkhead name
+   * @return the bulkhead or null
+   */
+  public synchronized Bulkhead getBulkhead(String name) {
+    Bulkhead bulkhead = bulkheads.get(name);
+    if (bulkhead == null) {
+      String path = BULKHEADS + "." + name;
+      if (!config.hasPath(path)) {
+        return null;
+      }
+      Config bulkheadConfig = config.getConfig(path);
+      int poolSize = bulkheadConfig.getInt(BULKHEAD_POOL_SIZE);
+      if (poolSize <= 0) {
+        return null;
+      }
+      bulkhead = new Bulkhead(name, poolSize, bulkheadConfig.getInt(BULKHEAD_QUEUE_SIZE));
+      if (metricsService != null) {
+        bulkhead.registerMetrics(metricsService);
+      }
+      bulkheads.put(name, bulkhead);
+    }
+    return bulkhead;
+  }
+
+  /**
+   * Stops bulkheads created by this context.
+   */
+  public synchronized void shutdown() {
+    for (Bulkhead bulkhead : bulkheads.values()) {
+      bulkhead.shutdown();
+    }
+    bulkheads.clear();
+  }
+
   public long getGlobalEndpointTimeout() {
     return config.getLong(GLOBAL_ENDPOINT_ACTOR_TIMEOUT);
   }
@@ -160,6 +301,14 @@ public class AkkaContext {
     return ctlService;
   }
 
+  public OperationsLoadStats getLoadStats() {
+    return loadStats;
+  }
+
+  public SessionResumptionCache getSessionResumptionCache() {
+    return sessionResumptionCache;
+  }
+
   public Boolean getSupportUnencryptedConnection() {
     return supportUnencryptedConnection;
   }
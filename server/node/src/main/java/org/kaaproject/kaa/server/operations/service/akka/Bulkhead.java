@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka;
+
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded thread pool dedicated to the calls of one external dependency, so
+ * that a slow dependency exhausts only its own threads and queue instead of
+ * the actor dispatchers. Tasks which don't fit into the queue are rejected
+ * with {@link RejectedExecutionException}.
+ *
+ * <p>Callers which need their tasks to run one at a time in submission order
+ * use a {@link #newLane() lane} of the bulkhead.</p>
+ */
+public class Bulkhead implements Executor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(Bulkhead.class);
+
+  private static final String METRICS_PREFIX = "bulkhead";
+
+  private final String name;
+  private final int poolSize;
+  private final int queueSize;
+  private final ThreadPoolExecutor executor;
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicInteger laneQueuedCount = new AtomicInteger();
+
+  /**
+   * Instantiates a new bulkhead.
+   *
+   * @param name      the bulkhead name
+   * @param poolSize  the number of threads
+   * @param queueSize the max number of queued tasks
+   */
+  public Bulkhead(String name, int poolSize, int queueSize) {
+    this.name = name;
+    this.poolSize = poolSize;
+    this.queueSize = queueSize;
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(queueSize),
+        runnable -> {
+          Thread thread = new Thread(runnable,
+              name + "-bulkhead-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        (runnable, pool) -> reject());
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    executor.execute(command);
+  }
+
+  /**
+   * Creates a new lane of the bulkhead. Tasks of a lane run on the bulkhead
+   * threads one at a time and in submission order, so a lane never occupies
+   * more than one thread. Tasks waiting in lanes count towards the queue size
+   * of the bulkhead.
+   *
+   * @return the lane executor
+   */
+  public Executor newLane() {
+    return new Lane();
+  }
+
+  private void reject() {
+    long total = rejectedCount.incrementAndGet();
+    LOG.warn("Bulkhead [{}] is saturated, {} tasks rejected in total", name, total);
+    throw new RejectedExecutionException("Bulkhead " + name + " is saturated");
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public ExecutorService getExecutor() {
+    return executor;
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public int getQueuedCount() {
+    return executor.getQueue().size() + laneQueuedCount.get();
+  }
+
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * Returns the share of busy threads and queue slots, from 0 to 1.
+   *
+   * @return the saturation
+   */
+  public double getSaturation() {
+    return Math.min(1.0, (double) (getActiveCount() + getQueuedCount()) / (poolSize + queueSize));
+  }
+
+  /**
+   * Registers the active, queued, rejected and saturation gauges of the
+   * bulkhead.
+   *
+   * @param metricsService the metrics service
+   */
+  public void registerMetrics(MetricsService metricsService) {
+    metricsService.registerGauge(this::getActiveCount, METRICS_PREFIX, name, "active");
+    metricsService.registerGauge(this::getQueuedCount, METRICS_PREFIX, name, "queued");
+    metricsService.registerGauge(this::getRejectedCount, METRICS_PREFIX, name, "rejected");
+    metricsService.registerGauge(this::getSaturation, METRICS_PREFIX, name, "saturation");
+  }
+
+  /**
+   * Stops accepting tasks. Queued tasks are still executed.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Queue of tasks which is drained by a single bulkhead task at a time.
+   */
+  private class Lane implements Executor {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private boolean scheduled;
+
+    @Override
+    public synchronized void execute(Runnable command) {
+      if (laneQueuedCount.incrementAndGet() > queueSize) {
+        laneQueuedCount.decrementAndGet();
+        reject();
+      }
+      tasks.add(command);
+      if (!scheduled) {
+        try {
+          executor.execute(this::drain);
+          scheduled = true;
+        } catch (RejectedExecutionException ex) {
+          tasks.remove(command);
+          laneQueuedCount.decrementAndGet();
+          throw ex;
+        }
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        Runnable task;
+        synchronized (this) {
+          task = tasks.poll();
+          if (task == null) {
+            scheduled = false;
+            return;
+          }
+        }
+        laneQueuedCount.decrementAndGet();
+        try {
+          task.run();
+        } catch (RuntimeException ex) {
+          LOG.warn("Bulkhead [{}] lane task failed", name, ex);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Bulkhead [name=" + name + ", poolSize=" + poolSize + ", queueSize=" + queueSize + "]";
+  }
+}
@@ -18,6 +18,7 @@ package org.kaaproject.kaa.server.operations.service.akka;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
 import akka.actor.Props;
 import akka.routing.Broadcast;
 import akka.routing.RoundRobinPool;
@@ -26,6 +27,7 @@ import org.kaaproject.kaa.common.dto.ApplicationDto;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.OperationsServerActor;
+import org.kaaproject.kaa.server.operations.service.akka.actors.core.SyncRequestDeadLetterListener;
 import org.kaaproject.kaa.server.operations.service.akka.actors.io.EncDecActor;
 import org.kaaproject.kaa.server.operations.service.akka.actors.supervision.SupervisionStrategyFactory;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.notification.ThriftNotificationMessage;
@@ -59,6 +61,7 @@ public class DefaultAkkaService implements AkkaService {
 
   public static final String EPS = "EPS";
   private static final String IO_ROUTER_ACTOR_NAME = "ioRouter";
+  private static final String DEAD_LETTER_LISTENER_NAME = "deadLetterListener";
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultAkkaService.class);
 
@@ -97,6 +100,10 @@ public class DefaultAkkaService implements AkkaService {
     opsActor = akka.actorOf(Props.create(
          new OperationsServerActor.ActorCreator(context))
         .withDispatcher(CORE_DISPATCHER_NAME), EPS);
+    ActorRef deadLetterListener = akka.actorOf(Props.create(
+        new SyncRequestDeadLetterListener.ActorCreator(context.getLoadStats()))
+        .withDispatcher(CORE_DISPATCHER_NAME), DEAD_LETTER_LISTENER_NAME);
+    akka.eventStream().subscribe(deadLetterListener, DeadLetter.class);
     LOG.info("Lookup platform protocols");
     Set<String> platformProtocols = PlatformLookup.lookupPlatformProtocols(
         PlatformLookup.DEFAULT_PROTOCOL_LOOKUP_PACKAGE_NAME);
@@ -172,6 +179,7 @@ public class DefaultAkkaService implements AkkaService {
     akka.stop(ioRouter);
     akka.stop(opsActor);
     akka.terminate();
+    context.shutdown();
   }
 
   @Override
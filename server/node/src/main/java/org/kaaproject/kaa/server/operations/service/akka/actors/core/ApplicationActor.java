@@ -68,6 +68,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class ApplicationActor extends UntypedActor {
@@ -99,6 +100,22 @@ public class ApplicationActor extends UntypedActor {
 
   private final Map<String, ActorRef> userVerifierSessions;
 
+  private final int shardIndex;
+
+  private final int shardCount;
+
+  /**
+   * The primary shard of this application, or null if this actor is the
+   * primary shard itself.
+   */
+  private final ActorRef primaryShard;
+
+  /**
+   * Count of messages sent to this shard by the tenant actor and not yet
+   * processed, or null if application actors are not sharded.
+   */
+  private final AtomicInteger mailboxDepth;
+
   private ActorRef applicationLogActor;
 
   private ActorRef userVerifierActor;
@@ -108,8 +125,14 @@ public class ApplicationActor extends UntypedActor {
    *
    * @param context          the context
    * @param applicationToken the application token
+   * @param shardIndex       the index of this application actor shard
+   * @param shardCount       the count of application actor shards
+   * @param primaryShard     the primary shard, or null for the primary shard itself
+   * @param mailboxDepth     the mailbox depth counter of this shard
    */
-  private ApplicationActor(AkkaContext context, String tenantId, String applicationToken) {
+  private ApplicationActor(AkkaContext context, String tenantId, String applicationToken,
+                           int shardIndex, int shardCount, ActorRef primaryShard,
+                           AtomicInteger mailboxDepth) {
     this.context = context;
     this.nodeId = context.getClusterService().getNodeId();
     this.tenantId = tenantId;
@@ -120,8 +143,14 @@ public class ApplicationActor extends UntypedActor {
     this.topicSessions = new HashMap<>();
     this.logsSessions = new HashMap<>();
     this.userVerifierSessions = new HashMap<>();
-    this.applicationLogActor = getOrCreateLogActor();
-    this.userVerifierActor = getOrCreateUserVerifierActor();
+    this.shardIndex = shardIndex;
+    this.shardCount = shardCount;
+    this.primaryShard = primaryShard;
+    this.mailboxDepth = mailboxDepth;
+    if (primaryShard == null) {
+      this.applicationLogActor = getOrCreateLogActor();
+      this.userVerifierActor = getOrCreateUserVerifierActor();
+    }
   }
 
   /**
@@ -152,6 +181,9 @@ public class ApplicationActor extends UntypedActor {
     } else {
       LOG.debug("[{}] Received: {}", appToken, message.getClass().getName());
     }
+    if (mailboxDepth != null && context().parent().equals(getSender())) {
+      mailboxDepth.decrementAndGet();
+    }
     if (message instanceof EndpointAwareMessage) {
       processEndpointAwareMessage((EndpointAwareMessage) message);
     }
@@ -250,21 +282,39 @@ public class ApplicationActor extends UntypedActor {
    * @param message the message
    */
   private void processLogEventPackMessage(LogEventPackMessage message) {
-    LOG.debug("[{}] Processing log event pack message", appToken);
-    applicationLogActor.tell(message, self());
+    if (primaryShard != null) {
+      LOG.debug("[{}] Forwarding log event pack message to primary shard", appToken);
+      primaryShard.tell(message, self());
+    } else {
+      LOG.debug("[{}] Processing log event pack message", appToken);
+      applicationLogActor.tell(message, self());
+    }
   }
 
   private void processUserVerificationRequestMessage(UserVerificationRequestMessage message) {
-    LOG.debug("[{}] Processing user verification request message", appToken);
-    userVerifierActor.tell(message, self());
+    if (primaryShard != null) {
+      LOG.debug("[{}] Forwarding user verification request message to primary shard", appToken);
+      primaryShard.tell(message, self());
+    } else {
+      LOG.debug("[{}] Processing user verification request message", appToken);
+      userVerifierActor.tell(message, self());
+    }
   }
 
   private void processLogNotificationMessage(ThriftNotificationMessage message) {
-    processThriftNotificationMessage(applicationLogActor, message);
+    if (primaryShard != null) {
+      primaryShard.tell(message, self());
+    } else {
+      processThriftNotificationMessage(applicationLogActor, message);
+    }
   }
 
   private void processUserVerifierNotificationMessage(ThriftNotificationMessage message) {
-    processThriftNotificationMessage(userVerifierActor, message);
+    if (primaryShard != null) {
+      primaryShard.tell(message, self());
+    } else {
+      processThriftNotificationMessage(userVerifierActor, message);
+    }
   }
 
   private void processThriftNotificationMessage(ActorRef actor, ThriftNotificationMessage message) {
@@ -273,7 +323,7 @@ public class ApplicationActor extends UntypedActor {
   }
 
   private void processStatusRequest(StatusRequestMessage message) {
-    LOG.debug("[{}] Processing status request", message.getId());
+    LOG.debug("[{}][{}] Processing status request", message.getId(), shardIndex);
     int endpointCount = localEndpointSessions.size();
     context().parent()
         .tell(new ApplicationActorStatusResponse(message.getId(), endpointCount),
@@ -404,11 +454,18 @@ public class ApplicationActor extends UntypedActor {
   }
 
   /**
-   * Process endpoint registration.
+   * Process endpoint registration. Subscriptions to topics owned by another
+   * shard are routed to it by the tenant actor.
    *
    * @param message the message
    */
   private void processEndpointTopicRegistration(TopicSubscriptionMessage message) {
+    if (ApplicationActorShards.getTopicShardIndex(message.getTopicId(), shardCount)
+        != shardIndex) {
+      LOG.debug("[{}] Forwarding topic subscription to the owning shard", appToken);
+      context().parent().tell(message, self());
+      return;
+    }
     ActorRef topicActor = getOrCreateTopic(message.getTopicId());
     topicActor.tell(message, self());
   }
@@ -611,7 +668,7 @@ public class ApplicationActor extends UntypedActor {
    */
   @Override
   public void preStart() {
-    LOG.info("[{}] Starting ", appToken);
+    LOG.info("[{}] Starting shard {} of {}", appToken, shardIndex, shardCount);
   }
 
   /*
@@ -635,6 +692,14 @@ public class ApplicationActor extends UntypedActor {
 
     private final String appToken;
 
+    private final int shardIndex;
+
+    private final int shardCount;
+
+    private final ActorRef primaryShard;
+
+    private final AtomicInteger mailboxDepth;
+
     /**
      * Instantiates a new actor creator.
      *
@@ -643,10 +708,30 @@ public class ApplicationActor extends UntypedActor {
      * @param appToken the application token
      */
     public ActorCreator(AkkaContext context, String tenantId, String appToken) {
+      this(context, tenantId, appToken, ApplicationActorShards.PRIMARY_SHARD_INDEX, 1, null, null);
+    }
+
+    /**
+     * Instantiates a new actor creator of application actor shard.
+     *
+     * @param context      the context
+     * @param tenantId     the tenant id
+     * @param appToken     the application token
+     * @param shardIndex   the shard index
+     * @param shardCount   the count of shards
+     * @param primaryShard the primary shard, or null for the primary shard itself
+     * @param mailboxDepth the mailbox depth counter, or null if not sharded
+     */
+    public ActorCreator(AkkaContext context, String tenantId, String appToken, int shardIndex,
+                        int shardCount, ActorRef primaryShard, AtomicInteger mailboxDepth) {
       super();
       this.context = context;
       this.tenantId = tenantId;
       this.appToken = appToken;
+      this.shardIndex = shardIndex;
+      this.shardCount = shardCount;
+      this.primaryShard = primaryShard;
+      this.mailboxDepth = mailboxDepth;
     }
 
     /*
@@ -656,7 +741,8 @@ public class ApplicationActor extends UntypedActor {
      */
     @Override
     public ApplicationActor create() throws Exception {
-      return new ApplicationActor(context, tenantId, appToken);
+      return new ApplicationActor(context, tenantId, appToken,
+          shardIndex, shardCount, primaryShard, mailboxDepth);
     }
   }
 }
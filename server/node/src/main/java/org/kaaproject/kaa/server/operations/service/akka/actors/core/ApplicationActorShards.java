@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+/**
+ * Maps endpoints to application actor shards. An application is served by a
+ * single application actor unless sharding is enabled, in which case endpoint
+ * traffic is split between several application actors by endpoint key hash.
+ * The same mapping is used on every node, so global and local endpoint actors
+ * of an endpoint live in the shards with the same index.
+ *
+ * <p>Each notification topic is owned by a single shard, which keeps the topic
+ * actor for all endpoints of the application.
+ */
+public final class ApplicationActorShards {
+
+  /**
+   * The index of the shard that owns application wide actors, such as the log
+   * and user verifier actors.
+   */
+  public static final int PRIMARY_SHARD_INDEX = 0;
+
+  private static final String SHARD_NAME_SEPARATOR = "-";
+
+  private ApplicationActorShards() {
+  }
+
+  /**
+   * Returns index of the shard responsible for the given endpoint.
+   *
+   * @param key        the endpoint key hash
+   * @param shardCount the count of shards
+   * @return the shard index
+   */
+  public static int getShardIndex(EndpointObjectHash key, int shardCount) {
+    if (shardCount <= 1) {
+      return PRIMARY_SHARD_INDEX;
+    }
+    return Math.floorMod(key.hashCode(), shardCount);
+  }
+
+  /**
+   * Returns index of the shard that owns the given notification topic.
+   *
+   * @param topicId    the topic id
+   * @param shardCount the count of shards
+   * @return the shard index
+   */
+  public static int getTopicShardIndex(String topicId, int shardCount) {
+    if (shardCount <= 1) {
+      return PRIMARY_SHARD_INDEX;
+    }
+    return Math.floorMod(topicId.hashCode(), shardCount);
+  }
+
+  /**
+   * Returns name of the application actor shard.
+   *
+   * @param appToken   the application token
+   * @param shardIndex the shard index
+   * @param shardCount the count of shards
+   * @return the actor name
+   */
+  public static String getShardName(String appToken, int shardIndex, int shardCount) {
+    if (shardCount <= 1) {
+      return appToken;
+    }
+    return appToken + SHARD_NAME_SEPARATOR + shardIndex;
+  }
+
+  /**
+   * Checks if application actors are sharded.
+   *
+   * @param shardCount the count of shards
+   * @return true if there is more than one shard per application
+   */
+  public static boolean isSharded(int shardCount) {
+    return shardCount > 1;
+  }
+}
@@ -24,16 +24,20 @@ import org.kaaproject.kaa.common.dto.EndpointProfileSchemaDto;
 import org.kaaproject.kaa.common.dto.ServerProfileSchemaDto;
 import org.kaaproject.kaa.common.dto.ctl.CTLSchemaDto;
 import org.kaaproject.kaa.server.common.dao.CtlService;
+import org.kaaproject.kaa.server.common.log.shared.appender.BatchingLogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryCallback;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryErrorCode;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.SpoolingLogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseProfileInfo;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseSchemaInfo;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.ProfileInfo;
+import org.kaaproject.kaa.server.common.log.shared.spool.LogSpool;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
+import org.kaaproject.kaa.server.operations.service.akka.Bulkhead;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.LogDeliveryMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.LogEventPackMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.MultiLogDeliveryCallback;
@@ -41,19 +45,36 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.Sing
 import org.kaaproject.kaa.server.operations.service.cache.AppVersionKey;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class ApplicationLogActorMessageProcessor {
 
   private static final Logger LOG =
       LoggerFactory.getLogger(ApplicationLogActorMessageProcessor.class);
 
+  private static final String LOG_SPOOL_METRIC = "logSpool";
+
+  private static final String[] LOG_SPOOL_GAUGES = {"size", "lag", "drainRate"};
+
+  private static final long LOG_SPOOL_REMOVE_DRAIN_TIMEOUT_MS = 60000L;
+
+  private static final long LOG_SPOOL_RELEASE_TIMEOUT_MS = 10000L;
+
   private final LogAppenderService logAppenderService;
   private final CacheService cacheService;
   private final CtlService ctlService;
@@ -74,6 +95,28 @@ public class ApplicationLogActorMessageProcessor {
 
   private final VoidCallback voidCallback;
 
+  private final int logBatchSize;
+
+  private final long logBatchMaxDelay;
+
+  private final int logBatchQueueSize;
+
+  private final File logSpoolDir;
+
+  private final int logSpoolSegmentSize;
+
+  private final long logSpoolMaxSize;
+
+  private final double logSpoolDrainRate;
+
+  private final MetricsService metricsService;
+
+  private final Bulkhead appenderBulkhead;
+
+  private final Map<String, Executor> appenderLanes = new HashMap<>();
+
+  private final Map<String, CompletableFuture<Void>> spoolReleases = new HashMap<>();
+
   /**
    * Create a new instance of ApplicationLogActorMessageProcessor.
    *
@@ -95,8 +138,95 @@ public class ApplicationLogActorMessageProcessor {
     this.clientProfileSchemas = new HashMap<>();
     this.serverProfileSchemas = new HashMap<>();
     this.voidCallback = new VoidCallback();
+    this.logBatchSize = context.getLogBatchSize();
+    this.logBatchMaxDelay = context.getLogBatchMaxDelay();
+    this.logBatchQueueSize = context.getLogBatchQueueSize();
+    String spoolDir = context.getLogSpoolDir();
+    this.logSpoolDir = spoolDir != null && !spoolDir.isEmpty() ? new File(spoolDir) : null;
+    this.logSpoolSegmentSize = context.getLogSpoolSegmentSize();
+    this.logSpoolMaxSize = context.getLogSpoolMaxSize();
+    this.logSpoolDrainRate = context.getLogSpoolDrainRate();
+    this.metricsService = context.getMetricsService();
+    this.appenderBulkhead = context.getBulkhead(AkkaContext.APPENDERS_BULKHEAD);
     for (LogAppender appender : logAppenderService.getApplicationAppenders(applicationId)) {
-      logAppenders.put(appender.getAppenderId(), appender);
+      logAppenders.put(appender.getAppenderId(), decorate(appender));
+    }
+  }
+
+  /**
+   * Wraps the appender into {@link SpoolingLogAppender} if the log spool is
+   * enabled, otherwise into {@link BatchingLogAppender} if log batching is
+   * enabled. The spooling appender drains the spool in batches on its own.
+   * The spool of an updated appender is opened once the drain thread of the
+   * previous appender has released it.
+   *
+   * @param appender the appender
+   * @return the appender to use
+   */
+  private LogAppender decorate(LogAppender appender) {
+    if (logSpoolDir != null) {
+      String appenderId = appender.getAppenderId();
+      if (!awaitSpoolRelease(appenderId)) {
+        return withBatching(appender);
+      }
+      try {
+        LogSpool spool = new LogSpool(new File(logSpoolDir, appenderId),
+            logSpoolSegmentSize, logSpoolMaxSize);
+        SpoolingLogAppender spoolingAppender = new SpoolingLogAppender(appender, spool,
+            logBatchSize, logSpoolDrainRate);
+        if (metricsService != null) {
+          metricsService.registerGauge(spoolingAppender::getSpoolSize,
+              LOG_SPOOL_METRIC, appenderId, "size");
+          metricsService.registerGauge(spoolingAppender::getLag,
+              LOG_SPOOL_METRIC, appenderId, "lag");
+          metricsService.registerGauge(spoolingAppender::getDrainRate,
+              LOG_SPOOL_METRIC, appenderId, "drainRate");
+        }
+        return spoolingAppender;
+      } catch (IOException ex) {
+        LOG.error("[{}] Failed to open log spool of appender [{}], appending directly",
+            applicationToken, appenderId, ex);
+      }
+    }
+    return withBatching(appender);
+  }
+
+  /**
+   * Waits until the spool of the previous appender with the given id is
+   * released.
+   *
+   * @param appenderId the appender id
+   * @return false if the spool is still in use
+   */
+  private boolean awaitSpoolRelease(String appenderId) {
+    CompletableFuture<Void> release = spoolReleases.remove(appenderId);
+    if (release == null) {
+      return true;
+    }
+    try {
+      release.get(LOG_SPOOL_RELEASE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException | TimeoutException ex) {
+      LOG.error("[{}] Log spool of appender [{}] is still in use, appending directly",
+          applicationToken, appenderId);
+    }
+    return false;
+  }
+
+  /**
+   * Wraps the appender into {@link BatchingLogAppender} if log batching is
+   * enabled.
+   *
+   * @param appender the appender
+   * @return the appender to use
+   */
+  private LogAppender withBatching(LogAppender appender) {
+    if (logBatchSize > 1) {
+      return new BatchingLogAppender(appender, logBatchSize, logBatchMaxDelay, logBatchQueueSize);
+    } else {
+      return appender;
     }
   }
 
@@ -108,7 +238,14 @@ public class ApplicationLogActorMessageProcessor {
     List<LogAppender> required = filterAppenders(logSchema.getVersion(), true);
     List<LogAppender> optional = filterAppenders(logSchema.getVersion(), false);
     if (required.size() + optional.size() > 0) {
-      optional.forEach(appender -> appender.doAppend(message.getLogEventPack(), voidCallback));
+      optional.forEach(appender -> {
+        try {
+          append(appender, message, voidCallback);
+        } catch (RejectedExecutionException cause) {
+          LOG.debug("[{}] Skipped optional appender [{}]: {}",
+              applicationToken, appender.getName(), cause.getMessage());
+        }
+      });
       if (required.size() == 0) {
         sendSuccessMessageToEndpoint(message);
       } else {
@@ -122,7 +259,7 @@ public class ApplicationLogActorMessageProcessor {
         }
         required.forEach(appender -> {
           try {
-            appender.doAppend(message.getLogEventPack(), callback);
+            append(appender, message, callback);
           } catch (Exception cause) {
             String text = String.format("Failed to append logs using [%s] (ID: %s)",
                 appender.getName(), appender.getAppenderId());
@@ -136,6 +273,37 @@ public class ApplicationLogActorMessageProcessor {
     }
   }
 
+  /**
+   * Passes the log event pack to the appender on the appenders bulkhead, so
+   * that a slow appender doesn't block the log dispatcher. Each appender has
+   * its own lane of the bulkhead, so its packs are still appended one at a
+   * time and in the order they were received, and a slow appender holds at
+   * most one bulkhead thread. Batching appenders deliver on their own threads
+   * and are called directly, as are all appenders if the bulkhead is disabled.
+   *
+   * @param appender the appender
+   * @param message  the log event pack message
+   * @param callback the delivery callback
+   */
+  private void append(LogAppender appender, LogEventPackMessage message,
+                      LogDeliveryCallback callback) {
+    if (appenderBulkhead == null || appender instanceof BatchingLogAppender) {
+      appender.doAppend(message.getLogEventPack(), callback);
+      return;
+    }
+    Executor lane = appenderLanes.computeIfAbsent(appender.getAppenderId(),
+        appenderId -> appenderBulkhead.newLane());
+    lane.execute(() -> {
+      try {
+        appender.doAppend(message.getLogEventPack(), callback);
+      } catch (Exception cause) {
+        LOG.warn("[{}] Failed to append logs using [{}] (ID: {})",
+            applicationToken, appender.getName(), appender.getAppenderId(), cause);
+        callback.onInternalError();
+      }
+    });
+  }
+
   /**
    * Sends a response to the endpoint.
    *
@@ -240,10 +408,10 @@ public class ApplicationLogActorMessageProcessor {
         addLogAppender(appenderId);
         break;
       case REMOVE_LOG_APPENDER:
-        removeLogAppender(appenderId);
+        removeLogAppender(appenderId, true);
         break;
       case UPDATE_LOG_APPENDER:
-        removeLogAppender(appenderId);
+        removeLogAppender(appenderId, false);
         addLogAppender(appenderId);
         break;
       default:
@@ -253,11 +421,14 @@ public class ApplicationLogActorMessageProcessor {
   }
 
   protected void stop() {
-    for (LogAppender logAppender : logAppenders.values()) {
+    for (Map.Entry<String, LogAppender> entry : logAppenders.entrySet()) {
+      LogAppender logAppender = entry.getValue();
       LOG.info("[{}] Closing appender [{}] with name {}",
           applicationToken, logAppender.getAppenderId(), logAppender.getName());
-      logAppender.close();
+      closeAppender(entry.getKey(), logAppender, logAppender::close);
+      removeSpoolGauges(entry.getKey());
     }
+    appenderLanes.clear();
   }
 
   private void addLogAppender(String appenderId) {
@@ -266,7 +437,7 @@ public class ApplicationLogActorMessageProcessor {
     if (!logAppenders.containsKey(appenderId)) {
       LogAppender logAppender = logAppenderService.getApplicationAppender(appenderId);
       if (logAppender != null) {
-        addAppender(appenderId, logAppender);
+        addAppender(appenderId, decorate(logAppender));
         LOG.info("[{}] Log appender [{}] registered.",
             applicationId, appenderId);
       }
@@ -276,22 +447,87 @@ public class ApplicationLogActorMessageProcessor {
     }
   }
 
-  private void removeLogAppender(String appenderId) {
+  /**
+   * Removes the appender. The spool of a spooling appender is kept for the
+   * appender that replaces it if the appender is updated, otherwise it is
+   * drained in the background and deleted.
+   *
+   * <p>The appender is closed after the logs already queued on its lane are
+   * appended. The lane is kept if the appender is updated, so the replacing
+   * appender appends only after the old one is closed.</p>
+   *
+   * @param appenderId the appender id
+   * @param deleted    whether the appender was deleted rather than updated
+   */
+  private void removeLogAppender(String appenderId, boolean deleted) {
     if (logAppenders.containsKey(appenderId)) {
       LOG.info("[{}] Closing log appender with id [{}].",
           applicationToken, appenderId);
-      removeAppender(appenderId).close();
+      LogAppender logAppender = removeAppender(appenderId);
+      if (logAppender instanceof SpoolingLogAppender) {
+        SpoolingLogAppender spoolingAppender = (SpoolingLogAppender) logAppender;
+        spoolReleases.put(appenderId, spoolingAppender.getTermination());
+        if (deleted) {
+          closeAppender(appenderId, logAppender,
+              () -> spoolingAppender.remove(LOG_SPOOL_REMOVE_DRAIN_TIMEOUT_MS));
+        } else {
+          closeAppender(appenderId, logAppender, spoolingAppender::close);
+        }
+      } else {
+        closeAppender(appenderId, logAppender, logAppender::close);
+      }
+      if (deleted) {
+        appenderLanes.remove(appenderId);
+      }
+      removeSpoolGauges(appenderId);
     } else {
       LOG.warn("[{}] Can't remove unregistered appender with id [{}]",
           applicationToken, appenderId);
     }
   }
 
+  private void removeSpoolGauges(String appenderId) {
+    if (logSpoolDir != null && metricsService != null) {
+      for (String gauge : LOG_SPOOL_GAUGES) {
+        metricsService.removeMetric(LOG_SPOOL_METRIC, appenderId, gauge);
+      }
+    }
+  }
+
   private LogAppender removeAppender(String appenderId) {
     logAppendersCache.clear();
     return logAppenders.remove(appenderId);
   }
 
+  /**
+   * Closes the appender as the last task on its lane. The appender is closed
+   * directly if it has no lane or the lane rejects the task.
+   *
+   * @param appenderId the appender id
+   * @param appender   the appender
+   * @param close      the close action
+   */
+  private void closeAppender(String appenderId, LogAppender appender, Runnable close) {
+    Executor lane = appenderLanes.get(appenderId);
+    if (lane != null) {
+      try {
+        lane.execute(() -> {
+          try {
+            close.run();
+          } catch (Exception cause) {
+            LOG.warn("[{}] Failed to close [{}] (ID: {})",
+                applicationToken, appender.getName(), appenderId, cause);
+          }
+        });
+        return;
+      } catch (RejectedExecutionException ex) {
+        LOG.warn("[{}] Closing [{}] (ID: {}) before its queued logs are appended",
+            applicationToken, appender.getName(), appenderId);
+      }
+    }
+    close.run();
+  }
+
   private void addAppender(String appenderId, LogAppender logAppender) {
     logAppendersCache.clear();
     logAppenders.put(appenderId, logAppender);
@@ -45,7 +45,8 @@ public class ApplicationUserVerifierActor extends UntypedActor {
         .findAppByApplicationToken(applicationToken)
         .getId();
     this.messageProcessor = new ApplicationUserVerifierActorMessageProcessor(
-        context.getEndpointUserService(), applicationId
+        context.getEndpointUserService(), applicationId,
+        context.getBulkhead(AkkaContext.VERIFIERS_BULKHEAD)
     );
   }
 
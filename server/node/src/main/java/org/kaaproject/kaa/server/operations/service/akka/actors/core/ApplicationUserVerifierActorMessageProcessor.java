@@ -29,6 +29,7 @@ import org.kaaproject.kaa.server.common.verifier.UserVerifierCallback;
 import org.kaaproject.kaa.server.common.verifier.UserVerifierContext;
 import org.kaaproject.kaa.server.common.verifier.UserVerifierErrorCode;
 import org.kaaproject.kaa.server.common.verifier.UserVerifierLifecycleException;
+import org.kaaproject.kaa.server.operations.service.akka.Bulkhead;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.verification.UserVerificationRequestMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.verification.UserVerificationResponseMessage;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
@@ -39,6 +40,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ApplicationUserVerifierActorMessageProcessor {
 
@@ -52,10 +54,24 @@ public class ApplicationUserVerifierActorMessageProcessor {
 
   private Map<String, UserVerifier> userVerifiers;
 
+  private final Bulkhead verifierBulkhead;
+
+  /**
+   * Instantiates a new message processor which checks access tokens on the
+   * verifiers bulkhead, so that a slow verifier doesn't block the verifier
+   * dispatcher.
+   *
+   * @param endpointUserService the endpoint user service
+   * @param applicationId       the application id
+   * @param verifierBulkhead    the verifiers bulkhead, null to check tokens
+   *                            on the actor thread
+   */
   ApplicationUserVerifierActorMessageProcessor(EndpointUserService endpointUserService,
-                                               String applicationId) {
+                                               String applicationId,
+                                               Bulkhead verifierBulkhead) {
     this.applicationId = applicationId;
     this.endpointUserService = endpointUserService;
+    this.verifierBulkhead = verifierBulkhead;
     initUserVerifiers();
   }
 
@@ -106,8 +122,23 @@ public class ApplicationUserVerifierActorMessageProcessor {
   public void verifyUser(UserVerificationRequestMessage message) {
     UserVerifier verifier = userVerifiers.get(message.getVerifierId());
     if (verifier != null) {
-      verifier.checkAccessToken(message.getUserId(), message.getAccessToken(),
-          new DefaultVerifierCallback(message));
+      DefaultVerifierCallback callback = new DefaultVerifierCallback(message);
+      if (verifierBulkhead == null) {
+        verifier.checkAccessToken(message.getUserId(), message.getAccessToken(), callback);
+        return;
+      }
+      try {
+        verifierBulkhead.execute(() -> {
+          try {
+            verifier.checkAccessToken(message.getUserId(), message.getAccessToken(), callback);
+          } catch (Exception ex) {
+            LOG.warn("[{}] Failed to verify user {}", applicationId, message.getUserId(), ex);
+            callback.onInternalError(ex.getMessage());
+          }
+        });
+      } catch (RejectedExecutionException ex) {
+        callback.onInternalError(ex.getMessage());
+      }
     } else {
       LOG.debug("Failed to find verifier with token {}", message.getVerifierId());
       message.getOriginator()
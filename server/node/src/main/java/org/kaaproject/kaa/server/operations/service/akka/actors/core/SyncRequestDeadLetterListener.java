@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import akka.actor.DeadLetter;
+import akka.actor.UntypedActor;
+import akka.japi.Creator;
+
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.SyncRequestMessage;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens to dead letters and removes the sync requests which were never
+ * picked up by an endpoint actor, e.g. because the actor was stopped with
+ * the requests in its mailbox or stash, from the pending sync requests of
+ * the {@link OperationsLoadStats}.
+ */
+public class SyncRequestDeadLetterListener extends UntypedActor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SyncRequestDeadLetterListener.class);
+
+  private final OperationsLoadStats loadStats;
+
+  /**
+   * Instantiates a new sync request dead letter listener.
+   *
+   * @param loadStats the load stats
+   */
+  public SyncRequestDeadLetterListener(OperationsLoadStats loadStats) {
+    this.loadStats = loadStats;
+  }
+
+  @Override
+  public void onReceive(Object message) throws Exception {
+    if (message instanceof DeadLetter) {
+      Object letter = ((DeadLetter) message).message();
+      if (letter instanceof SyncRequestMessage && ((SyncRequestMessage) letter).markDequeued()) {
+        LOG.debug("Sync request was not delivered to endpoint actor: {}", letter);
+        loadStats.onSyncRequestDequeued();
+      }
+    } else {
+      unhandled(message);
+    }
+  }
+
+  /**
+   * The Class ActorCreator.
+   */
+  public static class ActorCreator implements Creator<SyncRequestDeadLetterListener> {
+
+    /**
+     * The Constant serialVersionUID.
+     */
+    private static final long serialVersionUID = 1L;
+
+    private final OperationsLoadStats loadStats;
+
+    /**
+     * Instantiates a new actor creator.
+     *
+     * @param loadStats the load stats
+     */
+    public ActorCreator(OperationsLoadStats loadStats) {
+      super();
+      this.loadStats = loadStats;
+    }
+
+    @Override
+    public SyncRequestDeadLetterListener create() throws Exception {
+      return new SyncRequestDeadLetterListener(loadStats);
+    }
+  }
+}
@@ -27,6 +27,8 @@ import akka.actor.Terminated;
 import akka.actor.UntypedActor;
 import akka.japi.Creator;
 
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.user.GlobalUserActor;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.user.LocalUserActor;
@@ -40,6 +42,7 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.App
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.StatusRequestState;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.stats.TenantActorStatusResponse;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.topic.TopicSubscriptionMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointEventSendMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserActionRouteMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserConnectMessage;
@@ -52,24 +55,46 @@ import org.kaaproject.kaa.server.transport.message.SessionControlMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TenantActor extends UntypedActor {
 
 
   private static final Logger LOG = LoggerFactory.getLogger(TenantActor.class);
 
+  private static final String SHARD_MAILBOX_DEPTH_METRIC = "applicationShardMailboxDepth";
+
   /**
    * The Akka service context.
    */
   private final AkkaContext context;
 
 
+  /**
+   * Application actors by actor name. Actor name is the application token
+   * unless application actors are sharded.
+   */
   private final Map<String, ActorRef> applications;
 
+  /**
+   * Application tokens by application actor name.
+   */
+  private final Map<String, String> applicationTokens;
+
+  /**
+   * Count of messages sent to application actor shards and not yet processed,
+   * by application actor name.
+   */
+  private final Map<String, AtomicInteger> applicationMailboxDepths;
+
+  private final int applicationShardCount;
+
   private final Map<String, ActorRef> localUsers;
 
 
@@ -84,6 +109,9 @@ public class TenantActor extends UntypedActor {
     this.context = context;
     this.tenantId = tenantId;
     this.applications = new HashMap<>();
+    this.applicationTokens = new HashMap<>();
+    this.applicationMailboxDepths = new HashMap<>();
+    this.applicationShardCount = Math.max(1, context.getApplicationActorShardCount());
     this.localUsers = new HashMap<>();
     this.globalUsers = new HashMap<>();
     this.statusRequestStatesMap = new HashMap<>();
@@ -135,8 +163,9 @@ public class TenantActor extends UntypedActor {
 
   private void processRouteMessage(RouteMessage<?> msg) {
     if (msg.getAppToken() != null) {
-      ActorRef applicationActor = getOrCreateApplicationActor(msg.getAppToken());
-      applicationActor.tell(msg, self());
+      ActorRef applicationActor = getOrCreateApplicationActor(msg.getAppToken(),
+          EndpointObjectHash.fromBytes(msg.getAddress().getEntityId()));
+      tellApplicationActor(applicationActor, msg);
     }
   }
 
@@ -148,7 +177,7 @@ public class TenantActor extends UntypedActor {
       userActor.tell(message, ActorRef.noSender());
     }
     for (ActorRef appActor : applications.values()) {
-      appActor.tell(message, ActorRef.noSender());
+      tellApplicationActor(appActor, message);
     }
   }
 
@@ -157,7 +186,7 @@ public class TenantActor extends UntypedActor {
     statusRequestStatesMap.put(message.getId(),
         new StatusRequestState(message, applications.size()));
     for (ActorRef tenant : applications.values()) {
-      tenant.tell(new StatusRequestMessage(message.getId()), this.getSelf());
+      tellApplicationActor(tenant, new StatusRequestMessage(message.getId()));
     }
   }
 
@@ -177,8 +206,8 @@ public class TenantActor extends UntypedActor {
 
   private void processSessionControlMessage(SessionControlMessage message) {
     ActorRef applicationActor = getOrCreateApplicationActor(
-        message.getSessionInfo().getApplicationToken());
-    applicationActor.tell(message, self());
+        message.getSessionInfo().getApplicationToken(), message.getSessionInfo().getKey());
+    tellApplicationActor(applicationActor, message);
   }
 
   /**
@@ -187,13 +216,28 @@ public class TenantActor extends UntypedActor {
    * @param message the message
    */
   private void processNotificationMessage(ThriftNotificationMessage message) {
-    ActorRef applicationActor = getOrCreateApplicationActor(message.getAppToken());
-    applicationActor.tell(message, self());
+    Notification notification = message.getNotification();
+    if (notification.isSetNotificationId()) {
+      // Topic notification is looked up and stored once by the owning shard
+      ActorRef applicationActor = getOrCreateApplicationActors(message.getAppToken())
+          .get(ApplicationActorShards.getTopicShardIndex(
+              notification.getTopicId(), applicationShardCount));
+      tellApplicationActor(applicationActor, message);
+    } else if (notification.isSetAppenderId() || notification.isSetUserVerifierToken()) {
+      ActorRef applicationActor = getOrCreateApplicationActors(message.getAppToken())
+          .get(ApplicationActorShards.PRIMARY_SHARD_INDEX);
+      tellApplicationActor(applicationActor, message);
+    } else {
+      for (ActorRef applicationActor : getOrCreateApplicationActors(message.getAppToken())) {
+        tellApplicationActor(applicationActor, message);
+      }
+    }
   }
 
   private void processEndpointActorMsg(EndpointActorMsg message) {
-    ActorRef applicationActor = getOrCreateApplicationActor(message.getAddress().getAppToken());
-    applicationActor.tell(message, self());
+    ActorRef applicationActor = getOrCreateApplicationActor(message.getAddress().getAppToken(),
+        EndpointObjectHash.fromBytes(message.getAddress().getEntityId()));
+    tellApplicationActor(applicationActor, message);
   }
 
   /**
@@ -208,17 +252,48 @@ public class TenantActor extends UntypedActor {
       processUserAwareMessage((EndpointUserDisconnectMessage) message);
     } else if (message instanceof EndpointEventSendMessage) {
       processUserAwareMessage((EndpointEventSendMessage) message);
+    } else if (message instanceof TopicSubscriptionMessage) {
+      processTopicSubscriptionMessage((TopicSubscriptionMessage) message);
     } else {
-      ActorRef applicationActor = getOrCreateApplicationActor(message.getAppToken());
-      applicationActor.tell(message, self());
+      ActorRef applicationActor = getOrCreateApplicationActor(
+          message.getAppToken(), message.getKey());
+      tellApplicationActor(applicationActor, message);
     }
   }
 
+  /**
+   * Forwards a topic subscription of an endpoint to the shard that owns the
+   * topic.
+   *
+   * @param message the message
+   */
+  private void processTopicSubscriptionMessage(TopicSubscriptionMessage message) {
+    ActorRef applicationActor = getOrCreateApplicationActors(message.getAppToken())
+        .get(ApplicationActorShards.getTopicShardIndex(
+            message.getTopicId(), applicationShardCount));
+    tellApplicationActor(applicationActor, message);
+  }
+
   private void processEndpointUserActionRouteMessage(EndpointUserActionRouteMessage message) {
+    boolean sharded = ApplicationActorShards.isSharded(applicationShardCount);
+    int shardIndex = ApplicationActorShards.getShardIndex(
+        message.getMessage().getKey(), applicationShardCount);
     for (Entry<String, ActorRef> entry : applications.entrySet()) {
-      if (!entry.getKey().equals(message.getOriginalApplicationToken())) {
+      String appToken = applicationTokens.get(entry.getKey());
+      if (appToken.equals(message.getOriginalApplicationToken())) {
+        continue;
+      }
+      if (sharded) {
+        // Endpoint may belong to another shard of the original application
+        if (entry.getKey().equals(ApplicationActorShards.getShardName(
+            appToken, shardIndex, applicationShardCount))) {
+          LOG.debug("[{}] Forwarding message to [{}] application shard",
+              tenantId, entry.getKey());
+          tellApplicationActor(entry.getValue(), message);
+        }
+      } else {
         LOG.debug("[{}] Forwarding message to [{}] application", tenantId, entry.getKey());
-        entry.getValue().tell(message, self());
+        tellApplicationActor(entry.getValue(), message);
       }
     }
   }
@@ -274,23 +349,75 @@ public class TenantActor extends UntypedActor {
   }
 
   /**
-   * Gets the or create application actor.
+   * Gets the or create application actor responsible for the endpoint.
    *
-   * @param appToken the app token
+   * @param appToken    the app token
+   * @param endpointKey the endpoint key hash
    * @return the or create application actor
    */
-  private ActorRef getOrCreateApplicationActor(String appToken) {
-    ActorRef applicationActor = applications.get(appToken);
+  private ActorRef getOrCreateApplicationActor(String appToken, EndpointObjectHash endpointKey) {
+    int shardIndex = ApplicationActorShards.getShardIndex(endpointKey, applicationShardCount);
+    ActorRef applicationActor = applications.get(
+        ApplicationActorShards.getShardName(appToken, shardIndex, applicationShardCount));
     if (applicationActor == null) {
-      applicationActor = context().actorOf(
-          Props.create(new ApplicationActor.ActorCreator(context, tenantId, appToken))
-              .withDispatcher(CORE_DISPATCHER_NAME),
-          appToken);
-      applications.put(appToken, applicationActor);
+      applicationActor = getOrCreateApplicationActors(appToken).get(shardIndex);
+    }
+    return applicationActor;
+  }
+
+  /**
+   * Gets the or create all application actor shards. Shards are created all
+   * at once, so the primary shard is always available to the other ones.
+   *
+   * @param appToken the app token
+   * @return the application actor shards ordered by shard index
+   */
+  private List<ActorRef> getOrCreateApplicationActors(String appToken) {
+    List<ActorRef> shards = new ArrayList<>(applicationShardCount);
+    ActorRef primaryShard = null;
+    for (int shardIndex = 0; shardIndex < applicationShardCount; shardIndex++) {
+      String name = ApplicationActorShards.getShardName(
+          appToken, shardIndex, applicationShardCount);
+      ActorRef applicationActor = applications.get(name);
+      if (applicationActor == null) {
+        applicationActor = createApplicationActor(appToken, name, shardIndex, primaryShard);
+      }
+      if (shardIndex == ApplicationActorShards.PRIMARY_SHARD_INDEX) {
+        primaryShard = applicationActor;
+      }
+      shards.add(applicationActor);
     }
+    return shards;
+  }
+
+  private ActorRef createApplicationActor(String appToken, String name, int shardIndex,
+                                          ActorRef primaryShard) {
+    AtomicInteger mailboxDepth = null;
+    if (ApplicationActorShards.isSharded(applicationShardCount)) {
+      LOG.debug("[{}] Creating application actor shard [{}]", tenantId, name);
+      mailboxDepth = new AtomicInteger();
+      applicationMailboxDepths.put(name, mailboxDepth);
+      context.getMetricsService().registerGauge(mailboxDepth::get,
+          SHARD_MAILBOX_DEPTH_METRIC, appToken, Integer.toString(shardIndex));
+    }
+    ActorRef applicationActor = context().actorOf(
+        Props.create(new ApplicationActor.ActorCreator(context, tenantId, appToken,
+            shardIndex, applicationShardCount, primaryShard, mailboxDepth))
+            .withDispatcher(CORE_DISPATCHER_NAME),
+        name);
+    applications.put(name, applicationActor);
+    applicationTokens.put(name, appToken);
     return applicationActor;
   }
 
+  private void tellApplicationActor(ActorRef applicationActor, Object message) {
+    AtomicInteger mailboxDepth = applicationMailboxDepths.get(applicationActor.path().name());
+    if (mailboxDepth != null) {
+      mailboxDepth.incrementAndGet();
+    }
+    applicationActor.tell(message, self());
+  }
+
   /**
    * Process termination.
    *
@@ -302,6 +429,10 @@ public class TenantActor extends UntypedActor {
       LocalActorRef localActor = (LocalActorRef) terminated;
       String name = localActor.path().name();
       if (applications.remove(name) != null) {
+        String appToken = applicationTokens.remove(name);
+        if (applicationMailboxDepths.remove(name) != null) {
+          removeMailboxDepthGauge(appToken, name);
+        }
         LOG.debug("[{}] removed application: {}", tenantId, localActor);
       } else if (localUsers.remove(name) != null) {
         LOG.debug("[{}] removed local user: {}", tenantId, localActor);
@@ -313,6 +444,16 @@ public class TenantActor extends UntypedActor {
     }
   }
 
+  private void removeMailboxDepthGauge(String appToken, String name) {
+    for (int shardIndex = 0; shardIndex < applicationShardCount; shardIndex++) {
+      if (name.equals(ApplicationActorShards.getShardName(
+          appToken, shardIndex, applicationShardCount))) {
+        context.getMetricsService().removeMetric(
+            SHARD_MAILBOX_DEPTH_METRIC, appToken, Integer.toString(shardIndex));
+      }
+    }
+  }
+
   private String toLocal(String name) {
     return "LOCAL_" + name;
   }
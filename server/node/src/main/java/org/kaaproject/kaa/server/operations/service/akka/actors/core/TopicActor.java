@@ -220,6 +220,7 @@ public class TopicActor extends UntypedActor {
       LOG.warn("Can't find notification by id {}. Probably it has already expired!");
     } else {
       notificationCache.put(notificationDto.getSecNum(), notificationDto);
+      notificationService.onNotification(notificationDto);
       LOG.debug("[{}] Put notification to topic actor cache {}",
           notificationDto.getTopicId(), notificationDto);
       NotificationMessage notificationMessage = NotificationMessage.fromNotifications(
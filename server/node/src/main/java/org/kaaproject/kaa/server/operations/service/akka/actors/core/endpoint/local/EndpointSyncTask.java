@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local;
+
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.server.operations.pojo.SyncContext;
+import org.kaaproject.kaa.server.operations.service.OperationsService;
+import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local.ChannelMap.ChannelMetaData;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.SyncRequestMessage;
+import org.kaaproject.kaa.server.sync.ClientSync;
+import org.kaaproject.kaa.server.sync.ServerSync;
+import org.kaaproject.kaa.server.sync.SyncStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+/**
+ * Runs the database bound steps of the endpoint sync. The task takes a
+ * snapshot of the actor state on creation and never touches the state during
+ * execution, so it can be executed outside of the endpoint actor. Results are
+ * applied to the state by the actor with {@link #applyTo(LocalEndpointActorState)}.
+ *
+ * <p>In the async sync mode the task works on a copy of the endpoint profile
+ * and the completed task is sent back to the endpoint actor as a message.
+ */
+final class EndpointSyncTask {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EndpointSyncTask.class);
+
+  private final OperationsService operationsService;
+  private final String appToken;
+  private final String endpointKey;
+  private final SyncRequestMessage requestMessage;
+  private final ChannelMetaData channel;
+  private final ClientSync request;
+  private final long start;
+
+  private final EndpointProfileDto profile;
+  private final boolean validForUser;
+  private final boolean ucfHashRequiresInitialization;
+  private final boolean epsConfigurationRequiresInitialization;
+
+  private byte[] ucfHash;
+  private byte[] epsConfigurationHash;
+  private boolean ucfHashUpdated;
+  private boolean epsConfigurationHashUpdated;
+
+  private SyncContext result;
+  private Exception error;
+
+  EndpointSyncTask(OperationsService operationsService, String appToken, String endpointKey,
+                   SyncRequestMessage requestMessage, ChannelMetaData channel, ClientSync request,
+                   long start, LocalEndpointActorState state, boolean async) {
+    this.operationsService = operationsService;
+    this.appToken = appToken;
+    this.endpointKey = endpointKey;
+    this.requestMessage = requestMessage;
+    this.channel = channel;
+    this.request = request;
+    this.start = start;
+    EndpointProfileDto stateProfile = state.getProfile();
+    this.profile = async && stateProfile != null
+        ? new EndpointProfileDto(stateProfile) : stateProfile;
+    this.validForUser = state.isValidForUser();
+    this.ucfHashRequiresInitialization = state.isUcfHashRequiresInitialization();
+    this.epsConfigurationRequiresInitialization = state.isEpsConfigurationRequiresInitialization();
+    this.ucfHash = state.getUcfHash();
+    this.epsConfigurationHash = state.getEpsConfigurationHash();
+  }
+
+  /**
+   * Executes the sync steps. Any failure is stored in the task.
+   *
+   * @return this task
+   */
+  EndpointSyncTask execute() {
+    try {
+      result = sync();
+    } catch (Exception ex) {
+      error = ex;
+    }
+    return this;
+  }
+
+  private SyncContext sync() throws Exception {
+    if (!request.isValid()) {
+      LOG.warn("[{}] Request is not valid. It does not contain profile information!", endpointKey);
+      return SyncContext.failure(request.getRequestId());
+    }
+    SyncContext context = new SyncContext(new ServerSync());
+    context.setNotificationVersion(profile);
+    context.setRequestId(request.getRequestId());
+    context.setStatus(SyncStatus.SUCCESS);
+    context.setEndpointKey(endpointKey);
+    context.setRequestHash(request.hashCode());
+    context.setMetaData(request.getClientSyncMetaData());
+
+    LOG.trace("[{}][{}] processing sync. Request: {}",
+        endpointKey, context.getRequestHash(), request);
+
+    context = operationsService.syncClientProfile(context, request.getProfileSync());
+    context = operationsService.syncUseConfigurationRawSchema(
+        context, request.isUseConfigurationRawSchema());
+
+    if (context.getStatus() != SyncStatus.SUCCESS) {
+      return context;
+    }
+    if (ucfHashRequiresInitialization) {
+      ucfHash = operationsService.fetchUcfHash(appToken, profile);
+      ucfHashUpdated = true;
+      LOG.debug("[{}][{}] Initialized endpoint user configuration hash {}",
+          endpointKey, context.getRequestHash(), Arrays.toString(ucfHash));
+    }
+    if (epsConfigurationRequiresInitialization) {
+      epsConfigurationHash = operationsService.fetchEndpointSpecificConfigurationHash(profile);
+      epsConfigurationHashUpdated = true;
+    }
+
+    context = operationsService.processEndpointAttachDetachRequests(
+        context, request.getUserSync());
+    context = operationsService.processEventListenerRequests(context, request.getEventSync());
+
+    if (isUserConfigurationUpdatePending() || isEpsConfigurationChanged()) {
+      context = operationsService.syncConfigurationHashes(
+          context, ucfHash, epsConfigurationHash);
+    }
+
+    context = operationsService.syncConfiguration(context, request.getConfigurationSync());
+
+    context = operationsService.syncNotification(context, request.getNotificationSync());
+
+    LOG.trace("[{}][{}] processed sync. Response is {}",
+        endpointKey, request.hashCode(), context.getResponse());
+
+    return context;
+  }
+
+  /**
+   * Same as {@link LocalEndpointActorState#isUserConfigurationUpdatePending()}
+   * after the hash initialization.
+   */
+  private boolean isUserConfigurationUpdatePending() {
+    return validForUser && !Arrays.equals(ucfHash, profile.getUserConfigurationHash());
+  }
+
+  /**
+   * Same as {@link LocalEndpointActorState#isEpsConfigurationChanged()}.
+   */
+  private boolean isEpsConfigurationChanged() {
+    return profile != null
+        && !Arrays.equals(epsConfigurationHash, profile.getEpsConfigurationHash());
+  }
+
+  /**
+   * Applies initialized configuration hashes to the actor state.
+   *
+   * @param state the endpoint actor state
+   */
+  void applyTo(LocalEndpointActorState state) {
+    if (ucfHashUpdated) {
+      state.setUcfHash(ucfHash);
+    }
+    if (epsConfigurationHashUpdated) {
+      state.setEpsConfigurationHash(epsConfigurationHash);
+    }
+  }
+
+  /**
+   * Stores the failure of a task execution that didn't complete normally,
+   * e.g. because of an {@link Error}.
+   *
+   * @param cause the failure
+   * @return this task
+   */
+  EndpointSyncTask fail(Throwable cause) {
+    result = null;
+    error = cause instanceof Exception
+        ? (Exception) cause
+        : new IllegalStateException("Endpoint sync failed", cause);
+    return this;
+  }
+
+  SyncRequestMessage getRequestMessage() {
+    return requestMessage;
+  }
+
+  ChannelMetaData getChannel() {
+    return channel;
+  }
+
+  ClientSync getRequest() {
+    return request;
+  }
+
+  long getStart() {
+    return start;
+  }
+
+  SyncContext getResult() {
+    return result;
+  }
+
+  Exception getError() {
+    return error;
+  }
+}
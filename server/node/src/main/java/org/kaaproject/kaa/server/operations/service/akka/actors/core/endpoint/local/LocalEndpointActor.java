@@ -16,7 +16,7 @@
 
 package org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local;
 
-import akka.actor.UntypedActor;
+import akka.actor.UntypedActorWithStash;
 
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
@@ -39,7 +39,7 @@ import org.kaaproject.kaa.server.transport.message.SessionPingMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class LocalEndpointActor extends UntypedActor {
+public class LocalEndpointActor extends UntypedActorWithStash {
 
   private static final Logger LOG = LoggerFactory.getLogger(LocalEndpointActor.class);
 
@@ -74,7 +74,11 @@ public class LocalEndpointActor extends UntypedActor {
     } else {
       LOG.debug("[{}] Received: {}", actorKey, message.getClass().getName());
     }
-    if (message instanceof SyncRequestMessage) {
+    if (message instanceof EndpointSyncTask) {
+      processSyncResult((EndpointSyncTask) message);
+    } else if (messageProcessor.isSyncInProgress()) {
+      stash();
+    } else if (message instanceof SyncRequestMessage) {
       processEndpointSync((SyncRequestMessage) message);
     } else if (message instanceof EndpointActorMsg) {
       processEndpointActorMsg((EndpointActorMsg) message);
@@ -131,6 +135,13 @@ public class LocalEndpointActor extends UntypedActor {
     messageProcessor.processEndpointSync(context(), message);
   }
 
+  private void processSyncResult(EndpointSyncTask task) {
+    messageProcessor.processSyncResult(context(), task);
+    if (!messageProcessor.isSyncInProgress()) {
+      unstashAll();
+    }
+  }
+
   private void processEndpointEventReceiveMessage(EndpointEventReceiveMessage message) {
     messageProcessor.processEndpointEventReceiveMessage(context(), message);
   }
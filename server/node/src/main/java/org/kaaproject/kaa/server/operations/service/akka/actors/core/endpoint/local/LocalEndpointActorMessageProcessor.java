@@ -17,6 +17,7 @@
 package org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local;
 
 import akka.actor.ActorContext;
+import akka.actor.ActorRef;
 import org.kaaproject.kaa.common.TransportType;
 import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.PingResponse;
 import org.kaaproject.kaa.common.dto.EndpointProfileDataDto;
@@ -24,6 +25,7 @@ import org.kaaproject.kaa.common.dto.EndpointProfileDto;
 import org.kaaproject.kaa.common.dto.NotificationDto;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.common.Base64Util;
+import org.kaaproject.kaa.server.common.ByteBufferUtil;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftEndpointConfigurationRefreshMessage;
@@ -31,7 +33,6 @@ import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftEndpointDere
 import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftServerProfileUpdateMessage;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.ThriftUnicastNotificationMessage;
 import org.kaaproject.kaa.server.operations.pojo.SyncContext;
-import org.kaaproject.kaa.server.operations.pojo.exceptions.GetDeltaException;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.AbstractEndpointActorMessageProcessor;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local.ChannelMap.ChannelMetaData;
@@ -61,6 +62,7 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.veri
 import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.NettySessionResponseMessage;
 import org.kaaproject.kaa.server.operations.service.akka.utils.EntityConvertUtils;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFamilyVersion;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.EndpointAttachResponse;
 import org.kaaproject.kaa.server.sync.EndpointDetachRequest;
@@ -86,7 +88,6 @@ import org.slf4j.LoggerFactory;
 import scala.concurrent.duration.Duration;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -95,6 +96,10 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 public class LocalEndpointActorMessageProcessor
@@ -107,6 +112,15 @@ public class LocalEndpointActorMessageProcessor
 
   private final Map<UUID, UserVerificationResponseMessage> userAttachResponseMap;
 
+  /**
+   * Executor of the database bound sync steps, null in the blocking sync mode.
+   */
+  private final ExecutorService syncExecutor;
+
+  private final OperationsLoadStats loadStats;
+
+  private boolean syncInProgress;
+
   /**
    * All-args constructor.
    */
@@ -122,6 +136,8 @@ public class LocalEndpointActorMessageProcessor
         context.getLocalEndpointTimeout());
     this.logUploadResponseMap = new HashMap<>();
     this.userAttachResponseMap = new LinkedHashMap<>();
+    this.syncExecutor = context.isAsyncEndpointSync() ? context.getEndpointSyncExecutor() : null;
+    this.loadStats = context.getLoadStats();
   }
 
   /**
@@ -131,6 +147,9 @@ public class LocalEndpointActorMessageProcessor
    * @param message sync request message
    */
   public void processEndpointSync(ActorContext context, SyncRequestMessage message) {
+    if (message.markDequeued()) {
+      loadStats.onSyncRequestDequeued();
+    }
     sync(context, message);
   }
 
@@ -307,6 +326,14 @@ public class LocalEndpointActorMessageProcessor
   }
 
   private void sync(ActorContext context, SyncRequestMessage requestMessage) {
+    if (syncInProgress) {
+      LOG.debug("[{}][{}] Postponing sync request from channel [{}] until current sync is completed",
+          endpointKey, actorKey, requestMessage.getChannelUuid());
+      // the endpoint actor stashes it until the current sync is completed
+      context.self().tell(requestMessage, context.self());
+      return;
+    }
+    EndpointSyncTask task;
     try {
       state.setLastActivityTime(System.currentTimeMillis());
       long start = state.getLastActivityTime();
@@ -315,12 +342,73 @@ public class LocalEndpointActorMessageProcessor
 
       ClientSync request = mergeRequestForChannel(channel, requestMessage);
 
-      ChannelType channelType = channel.getType();
       LOG.debug("[{}][{}] Processing sync request {} from {} channel [{}]",
-          endpointKey, actorKey, request, channelType,
+          endpointKey, actorKey, request, channel.getType(),
           requestMessage.getChannelUuid());
 
-      SyncContext responseHolder = sync(request);
+      task = new EndpointSyncTask(operationsService, appToken, endpointKey,
+          requestMessage, channel, request, start, state, syncExecutor != null);
+    } catch (Exception ex) {
+      LOG.error("[{}][{}] processEndpointRequest", endpointKey, actorKey, ex);
+      sendReply(context, requestMessage, ex);
+      return;
+    }
+    if (syncExecutor != null) {
+      syncAsync(context, task);
+    } else {
+      completeSync(context, task.execute());
+    }
+  }
+
+  private void syncAsync(ActorContext context, EndpointSyncTask task) {
+    ActorRef self = context.self();
+    try {
+      CompletableFuture.supplyAsync(task::execute, syncExecutor)
+          .whenComplete((completedTask, ex) -> self.tell(
+              ex != null ? task.fail(ex instanceof CompletionException ? ex.getCause() : ex)
+                  : completedTask,
+              ActorRef.noSender()));
+      syncInProgress = true;
+    } catch (RejectedExecutionException ex) {
+      LOG.warn("[{}][{}] Endpoint sync executor rejected request from channel [{}]",
+          endpointKey, actorKey, task.getRequestMessage().getChannelUuid());
+      sendReply(context, task.getRequestMessage(), ex);
+    }
+  }
+
+  /**
+   * Process a result of the sync executed in the async sync mode.
+   *
+   * @param context actor context
+   * @param task    completed sync task
+   */
+  public void processSyncResult(ActorContext context, EndpointSyncTask task) {
+    syncInProgress = false;
+    completeSync(context, task);
+  }
+
+  /**
+   * Returns whether sync of the endpoint is executed in the async sync mode
+   * and is not completed yet.
+   *
+   * @return true if sync is in progress otherwise false
+   */
+  public boolean isSyncInProgress() {
+    return syncInProgress;
+  }
+
+  private void completeSync(ActorContext context, EndpointSyncTask task) {
+    SyncRequestMessage requestMessage = task.getRequestMessage();
+    try {
+      task.applyTo(state);
+      if (task.getError() != null) {
+        throw task.getError();
+      }
+      ChannelMetaData channel = task.getChannel();
+      ClientSync request = task.getRequest();
+      ChannelType channelType = channel.getType();
+
+      SyncContext responseHolder = task.getResult();
 
       state.setProfile(responseHolder.getEndpointProfile());
 
@@ -352,7 +440,7 @@ public class LocalEndpointActorMessageProcessor
           channel.update(responseHolder);
           updateSubscriptionsToTopics(context, responseHolder);
           scheduleTimeoutMessage(
-              context, requestMessage.getChannelUuid(), getDelay(requestMessage, start));
+              context, requestMessage.getChannelUuid(), getDelay(requestMessage, task.getStart()));
         } else {
           sendReply(context, requestMessage, responseHolder.getResponse());
           state.removeChannel(channel);
@@ -362,58 +450,7 @@ public class LocalEndpointActorMessageProcessor
       LOG.error("[{}][{}] processEndpointRequest", endpointKey, actorKey, ex);
       sendReply(context, requestMessage, ex);
     }
-  }
-
-  private SyncContext sync(ClientSync request) throws GetDeltaException {
-    if (!request.isValid()) {
-      LOG.warn("[{}] Request is not valid. It does not contain profile information!", endpointKey);
-      return SyncContext.failure(request.getRequestId());
-    }
-    EndpointProfileDto profile = state.getProfile();
-    SyncContext context = new SyncContext(new ServerSync());
-    context.setNotificationVersion(state.getProfile());
-    context.setRequestId(request.getRequestId());
-    context.setStatus(SyncStatus.SUCCESS);
-    context.setEndpointKey(endpointKey);
-    context.setRequestHash(request.hashCode());
-    context.setMetaData(request.getClientSyncMetaData());
-
-    LOG.trace("[{}][{}] processing sync. Request: {}",
-        endpointKey, context.getRequestHash(), request);
-
-    context = operationsService.syncClientProfile(context, request.getProfileSync());
-    context = operationsService.syncUseConfigurationRawSchema(
-        context, request.isUseConfigurationRawSchema());
-
-    if (context.getStatus() != SyncStatus.SUCCESS) {
-      return context;
-    }
-    if (state.isUcfHashRequiresInitialization()) {
-      byte[] hash = operationsService.fetchUcfHash(appToken, profile);
-      LOG.debug("[{}][{}] Initialized endpoint user configuration hash {}", endpointKey, context.getRequestHash(),
-          Arrays.toString(hash));
-      state.setUcfHash(hash);
-    }
-    if (state.isEpsConfigurationRequiresInitialization()) {
-      state.setEpsConfigurationHash(operationsService.fetchEndpointSpecificConfigurationHash(profile));
-    }
-
-    context = operationsService.processEndpointAttachDetachRequests(
-        context, request.getUserSync());
-    context = operationsService.processEventListenerRequests(context, request.getEventSync());
-
-    if (state.isUserConfigurationUpdatePending() || state.isEpsConfigurationChanged()) {
-      context = operationsService.syncConfigurationHashes(context, state.getUcfHash(), state.getEpsConfigurationHash());
-    }
-
-    context = operationsService.syncConfiguration(context, request.getConfigurationSync());
-
-    context = operationsService.syncNotification(context, request.getNotificationSync());
-
-    LOG.trace("[{}][{}] processed sync. Response is {}",
-        endpointKey, request.hashCode(), context.getResponse());
-
-    return context;
+    loadStats.onSyncProcessed(System.currentTimeMillis() - task.getStart());
   }
 
   private void syncChannels(ActorContext context,
@@ -544,11 +581,12 @@ public class LocalEndpointActorMessageProcessor
       if (request.getLogEntries() != null && request.getLogEntries().size() > 0) {
         LOG.debug("[{}][{}] Processing log upload request {}",
             endpointKey, actorKey, request.getLogEntries().size());
+        loadStats.onLogRecords(request.getLogEntries().size());
         EndpointProfileDataDto profileDto = convert(responseHolder.getEndpointProfile());
         List<LogEvent> logEvents = new ArrayList<>(request.getLogEntries().size());
         for (LogEntry logEntry : request.getLogEntries()) {
           LogEvent logEvent = new LogEvent();
-          logEvent.setLogData(logEntry.getData().array());
+          logEvent.setLogData(ByteBufferUtil.toByteArray(logEntry.getData()));
           logEvents.add(logEvent);
         }
         BaseLogEventPack logPack = new BaseLogEventPack(profileDto, System.currentTimeMillis(),
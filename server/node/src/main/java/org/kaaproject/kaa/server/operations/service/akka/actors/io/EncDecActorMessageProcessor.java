@@ -26,6 +26,7 @@ import org.kaaproject.kaa.common.endpoint.security.KeyUtil;
 import org.kaaproject.kaa.common.endpoint.security.MessageEncoderDecoder;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.common.Base64Util;
+import org.kaaproject.kaa.server.common.ByteBufferUtil;
 import org.kaaproject.kaa.server.common.dao.exception.CredentialsServiceException;
 import org.kaaproject.kaa.server.common.dao.exception.EndpointRegistrationServiceException;
 import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
@@ -37,13 +38,17 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.
 import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.NettySessionResponseMessage;
 import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.SessionResponse;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
 import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.security.SessionResumptionCache;
+import org.kaaproject.kaa.server.operations.service.security.SessionResumptionCache.ResumedSession;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.ClientSyncMetaData;
 import org.kaaproject.kaa.server.sync.RedirectServerSync;
 import org.kaaproject.kaa.server.sync.ServerSync;
 import org.kaaproject.kaa.server.sync.SyncStatus;
+import org.kaaproject.kaa.server.sync.platform.GrowingByteBuffer;
 import org.kaaproject.kaa.server.sync.platform.PlatformEncDec;
 import org.kaaproject.kaa.server.sync.platform.PlatformEncDecException;
 import org.kaaproject.kaa.server.sync.platform.PlatformLookup;
@@ -61,6 +66,7 @@ import org.kaaproject.kaa.server.transport.session.SessionInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.PublicKey;
 import java.text.MessageFormat;
@@ -72,6 +78,13 @@ public class EncDecActorMessageProcessor {
 
   private static final Logger LOG = LoggerFactory.getLogger(EncDecActorMessageProcessor.class);
 
+  private static final int RESPONSE_BUFFER_SIZE = 4 * 1024;
+
+  /**
+   * Response buffers grown above this size are not reused.
+   */
+  private static final int MAX_RESPONSE_BUFFER_SIZE = 1024 * 1024;
+
   private final CacheService cacheService;
 
   private final CredentialsServiceLocator credentialsServiceLocator;
@@ -86,6 +99,12 @@ public class EncDecActorMessageProcessor {
 
   private final ActorRef opsActor;
 
+  private final OperationsLoadStats loadStats;
+
+  private GrowingByteBuffer responseBuffer = new GrowingByteBuffer(RESPONSE_BUFFER_SIZE);
+
+  private final SessionResumptionCache sessionResumptionCache;
+
   private final MeterClient sessionInitMeter;
   private final MeterClient sessionRequestMeter;
   private final MeterClient sessionResponseMeter;
@@ -104,6 +123,8 @@ public class EncDecActorMessageProcessor {
     this.crypt = new MessageEncoderDecoder(
         context.getKeyStoreService().getPrivateKey(), context.getKeyStoreService().getPublicKey());
     this.platformEncDecMap = PlatformLookup.initPlatformProtocolMap(platformProtocols);
+    this.loadStats = context.getLoadStats();
+    this.sessionResumptionCache = context.getSessionResumptionCache();
     MetricsService metricsService = context.getMetricsService();
     this.sessionInitMeter = metricsService.createMeter(
         "sessionInitMeter", Thread.currentThread().getName());
@@ -319,6 +340,8 @@ public class EncDecActorMessageProcessor {
                                  Message requestMessage) {
     SyncRequestMessage message = new SyncRequestMessage(
         session, request, requestMessage, context.self());
+    message.markQueued();
+    loadStats.onSyncRequestQueued();
     this.opsActor.tell(message, context.self());
   }
 
@@ -326,12 +349,26 @@ public class EncDecActorMessageProcessor {
       throws GeneralSecurityException, PlatformEncDecException {
     SessionInfo session = message.getSessionInfo();
 
-    byte[] responseData = encodePlatformLevelData(message.getPlatformId(), message);
+    ByteBuffer encodedResponse = encodePlatformLevelData(message.getPlatformId(), message);
     LOG.trace("Response data serialized");
+    byte[] responseData;
     if (session.isEncrypted()) {
       crypt.setSessionCipherPair(session.getCipherPair());
-      responseData = crypt.encodeData(responseData);
+      if (encodedResponse.hasArray()) {
+        responseData = crypt.encodeData(encodedResponse.array(),
+            encodedResponse.arrayOffset() + encodedResponse.position(),
+            encodedResponse.remaining());
+      } else {
+        responseData = crypt.encodeData(ByteBufferUtil.toByteArray(encodedResponse));
+      }
       LOG.trace("Response data crypted");
+    } else {
+      // The response buffer is reused by the next response while the write
+      // below is still in progress, so the channel must get a copy.
+      responseData = ByteBufferUtil.toByteArray(encodedResponse);
+    }
+    if (responseBuffer.capacity() > MAX_RESPONSE_BUFFER_SIZE) {
+      responseBuffer = new GrowingByteBuffer(RESPONSE_BUFFER_SIZE);
     }
     ChannelContext context = message.getSessionInfo().getCtx();
     MessageBuilder converter = message.getMessageBuilder();
@@ -378,8 +415,11 @@ public class EncDecActorMessageProcessor {
 
   private ClientSync decodeEncryptedRequest(SessionInitMessage message)
       throws GeneralSecurityException, PlatformEncDecException {
+    ClientSync resumed = decodeResumedRequest(message);
+    if (resumed != null) {
+      return resumed;
+    }
     byte[] requestRaw = crypt.decodeData(
-
         message.getEncodedMessageData(), message.getEncodedSessionKey());
     LOG.trace("Request data decrypted");
     ClientSync request = decodePlatformLevelData(message.getPlatformId(), requestRaw);
@@ -398,9 +438,46 @@ public class EncDecActorMessageProcessor {
       LOG.warn("Request data verification failed");
       throw new GeneralSecurityException("Request data verification failed");
     }
+    if (sessionResumptionCache != null) {
+      sessionResumptionCache.put(message.getEncodedSessionKey(), message.getSessionKeySignature(),
+          crypt.getCurrentSessionKey(), endpointKey);
+    }
     return request;
   }
 
+  /**
+   * Decodes the request using the session key of the previously verified
+   * session with the same encrypted session key and signature.
+   *
+   * @return the request, or null if the session can't be resumed
+   */
+  private ClientSync decodeResumedRequest(SessionInitMessage message) {
+    if (sessionResumptionCache == null) {
+      return null;
+    }
+    ResumedSession session = sessionResumptionCache.get(
+        message.getEncodedSessionKey(), message.getSessionKeySignature());
+    if (session == null) {
+      return null;
+    }
+    try {
+      byte[] requestRaw = crypt.decodeData(
+          message.getEncodedMessageData(), session.getSessionKey());
+      ClientSync request = decodePlatformLevelData(message.getPlatformId(), requestRaw);
+      PublicKey endpointKey = getPublicKey(request);
+      if (!session.isVerifiedWith(endpointKey)) {
+        LOG.debug("Endpoint key doesn't match the resumed session");
+        return null;
+      }
+      crypt.setRemotePublicKey(endpointKey);
+      LOG.trace("Request data decrypted using resumed session key");
+      return request;
+    } catch (Exception ex) {
+      LOG.debug("Failed to resume session, falling back to full verification", ex);
+      return null;
+    }
+  }
+
   private ClientSync decodeEncryptedRequest(SessionAwareMessage message)
       throws GeneralSecurityException, PlatformEncDecException {
     SessionInfo session = message.getSessionInfo();
@@ -439,11 +516,11 @@ public class EncDecActorMessageProcessor {
 
 
 
-  private byte[] encodePlatformLevelData(int platformId, SessionResponse message)
+  private ByteBuffer encodePlatformLevelData(int platformId, SessionResponse message)
       throws PlatformEncDecException {
     PlatformEncDec encDec = platformEncDecMap.get(platformId);
     if (encDec != null) {
-      return platformEncDecMap.get(platformId).encode(message.getResponse());
+      return encDec.encode(message.getResponse(), responseBuffer);
     } else {
       throw new PlatformEncDecException(
           MessageFormat.format("Encoder for platform protocol [{0}] is not defined", platformId));
@@ -454,7 +531,7 @@ public class EncDecActorMessageProcessor {
       throws PlatformEncDecException {
     PlatformEncDec encDec = platformEncDecMap.get(platformId);
     if (encDec != null) {
-      ClientSync syncRequest = platformEncDecMap.get(platformId).decode(requestRaw);
+      ClientSync syncRequest = encDec.decode(ByteBuffer.wrap(requestRaw));
       addAppTokenToClientSyncMetaData(syncRequest.getClientSyncMetaData());
       return syncRequest;
     } else {
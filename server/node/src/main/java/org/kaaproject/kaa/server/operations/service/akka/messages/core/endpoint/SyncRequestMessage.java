@@ -35,6 +35,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The Class SyncRequestMessage.
@@ -58,6 +59,11 @@ public class SyncRequestMessage extends EndpointAwareMessage implements ChannelA
    */
   private final SessionInfo session;
 
+  /**
+   * Whether the request is counted as pending by the load statistics.
+   */
+  private final AtomicBoolean queued = new AtomicBoolean();
+
   /**
    * Instantiates a new sync request message.
    *
@@ -108,6 +114,24 @@ public class SyncRequestMessage extends EndpointAwareMessage implements ChannelA
     return command;
   }
 
+  /**
+   * Marks the request as pending, i.e. not yet picked up by the endpoint
+   * actor.
+   */
+  public void markQueued() {
+    queued.set(true);
+  }
+
+  /**
+   * Marks the request as picked up by the endpoint actor or dropped.
+   *
+   * @return true if the request was pending, so it must be removed from the
+   *         pending requests exactly once
+   */
+  public boolean markDequeued() {
+    return queued.compareAndSet(true, false);
+  }
+
   /**
    * Updates a request.
    */
@@ -66,17 +66,23 @@ import org.kaaproject.kaa.server.operations.service.cache.EventClassFamilyIdKey;
 import org.kaaproject.kaa.server.operations.service.cache.EventClassFqnKey;
 import org.kaaproject.kaa.server.operations.service.cache.HistoryKey;
 import org.kaaproject.kaa.server.operations.service.cache.TopicListCacheEntry;
+import org.kaaproject.kaa.server.operations.service.cache.tiered.CacheRegion;
+import org.kaaproject.kaa.server.operations.service.cache.tiered.TieredCacheManager;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFamilyVersion;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFqnVersion;
 import org.kaaproject.kaa.server.operations.service.event.RouteTableKey;
+import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.metrics.TimerClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
@@ -88,6 +94,12 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 /**
  * The Class ConcurrentCacheService.
@@ -113,131 +125,225 @@ public class ConcurrentCacheService implements CacheService {
    */
   private static final Logger LOG = LoggerFactory.getLogger(ConcurrentCacheService.class);
   /**
-   * The app seq number memorizer.
+   * The app seq number region.
+   */
+  private CacheRegion<String, AppSeqNumber> appSeqNumberRegion;
+  /**
+   * The cf id region.
+   */
+  private CacheRegion<ConfigurationIdKey, String> cfIdRegion;
+  /**
+   * The history region.
    */
-  private final CacheTemporaryMemorizer<String, AppSeqNumber> appSeqNumberMemorizer =
-      new CacheTemporaryMemorizer<>();
-  //
+  private CacheRegion<HistoryKey, List<HistoryDto>> historyRegion;
   /**
-   * The cf id memorizer.
+   * The filter lists region.
    */
-  private final CacheTemporaryMemorizer<ConfigurationIdKey, String> cfIdMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<AppProfileVersionsKey, List<ProfileFilterDto>> filterListsRegion;
   /**
-   * The history memorizer.
+   * The application event family maps region.
    */
-  private final CacheTemporaryMemorizer<HistoryKey, List<HistoryDto>> historyMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<List<String>, List<ApplicationEventFamilyMapDto>> aefmRegion;
   /**
-   * The filter lists memorizer.
+   * The filters region.
    */
-  private final CacheTemporaryMemorizer<AppProfileVersionsKey, List<ProfileFilterDto>>
-          filterListsMemorizer = new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, ProfileFilterDto> filtersRegion;
   /**
-   * The application event family maps memorizer.
+   * The cf region.
    */
-  private final CacheTemporaryMemorizer<List<String>, List<ApplicationEventFamilyMapDto>>
-          aefmMemorizer = new CacheTemporaryMemorizer<>();
+  private CacheRegion<EndpointObjectHash, EndpointConfigurationDto> cfRegion;
   /**
-   * The filters memorizer.
+   * The cf schema region.
    */
-  private final CacheTemporaryMemorizer<String, ProfileFilterDto> filtersMemorizer =
-          new CacheTemporaryMemorizer<>();
+  private CacheRegion<AppVersionKey, ConfigurationSchemaDto> cfSchemaRegion;
   /**
-   * The cf memorizer.
+   * The pf schema region.
    */
-  private final CacheTemporaryMemorizer<EndpointObjectHash, EndpointConfigurationDto> cfMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<AppVersionKey, EndpointProfileSchemaDto> pfSchemaRegion;
   /**
-   * The cf schema memorizer.
+   * The spf schema region.
    */
-  private final CacheTemporaryMemorizer<AppVersionKey, ConfigurationSchemaDto> cfSchemaMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<AppVersionKey, ServerProfileSchemaDto> spfSchemaRegion;
   /**
-   * The pf schema memorizer.
+   * The ctl schema region.
    */
-  private final CacheTemporaryMemorizer<AppVersionKey, EndpointProfileSchemaDto> pfSchemaMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, CTLSchemaDto> ctlSchemaRegion;
   /**
-   * The spf schema memorizer.
+   * The ctl schema body region.
    */
-  private final CacheTemporaryMemorizer<AppVersionKey, ServerProfileSchemaDto> spfSchemaMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, String> ctlSchemaBodyRegion;
   /**
-   * The ctl schema memorizer.
+   * The SDK profile region.
    */
-  private final CacheTemporaryMemorizer<String, CTLSchemaDto> ctlSchemaMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, SdkProfileDto> sdkProfileRegion;
   /**
-   * The ctl schema body memorizer.
+   * The endpoint key region.
    */
-  private final CacheTemporaryMemorizer<String, String> ctlSchemaBodyMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<EndpointObjectHash, PublicKey> endpointKeyRegion;
   /**
-   * The SDK profile memorizer.
+   * The region of endpoint key hashes which are not found in the database.
    */
-  private final CacheTemporaryMemorizer<String, SdkProfileDto> sdkProfileMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<EndpointObjectHash, Boolean> missingEndpointKeyRegion;
   /**
-   * The endpoint key memorizer.
+   * The merged configuration region.
    */
-  private final CacheTemporaryMemorizer<EndpointObjectHash, PublicKey> endpointKeyMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<List<EndpointGroupStateDto>, Pair<BaseData, RawData>>
+      mergedConfigurationRegion;
   /**
-   * The merged configuration memorizer.
+   * The delta region.
    */
-  private final CacheTemporaryMemorizer<List<EndpointGroupStateDto>,
-      Pair<BaseData, RawData>> mergedConfigurationMemorizer = new CacheTemporaryMemorizer<>();
+  private CacheRegion<DeltaCacheKey, ConfigurationCacheEntry> deltaRegion;
   /**
-   * The delta memorizer.
+   * The event class family id by name region.
    */
-  private final CacheTemporaryMemorizer<DeltaCacheKey, ConfigurationCacheEntry> deltaMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<EventClassFamilyIdKey, String> ecfIdKeyRegion;
   /**
-   * The endpoint key memorizer.
+   * The event class family id by event class fqn region.
    */
-  private final CacheTemporaryMemorizer<EventClassFamilyIdKey, String> ecfIdKeyMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<EventClassFqnKey, String> ecfIdFqnRegion;
   /**
-   * The endpoint key memorizer.
+   * The route keys region.
    */
-  private final CacheTemporaryMemorizer<String, String> tenantIdMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<EventClassFqnVersion, Set<RouteTableKey>> routeKeysRegion;
   /**
-   * The application token memorizer.
+   * The tenant id region.
    */
-  private final CacheTemporaryMemorizer<String, String> appTokenMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, String> tenantIdRegion;
   /**
-   * The endpoint groups memorizer.
+   * The application token region.
    */
-  private final CacheTemporaryMemorizer<String, EndpointGroupDto> groupsMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, String> appTokenRegion;
   /**
-   * The topics memorizer.
+   * The application region.
    */
-  private final CacheTemporaryMemorizer<String, TopicDto> topicsMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, ApplicationDto> appRegion;
   /**
-   * The default group memorizer.
+   * The application id region.
    */
-  private final CacheTemporaryMemorizer<String, EndpointGroupDto> defaultGroupMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, String> appIdRegion;
   /**
-   * The topic list memorizer.
+   * The endpoint groups region.
    */
-  private final CacheTemporaryMemorizer<EndpointObjectHash, TopicListCacheEntry>
-          topicListMemorizer = new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, EndpointGroupDto> groupsRegion;
   /**
-   * The endpoint key memorizer.
+   * The topics region.
    */
-  private final CacheTemporaryMemorizer<EventClassFqnKey, String> ecfIdFqnMemorizer =
-      new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, TopicDto> topicsRegion;
   /**
-   * The endpoint key memorizer.
+   * The default group region.
    */
-  private final CacheTemporaryMemorizer<EventClassFqnVersion, Set<RouteTableKey>>
-          routeKeysMemorizer = new CacheTemporaryMemorizer<>();
+  private CacheRegion<String, EndpointGroupDto> defaultGroupRegion;
+  /**
+   * The topic list region.
+   */
+  private CacheRegion<EndpointObjectHash, TopicListCacheEntry> topicListRegion;
+  /**
+   * The cache manager.
+   */
+  @Autowired
+  private TieredCacheManager cacheManager;
+  /**
+   * The metrics service.
+   */
+  @Autowired(required = false)
+  private MetricsService metricsService;
+  /**
+   * Specifies if endpoint keys are saved to the snapshot and loaded from it
+   * on start.
+   */
+  @Value("#{properties[endpoint_keys_snapshot_enabled] ?: false}")
+  private boolean endpointKeySnapshotEnabled;
+  /**
+   * The endpoint key snapshot location.
+   */
+  @Value("#{properties[endpoint_keys_snapshot_location] ?: 'endpoint-keys.snapshot'}")
+  private String endpointKeySnapshotLocation;
+  /**
+   * The period in seconds of endpoint key snapshot saving, 0 saves the
+   * snapshot on shutdown only.
+   */
+  @Value("#{properties[endpoint_keys_snapshot_period] ?: 300}")
+  private long endpointKeySnapshotPeriod;
+  /**
+   * The max age in seconds of endpoint key snapshot loaded on start.
+   */
+  @Value("#{properties[endpoint_keys_snapshot_max_age] ?: 3600}")
+  private long endpointKeySnapshotMaxAge;
+  private EndpointKeySnapshot endpointKeySnapshot;
+  private ScheduledExecutorService endpointKeySnapshotExecutor;
+  private TimerClient endpointKeyLookupTimer;
+  private MeterClient missingEndpointKeyMeter;
+  /**
+   * The app seq number loader.
+   */
+  private final Computable<String, AppSeqNumber> appSeqNumberLoader =
+      new Computable<String, AppSeqNumber>() {
+        @Override
+        public AppSeqNumber compute(String key) {
+          LOG.debug("Fetching result for getAppSeqNumber");
+          ApplicationDto appDto = applicationService.findAppByApplicationToken(key);
+          AppSeqNumber appSeqNumber = new AppSeqNumber(
+              appDto.getTenantId(),
+              appDto.getId(),
+              appDto.getApplicationToken(),
+              appDto.getSequenceNumber());
+          return appSeqNumber;
+        }
+      };
+  /**
+   * The history loader.
+   */
+  private final Computable<HistoryKey, List<HistoryDto>> historyLoader =
+      new Computable<HistoryKey, List<HistoryDto>>() {
+        @Override
+        public List<HistoryDto> compute(HistoryKey key) {
+          LOG.debug("Fetching result for getHistory");
+          List<HistoryDto> relatedChanges = new ArrayList<HistoryDto>();
+
+          ApplicationDto appDto = applicationService.findAppByApplicationToken(key.getAppToken());
+          List<HistoryDto> fullHistoryList = historyService.findHistoriesBySeqNumberRange(
+              appDto.getId(), key.getOldSeqNumber(),
+              key.getNewSeqNumber());
+          Collections.sort(fullHistoryList, ConcurrentCacheService.HISTORY_SEQ_NUMBER_COMPARATOR);
+
+          for (HistoryDto historyDto : fullHistoryList) {
+            ChangeDto changeDto = historyDto.getChange();
+            ChangeType changeType = changeDto.getType();
+            if (!isSupported(changeType)) {
+              continue;
+            }
+            if (changeType == ChangeType.REMOVE_GROUP) {
+              relatedChanges.add(historyDto);
+            } else if (changeType == ChangeType.ADD_TOPIC || changeType == ChangeType.REMOVE_TOPIC) {
+              relatedChanges.add(historyDto);
+            } else if (changeType == ChangeType.ADD_PROF || changeType == ChangeType.REMOVE_PROF) {
+              ProfileFilterDto profileFilter = profileService.findProfileFilterById(
+                  changeDto.getProfileFilterId());
+              if (profileFilter != null
+                  && supports(profileFilter,
+                  key.getEndpointProfileSchemaVersion(),
+                  key.getServerProfileSchemaVersion())) {
+                relatedChanges.add(historyDto);
+              }
+            } else if (changeType == ChangeType.ADD_CONF || changeType == ChangeType.REMOVE_CONF) {
+              if (changeDto.getCfVersion() == key.getConfSchemaVersion()) { // NOSONAR
+                relatedChanges.add(historyDto);
+              }
+            }
+          }
+
+          return relatedChanges;
+        }
+
+        private boolean supports(ProfileFilterDto profileFilter,
+                                 Integer endpointProfileSchemaVersion,
+                                 Integer serverProfileSchemaVersion) {
+          return (profileFilter.getEndpointProfileSchemaVersion() == null
+              || profileFilter.getEndpointProfileSchemaVersion() == endpointProfileSchemaVersion)
+              && (profileFilter.getServerProfileSchemaVersion() == null
+              || profileFilter.getServerProfileSchemaVersion() == serverProfileSchemaVersion);
+        }
+      };
   /**
    * The application service.
    */
@@ -303,6 +409,112 @@ public class ConcurrentCacheService implements CacheService {
     }
   }
 
+  /**
+   * Creates cache regions.
+   */
+  @PostConstruct
+  public void initRegions() {
+    appSeqNumberRegion = cacheManager.createRegion("appSeqNumbers", appSeqNumberLoader);
+    cfIdRegion = cacheManager.createRegion("configurationIds");
+    historyRegion = cacheManager.createRegion("history", historyLoader);
+    filterListsRegion = cacheManager.createRegion("filterLists");
+    aefmRegion = cacheManager.createRegion("applicationEFMs");
+    filtersRegion = cacheManager.createRegion("filters");
+    cfRegion = cacheManager.createRegion("configurations");
+    cfSchemaRegion = cacheManager.createRegion("configurationSchemas");
+    pfSchemaRegion = cacheManager.createRegion("endpointProfileSchemas");
+    spfSchemaRegion = cacheManager.createRegion("serverProfileSchemas");
+    ctlSchemaRegion = cacheManager.createRegion("ctlSchemas");
+    ctlSchemaBodyRegion = cacheManager.createRegion("ctlSchemaBodies");
+    sdkProfileRegion = cacheManager.createRegion("sdkProfiles");
+    endpointKeyRegion = cacheManager.createRegion("endpointKeys");
+    missingEndpointKeyRegion = cacheManager.createRegion("missingEndpointKeys");
+    mergedConfigurationRegion = cacheManager.createRegion("mergedConfigurations");
+    deltaRegion = cacheManager.createRegion("deltas");
+    ecfIdKeyRegion = cacheManager.createRegion("ecfIds");
+    ecfIdFqnRegion = cacheManager.createRegion("ecfFqnIds");
+    routeKeysRegion = cacheManager.createRegion("routeKeys");
+    tenantIdRegion = cacheManager.createRegion("tenantIds");
+    appTokenRegion = cacheManager.createRegion("appTokens");
+    appRegion = cacheManager.createRegion("apps");
+    appIdRegion = cacheManager.createRegion("appIds");
+    groupsRegion = cacheManager.createRegion("endpointGroups");
+    topicsRegion = cacheManager.createRegion("topics");
+    defaultGroupRegion = cacheManager.createRegion("defaultGroups");
+    topicListRegion = cacheManager.createRegion("topicListEntries");
+    if (metricsService != null) {
+      endpointKeyLookupTimer = metricsService.createTimer("endpointKeyLookupTimer");
+      missingEndpointKeyMeter = metricsService.createMeter("missingEndpointKeyMeter");
+    }
+    if (endpointKeySnapshotEnabled) {
+      initEndpointKeySnapshot();
+    }
+  }
+
+  /**
+   * Saves the endpoint key snapshot and stops periodic saving.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (endpointKeySnapshotExecutor != null) {
+      endpointKeySnapshotExecutor.shutdownNow();
+    }
+    if (endpointKeySnapshot != null) {
+      saveEndpointKeys();
+    }
+  }
+
+  private void initEndpointKeySnapshot() {
+    endpointKeySnapshot = new EndpointKeySnapshot(Paths.get(endpointKeySnapshotLocation));
+    List<EndpointObjectHash> hashes = new ArrayList<>();
+    endpointKeySnapshot.read(TimeUnit.SECONDS.toMillis(endpointKeySnapshotMaxAge), hashes::add);
+    endpointKeySnapshotExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "endpoint-key-snapshot");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (!hashes.isEmpty()) {
+      endpointKeySnapshotExecutor.execute(() -> warmUpEndpointKeys(hashes));
+    }
+    if (endpointKeySnapshotPeriod > 0) {
+      endpointKeySnapshotExecutor.scheduleWithFixedDelay(this::saveEndpointKeys,
+          endpointKeySnapshotPeriod, endpointKeySnapshotPeriod, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Loads the keys of the snapshot endpoints from the database. Endpoints
+   * deregistered while the node was down are not found and their keys are
+   * not cached.
+   *
+   * @param hashes the endpoint key hashes from the snapshot
+   */
+  private void warmUpEndpointKeys(List<EndpointObjectHash> hashes) {
+    long start = System.currentTimeMillis();
+    int count = 0;
+    for (EndpointObjectHash hash : hashes) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      if (endpointKeyRegion.getIfPresent(hash) != null || getEndpointKey(hash) != null) {
+        count++;
+      }
+    }
+    LOG.info("Loaded {} of {} endpoint keys from {} in {} ms", count, hashes.size(),
+        endpointKeySnapshot.getLocation(), System.currentTimeMillis() - start);
+  }
+
+  private void saveEndpointKeys() {
+    List<EndpointObjectHash> entries = new ArrayList<>();
+    endpointKeyRegion.forEach((hash, key) -> entries.add(hash));
+    try {
+      int count = endpointKeySnapshot.write(entries);
+      LOG.debug("Saved {} endpoint keys to {}", count, endpointKeySnapshot.getLocation());
+    } catch (IOException ex) {
+      LOG.warn("Failed to save endpoint keys to {}", endpointKeySnapshot.getLocation(), ex);
+    }
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -310,21 +522,8 @@ public class ConcurrentCacheService implements CacheService {
    * getAppSeqNumber(java.lang.String)
    */
   @Override
-  @Cacheable(value = "appSeqNumbers", key = "#key")
   public AppSeqNumber getAppSeqNumber(String key) {
-    return appSeqNumberMemorizer.compute(key, new Computable<String, AppSeqNumber>() {
-      @Override
-      public AppSeqNumber compute(String key) {
-        LOG.debug("Fetching result for getAppSeqNumber");
-        ApplicationDto appDto = applicationService.findAppByApplicationToken(key);
-        AppSeqNumber appSeqNumber = new AppSeqNumber(
-            appDto.getTenantId(),
-            appDto.getId(),
-            appDto.getApplicationToken(),
-            appDto.getSequenceNumber());
-        return appSeqNumber;
-      }
-    });
+    return appSeqNumberRegion.get(key);
   }
 
   /*
@@ -334,9 +533,8 @@ public class ConcurrentCacheService implements CacheService {
    * putAppSeqNumber(java.lang.String, java.lang.Integer)
    */
   @Override
-  @CachePut(value = "appSeqNumbers", key = "#key")
   public AppSeqNumber putAppSeqNumber(String key, AppSeqNumber appSeqNumber) {
-    return appSeqNumber;
+    return appSeqNumberRegion.put(key, appSeqNumber);
   }
 
   /*
@@ -347,9 +545,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.ConfigurationIdKey)
    */
   @Override
-  @Cacheable("configurationIds")
   public String getConfIdByKey(ConfigurationIdKey key) {
-    return cfIdMemorizer.compute(key, new Computable<ConfigurationIdKey, String>() {
+    return cfIdRegion.get(key, new Computable<ConfigurationIdKey, String>() {
       @Override
       public String compute(ConfigurationIdKey key) {
         LOG.debug("Fetching result for getConfIdByKey");
@@ -376,9 +573,8 @@ public class ConcurrentCacheService implements CacheService {
    * java.lang.String)
    */
   @Override
-  @CachePut(value = "configurationIds", key = "#key")
   public String putConfId(ConfigurationIdKey key, String value) {
-    return value;
+    return cfIdRegion.put(key, value);
   }
 
   /*
@@ -389,58 +585,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.HistoryKey)
    */
   @Override
-  @Cacheable("history")
   public List<HistoryDto> getHistory(HistoryKey key) {
-    return historyMemorizer.compute(key, new Computable<HistoryKey, List<HistoryDto>>() {
-      @Override
-      public List<HistoryDto> compute(HistoryKey key) {
-        LOG.debug("Fetching result for getHistory");
-        List<HistoryDto> relatedChanges = new ArrayList<HistoryDto>();
-
-        ApplicationDto appDto = applicationService.findAppByApplicationToken(key.getAppToken());
-        List<HistoryDto> fullHistoryList = historyService.findHistoriesBySeqNumberRange(
-            appDto.getId(), key.getOldSeqNumber(),
-            key.getNewSeqNumber());
-        Collections.sort(fullHistoryList, ConcurrentCacheService.HISTORY_SEQ_NUMBER_COMPARATOR);
-
-        for (HistoryDto historyDto : fullHistoryList) {
-          ChangeDto changeDto = historyDto.getChange();
-          ChangeType changeType = changeDto.getType();
-          if (!isSupported(changeType)) {
-            continue;
-          }
-          if (changeType == ChangeType.REMOVE_GROUP) {
-            relatedChanges.add(historyDto);
-          } else if (changeType == ChangeType.ADD_TOPIC || changeType == ChangeType.REMOVE_TOPIC) {
-            relatedChanges.add(historyDto);
-          } else if (changeType == ChangeType.ADD_PROF || changeType == ChangeType.REMOVE_PROF) {
-            ProfileFilterDto profileFilter = profileService.findProfileFilterById(
-                changeDto.getProfileFilterId());
-            if (profileFilter != null
-                && supports(profileFilter,
-                key.getEndpointProfileSchemaVersion(),
-                key.getServerProfileSchemaVersion())) {
-              relatedChanges.add(historyDto);
-            }
-          } else if (changeType == ChangeType.ADD_CONF || changeType == ChangeType.REMOVE_CONF) {
-            if (changeDto.getCfVersion() == key.getConfSchemaVersion()) { // NOSONAR
-              relatedChanges.add(historyDto);
-            }
-          }
-        }
-
-        return relatedChanges;
-      }
-
-      private boolean supports(ProfileFilterDto profileFilter,
-                               Integer endpointProfileSchemaVersion,
-                               Integer serverProfileSchemaVersion) {
-        return (profileFilter.getEndpointProfileSchemaVersion() == null
-            || profileFilter.getEndpointProfileSchemaVersion() == endpointProfileSchemaVersion)
-            && (profileFilter.getServerProfileSchemaVersion() == null
-            || profileFilter.getServerProfileSchemaVersion() == serverProfileSchemaVersion);
-      }
-    });
+    return historyRegion.get(key);
   }
 
   /*
@@ -452,32 +598,28 @@ public class ConcurrentCacheService implements CacheService {
    * java.util.List)
    */
   @Override
-  @CachePut(value = "history", key = "#key")
   public List<HistoryDto> putHistory(HistoryKey key, List<HistoryDto> value) {
-    return value;
+    return historyRegion.put(key, value);
   }
 
   @Override
-  @Cacheable("applicationEFMs")
   public List<ApplicationEventFamilyMapDto> getApplicationEventFamilyMapsByIds(List<String> key) {
-    return aefmMemorizer.compute(key,
+    return aefmRegion.get(key,
         new Computable<List<String>, List<ApplicationEventFamilyMapDto>>() {
           @Override
           public List<ApplicationEventFamilyMapDto> compute(List<String> key) {
             LOG.debug("Fetching result for getApplicationEventFamilyMapsByIds");
             List<ApplicationEventFamilyMapDto> value =
                 applicationEventMapService.findApplicationEventFamilyMapsByIds(key);
-            putApplicationEventFamilyMaps(key, value);
             return value;
           }
         });
   }
 
   @Override
-  @CachePut(value = "applicationEFMs", key = "#key")
   public List<ApplicationEventFamilyMapDto> putApplicationEventFamilyMaps(
       List<String> key, List<ApplicationEventFamilyMapDto> value) {
-    return value;
+    return aefmRegion.put(key, value);
   }
 
   /*
@@ -488,9 +630,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.AppVersionKey)
    */
   @Override
-  @Cacheable("filterLists")
   public List<ProfileFilterDto> getFilters(AppProfileVersionsKey key) {
-    return filterListsMemorizer.compute(key,
+    return filterListsRegion.get(key,
         new Computable<AppProfileVersionsKey, List<ProfileFilterDto>>() {
 
           @Override
@@ -514,9 +655,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.AppVersionKey)
    */
   @Override
-  @CacheEvict(value = "filterLists", key = "#key")
   public void resetFilters(AppProfileVersionsKey key) {
-    // Do nothing
+    filterListsRegion.invalidate(key);
   }
 
   /*
@@ -528,10 +668,9 @@ public class ConcurrentCacheService implements CacheService {
    * java.util.List)
    */
   @Override
-  @CachePut(value = "filterLists", key = "#key")
   public List<ProfileFilterDto> putFilterList(AppProfileVersionsKey key,
                                               List<ProfileFilterDto> value) {
-    return value;
+    return filterListsRegion.put(key, value);
   }
 
   /*
@@ -542,9 +681,8 @@ public class ConcurrentCacheService implements CacheService {
    * (java.lang.String)
    */
   @Override
-  @Cacheable("filters")
   public ProfileFilterDto getFilter(String key) {
-    return filtersMemorizer.compute(key, new Computable<String, ProfileFilterDto>() {
+    return filtersRegion.get(key, new Computable<String, ProfileFilterDto>() {
 
       @Override
       public ProfileFilterDto compute(String key) {
@@ -563,9 +701,8 @@ public class ConcurrentCacheService implements CacheService {
    * (java.lang.String, org.kaaproject.kaa.common.dto.ProfileFilterDto)
    */
   @Override
-  @CachePut(value = "filters", key = "#key")
   public ProfileFilterDto putFilter(String key, ProfileFilterDto value) {
-    return value;
+    return filtersRegion.put(key, value);
   }
 
   /*
@@ -576,9 +713,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.common.hash.EndpointObjectHash)
    */
   @Override
-  @Cacheable("configurations")
   public EndpointConfigurationDto getConfByHash(EndpointObjectHash key) {
-    return cfMemorizer.compute(key,
+    return cfRegion.get(key,
         new Computable<EndpointObjectHash, EndpointConfigurationDto>() {
 
           @Override
@@ -599,14 +735,13 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.common.dto.EndpointConfigurationDto)
    */
   @Override
-  @CachePut(value = "configurations", key = "#key")
   public EndpointConfigurationDto putConfiguration(EndpointObjectHash key,
                                                    EndpointConfigurationDto value) {
     if (value != null) {
       LOG.debug("Fetching result for getConfByHash");
       value = endpointService.saveEndpointConfiguration(value);
     }
-    return value;
+    return cfRegion.put(key, value);
   }
 
   /*
@@ -617,9 +752,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.AppVersionKey)
    */
   @Override
-  @Cacheable("configurationSchemas")
   public ConfigurationSchemaDto getConfSchemaByAppAndVersion(AppVersionKey key) {
-    return cfSchemaMemorizer.compute(key,
+    return cfSchemaRegion.get(key,
         new Computable<AppVersionKey, ConfigurationSchemaDto>() {
 
           @Override
@@ -643,10 +777,9 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.common.dto.ConfigurationSchemaDto)
    */
   @Override
-  @CachePut(value = "configurationSchemas", key = "#key")
   public ConfigurationSchemaDto putConfigurationSchema(AppVersionKey key,
                                                        ConfigurationSchemaDto value) {
-    return value;
+    return cfSchemaRegion.put(key, value);
   }
 
   /*
@@ -657,9 +790,8 @@ public class ConcurrentCacheService implements CacheService {
    * (org.kaaproject.kaa.server.operations.service.cache.AppVersionKey)
    */
   @Override
-  @Cacheable("endpointProfileSchemas")
   public EndpointProfileSchemaDto getProfileSchemaByAppAndVersion(AppVersionKey key) {
-    return pfSchemaMemorizer.compute(key,
+    return pfSchemaRegion.get(key,
         new Computable<AppVersionKey, EndpointProfileSchemaDto>() {
 
           @Override
@@ -675,9 +807,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("serverProfileSchemas")
   public ServerProfileSchemaDto getServerProfileSchemaByAppAndVersion(AppVersionKey key) {
-    return spfSchemaMemorizer.compute(key,
+    return spfSchemaRegion.get(key,
         new Computable<AppVersionKey, ServerProfileSchemaDto>() {
 
           @Override
@@ -694,9 +825,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("ctlSchemas")
   public CTLSchemaDto getCtlSchemaById(String key) {
-    return ctlSchemaMemorizer.compute(key, new Computable<String, CTLSchemaDto>() {
+    return ctlSchemaRegion.get(key, new Computable<String, CTLSchemaDto>() {
       @Override
       public CTLSchemaDto compute(String key) {
         LOG.debug("Fetching result for ctl schemas");
@@ -706,9 +836,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("ctlSchemaBodies")
   public String getFlatCtlSchemaById(String key) {
-    return ctlSchemaBodyMemorizer.compute(key, new Computable<String, String>() {
+    return ctlSchemaBodyRegion.get(key, new Computable<String, String>() {
       @Override
       public String compute(String key) {
         LOG.debug("Fetching result for ctl schemas");
@@ -727,16 +856,14 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.common.dto.ProfileSchemaDto)
    */
   @Override
-  @CachePut(value = "endpointProfileSchemas", key = "#key")
   public EndpointProfileSchemaDto putProfileSchema(AppVersionKey key,
                                                    EndpointProfileSchemaDto value) {
-    return value;
+    return pfSchemaRegion.put(key, value);
   }
 
   @Override
-  @Cacheable(value = "sdkProfiles", unless = "#result == null")
   public SdkProfileDto getSdkProfileBySdkToken(String key) {
-    return sdkProfileMemorizer.compute(key, new Computable<String, SdkProfileDto>() {
+    return sdkProfileRegion.get(key, new Computable<String, SdkProfileDto>() {
       @Override
       public SdkProfileDto compute(String key) {
         LOG.debug("Fetching result for getSdkProfileBySdkToken");
@@ -752,16 +879,27 @@ public class ConcurrentCacheService implements CacheService {
    * getEndpointKey(org.kaaproject.kaa.common.hash.EndpointObjectHash)
    */
   @Override
-  @Cacheable(value = "endpointKeys", unless = "#result == null")
   public PublicKey getEndpointKey(EndpointObjectHash key) {
-    return endpointKeyMemorizer.compute(key, new Computable<EndpointObjectHash, PublicKey>() {
+    if (missingEndpointKeyRegion.getIfPresent(key) != null) {
+      LOG.debug("Endpoint key {} is known to be missing", key);
+      if (missingEndpointKeyMeter != null) {
+        missingEndpointKeyMeter.mark();
+      }
+      return null;
+    }
+    PublicKey endpointKey = endpointKeyRegion.get(key,
+        new Computable<EndpointObjectHash, PublicKey>() {
 
       @Override
       public PublicKey compute(EndpointObjectHash key) {
         LOG.debug("Fetching result for getEndpointKey");
         PublicKey result = null;
+        long start = System.nanoTime();
         EndpointProfileDto endpointProfile = endpointService.findEndpointProfileByKeyHash(
             key.getData());
+        if (endpointKeyLookupTimer != null) {
+          endpointKeyLookupTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
         if (endpointProfile != null) {
           try {
             X509EncodedKeySpec x509KeySpec = new X509EncodedKeySpec(
@@ -777,12 +915,15 @@ public class ConcurrentCacheService implements CacheService {
         return result;
       }
     });
+    if (endpointKey == null) {
+      missingEndpointKeyRegion.put(key, Boolean.TRUE);
+    }
+    return endpointKey;
   }
 
   @Override
-  @Cacheable("ecfIds")
   public String getEventClassFamilyIdByName(EventClassFamilyIdKey key) {
-    return ecfIdKeyMemorizer.compute(key, new Computable<EventClassFamilyIdKey, String>() {
+    return ecfIdKeyRegion.get(key, new Computable<EventClassFamilyIdKey, String>() {
 
       @Override
       public String compute(EventClassFamilyIdKey key) {
@@ -801,9 +942,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("ecfIds")
   public String getEventClassFamilyIdByEventClassFqn(EventClassFqnKey key) {
-    return ecfIdFqnMemorizer.compute(key, new Computable<EventClassFqnKey, String>() {
+    return ecfIdFqnRegion.get(key, new Computable<EventClassFqnKey, String>() {
 
       @Override
       public String compute(EventClassFqnKey key) {
@@ -823,9 +963,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("routeKeys")
   public Set<RouteTableKey> getRouteKeys(EventClassFqnVersion key) {
-    return routeKeysMemorizer.compute(key,
+    return routeKeysRegion.get(key,
         new Computable<EventClassFqnVersion, Set<RouteTableKey>>() {
 
           @Override
@@ -866,10 +1005,9 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("tenantIds")
   public String getTenantIdByAppToken(String key) {
     // TODO: throw exception instead of returning null
-    return tenantIdMemorizer.compute(key, new Computable<String, String>() {
+    return tenantIdRegion.get(key, new Computable<String, String>() {
 
       @Override
       public String compute(String key) {
@@ -882,9 +1020,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("appTokens")
   public String getAppTokenBySdkToken(String key) {
-    return appTokenMemorizer.compute(key, new Computable<String, String>() {
+    return appTokenRegion.get(key, new Computable<String, String>() {
 
       @Override
       public String compute(String key) {
@@ -899,21 +1036,18 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("apps")
   public ApplicationDto findAppById(String applicationId) {
-    return applicationService.findAppById(applicationId);
+    return appRegion.get(applicationId, key -> applicationService.findAppById(key));
   }
 
   @Override
-  @CacheEvict(value = "apps", key = "#applicationId")
   public void resetAppById(String applicationId) {
-    return;
+    appRegion.invalidate(applicationId);
   }
 
   @Override
-  @Cacheable("appIds")
   public String getApplicationIdByAppToken(String key) {
-    return appTokenMemorizer.compute(key, new Computable<String, String>() {
+    return appIdRegion.get(key, new Computable<String, String>() {
 
       @Override
       public String compute(String key) {
@@ -932,18 +1066,17 @@ public class ConcurrentCacheService implements CacheService {
    * @return the public key
    */
   @Override
-  @CachePut(value = "endpointKeys", key = "#key")
   public PublicKey putEndpointKey(EndpointObjectHash key, PublicKey endpointKey) {
-    return endpointKey;
+    missingEndpointKeyRegion.invalidate(key);
+    return endpointKeyRegion.put(key, endpointKey);
   }
 
   /**
    * Remove key from hash.
    */
   @Override
-  @CacheEvict(value = "endpointKeys", key = "#key")
   public void resetEndpointKey(EndpointObjectHash hash, PublicKey endpointKey) {
-    // Do nothing
+    endpointKeyRegion.invalidate(hash);
   }
 
   /*
@@ -954,12 +1087,11 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.server.operations.service.cache.Computable)
    */
   @Override
-  @Cacheable(value = "mergedConfigurations", key = "#key")
   public Pair<BaseData, RawData> getMergedConfiguration(
       final List<EndpointGroupStateDto> key,
       final Computable<List<EndpointGroupStateDto>,
           Pair<BaseData, RawData>> worker) {
-    return mergedConfigurationMemorizer.compute(key,
+    return mergedConfigurationRegion.get(key,
         new Computable<List<EndpointGroupStateDto>, Pair<BaseData, RawData>>() {
           @Override
           public Pair<BaseData, RawData> compute(List<EndpointGroupStateDto> key) {
@@ -977,9 +1109,11 @@ public class ConcurrentCacheService implements CacheService {
    * setMergedConfiguration(java.util.List, java.lang.String)
    */
   @Override
-  @CachePut(value = "mergedConfigurations", key = "#key")
   public BaseData setMergedConfiguration(List<EndpointGroupStateDto> key,
                                          BaseData mergedConfiguration) {
+    // The region holds base and raw data pairs, so the stale pair is dropped
+    // and recalculated on the next lookup
+    mergedConfigurationRegion.invalidate(key);
     return mergedConfiguration;
   }
 
@@ -992,12 +1126,11 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.server.operations.service.cache.Computable)
    */
   @Override
-  @Cacheable(value = "deltas", key = "#key")
   public ConfigurationCacheEntry getDelta(final DeltaCacheKey key,
                                           final Computable<DeltaCacheKey,
                                               ConfigurationCacheEntry> worker)
       throws GetDeltaException {
-    ConfigurationCacheEntry deltaCacheEntry = deltaMemorizer.compute(key,
+    ConfigurationCacheEntry deltaCacheEntry = deltaRegion.get(key,
         new Computable<DeltaCacheKey, ConfigurationCacheEntry>() { // NOSONAR
           @Override
           public ConfigurationCacheEntry compute(DeltaCacheKey key) {
@@ -1019,27 +1152,23 @@ public class ConcurrentCacheService implements CacheService {
    * org.kaaproject.kaa.server.operations.service.cache.DeltaCacheEntry)
    */
   @Override
-  @CachePut(value = "deltas", key = "#key")
   public ConfigurationCacheEntry setDelta(DeltaCacheKey key, ConfigurationCacheEntry delta) {
-    return delta;
+    return deltaRegion.put(key, delta);
   }
 
   @Override
-  @CacheEvict(value = "endpointGroups", key = "#key")
   public void resetGroup(String key) {
-    // Do nothing
+    groupsRegion.invalidate(key);
   }
 
   @Override
-  @CachePut(value = "endpointGroups", key = "#key")
   public EndpointGroupDto putEndpointGroup(String key, EndpointGroupDto value) {
-    return value;
+    return groupsRegion.put(key, value);
   }
 
   @Override
-  @Cacheable("endpointGroups")
   public EndpointGroupDto getEndpointGroupById(String endpointGroupId) {
-    return groupsMemorizer.compute(endpointGroupId, new Computable<String, EndpointGroupDto>() {
+    return groupsRegion.get(endpointGroupId, new Computable<String, EndpointGroupDto>() {
       @Override
       public EndpointGroupDto compute(String key) {
         LOG.debug("Fetching result for token id");
@@ -1051,15 +1180,13 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @CachePut(value = "topics", key = "#key")
   public TopicDto putTopic(String key, TopicDto value) {
-    return value;
+    return topicsRegion.put(key, value);
   }
 
   @Override
-  @Cacheable("topics")
   public TopicDto getTopicById(String topicId) {
-    return topicsMemorizer.compute(topicId, new Computable<String, TopicDto>() {
+    return topicsRegion.get(topicId, new Computable<String, TopicDto>() {
       @Override
       public TopicDto compute(String key) {
         LOG.debug("Fetching result for token id");
@@ -1070,9 +1197,8 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @Cacheable("defaultGroups")
   public EndpointGroupDto getDefaultGroup(String applicationToken) {
-    return defaultGroupMemorizer.compute(applicationToken, applicationToken1 -> {
+    return defaultGroupRegion.get(applicationToken, applicationToken1 -> {
       LOG.debug("Fetching result for token id");
       ApplicationDto appDto = applicationService.findAppByApplicationToken(applicationToken1);
       return endpointService.findDefaultGroup(appDto.getId());
@@ -1080,20 +1206,18 @@ public class ConcurrentCacheService implements CacheService {
   }
 
   @Override
-  @CachePut(value = "topicListEntries", key = "#key")
   public TopicListCacheEntry putTopicList(EndpointObjectHash key, TopicListCacheEntry entry) {
     if (entry != null) {
       TopicListEntryDto entryDto = new TopicListEntryDto(
           entry.getSimpleHash(), entry.getHash().getData(), entry.getTopics());
       endpointService.saveTopicListEntry(entryDto);
     }
-    return entry;
+    return topicListRegion.put(key, entry);
   }
 
   @Override
-  @Cacheable("topicListEntries")
   public TopicListCacheEntry getTopicListByHash(EndpointObjectHash hash) {
-    return topicListMemorizer.compute(hash,
+    return topicListRegion.get(hash,
         new Computable<EndpointObjectHash, TopicListCacheEntry>() {
           @Override
           public TopicListCacheEntry compute(EndpointObjectHash key) {
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.concurrent;
+
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * File with key hashes of the endpoints recently served by the operations
+ * node. The snapshot is written periodically and on shutdown and is read on
+ * start, so that the keys of the endpoints likely to reconnect after a restart
+ * are looked up in the background instead of on their first request. Only
+ * the hashes are stored: endpoints may be deregistered while the node is
+ * down, so the keys are always read from the database again.
+ *
+ * <p>The file starts with a format version and the snapshot creation time,
+ * followed by the number of entries and the length prefixed endpoint key
+ * hashes.</p>
+ */
+public class EndpointKeySnapshot {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EndpointKeySnapshot.class);
+
+  private static final int FORMAT_VERSION = 2;
+
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private final Path location;
+
+  public EndpointKeySnapshot(Path location) {
+    this.location = location;
+  }
+
+  public Path getLocation() {
+    return location;
+  }
+
+  /**
+   * Writes the snapshot. The previous snapshot is replaced only when the new
+   * one is written completely.
+   *
+   * @param entries the endpoint key hashes
+   * @return the number of written entries
+   * @throws IOException if the snapshot can't be written
+   */
+  public int write(Collection<EndpointObjectHash> entries) throws IOException {
+    Path parent = location.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    Path tmp = location.resolveSibling(location.getFileName() + TMP_SUFFIX);
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeLong(System.currentTimeMillis());
+      out.writeInt(entries.size());
+      for (EndpointObjectHash entry : entries) {
+        writeBytes(out, entry.getData());
+      }
+    }
+    Files.move(tmp, location, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return entries.size();
+  }
+
+  /**
+   * Reads the snapshot and passes its entries to the consumer. Missing,
+   * outdated or corrupted snapshot is ignored.
+   *
+   * @param maxAge   the max age of the snapshot in milliseconds
+   * @param consumer the endpoint key hash consumer
+   * @return the number of read entries
+   */
+  public int read(long maxAge, Consumer<EndpointObjectHash> consumer) {
+    if (!Files.isRegularFile(location)) {
+      LOG.info("Endpoint key snapshot {} not found", location);
+      return 0;
+    }
+    int count = 0;
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(location)))) {
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        LOG.warn("Unsupported endpoint key snapshot version {}", version);
+        return 0;
+      }
+      long age = System.currentTimeMillis() - in.readLong();
+      if (age > maxAge) {
+        LOG.info("Endpoint key snapshot {} is outdated by {} ms", location, age - maxAge);
+        return 0;
+      }
+      int size = in.readInt();
+      List<EndpointObjectHash> entries = new ArrayList<>();
+      for (int i = 0; i < size; i++) {
+        entries.add(EndpointObjectHash.fromBytes(readBytes(in)));
+      }
+      for (EndpointObjectHash entry : entries) {
+        consumer.accept(entry);
+        count++;
+      }
+    } catch (EOFException ex) {
+      LOG.warn("Endpoint key snapshot {} is truncated", location);
+    } catch (IOException ex) {
+      LOG.warn("Failed to read endpoint key snapshot {}", location, ex);
+    }
+    return count;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+    out.writeInt(data.length);
+    out.write(data);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid entry length " + length);
+    }
+    byte[] data = new byte[length];
+    in.readFully(data);
+    return data;
+  }
+}
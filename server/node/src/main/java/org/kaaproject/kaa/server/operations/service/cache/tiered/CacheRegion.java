@@ -0,0 +1,330 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.kaaproject.kaa.server.operations.service.cache.Computable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded cache region. Concurrent lookups of the same missing key are
+ * collapsed into a single load. Regions created with a loader may reload
+ * entries in background before they expire. If the off-heap tier is enabled,
+ * values evicted from the heap due to the size limit are moved off-heap and
+ * promoted back on the next lookup.
+ *
+ * <p>Null values are not cached.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class CacheRegion<K, V> implements CacheRegionMXBean {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CacheRegion.class);
+
+  private final CacheRegionConfig config;
+  private final Cache<K, V> cache;
+  private final LoadingCache<K, V> loadingCache;
+  private final OffHeapStore<K> offHeapStore;
+  private final AtomicLong offHeapHitCount = new AtomicLong();
+
+  /**
+   * Creates a region.
+   *
+   * @param config          the region settings
+   * @param loader          the value loader, may be null if values are always
+   *                        loaded with {@link #get(Object, Computable)}
+   * @param refreshExecutor the executor of background reloads
+   */
+  @SuppressWarnings("unchecked")
+  public CacheRegion(CacheRegionConfig config, final Computable<K, V> loader,
+                     final Executor refreshExecutor) {
+    this.config = config;
+    this.offHeapStore = config.getOffHeapMaxSize() > 0
+        ? new OffHeapStore<K>(config.getName(), config.getOffHeapMaxSize()) : null;
+
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (config.getWeigher() == CacheValueWeigher.ENTRIES) {
+      builder.maximumSize(config.getMaxWeight());
+    } else {
+      final CacheValueWeigher weigher = config.getWeigher();
+      builder.maximumWeight(config.getMaxWeight())
+          .weigher((key, value) -> weigher.weigh(value));
+    }
+    if (config.getExpireAfterAccess() > 0) {
+      builder.expireAfterAccess(config.getExpireAfterAccess(), TimeUnit.MILLISECONDS);
+    }
+    if (config.getExpireAfterWrite() > 0) {
+      builder.expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.MILLISECONDS);
+    }
+    if (offHeapStore != null) {
+      builder.removalListener(notification -> {
+        if (notification.getCause() == RemovalCause.SIZE) {
+          offHeapStore.put((K) notification.getKey(), notification.getValue());
+        }
+      });
+    }
+    if (loader != null) {
+      if (config.getRefreshAfterWrite() > 0) {
+        builder.refreshAfterWrite(config.getRefreshAfterWrite(), TimeUnit.MILLISECONDS);
+      }
+      this.loadingCache = builder.build(new CacheLoader<K, V>() {
+        @Override
+        public V load(K key) {
+          return loadFromTiers(key, loader);
+        }
+
+        @Override
+        public ListenableFuture<V> reload(final K key, V oldValue) {
+          LOG.trace("[{}] Refreshing value of {}", CacheRegion.this.config.getName(), key);
+          ListenableFutureTask<V> task = ListenableFutureTask.create(() -> loader.compute(key));
+          refreshExecutor.execute(task);
+          return task;
+        }
+      });
+      this.cache = loadingCache;
+    } else {
+      this.loadingCache = null;
+      this.cache = builder.build();
+    }
+  }
+
+  /**
+   * Returns the value, loading it with the region loader if needed.
+   *
+   * @param key the key
+   * @return the value or null if the loader returned null
+   */
+  public V get(K key) {
+    if (loadingCache == null) {
+      throw new IllegalStateException("Region " + config.getName() + " has no loader");
+    }
+    checkKey(key);
+    try {
+      return loadingCache.get(key);
+    } catch (InvalidCacheLoadException ex) {
+      return null;
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+      throw launderThrowable(ex.getCause());
+    }
+  }
+
+  /**
+   * Returns the value, loading it with the given worker if needed.
+   *
+   * @param key    the key
+   * @param worker the worker that loads the value
+   * @return the value or null if the worker returned null
+   */
+  public V get(final K key, final Computable<K, V> worker) {
+    checkKey(key);
+    try {
+      return cache.get(key, () -> loadFromTiers(key, worker));
+    } catch (InvalidCacheLoadException ex) {
+      return null;
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+      throw launderThrowable(ex.getCause());
+    }
+  }
+
+  /**
+   * Returns the value if it is present in the heap tier.
+   *
+   * @param key the key
+   * @return the value or null if it is not cached
+   */
+  public V getIfPresent(K key) {
+    checkKey(key);
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Passes every entry of the heap tier to the consumer. Entries added or
+   * removed concurrently may be skipped.
+   *
+   * @param consumer the entry consumer
+   */
+  public void forEach(BiConsumer<? super K, ? super V> consumer) {
+    cache.asMap().forEach(consumer);
+  }
+
+  /**
+   * Puts the value to the region. Null value removes the key.
+   *
+   * @param key   the key
+   * @param value the value
+   * @return the value
+   */
+  public V put(K key, V value) {
+    checkKey(key);
+    if (offHeapStore != null) {
+      offHeapStore.invalidate(key);
+    }
+    if (value != null) {
+      cache.put(key, value);
+    } else {
+      cache.invalidate(key);
+    }
+    return value;
+  }
+
+  /**
+   * Removes the key from all tiers.
+   *
+   * @param key the key
+   */
+  public void invalidate(K key) {
+    checkKey(key);
+    cache.invalidate(key);
+    if (offHeapStore != null) {
+      offHeapStore.invalidate(key);
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    cache.invalidateAll();
+    if (offHeapStore != null) {
+      offHeapStore.clear();
+    }
+  }
+
+  public CacheRegionConfig getConfig() {
+    return config;
+  }
+
+  @Override
+  public String getName() {
+    return config.getName();
+  }
+
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return cache.stats().hitRate();
+  }
+
+  @Override
+  public long getLoadCount() {
+    return cache.stats().loadCount();
+  }
+
+  @Override
+  public long getLoadExceptionCount() {
+    return cache.stats().loadExceptionCount();
+  }
+
+  @Override
+  public double getAverageLoadPenaltyMillis() {
+    CacheStats stats = cache.stats();
+    return stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+
+  @Override
+  public long getOffHeapHitCount() {
+    return offHeapHitCount.get();
+  }
+
+  @Override
+  public long getOffHeapEntryCount() {
+    return offHeapStore != null ? offHeapStore.getEntryCount() : 0;
+  }
+
+  @Override
+  public long getOffHeapUsedSize() {
+    return offHeapStore != null ? offHeapStore.getUsedSize() : 0;
+  }
+
+  @Override
+  public long getOffHeapEvictionCount() {
+    return offHeapStore != null ? offHeapStore.getEvictionCount() : 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V loadFromTiers(K key, Computable<K, V> worker) {
+    if (offHeapStore != null) {
+      V value = (V) offHeapStore.remove(key);
+      if (value != null) {
+        offHeapHitCount.incrementAndGet();
+        return value;
+      }
+    }
+    LOG.trace("[{}] Loading value of {}", config.getName(), key);
+    return worker.compute(key);
+  }
+
+  private static void checkKey(Object key) {
+    if (key == null) {
+      throw new InvalidParameterException("Cache key can't be null");
+    }
+  }
+
+  /**
+   * If the Throwable is an Error, throw it; if it is a RuntimeException
+   * return it, otherwise throw IllegalStateException.
+   *
+   * @param throwable the throwable
+   * @return the runtime exception
+   */
+  private static RuntimeException launderThrowable(Throwable throwable) {
+    if (throwable instanceof RuntimeException) {
+      return (RuntimeException) throwable;
+    } else if (throwable instanceof Error) {
+      throw (Error) throwable;
+    } else {
+      throw new IllegalStateException("Cache Operation Exception", throwable);
+    }
+  }
+}
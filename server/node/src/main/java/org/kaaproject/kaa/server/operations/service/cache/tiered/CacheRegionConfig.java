@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import com.typesafe.config.Config;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a single cache region.
+ */
+public final class CacheRegionConfig {
+
+  private static final String DEFAULT_REGION = "default";
+  private static final String REGIONS = "regions";
+
+  private static final String MAX_WEIGHT = "max_weight";
+  private static final String WEIGHER = "weigher";
+  private static final String EXPIRE_AFTER_ACCESS = "expire_after_access";
+  private static final String EXPIRE_AFTER_WRITE = "expire_after_write";
+  private static final String REFRESH_AFTER_WRITE = "refresh_after_write";
+  private static final String OFF_HEAP_MAX_SIZE = "off_heap_max_size";
+
+  private final String name;
+  private final long maxWeight;
+  private final CacheValueWeigher weigher;
+  private final long expireAfterAccess;
+  private final long expireAfterWrite;
+  private final long refreshAfterWrite;
+  private final long offHeapMaxSize;
+
+  /**
+   * All-args constructor.
+   *
+   * @param name              the region name
+   * @param maxWeight         the max total weight of heap entries
+   * @param weigher           the entry weigher
+   * @param expireAfterAccess the idle time in milliseconds, 0 means no limit
+   * @param expireAfterWrite  the time to live in milliseconds, 0 means no limit
+   * @param refreshAfterWrite the time in milliseconds after which accessed entry
+   *                          is reloaded in background, 0 disables refresh
+   * @param offHeapMaxSize    the max size of the off-heap tier in bytes,
+   *                          0 disables the tier
+   */
+  public CacheRegionConfig(String name, long maxWeight, CacheValueWeigher weigher,
+                           long expireAfterAccess, long expireAfterWrite,
+                           long refreshAfterWrite, long offHeapMaxSize) {
+    this.name = name;
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+    this.expireAfterAccess = expireAfterAccess;
+    this.expireAfterWrite = expireAfterWrite;
+    this.refreshAfterWrite = refreshAfterWrite;
+    this.offHeapMaxSize = offHeapMaxSize;
+  }
+
+  /**
+   * Reads settings of the region. Settings that are not defined for the region
+   * are taken from the default region.
+   *
+   * @param name   the region name
+   * @param config the cache configuration
+   * @return the region settings
+   */
+  public static CacheRegionConfig fromConfig(String name, Config config) {
+    Config regionConfig = config.getConfig(DEFAULT_REGION);
+    String path = REGIONS + "." + name;
+    if (config.hasPath(path)) {
+      regionConfig = config.getConfig(path).withFallback(regionConfig);
+    }
+    return new CacheRegionConfig(name,
+        regionConfig.getBytes(MAX_WEIGHT),
+        CacheValueWeigher.valueOf(regionConfig.getString(WEIGHER).toUpperCase(Locale.ENGLISH)),
+        regionConfig.getDuration(EXPIRE_AFTER_ACCESS, TimeUnit.MILLISECONDS),
+        regionConfig.getDuration(EXPIRE_AFTER_WRITE, TimeUnit.MILLISECONDS),
+        regionConfig.getDuration(REFRESH_AFTER_WRITE, TimeUnit.MILLISECONDS),
+        regionConfig.getBytes(OFF_HEAP_MAX_SIZE));
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public CacheValueWeigher getWeigher() {
+    return weigher;
+  }
+
+  public long getExpireAfterAccess() {
+    return expireAfterAccess;
+  }
+
+  public long getExpireAfterWrite() {
+    return expireAfterWrite;
+  }
+
+  public long getRefreshAfterWrite() {
+    return refreshAfterWrite;
+  }
+
+  public long getOffHeapMaxSize() {
+    return offHeapMaxSize;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheRegionConfig [name=" + name + ", maxWeight=" + maxWeight
+        + ", weigher=" + weigher + ", expireAfterAccess=" + expireAfterAccess
+        + ", expireAfterWrite=" + expireAfterWrite + ", refreshAfterWrite=" + refreshAfterWrite
+        + ", offHeapMaxSize=" + offHeapMaxSize + "]";
+  }
+}
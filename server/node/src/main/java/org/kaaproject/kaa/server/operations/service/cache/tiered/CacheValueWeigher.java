@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import org.kaaproject.kaa.common.dto.EndpointConfigurationDto;
+import org.kaaproject.kaa.server.common.core.configuration.KaaData;
+import org.kaaproject.kaa.server.common.core.structure.Pair;
+import org.kaaproject.kaa.server.operations.service.cache.ConfigurationCacheEntry;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Calculates weight of cache region entries.
+ */
+public enum CacheValueWeigher {
+
+  /**
+   * Every entry weighs 1, so the region is bounded by entry count.
+   */
+  ENTRIES {
+    @Override
+    public int weigh(Object value) {
+      return 1;
+    }
+  },
+
+  /**
+   * Entry weighs its estimated size in bytes, so the region is bounded by memory.
+   */
+  BYTES {
+    @Override
+    public int weigh(Object value) {
+      return (int) Math.min(Integer.MAX_VALUE, estimateSize(value));
+    }
+  };
+
+  private static final int OBJECT_SIZE = 64;
+  private static final int HASH_SIZE = 64;
+
+  /**
+   * Returns weight of the value.
+   *
+   * @param value the cached value
+   * @return the value weight
+   */
+  public abstract int weigh(Object value);
+
+  /**
+   * Returns rough estimation of the value size in bytes. Only values that are
+   * large enough to matter are inspected, other objects are counted as a
+   * constant.
+   *
+   * @param value the value
+   * @return estimated size in bytes
+   */
+  static long estimateSize(Object value) {
+    if (value == null) {
+      return 0;
+    } else if (value instanceof byte[]) {
+      return OBJECT_SIZE + ((byte[]) value).length;
+    } else if (value instanceof String) {
+      return OBJECT_SIZE + 2L * ((String) value).length();
+    } else if (value instanceof KaaData) {
+      return OBJECT_SIZE + estimateSize(((KaaData<?>) value).getRawData());
+    } else if (value instanceof Pair) {
+      Pair<?, ?> pair = (Pair<?, ?>) value;
+      return OBJECT_SIZE + estimateSize(pair.getV1()) + estimateSize(pair.getV2());
+    } else if (value instanceof ConfigurationCacheEntry) {
+      ConfigurationCacheEntry entry = (ConfigurationCacheEntry) value;
+      long size = OBJECT_SIZE + 3 * HASH_SIZE + estimateSize(entry.getConfiguration());
+      if (entry.getDelta() != null) {
+        try {
+          size += estimateSize(entry.getDelta().getData());
+        } catch (IOException ex) {
+          size += OBJECT_SIZE;
+        }
+      }
+      return size;
+    } else if (value instanceof EndpointConfigurationDto) {
+      EndpointConfigurationDto configuration = (EndpointConfigurationDto) value;
+      return OBJECT_SIZE + HASH_SIZE + estimateSize(configuration.getConfiguration());
+    } else if (value instanceof Collection) {
+      long size = OBJECT_SIZE;
+      for (Object element : (Collection<?>) value) {
+        size += estimateSize(element);
+      }
+      return size;
+    } else {
+      return OBJECT_SIZE;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Second tier of a cache region. Keeps serialized values in direct buffers
+ * outside of the java heap and evicts least recently used values once the
+ * size limit is reached.
+ *
+ * @param <K> the key type
+ */
+final class OffHeapStore<K> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(OffHeapStore.class);
+
+  private final String name;
+  private final long maxSize;
+  private final LinkedHashMap<K, ByteBuffer> buffers = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long usedSize;
+  private long evictionCount;
+
+  OffHeapStore(String name, long maxSize) {
+    this.name = name;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Moves the value to the store. Values that are not serializable or don't
+   * fit into the store are dropped.
+   *
+   * @param key   the key
+   * @param value the value
+   */
+  void put(K key, Object value) {
+    if (!(value instanceof Serializable)) {
+      return;
+    }
+    byte[] data;
+    try {
+      data = serialize(value);
+    } catch (IOException ex) {
+      LOG.warn("[{}] Failed to serialize value of {}", name, value.getClass(), ex);
+      return;
+    }
+    if (data.length > maxSize) {
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+    buffer.put(data);
+    buffer.flip();
+    synchronized (this) {
+      release(buffers.put(key, buffer));
+      usedSize += data.length;
+      Iterator<Map.Entry<K, ByteBuffer>> it = buffers.entrySet().iterator();
+      while (usedSize > maxSize && it.hasNext()) {
+        release(it.next().getValue());
+        it.remove();
+        evictionCount++;
+      }
+    }
+  }
+
+  /**
+   * Removes the value from the store.
+   *
+   * @param key the key
+   * @return the deserialized value or null if the value is not present
+   */
+  Object remove(K key) {
+    ByteBuffer buffer;
+    synchronized (this) {
+      buffer = buffers.remove(key);
+      release(buffer);
+    }
+    if (buffer == null) {
+      return null;
+    }
+    byte[] data = new byte[buffer.remaining()];
+    buffer.get(data);
+    try {
+      return deserialize(data);
+    } catch (IOException | ClassNotFoundException ex) {
+      LOG.warn("[{}] Failed to deserialize value of {}", name, key, ex);
+      return null;
+    }
+  }
+
+  synchronized void invalidate(K key) {
+    release(buffers.remove(key));
+  }
+
+  synchronized void clear() {
+    buffers.clear();
+    usedSize = 0;
+  }
+
+  synchronized int getEntryCount() {
+    return buffers.size();
+  }
+
+  synchronized long getUsedSize() {
+    return usedSize;
+  }
+
+  synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  private void release(ByteBuffer buffer) {
+    if (buffer != null) {
+      usedSize -= buffer.capacity();
+    }
+  }
+
+  private static byte[] serialize(Object value) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(value);
+    }
+    return baos.toByteArray();
+  }
+
+  private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data))) {
+      return ois.readObject();
+    }
+  }
+}
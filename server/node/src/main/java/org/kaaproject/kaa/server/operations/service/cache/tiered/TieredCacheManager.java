@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import org.kaaproject.kaa.server.operations.service.cache.Computable;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Creates cache regions configured in {@value #CACHE_CONF_FILE_NAME} and
+ * publishes their statistics through {@link MetricsService} and JMX.
+ */
+@Component
+public class TieredCacheManager {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TieredCacheManager.class);
+
+  private static final String CACHE_CONF_FILE_NAME = "operations-cache.conf";
+
+  private static final String REFRESH_THREAD_COUNT = "refresh_thread_count";
+
+  private static final String REFRESH_THREAD_NAME_PREFIX = "cache-refresh-";
+
+  private static final String METRICS_PREFIX = "cacheRegion";
+
+  private static final String MBEAN_NAME_PATTERN =
+      "org.kaaproject.kaa.server.operations.cache:type=CacheRegion,name=%s";
+
+  private final Config config;
+
+  private final ExecutorService refreshExecutor;
+
+  private final List<ObjectName> registeredBeans = new CopyOnWriteArrayList<>();
+
+  @Autowired(required = false)
+  private MetricsService metricsService;
+
+  public TieredCacheManager() {
+    this(ConfigFactory.parseResources(CACHE_CONF_FILE_NAME).resolve());
+  }
+
+  /**
+   * Creates the manager with the given cache configuration.
+   *
+   * @param config the cache configuration
+   */
+  public TieredCacheManager(Config config) {
+    this.config = config;
+    final AtomicInteger threadNumber = new AtomicInteger();
+    this.refreshExecutor = Executors.newFixedThreadPool(config.getInt(REFRESH_THREAD_COUNT),
+        runnable -> {
+          Thread thread = new Thread(runnable,
+              REFRESH_THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Creates a region without loader. Values of the region are loaded with
+   * {@link CacheRegion#get(Object, Computable)}.
+   *
+   * @param name the region name
+   * @param <K>  the key type
+   * @param <V>  the value type
+   * @return the region
+   */
+  public <K, V> CacheRegion<K, V> createRegion(String name) {
+    return createRegion(name, null);
+  }
+
+  /**
+   * Creates a region with loader. If refresh is enabled for the region, hot
+   * entries are reloaded with the loader in background.
+   *
+   * @param name   the region name
+   * @param loader the value loader
+   * @param <K>    the key type
+   * @param <V>    the value type
+   * @return the region
+   */
+  public <K, V> CacheRegion<K, V> createRegion(String name, Computable<K, V> loader) {
+    CacheRegionConfig regionConfig = CacheRegionConfig.fromConfig(name, config);
+    LOG.debug("Creating cache region {}", regionConfig);
+    CacheRegion<K, V> region = new CacheRegion<>(regionConfig, loader, refreshExecutor);
+    registerMetrics(region);
+    registerBean(region);
+    return region;
+  }
+
+  public Config getConfig() {
+    return config;
+  }
+
+  /**
+   * Unregisters regions from JMX and stops background reloads.
+   */
+  @PreDestroy
+  public void shutdown() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : registeredBeans) {
+      try {
+        if (server.isRegistered(name)) {
+          server.unregisterMBean(name);
+        }
+      } catch (JMException ex) {
+        LOG.warn("Failed to unregister cache region {}", name, ex);
+      }
+    }
+    registeredBeans.clear();
+    refreshExecutor.shutdownNow();
+  }
+
+  private void registerMetrics(CacheRegion<?, ?> region) {
+    if (metricsService == null) {
+      return;
+    }
+    String name = region.getName();
+    metricsService.registerGauge(region::getSize, METRICS_PREFIX, name, "size");
+    metricsService.registerGauge(region::getHitCount, METRICS_PREFIX, name, "hits");
+    metricsService.registerGauge(region::getMissCount, METRICS_PREFIX, name, "misses");
+    metricsService.registerGauge(region::getLoadCount, METRICS_PREFIX, name, "loads");
+    metricsService.registerGauge(region::getAverageLoadPenaltyMillis,
+        METRICS_PREFIX, name, "loadTime.ms");
+    metricsService.registerGauge(region::getEvictionCount, METRICS_PREFIX, name, "evictions");
+    if (region.getConfig().getOffHeapMaxSize() > 0) {
+      metricsService.registerGauge(region::getOffHeapHitCount,
+          METRICS_PREFIX, name, "offHeapHits");
+      metricsService.registerGauge(region::getOffHeapUsedSize,
+          METRICS_PREFIX, name, "offHeapSize");
+    }
+  }
+
+  private void registerBean(CacheRegion<?, ?> region) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName name = new ObjectName(String.format(MBEAN_NAME_PATTERN,
+          ObjectName.quote(region.getName())));
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(region, name);
+      registeredBeans.add(name);
+    } catch (JMException ex) {
+      LOG.warn("Failed to register cache region {} in JMX", region.getName(), ex);
+    }
+  }
+}
@@ -43,6 +43,7 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.Ent
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.RouteOperation;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.ThriftEndpointActorMsg;
 import org.kaaproject.kaa.server.operations.service.config.OperationsServerConfig;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.kaaproject.kaa.server.resolve.OperationsServerResolver;
 import org.kaaproject.kaa.server.thrift.NeighborConnection;
 import org.kaaproject.kaa.server.thrift.NeighborTemplate;
@@ -66,9 +67,14 @@ public class DefaultClusterService implements ClusterService {
    */
   private static final Logger LOG = LoggerFactory.getLogger(DefaultClusterService.class);
 
+  private static final String NEIGHBORS_METRICS_PREFIX = "neighbors";
+
   @Autowired
   private OperationsServerConfig operationsServerConfig;
 
+  @Autowired(required = false)
+  private MetricsService metricsService;
+
   /**
    * ID is thriftHost:thriftPort.
    */
@@ -93,7 +99,22 @@ public class DefaultClusterService implements ClusterService {
   public void initBean() {
     LOG.info("Init default cluster service.");
     neighbors = new Neighbors<>(KaaThriftService.OPERATIONS_SERVICE, new MessageTemplate(),
-            operationsServerConfig.getMaxNumberNeighborConnections());
+            operationsServerConfig.getNeighborConnectionConfig());
+    registerNeighborMetrics();
+  }
+
+  /**
+   * Registers the queue size and dropped message count gauges of the
+   * neighbor connections.
+   */
+  private void registerNeighborMetrics() {
+    if (metricsService != null) {
+      Neighbors<?, ?> registered = neighbors;
+      metricsService.registerGauge(registered::getQueueSize,
+          NEIGHBORS_METRICS_PREFIX, "cluster", "queued");
+      metricsService.registerGauge(registered::getDroppedMessageCount,
+          NEIGHBORS_METRICS_PREFIX, "cluster", "dropped");
+    }
   }
 
   /**
@@ -331,11 +352,9 @@ public class DefaultClusterService implements ClusterService {
   private void sendMessagesToServer(
           NeighborConnection<MessageTemplate, OperationsServiceMsg> server,
           Collection<OperationsServiceMsg> messages) {
-    try {
-      LOG.trace("Sending to server {} messages: {}", server.getId(), messages);
-      server.sendMessages(messages);
-    } catch (InterruptedException ex) {
-      LOG.error("Error sending events to server: ", ex);
+    LOG.trace("Sending to server {} messages: {}", server.getId(), messages);
+    if (!server.sendMessages(messages)) {
+      LOG.error("Error sending events to server {}: queue is full", server.getId());
     }
   }
 
@@ -16,6 +16,8 @@
 
 package org.kaaproject.kaa.server.operations.service.config;
 
+import org.kaaproject.kaa.server.thrift.NeighborConnectionConfig;
+
 /**
  * The Class OperationsServerConfig.
  */
@@ -28,6 +30,12 @@ public class OperationsServerConfig {
 
   private int maxNumberNeighborConnections = DEFAULT_MAX_NEIGHBOR_CONNECTIONS;
 
+  private int neighborMessageQueueLength = NeighborConnectionConfig.DEFAULT_MESSAGE_QUEUE_LENGTH;
+
+  private int neighborMaxBatchSize = NeighborConnectionConfig.DEFAULT_MAX_BATCH_SIZE;
+
+  private long neighborMaxBatchDelay = NeighborConnectionConfig.DEFAULT_MAX_BATCH_DELAY;
+
   public int getUserHashPartitions() {
     return userHashPartitions;
   }
@@ -43,4 +51,41 @@ public class OperationsServerConfig {
   public void setMaxNumberNeighborConnections(int maxNumberNeighborConnections) {
     this.maxNumberNeighborConnections = maxNumberNeighborConnections;
   }
+
+  public int getNeighborMessageQueueLength() {
+    return neighborMessageQueueLength;
+  }
+
+  public void setNeighborMessageQueueLength(int neighborMessageQueueLength) {
+    this.neighborMessageQueueLength = neighborMessageQueueLength;
+  }
+
+  public int getNeighborMaxBatchSize() {
+    return neighborMaxBatchSize;
+  }
+
+  public void setNeighborMaxBatchSize(int neighborMaxBatchSize) {
+    this.neighborMaxBatchSize = neighborMaxBatchSize;
+  }
+
+  public long getNeighborMaxBatchDelay() {
+    return neighborMaxBatchDelay;
+  }
+
+  public void setNeighborMaxBatchDelay(long neighborMaxBatchDelay) {
+    this.neighborMaxBatchDelay = neighborMaxBatchDelay;
+  }
+
+  /**
+   * Creates settings of connections to neighbor operations servers.
+   *
+   * @return the neighbor connection settings
+   */
+  public NeighborConnectionConfig getNeighborConnectionConfig() {
+    NeighborConnectionConfig config = new NeighborConnectionConfig(maxNumberNeighborConnections);
+    config.setMessageQueueLength(neighborMessageQueueLength);
+    config.setMaxBatchSize(neighborMaxBatchSize);
+    config.setMaxBatchDelay(neighborMaxBatchDelay);
+    return config;
+  }
 }
@@ -36,6 +36,7 @@ import org.kaaproject.kaa.server.common.zk.operations.OperationsNodeListener;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.route.RouteOperation;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.EndpointUserConfigurationUpdate;
 import org.kaaproject.kaa.server.operations.service.config.OperationsServerConfig;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.kaaproject.kaa.server.resolve.OperationsServerResolver;
 import org.kaaproject.kaa.server.sync.platform.AvroEncDec;
 import org.kaaproject.kaa.server.thrift.NeighborConnection;
@@ -79,6 +80,8 @@ public class DefaultEventService implements EventService {
    */
   private static final Logger LOG = LoggerFactory.getLogger(DefaultEventService.class);
 
+  private static final String NEIGHBORS_METRICS_PREFIX = "neighbors";
+
   private static final AtomicLong eventSequence = new AtomicLong(
       UUID.randomUUID().getLeastSignificantBits()); //NOSONAR
   /**
@@ -97,6 +100,9 @@ public class DefaultEventService implements EventService {
 
   @Autowired
   private OperationsServerConfig operationsServerConfig;
+
+  @Autowired(required = false)
+  private MetricsService metricsService;
   /**
    * ID is thriftHost:thriftPort.
    */
@@ -185,7 +191,22 @@ public class DefaultEventService implements EventService {
     LOG.info("Init default event service.");
     listeners = Collections.newSetFromMap(new ConcurrentHashMap<EventServiceListener, Boolean>());
     neighbors = new Neighbors<>(KaaThriftService.OPERATIONS_SERVICE, new MessageTemplate(this),
-        operationsServerConfig.getMaxNumberNeighborConnections());
+        operationsServerConfig.getNeighborConnectionConfig());
+    registerNeighborMetrics();
+  }
+
+  /**
+   * Registers the queue size and dropped message count gauges of the
+   * neighbor connections.
+   */
+  private void registerNeighborMetrics() {
+    if (metricsService != null) {
+      Neighbors<?, ?> registered = neighbors;
+      metricsService.registerGauge(registered::getQueueSize,
+          NEIGHBORS_METRICS_PREFIX, "events", "queued");
+      metricsService.registerGauge(registered::getDroppedMessageCount,
+          NEIGHBORS_METRICS_PREFIX, "events", "dropped");
+    }
   }
 
   /**
@@ -237,12 +258,12 @@ public class DefaultEventService implements EventService {
           remoteEndpointEvent.getTenantId(),
           endpointEvent,
           routeAddress);
-      server.sendMessages(packMessage(event));
+      if (!server.sendMessages(packMessage(event))) {
+        LOG.error("Error sending events to server {}: queue is full", serverId);
+        notifyListenersOnServerProblem(serverId);
+      }
     } catch (IOException ex) {
       LOG.error("Error on converting Event to byte array: skiping this event message", ex);
-    } catch (InterruptedException ex) {
-      LOG.error("Error sending events to server: ", ex);
-      notifyListenersOnServerProblem(serverId);
     }
   }
 
@@ -576,11 +597,9 @@ public class DefaultEventService implements EventService {
 
   private void sendMessagesToServer(NeighborConnection<MessageTemplate, Message> server,
                                     List<Message> messages) {
-    try {
-      LOG.trace("Sending to server {} messages: {}", server.getId(), messages);
-      server.sendMessages(messages);
-    } catch (InterruptedException ex) {
-      LOG.error("Error sending events to server: ", ex);
+    LOG.trace("Sending to server {} messages: {}", server.getId(), messages);
+    if (!server.sendMessages(messages)) {
+      LOG.error("Error sending events to server {}: queue is full", server.getId());
       notifyListenersOnServerProblem(server.getId());
     }
   }
@@ -19,21 +19,30 @@ package org.kaaproject.kaa.server.operations.service.event;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 import org.kaaproject.kaa.server.common.Base64Util;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
+/**
+ * Event routes of a user. Besides the routes themselves, the table maintains
+ * reverse indexes from addresses, servers and endpoints to the routes, so
+ * removal of a server or an endpoint is proportional to the number of the
+ * affected routes and not to the size of the table.
+ */
 public class RouteTable {
 
   private final Map<RouteTableKey, Map<String, RouteTableAddress>> routes;
   private final Map<RouteTableAddress, Set<String>> reportedAddressMap;
   private final Set<String> remoteServersSet;
   private final Map<RouteTableAddress, Set<RouteTableKey>> localAddressMap;
+  private final Map<RouteTableAddress, Set<RouteTableKey>> addressRouteKeys;
+  private final Map<String, Set<RouteTableAddress>> serverAddresses;
+  private final Map<EndpointObjectHash, Set<RouteTableAddress>> endpointAddresses;
+  private final Map<String, Set<RouteTableAddress>> serverReportedAddresses;
 
   /**
    * Instantiates new route table.
@@ -44,6 +53,10 @@ public class RouteTable {
     reportedAddressMap = new HashMap<>();
     remoteServersSet = new HashSet<>();
     localAddressMap = new HashMap<>();
+    addressRouteKeys = new HashMap<>();
+    serverAddresses = new HashMap<>();
+    endpointAddresses = new HashMap<>();
+    serverReportedAddresses = new HashMap<>();
   }
 
   /**
@@ -58,17 +71,19 @@ public class RouteTable {
       directionRoutes = new HashMap<>();
       routes.put(key, directionRoutes);
     }
-    directionRoutes.put(Base64Util.encode(address.getEndpointKey().getData()), address);
+    RouteTableAddress replaced = directionRoutes.put(
+        Base64Util.encode(address.getEndpointKey().getData()), address);
+    if (replaced != null && !replaced.equals(address)) {
+      removeRouteKey(replaced, key);
+    }
+    addToIndex(addressRouteKeys, address, key);
+    addToIndex(endpointAddresses, address.getEndpointKey(), address);
 
     if (address.isLocal()) {
-      Set<RouteTableKey> routeKeys = localAddressMap.get(address);
-      if (routeKeys == null) {
-        routeKeys = new HashSet<>();
-        localAddressMap.put(address, routeKeys);
-      }
-      routeKeys.add(key);
+      addToIndex(localAddressMap, address, key);
     } else {
       remoteServersSet.add(address.getServerId());
+      addToIndex(serverAddresses, address.getServerId(), address);
     }
   }
 
@@ -156,12 +171,8 @@ public class RouteTable {
    */
   public void registerRouteInfoReport(Set<RouteTableAddress> localAddresses, String serverId) {
     for (RouteTableAddress address : localAddresses) {
-      Set<String> serverIds = reportedAddressMap.get(address);
-      if (serverIds == null) {
-        serverIds = new HashSet<>();
-        reportedAddressMap.put(address, serverIds);
-      }
-      serverIds.add(serverId);
+      addToIndex(reportedAddressMap, address, serverId);
+      addToIndex(serverReportedAddresses, serverId, address);
     }
   }
 
@@ -193,7 +204,12 @@ public class RouteTable {
       }
     }
     if (addressToRemove != null) {
-      reportedAddressMap.remove(addressToRemove);
+      Set<String> reportedServers = reportedAddressMap.remove(addressToRemove);
+      if (reportedServers != null) {
+        for (String serverId : reportedServers) {
+          removeFromIndex(serverReportedAddresses, serverId, addressToRemove);
+        }
+      }
       localAddressMap.remove(addressToRemove);
     }
 
@@ -201,21 +217,10 @@ public class RouteTable {
   }
 
   private void clearRoutes(String serverId) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (serverId.equals(innerEntry.getValue().getServerId())) {
-          innerIterator.remove();
-        }
-      }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
+    Set<RouteTableAddress> addresses = serverAddresses.get(serverId);
+    if (addresses != null) {
+      for (RouteTableAddress address : new ArrayList<>(addresses)) {
+        removeByAddress(address);
       }
     }
   }
@@ -226,34 +231,19 @@ public class RouteTable {
    * @param endpoint endpoint object hash
    */
   private void clearRoutes(EndpointObjectHash endpoint) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (endpoint.equals(innerEntry.getValue().getEndpointKey())) {
-          innerIterator.remove();
-        }
-      }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
+    Set<RouteTableAddress> addresses = endpointAddresses.get(endpoint);
+    if (addresses != null) {
+      for (RouteTableAddress address : new ArrayList<>(addresses)) {
+        removeByAddress(address);
       }
     }
   }
 
   private void clearReportedAddressMap(String serverId) {
-    Set<Entry<RouteTableAddress, Set<String>>> entrySet = reportedAddressMap.entrySet();
-    Iterator<Entry<RouteTableAddress, Set<String>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableAddress, Set<String>> entry = iterator.next();
-      Set<String> servers = entry.getValue();
-      servers.remove(serverId);
-      if (servers.isEmpty()) {
-        iterator.remove();
+    Set<RouteTableAddress> addresses = serverReportedAddresses.remove(serverId);
+    if (addresses != null) {
+      for (RouteTableAddress address : addresses) {
+        removeFromIndex(reportedAddressMap, address, serverId);
       }
     }
   }
@@ -264,23 +254,63 @@ public class RouteTable {
    * @param address address
    */
   public void removeByAddress(RouteTableAddress address) {
-    Set<Entry<RouteTableKey, Map<String, RouteTableAddress>>> entrySet = routes.entrySet();
-    Iterator<Entry<RouteTableKey, Map<String, RouteTableAddress>>> iterator = entrySet.iterator();
-    while (iterator.hasNext()) {
-      Entry<RouteTableKey, Map<String, RouteTableAddress>> entry = iterator.next();
-      Map<String, RouteTableAddress> addressMap = entry.getValue();
-      Set<Entry<String, RouteTableAddress>> innerEntrySet = addressMap.entrySet();
-      Iterator<Entry<String, RouteTableAddress>> innerIterator = innerEntrySet.iterator();
-      while (innerIterator.hasNext()) {
-        Entry<String, RouteTableAddress> innerEntry = innerIterator.next();
-        if (address.equals(innerEntry.getValue())) {
-          innerIterator.remove();
+    Set<RouteTableKey> keys = addressRouteKeys.get(address);
+    if (keys == null) {
+      return;
+    }
+    for (RouteTableKey key : new ArrayList<>(keys)) {
+      Map<String, RouteTableAddress> directionRoutes = routes.get(key);
+      if (directionRoutes != null) {
+        String endpointKey = Base64Util.encode(address.getEndpointKey().getData());
+        if (address.equals(directionRoutes.get(endpointKey))) {
+          directionRoutes.remove(endpointKey);
+          if (directionRoutes.isEmpty()) {
+            routes.remove(key);
+          }
         }
       }
-      if (addressMap.isEmpty()) {
-        iterator.remove();
+      removeRouteKey(address, key);
+    }
+  }
+
+  /**
+   * Removes the route key from the indexes of the address, the address is
+   * dropped from the server and endpoint indexes once it has no routes left.
+   */
+  private void removeRouteKey(RouteTableAddress address, RouteTableKey key) {
+    if (removeFromIndex(addressRouteKeys, address, key)) {
+      removeFromIndex(endpointAddresses, address.getEndpointKey(), address);
+      if (!address.isLocal()) {
+        removeFromIndex(serverAddresses, address.getServerId(), address);
       }
     }
   }
 
+  private static <K, V> void addToIndex(Map<K, Set<V>> index, K key, V value) {
+    Set<V> values = index.get(key);
+    if (values == null) {
+      values = new HashSet<>();
+      index.put(key, values);
+    }
+    values.add(value);
+  }
+
+  /**
+   * Removes the value from the index.
+   *
+   * @return true if no values are left for the key
+   */
+  private static <K, V> boolean removeFromIndex(Map<K, Set<V>> index, K key, V value) {
+    Set<V> values = index.get(key);
+    if (values == null) {
+      return true;
+    }
+    values.remove(value);
+    if (values.isEmpty()) {
+      index.remove(key);
+      return true;
+    }
+    return false;
+  }
+
 }
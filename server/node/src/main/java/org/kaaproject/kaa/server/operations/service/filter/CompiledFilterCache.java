@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.filter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.apache.avro.Schema;
+import org.kaaproject.kaa.common.dto.ProfileFilterDto;
+import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.kaaproject.kaa.server.operations.service.metrics.TimerClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Holds pre-parsed profile filter expressions and parsed profile schemas, so
+ * that endpoint re-synchronization does not parse the same filter body and
+ * schema over and over again.
+ *
+ * <p>Filters are keyed by id and validated against the filter version and body,
+ * so a modified filter is re-parsed on the next lookup even if the change
+ * notification was missed. Schemas are keyed by their body. Both caches are
+ * bounded, the least recently used entries are evicted first.
+ */
+@Component
+public class CompiledFilterCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CompiledFilterCache.class);
+
+  private static final long MAX_FILTERS = 10000;
+  private static final long MAX_SCHEMAS = 1000;
+
+  /**
+   * Expressions are interpreted first and compiled to bytecode once they become
+   * hot. Expressions that can't be compiled (e.g. access to avro record fields)
+   * silently stay in the interpreted mode.
+   */
+  private static final SpelParserConfiguration PARSER_CONFIGURATION = new SpelParserConfiguration(
+      SpelCompilerMode.MIXED, CompiledFilterCache.class.getClassLoader());
+
+  private final SpelExpressionParser parser = new SpelExpressionParser(PARSER_CONFIGURATION);
+
+  private final Cache<String, CompiledFilter> filters;
+  private final Cache<String, Schema> schemas;
+
+  private final AtomicLong filterHits = new AtomicLong();
+  private final AtomicLong filterMisses = new AtomicLong();
+  private final AtomicLong schemaHits = new AtomicLong();
+  private final AtomicLong schemaMisses = new AtomicLong();
+  private final AtomicLong evaluationCount = new AtomicLong();
+  private final AtomicLong evaluationTimeNanos = new AtomicLong();
+
+  @Autowired(required = false)
+  private MetricsService metricsService;
+
+  private MeterClient filterHitMeter;
+  private MeterClient filterMissMeter;
+  private MeterClient schemaHitMeter;
+  private MeterClient schemaMissMeter;
+  private TimerClient evaluationTimer;
+
+  public CompiledFilterCache() {
+    this(MAX_FILTERS, MAX_SCHEMAS);
+  }
+
+  CompiledFilterCache(long maxFilters, long maxSchemas) {
+    this.filters = CacheBuilder.newBuilder().maximumSize(maxFilters).build();
+    this.schemas = CacheBuilder.newBuilder().maximumSize(maxSchemas).build();
+  }
+
+  /**
+   * Registers cache metrics.
+   */
+  @PostConstruct
+  public void initMetrics() {
+    if (metricsService != null) {
+      filterHitMeter = metricsService.createMeter("filterCacheHitMeter");
+      filterMissMeter = metricsService.createMeter("filterCacheMissMeter");
+      schemaHitMeter = metricsService.createMeter("filterSchemaCacheHitMeter");
+      schemaMissMeter = metricsService.createMeter("filterSchemaCacheMissMeter");
+      evaluationTimer = metricsService.createTimer("filterEvaluationTimer");
+    }
+  }
+
+  /**
+   * Returns pre-parsed expression for the given filter. The filter body is
+   * parsed only if it is not cached yet or the cached one is outdated.
+   *
+   * @param filter the profile filter
+   * @return the parsed filter expression
+   */
+  public Expression getExpression(ProfileFilterDto filter) {
+    if (filter.getId() == null) {
+      return parser.parseExpression(filter.getBody());
+    }
+    CompiledFilter compiled = filters.getIfPresent(filter.getId());
+    if (compiled != null && compiled.isActual(filter)) {
+      filterHits.incrementAndGet();
+      mark(filterHitMeter);
+      return compiled.expression;
+    }
+    filterMisses.incrementAndGet();
+    mark(filterMissMeter);
+    LOG.trace("Parsing profile filter [{}]: {}", filter.getId(), filter.getBody());
+    compiled = new CompiledFilter(filter.getVersion(), filter.getBody(),
+        parser.parseExpression(filter.getBody()));
+    filters.put(filter.getId(), compiled);
+    return compiled.expression;
+  }
+
+  /**
+   * Returns parsed schema for the given schema body.
+   *
+   * @param schemaBody the schema body
+   * @return the parsed schema
+   */
+  public Schema getSchema(String schemaBody) {
+    Schema schema = schemas.getIfPresent(schemaBody);
+    if (schema != null) {
+      schemaHits.incrementAndGet();
+      mark(schemaHitMeter);
+      return schema;
+    }
+    schemaMisses.incrementAndGet();
+    mark(schemaMissMeter);
+    schema = new Schema.Parser().parse(schemaBody);
+    Schema previous = schemas.asMap().putIfAbsent(schemaBody, schema);
+    return previous != null ? previous : schema;
+  }
+
+  /**
+   * Records single filter evaluation.
+   *
+   * @param nanos the evaluation time in nanoseconds
+   */
+  public void onEvaluation(long nanos) {
+    evaluationCount.incrementAndGet();
+    evaluationTimeNanos.addAndGet(nanos);
+    if (evaluationTimer != null) {
+      evaluationTimer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Removes filter from the cache.
+   *
+   * @param filterId the filter id
+   */
+  public void resetFilter(String filterId) {
+    LOG.debug("Reseting compiled filter [{}]", filterId);
+    filters.invalidate(filterId);
+  }
+
+  public long getFilterHits() {
+    return filterHits.get();
+  }
+
+  public long getFilterMisses() {
+    return filterMisses.get();
+  }
+
+  public long getSchemaHits() {
+    return schemaHits.get();
+  }
+
+  public long getSchemaMisses() {
+    return schemaMisses.get();
+  }
+
+  public long getEvaluationCount() {
+    return evaluationCount.get();
+  }
+
+  public long getEvaluationTimeNanos() {
+    return evaluationTimeNanos.get();
+  }
+
+  private static void mark(MeterClient meter) {
+    if (meter != null) {
+      meter.mark();
+    }
+  }
+
+  private static final class CompiledFilter {
+    private final Long version;
+    private final String body;
+    private final Expression expression;
+
+    private CompiledFilter(Long version, String body, Expression expression) {
+      this.version = version;
+      this.body = body;
+      this.expression = expression;
+    }
+
+    private boolean isActual(ProfileFilterDto filter) {
+      return Objects.equals(version, filter.getVersion()) && Objects.equals(body, filter.getBody());
+    }
+  }
+}
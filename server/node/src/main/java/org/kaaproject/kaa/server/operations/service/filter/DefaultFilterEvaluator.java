@@ -16,9 +16,9 @@
 
 package org.kaaproject.kaa.server.operations.service.filter;
 
-import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericRecord;
-import org.kaaproject.kaa.common.avro.GenericAvroConverter;
+import org.kaaproject.kaa.common.avro.AvroCodec;
+import org.kaaproject.kaa.common.avro.AvroCodecRegistry;
 import org.kaaproject.kaa.common.dto.EndpointProfileDto;
 import org.kaaproject.kaa.common.dto.ProfileFilterDto;
 import org.kaaproject.kaa.server.common.Base64Util;
@@ -26,10 +26,11 @@ import org.kaaproject.kaa.server.operations.service.filter.el.GenericRecordPrope
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.Expression;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * The Class DefaultFilter.
@@ -45,25 +46,50 @@ public class DefaultFilterEvaluator implements FilterEvaluator {
    */
   private static final Logger LOG = LoggerFactory.getLogger(DefaultFilterEvaluator.class);
 
+  private static final PropertyAccessor GENERIC_RECORD_PROPERTY_ACCESSOR =
+      new GenericRecordPropertyAccessor();
+
+  private static final int CLIENT_PROFILE_CONTEXT_FLAG = 1;
+  private static final int SERVER_PROFILE_CONTEXT_FLAG = 2;
+
+  private final CompiledFilterCache filterCache;
+
   private String epKey;
   private GenericRecord serverProfileGenericRecord;
   private GenericRecord clientProfileGenericRecord;
 
+  /**
+   * Evaluation contexts indexed by combination of client and server profile flags.
+   */
+  private final StandardEvaluationContext[] evaluationContexts = new StandardEvaluationContext[4];
+
   /**
    * Instantiates a new default filter.
    */
   public DefaultFilterEvaluator() {
+    this(new CompiledFilterCache());
+  }
+
+  /**
+   * Instantiates a new default filter that shares parsed filters and schemas
+   * using the given cache.
+   *
+   * @param filterCache the compiled filter cache
+   */
+  public DefaultFilterEvaluator(CompiledFilterCache filterCache) {
     super();
+    this.filterCache = filterCache;
   }
 
   @Override
   public void init(EndpointProfileDto profile,
                    String profileSchemaBody,
                    String serverProfileSchemaBody) {
-    GenericAvroConverter<GenericRecord> endpointProfileConverter = new GenericAvroConverter<>(
-        new Schema.Parser().parse(profileSchemaBody));
-    GenericAvroConverter<GenericRecord> serverProfileConverter = new GenericAvroConverter<>(
-        new Schema.Parser().parse(serverProfileSchemaBody));
+    Arrays.fill(evaluationContexts, null);
+    AvroCodec<GenericRecord> endpointProfileConverter = AvroCodecRegistry.getCodec(
+        filterCache.getSchema(profileSchemaBody));
+    AvroCodec<GenericRecord> serverProfileConverter = AvroCodecRegistry.getCodec(
+        filterCache.getSchema(serverProfileSchemaBody));
     this.epKey = Base64Util.encode(profile.getEndpointKeyHash());
     try {
       if (profile.getServerProfileBody() != null) {
@@ -88,21 +114,42 @@ public class DefaultFilterEvaluator implements FilterEvaluator {
    */
   @Override
   public boolean matches(ProfileFilterDto filter) {
-    final Expression expression = new SpelExpressionParser().parseExpression(filter.getBody());
-    StandardEvaluationContext evaluationContext;
+    final Expression expression = filterCache.getExpression(filter);
+    int contextIndex = 0;
     if (filter.getEndpointProfileSchemaVersion() != null) {
+      contextIndex |= CLIENT_PROFILE_CONTEXT_FLAG;
+    }
+    if (filter.getServerProfileSchemaVersion() != null) {
+      contextIndex |= SERVER_PROFILE_CONTEXT_FLAG;
+    }
+    StandardEvaluationContext evaluationContext = evaluationContexts[contextIndex];
+    if (evaluationContext == null) {
+      evaluationContext = createEvaluationContext(contextIndex);
+      evaluationContexts[contextIndex] = evaluationContext;
+    }
+
+    long start = System.nanoTime();
+    try {
+      return expression.getValue(evaluationContext, Boolean.class);
+    } finally {
+      filterCache.onEvaluation(System.nanoTime() - start);
+    }
+  }
+
+  private StandardEvaluationContext createEvaluationContext(int contextIndex) {
+    StandardEvaluationContext evaluationContext;
+    if ((contextIndex & CLIENT_PROFILE_CONTEXT_FLAG) != 0) {
       evaluationContext = new StandardEvaluationContext(clientProfileGenericRecord);
       evaluationContext.setVariable(CLIENT_PROFILE_VARIABLE_NAME, clientProfileGenericRecord);
     } else {
       evaluationContext = new StandardEvaluationContext();
     }
-    evaluationContext.addPropertyAccessor(new GenericRecordPropertyAccessor());
+    evaluationContext.addPropertyAccessor(GENERIC_RECORD_PROPERTY_ACCESSOR);
     evaluationContext.setVariable(EP_KEYHASH_VARIABLE_NAME, epKey);
-    if (filter.getServerProfileSchemaVersion() != null) {
+    if ((contextIndex & SERVER_PROFILE_CONTEXT_FLAG) != 0) {
       evaluationContext.setVariable(SERVER_PROFILE_VARIABLE_NAME, serverProfileGenericRecord);
     }
-
-    return expression.getValue(evaluationContext, Boolean.class);
+    return evaluationContext;
   }
 
 }
@@ -51,6 +51,12 @@ public class DefaultFilterService implements FilterService {
   @Autowired
   private CacheService cacheService;
 
+  /**
+   * The compiled filter cache.
+   */
+  @Autowired
+  private CompiledFilterCache filterCache;
+
   /**
    * Instantiates a new default filter service.
    */
@@ -78,7 +84,7 @@ public class DefaultFilterService implements FilterService {
     FilterEvaluator filterEvaluator = null;
     for (ProfileFilterDto filter : filters) {
       if (filterEvaluator == null) {
-        filterEvaluator = new DefaultFilterEvaluator();
+        filterEvaluator = new DefaultFilterEvaluator(filterCache);
         filterEvaluator.init(profile, endpointProfileSchemaBody, serverProfileSchemaBody);
       }
       LOG.trace("matching profile body with filter [{}]: {}", filter.getId(), filter.getBody());
@@ -104,7 +110,7 @@ public class DefaultFilterService implements FilterService {
     String endpointProfileSchemaBody = getEndpointProfileSchemaBody(key);
     String serverProfileSchemaBody = getServerProfileSchemaBody(key);
 
-    FilterEvaluator filterEvaluator = new DefaultFilterEvaluator();
+    FilterEvaluator filterEvaluator = new DefaultFilterEvaluator(filterCache);
     filterEvaluator.init(profile, endpointProfileSchemaBody, serverProfileSchemaBody);
 
     ProfileFilterDto filter = cacheService.getFilter(profileFilterId);
@@ -16,6 +16,9 @@
 
 package org.kaaproject.kaa.server.operations.service.history;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import org.kaaproject.kaa.common.dto.ChangeDto;
 import org.kaaproject.kaa.common.dto.ChangeType;
 import org.kaaproject.kaa.common.dto.EndpointGroupDto;
@@ -33,15 +36,20 @@ import org.kaaproject.kaa.server.operations.service.filter.FilterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+
 /**
  * The Class DefaultHistoryDeltaService.
  */
@@ -65,6 +73,37 @@ public class DefaultHistoryDeltaService implements HistoryDeltaService {
   @Autowired
   private FilterService filterService;
 
+  /**
+   * Maximum number of memoized history deltas, 0 disables memoization.
+   */
+  @Value("#{properties[history_delta_cache_size] ?: 10000}")
+  private int deltaCacheSize;
+
+  /**
+   * Time in seconds since the last use after which a memoized delta is evicted.
+   */
+  @Value("#{properties[history_delta_cache_ttl] ?: 3600}")
+  private long deltaCacheTtl;
+
+  /**
+   * History deltas memoized by their replay signature, so that endpoints with
+   * the same group states replay the same history only once.
+   */
+  private Cache<GroupStateDeltaKey, HistoryDelta> deltaCache;
+
+  /**
+   * Creates the history delta cache.
+   */
+  @PostConstruct
+  public void init() {
+    if (deltaCacheSize > 0) {
+      deltaCache = CacheBuilder.newBuilder()
+          .maximumSize(deltaCacheSize)
+          .expireAfterAccess(deltaCacheTtl, TimeUnit.SECONDS)
+          .build();
+    }
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -138,18 +177,51 @@ public class DefaultHistoryDeltaService implements HistoryDeltaService {
     HistoryKey historyKey = new HistoryKey(
         applicationToken, oldAppSeqNumber, curAppSeqNumber, profile.getConfigurationVersion(),
         profile.getClientProfileVersion(), profile.getServerProfileVersion());
-    ConfigurationIdKey confIdKey = new ConfigurationIdKey(
-        applicationToken, curAppSeqNumber, profile.getConfigurationVersion());
-
-    List<EndpointGroupStateDto> endpointGroups;
 
     LOG.debug("[{}] Fetching changes from history. From seq number: {} to {}",
         endpointId, historyKey.getOldSeqNumber(),
         historyKey.getNewSeqNumber());
 
-    Map<String, EndpointGroupStateDto> groupsMap = getOldGroupMap(profile);
-
     List<HistoryDto> updates = cacheService.getHistory(historyKey);
+    Map<String, Boolean> filterMatches = matchAddedFilters(applicationToken, updates, profile);
+
+    if (deltaCache == null) {
+      return replayHistory(endpointId, historyKey, profile, updates, filterMatches, historyDelta);
+    }
+
+    GroupStateDeltaKey deltaKey = new GroupStateDeltaKey(
+        historyKey, profile.getGroupState(), filterMatches);
+    HistoryDelta cached = deltaCache.getIfPresent(deltaKey);
+    if (cached != null) {
+      LOG.debug("[{}] Reusing history delta calculated for the same group states", endpointId);
+      return copyOf(cached);
+    }
+    replayHistory(endpointId, historyKey, profile, updates, filterMatches, historyDelta);
+    deltaCache.put(deltaKey, copyOf(historyDelta));
+    return historyDelta;
+  }
+
+  /**
+   * Replays the history updates on the group states of the endpoint profile.
+   *
+   * @param endpointId    the endpoint id
+   * @param historyKey    the history key
+   * @param profile       the profile
+   * @param updates       the history updates
+   * @param filterMatches the results of matching the added profile filters
+   * @param historyDelta  the history delta to fill
+   * @return the history delta
+   */
+  private HistoryDelta replayHistory(String endpointId, HistoryKey historyKey,
+                                     EndpointProfileDto profile, List<HistoryDto> updates,
+                                     Map<String, Boolean> filterMatches,
+                                     HistoryDelta historyDelta) {
+    ConfigurationIdKey confIdKey = new ConfigurationIdKey(historyKey.getAppToken(),
+        historyKey.getNewSeqNumber(), historyKey.getConfSchemaVersion());
+
+    List<EndpointGroupStateDto> endpointGroups;
+
+    Map<String, EndpointGroupStateDto> groupsMap = getOldGroupMap(profile);
 
     for (HistoryDto update : updates) {
       ChangeDto change = update.getChange();
@@ -192,8 +264,7 @@ public class DefaultHistoryDeltaService implements HistoryDeltaService {
           LOG.trace("[{}] Detected {} for {} on group {}",
               endpointId, changeType, change.getProfileFilterId(),
               change.getEndpointGroupId());
-          if (!filterService.matches(
-              historyKey.getAppToken(), change.getProfileFilterId(), profile)) {
+          if (!filterMatches.get(change.getProfileFilterId())) {
             LOG.trace("[{}] Detected {} does not match current profile body "
                     + "which means configuration/topic list change",
                 endpointId, change.getProfileFilterId());
@@ -208,8 +279,7 @@ public class DefaultHistoryDeltaService implements HistoryDeltaService {
           LOG.trace("[{}] Detected {} for {} on group {}",
               endpointId, changeType, change.getProfileFilterId(),
               change.getEndpointGroupId());
-          if (filterService.matches(
-              historyKey.getAppToken(), change.getProfileFilterId(), profile)) {
+          if (filterMatches.get(change.getProfileFilterId())) {
             LOG.trace("[{}] Detected {} match current profile body which means "
                     + "possible configuration/topic list change",
                 endpointId, change.getProfileFilterId());
@@ -244,6 +314,46 @@ public class DefaultHistoryDeltaService implements HistoryDeltaService {
     return historyDelta;
   }
 
+  /**
+   * Matches the endpoint profile against the profile filters added in the
+   * history range.
+   *
+   * @param applicationToken the application token
+   * @param updates          the history updates
+   * @param profile          the profile
+   * @return the match results by profile filter id
+   */
+  private Map<String, Boolean> matchAddedFilters(String applicationToken,
+                                                 List<HistoryDto> updates,
+                                                 EndpointProfileDto profile) {
+    Map<String, Boolean> matches = new HashMap<>();
+    for (HistoryDto update : updates) {
+      ChangeDto change = update.getChange();
+      if (change.getType() == ChangeType.ADD_PROF
+          && !matches.containsKey(change.getProfileFilterId())) {
+        matches.put(change.getProfileFilterId(), filterService.matches(
+            applicationToken, change.getProfileFilterId(), profile));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Copies the history delta along with its endpoint group states.
+   *
+   * @param delta the history delta
+   * @return the copy
+   */
+  private static HistoryDelta copyOf(HistoryDelta delta) {
+    List<EndpointGroupStateDto> states = new ArrayList<>(delta.getEndpointGroupStates().size());
+    for (EndpointGroupStateDto state : delta.getEndpointGroupStates()) {
+      states.add(new EndpointGroupStateDto(state.getEndpointGroupId(),
+          state.getProfileFilterId(), state.getConfigurationId()));
+    }
+    return new HistoryDelta(states, delta.isConfigurationChanged(),
+        delta.isTopicListChanged(), delta.isSeqNumberChanged());
+  }
+
   /**
    * Gets the old group map.
    *
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.history;
+
+import org.kaaproject.kaa.common.dto.EndpointGroupStateDto;
+import org.kaaproject.kaa.server.operations.service.cache.HistoryKey;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Signature of a history replay: the history range, the group states of the
+ * endpoint before the replay and the results of matching the endpoint profile
+ * against the profile filters added in the range. Endpoints with the same
+ * signature get the same history delta.
+ */
+final class GroupStateDeltaKey {
+
+  private final HistoryKey historyKey;
+
+  private final Set<EndpointGroupStateDto> groupStates;
+
+  private final Map<String, Boolean> filterMatches;
+
+  private final int hash;
+
+  /**
+   * Instantiates a new group state delta key. The group states are copied.
+   *
+   * @param historyKey    the history key
+   * @param groupStates   the group states before the replay
+   * @param filterMatches the results of matching the added profile filters
+   */
+  GroupStateDeltaKey(HistoryKey historyKey, List<EndpointGroupStateDto> groupStates,
+                     Map<String, Boolean> filterMatches) {
+    this.historyKey = historyKey;
+    this.groupStates = new HashSet<>(groupStates.size());
+    for (EndpointGroupStateDto state : groupStates) {
+      this.groupStates.add(new EndpointGroupStateDto(state.getEndpointGroupId(),
+          state.getProfileFilterId(), state.getConfigurationId()));
+    }
+    this.filterMatches = filterMatches;
+    int result = historyKey.hashCode();
+    result = 31 * result + this.groupStates.hashCode();
+    result = 31 * result + filterMatches.hashCode();
+    this.hash = result;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    GroupStateDeltaKey other = (GroupStateDeltaKey) obj;
+    return hash == other.hash
+        && historyKey.equals(other.historyKey)
+        && groupStates.equals(other.groupStates)
+        && filterMatches.equals(other.filterMatches);
+  }
+
+  @Override
+  public String toString() {
+    return "GroupStateDeltaKey [historyKey=" + historyKey + ", groupStates=" + groupStates
+        + ", filterMatches=" + filterMatches + "]";
+  }
+}
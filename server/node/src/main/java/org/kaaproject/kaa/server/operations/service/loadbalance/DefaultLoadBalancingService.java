@@ -50,6 +50,9 @@ public class DefaultLoadBalancingService implements LoadBalancingService {
   @Autowired
   private AkkaService akkaService;
 
+  @Autowired
+  private OperationsLoadStats loadStats;
+
   @Value("#{properties[load_stats_update_frequency]}")
   private long loadStatsUpdateFrequency = DEFAULT_STATS_UPDATE_FREQUENCY;
 
@@ -95,8 +98,10 @@ public class DefaultLoadBalancingService implements LoadBalancingService {
       OperatingSystemMXBean operatingSystemMxBean = ManagementFactory.getOperatingSystemMXBean();
       nodeInfo.setLoadInfo(new LoadInfo(
           status.getEndpointCount(), operatingSystemMxBean.getSystemLoadAverage()));
+      nodeInfo.setLoadStats(loadStats.getLoadStats());
       operationsNode.updateNodeData(nodeInfo);
-      LOG.info("Updated load info: {}", nodeInfo.getLoadInfo());
+      LOG.info("Updated load info: {}, load stats: {}",
+          nodeInfo.getLoadInfo(), nodeInfo.getLoadStats());
     } catch (Exception ex) {
       LOG.error("Failed to report status update to control service", ex);
     }
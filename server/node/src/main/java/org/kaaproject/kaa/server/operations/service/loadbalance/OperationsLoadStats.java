@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.loadbalance;
+
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
+
+import org.kaaproject.kaa.server.common.zk.gen.LoadStats;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the load signals of the operations node which are reported to the
+ * control node together with the endpoint count. Unlike the
+ * {@link org.kaaproject.kaa.server.operations.service.metrics.MetricsService},
+ * these statistics are always collected, because the load balancing depends
+ * on them.
+ *
+ * <p>Rates are calculated over the interval between two consecutive calls of
+ * {@link #getLoadStats()}.</p>
+ */
+@Component
+public class OperationsLoadStats {
+
+  private static final double MILLIS_IN_SECOND = 1000.0;
+
+  private final LongAdder syncCount = new LongAdder();
+
+  private final LongAdder logRecordCount = new LongAdder();
+
+  private final AtomicInteger pendingSyncCount = new AtomicInteger();
+
+  private final Histogram syncLatency = new Histogram(new ExponentiallyDecayingReservoir());
+
+  private long lastSnapshotTime = System.currentTimeMillis();
+
+  /**
+   * Registers an endpoint sync request which was accepted for processing but
+   * not yet handled by the endpoint actor.
+   */
+  public void onSyncRequestQueued() {
+    pendingSyncCount.incrementAndGet();
+  }
+
+  /**
+   * Registers an endpoint sync request which was picked up by the endpoint
+   * actor.
+   */
+  public void onSyncRequestDequeued() {
+    if (pendingSyncCount.decrementAndGet() < 0) {
+      pendingSyncCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Registers a processed endpoint sync request.
+   *
+   * @param latencyMillis time from the sync request arrival till the response
+   */
+  public void onSyncProcessed(long latencyMillis) {
+    syncCount.increment();
+    syncLatency.update(latencyMillis);
+  }
+
+  /**
+   * Registers log records uploaded by an endpoint.
+   *
+   * @param count the number of log records
+   */
+  public void onLogRecords(int count) {
+    logRecordCount.add(count);
+  }
+
+  /**
+   * Gets the current load signals and resets the rate counters.
+   *
+   * @return the load statistics
+   */
+  public synchronized LoadStats getLoadStats() {
+    long now = System.currentTimeMillis();
+    double elapsedSeconds = Math.max(now - lastSnapshotTime, 1) / MILLIS_IN_SECOND;
+    lastSnapshotTime = now;
+    return LoadStats.newBuilder()
+        .setSyncRate(syncCount.sumThenReset() / elapsedSeconds)
+        .setSyncLatencyP99(syncLatency.getSnapshot().get99thPercentile())
+        .setMailboxDepth(pendingSyncCount.get())
+        .setHeapUsage(getHeapUsage())
+        .setLogThroughput(logRecordCount.sumThenReset() / elapsedSeconds)
+        .build();
+  }
+
+  private static double getHeapUsage() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    long max = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+    return max > 0 ? (double) heap.getUsed() / max : 0.0;
+  }
+}
@@ -21,6 +21,7 @@ import com.codahale.metrics.JmxReporter;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Slf4jReporter;
+import com.codahale.metrics.Timer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 public class DefaultMerticsService implements MetricsService {
@@ -60,6 +62,39 @@ public class DefaultMerticsService implements MetricsService {
     };
   }
 
+  @Override
+  public synchronized TimerClient createTimer(String name, String... names) {
+    final Timer timer = metrics.timer(MetricRegistry.name(name, names));
+    return new TimerClient() {
+      @Override
+      public void update(long duration, TimeUnit unit) {
+        if (enabled) {
+          timer.update(duration, unit);
+        } else {
+          LOG.trace(METRICS_COLLECTION_IS_DISABLED);
+        }
+      }
+    };
+  }
+
+  @Override
+  public synchronized <T> void registerGauge(final Supplier<T> supplier, String name,
+                                             String... names) {
+    String gaugeName = MetricRegistry.name(name, names);
+    metrics.remove(gaugeName);
+    metrics.register(gaugeName, new Gauge<T>() {
+      @Override
+      public T getValue() {
+        return supplier.get();
+      }
+    });
+  }
+
+  @Override
+  public synchronized void removeMetric(String name, String... names) {
+    metrics.remove(MetricRegistry.name(name, names));
+  }
+
   @Override
   public boolean isEnabled() {
     return enabled;
@@ -16,11 +16,18 @@
 
 package org.kaaproject.kaa.server.operations.service.metrics;
 
+import java.util.function.Supplier;
 
 public interface MetricsService {
 
   MeterClient createMeter(String name, String... names);
 
+  TimerClient createTimer(String name, String... names);
+
+  <T> void registerGauge(Supplier<T> supplier, String name, String... names);
+
+  void removeMetric(String name, String... names);
+
   boolean isEnabled();
 
   void setEnabled(boolean enabled);
@@ -85,6 +85,11 @@ public class DefaultNotificationDeltaService implements NotificationDeltaService
    */
   @Autowired
   private EndpointService endpointService;
+  /**
+   * The in-memory store of the latest topic notifications.
+   */
+  @Autowired
+  private NotificationStore notificationStore;
 
   @Override
   public TopicListCacheEntry getTopicListHash(String appToken,
@@ -185,9 +190,13 @@ public class DefaultNotificationDeltaService implements NotificationDeltaService
               + "user schema version {}, starting seq number {}",
           endpointId, topicId, profile.getSystemNfVersion(),
           profile.getUserNfVersion(), seqNumber);
-      List<NotificationDto> topicNotifications =
-          notificationService.findNotificationsByTopicIdAndVersionAndStartSecNum(
-              topicId, seqNumber, profile.getSystemNfVersion(), profile.getUserNfVersion());
+      List<NotificationDto> topicNotifications = notificationStore.find(
+          topicId, seqNumber, profile.getSystemNfVersion(), profile.getUserNfVersion());
+      if (topicNotifications == null) {
+        topicNotifications =
+            notificationService.findNotificationsByTopicIdAndVersionAndStartSecNum(
+                topicId, seqNumber, profile.getSystemNfVersion(), profile.getUserNfVersion());
+      }
       if (topicNotifications != null) {
         int count = 0;
         for (NotificationDto notification : topicNotifications) {
@@ -330,6 +339,17 @@ public class DefaultNotificationDeltaService implements NotificationDeltaService
     return notificationService.findNotificationById(notificationId);
   }
 
+  /*
+   * (non-Javadoc)
+   *
+   * @see org.kaaproject.kaa.server.operations.service.notification.
+   * NotificationDeltaService#onNotification(org.kaaproject.kaa.common.dto.NotificationDto)
+   */
+  @Override
+  public void onNotification(NotificationDto notification) {
+    notificationStore.put(notification);
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -52,6 +52,14 @@ public interface NotificationDeltaService {
    */
   NotificationDto findUnicastNotificationById(String unicastNotificationId);
 
+  /**
+   * Puts the topic notification received from the control service to the
+   * notification store.
+   *
+   * @param notification the notification dto
+   */
+  void onNotification(NotificationDto notification);
+
   /**
    * Calculate topic list hash for given profile.
    *
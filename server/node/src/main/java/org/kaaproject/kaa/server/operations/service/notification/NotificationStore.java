@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.notification;
+
+import org.kaaproject.kaa.common.dto.NotificationDto;
+import org.kaaproject.kaa.common.dto.TopicDto;
+import org.kaaproject.kaa.server.common.dao.TopicService;
+import org.kaaproject.kaa.server.operations.service.cache.tiered.CacheRegion;
+import org.kaaproject.kaa.server.operations.service.cache.tiered.TieredCacheManager;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Keeps the latest notifications of each topic in memory, so that sync
+ * requests are served without querying the database. Notifications are put
+ * to the store as they are received from the control service. Count of
+ * topics is limited by the {@value #REGION_NAME} cache region and count of
+ * notifications per topic is limited by {@value #BUFFER_SIZE} setting of
+ * the cache configuration.
+ */
+@Component
+public class NotificationStore {
+
+  private static final Logger LOG = LoggerFactory.getLogger(NotificationStore.class);
+
+  private static final String REGION_NAME = "notificationBuffers";
+
+  private static final String BUFFER_SIZE = "notification_buffer_size";
+
+  private static final String METRICS_PREFIX = "notificationStore";
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  @Autowired
+  private TieredCacheManager cacheManager;
+
+  @Autowired
+  private TopicService topicService;
+
+  @Autowired(required = false)
+  private MetricsService metricsService;
+
+  private CacheRegion<String, TopicNotificationBuffer> buffers;
+
+  private int bufferSize;
+
+  /**
+   * Creates the store region and registers store metrics.
+   */
+  @PostConstruct
+  public void init() {
+    bufferSize = cacheManager.getConfig().getInt(BUFFER_SIZE);
+    buffers = cacheManager.createRegion(REGION_NAME);
+    if (metricsService != null) {
+      metricsService.registerGauge(hitCount::get, METRICS_PREFIX, "hits");
+      metricsService.registerGauge(missCount::get, METRICS_PREFIX, "misses");
+    }
+  }
+
+  /**
+   * Puts the topic notification to the store.
+   *
+   * @param notification the notification
+   */
+  public void put(NotificationDto notification) {
+    TopicNotificationBuffer buffer = getBuffer(notification.getTopicId());
+    if (buffer != null) {
+      buffer.put(notification);
+      LOG.trace("[{}] Put notification {} to the store",
+          notification.getTopicId(), notification.getSecNum());
+    }
+  }
+
+  /**
+   * Returns notifications of the topic that follow the given sequence number
+   * and match one of schema versions.
+   *
+   * @param topicId         the topic id
+   * @param seqNum          the sequence number
+   * @param systemNfVersion the system notification schema version
+   * @param userNfVersion   the user notification schema version
+   * @return the notifications or null if the store doesn't retain all of them
+   */
+  public List<NotificationDto> find(String topicId, int seqNum,
+                                    int systemNfVersion, int userNfVersion) {
+    TopicNotificationBuffer buffer = getBuffer(topicId);
+    List<NotificationDto> notifications = buffer != null
+        ? buffer.find(seqNum, systemNfVersion, userNfVersion) : null;
+    if (notifications != null) {
+      hitCount.incrementAndGet();
+    } else {
+      missCount.incrementAndGet();
+    }
+    return notifications;
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Returns buffer of the topic. New buffer starts from the current topic
+   * sequence number, so it never claims to retain notifications that were
+   * sent before the buffer was created.
+   */
+  private TopicNotificationBuffer getBuffer(String topicId) {
+    return buffers.get(topicId, key -> {
+      TopicDto topic = topicService.findTopicById(key);
+      if (topic == null) {
+        LOG.debug("[{}] Can't find topic", key);
+        return null;
+      }
+      return new TopicNotificationBuffer(bufferSize, topic.getSecNum());
+    });
+  }
+}
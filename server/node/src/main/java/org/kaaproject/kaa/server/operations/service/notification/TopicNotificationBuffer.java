@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.notification;
+
+import org.kaaproject.kaa.common.dto.NotificationDto;
+import org.kaaproject.kaa.common.dto.NotificationTypeDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer of the latest notifications of a single topic, indexed by
+ * sequence number. The buffer retains every notification with sequence number
+ * in range (base, last], so it is able to answer queries for notifications
+ * that follow any sequence number not less than base.
+ */
+final class TopicNotificationBuffer {
+
+  private final NotificationDto[] ring;
+
+  private int base;
+
+  private int last;
+
+  /**
+   * Creates an empty buffer.
+   *
+   * @param capacity the max count of retained notifications
+   * @param seqNum   the sequence number of the latest topic notification that
+   *                 is already stored and will not be put to the buffer
+   */
+  TopicNotificationBuffer(int capacity, int seqNum) {
+    this.ring = new NotificationDto[capacity];
+    this.base = seqNum;
+    this.last = seqNum;
+  }
+
+  /**
+   * Puts the notification to the buffer. If some notifications between the
+   * latest retained one and the given one were missed, the buffer is restarted
+   * from the given notification.
+   *
+   * @param notification the notification
+   */
+  synchronized void put(NotificationDto notification) {
+    int seqNum = notification.getSecNum();
+    if (seqNum <= base) {
+      return;
+    }
+    if (seqNum > last + 1) {
+      base = seqNum - 1;
+      last = seqNum;
+    } else if (seqNum == last + 1) {
+      last = seqNum;
+      if (last - base > ring.length) {
+        base = last - ring.length;
+      }
+    }
+    ring[slot(seqNum)] = notification;
+  }
+
+  /**
+   * Returns notifications that follow the given sequence number and match one
+   * of schema versions.
+   *
+   * @param seqNum          the sequence number
+   * @param systemNfVersion the system notification schema version
+   * @param userNfVersion   the user notification schema version
+   * @return the notifications or null if some of them are not retained
+   */
+  synchronized List<NotificationDto> find(int seqNum, int systemNfVersion, int userNfVersion) {
+    if (seqNum < base) {
+      return null;
+    }
+    List<NotificationDto> notifications = new ArrayList<>();
+    for (int i = seqNum + 1; i <= last; i++) {
+      NotificationDto notification = ring[slot(i)];
+      if (notification == null || notification.getSecNum() != i) {
+        return null;
+      }
+      if (isSchemaVersionMatch(notification, systemNfVersion, userNfVersion)) {
+        notifications.add(notification);
+      }
+    }
+    return notifications;
+  }
+
+  synchronized int size() {
+    return last - base;
+  }
+
+  private int slot(int seqNum) {
+    return Math.floorMod(seqNum, ring.length);
+  }
+
+  private static boolean isSchemaVersionMatch(NotificationDto notification,
+                                              int systemNfVersion,
+                                              int userNfVersion) {
+    if (notification.getType() == NotificationTypeDto.SYSTEM) {
+      return notification.getNfVersion() == systemNfVersion;
+    } else if (notification.getType() == NotificationTypeDto.USER) {
+      return notification.getNfVersion() == userNfVersion;
+    } else {
+      return false;
+    }
+  }
+}
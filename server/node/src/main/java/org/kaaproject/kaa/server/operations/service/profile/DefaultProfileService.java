@@ -41,6 +41,7 @@ import org.kaaproject.kaa.server.sync.ClientSyncMetaData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.security.InvalidKeyException;
 import java.util.ArrayList;
@@ -49,6 +50,9 @@ import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
 /**
  * The Class DefaultProfileService is a default implementation of
  * {@link ProfileService ProfileService}.
@@ -69,6 +73,29 @@ public class DefaultProfileService implements ProfileService {
   @Autowired
   private CacheService cacheService;
 
+  /**
+   * Delay in milliseconds before the endpoint profile state is written. State
+   * updates of the same endpoint within the delay are coalesced. Zero delay
+   * means the state is written synchronously.
+   */
+  @Value("#{properties[profile_state_write_delay] ?: 0}")
+  private long stateWriteDelay;
+
+  @Value("#{properties[profile_state_write_threads] ?: 4}")
+  private int stateWriteThreads;
+
+  private EndpointProfileStateWriter stateWriter;
+
+  @PostConstruct
+  public void init() {
+    stateWriter = new EndpointProfileStateWriter(
+        endpointService, stateWriteDelay, stateWriteThreads);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    stateWriter.shutdown();
+  }
 
   @Override
   public EndpointProfileDto getProfile(EndpointObjectHash endpointKey) {
@@ -82,6 +109,12 @@ public class DefaultProfileService implements ProfileService {
     return updateProfile(profile, mergeFunction, 3);
   }
 
+  @Override
+  public void updateProfileState(EndpointProfileDto profile) {
+    LOG.debug("Updating profile state of {}", profile.getId());
+    stateWriter.submit(profile);
+  }
+
   /*
  * (non-Javadoc)
  *
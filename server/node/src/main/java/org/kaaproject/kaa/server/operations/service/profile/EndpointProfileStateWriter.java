@@ -0,0 +1,160 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.profile;
+
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.common.dao.EndpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the endpoint group state, sequence number and configuration and topic
+ * hashes of endpoint profiles with field level updates.
+ *
+ * <p>Each state is written after the configured delay. States of an endpoint
+ * submitted while its previous state is waiting to be written replace the
+ * pending state, so they are coalesced into one write. The states of an
+ * endpoint are always written by the same thread, so they are written in the
+ * order of submission. With zero delay the states are written synchronously.</p>
+ *
+ * <p>Each state write increments the profile version. With zero delay the new
+ * version is set to the submitted profile, so its later full updates pass the
+ * optimistic lock. With a delay the in-memory version becomes stale once the
+ * state is written and the next full update of the profile is merged with the
+ * stored one by {@link ProfileService#updateProfile}.</p>
+ */
+public class EndpointProfileStateWriter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EndpointProfileStateWriter.class);
+
+  private static final long SHUTDOWN_TIMEOUT = 10;
+
+  private final EndpointService endpointService;
+  private final long writeDelay;
+  private final ScheduledExecutorService[] executors;
+  private final ConcurrentMap<EndpointObjectHash, EndpointProfileStateDto> pendingStates =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Instantiates a new endpoint profile state writer.
+   *
+   * @param endpointService the endpoint service
+   * @param writeDelay      the write delay in milliseconds
+   * @param threadCount     the number of writer threads
+   */
+  public EndpointProfileStateWriter(EndpointService endpointService, long writeDelay,
+                                    int threadCount) {
+    this.endpointService = endpointService;
+    this.writeDelay = writeDelay;
+    if (writeDelay > 0) {
+      executors = new ScheduledExecutorService[Math.max(1, threadCount)];
+      for (int i = 0; i < executors.length; i++) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+          Thread thread = new Thread(r, "profile-state-writer");
+          thread.setDaemon(true);
+          return thread;
+        });
+        // Pending states are flushed by the caller thread on shutdown
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executors[i] = executor;
+      }
+    } else {
+      executors = new ScheduledExecutorService[0];
+    }
+  }
+
+  /**
+   * Submits the state of the endpoint profile to be written.
+   *
+   * @param profile the endpoint profile
+   */
+  public void submit(EndpointProfileDto profile) {
+    EndpointProfileStateDto state = new EndpointProfileStateDto(profile);
+    if (executors.length == 0) {
+      Long version = endpointService.updateEndpointProfileState(state);
+      if (version != null) {
+        profile.setVersion(version);
+      }
+      return;
+    }
+    EndpointObjectHash key = EndpointObjectHash.fromBytes(state.getEndpointKeyHash());
+    if (pendingStates.put(key, state) == null) {
+      ScheduledExecutorService executor = executors[
+          (key.hashCode() & Integer.MAX_VALUE) % executors.length];
+      executor.schedule(() -> write(key), writeDelay, TimeUnit.MILLISECONDS);
+    } else {
+      LOG.trace("[{}] Coalesced endpoint profile state with the pending one", key);
+    }
+  }
+
+  /**
+   * Writes all pending states.
+   */
+  public void flush() {
+    List<EndpointObjectHash> keys = new ArrayList<>(pendingStates.keySet());
+    for (EndpointObjectHash key : keys) {
+      write(key);
+    }
+  }
+
+  /**
+   * Stops the writer threads and writes all pending states.
+   */
+  public void shutdown() {
+    for (ScheduledExecutorService executor : executors) {
+      executor.shutdown();
+    }
+    try {
+      for (ScheduledExecutorService executor : executors) {
+        executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException ex) {
+      LOG.warn("Interrupted while waiting for endpoint profile state writers", ex);
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  public int getPendingCount() {
+    return pendingStates.size();
+  }
+
+  private void write(EndpointObjectHash key) {
+    EndpointProfileStateDto state = pendingStates.remove(key);
+    if (state != null) {
+      write(state);
+    }
+  }
+
+  private void write(EndpointProfileStateDto state) {
+    try {
+      endpointService.updateEndpointProfileState(state);
+    } catch (RuntimeException ex) {
+      LOG.error("Failed to update endpoint profile state {}", state, ex);
+    }
+  }
+}
@@ -50,6 +50,16 @@ public interface ProfileService {
   EndpointProfileDto updateProfile(EndpointProfileDto profile, BiFunction<EndpointProfileDto,
           EndpointProfileDto, EndpointProfileDto> mergeFunction);
 
+  /**
+   * Update the endpoint group state, sequence number and configuration and
+   * topic hashes of the profile. Only these fields are written, so the update
+   * doesn't conflict with concurrent updates of the profile. Pending state
+   * updates of the same endpoint are coalesced into one write.
+   *
+   * @param profile the profile
+   */
+  void updateProfileState(EndpointProfileDto profile);
+
   EndpointProfileDto updateProfile(UpdateProfileRequest request);
 
 
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.SecretKey;
+
+/**
+ * Keeps session keys of recently verified endpoint sessions, so that an
+ * endpoint which reconnects with the same encrypted session key and signature
+ * is accepted without the RSA decryption of the session key and the RSA
+ * signature verification.
+ *
+ * <p>A session is resumed only if the encrypted session key, its signature and
+ * the endpoint public key all match the ones of the verified session, so the
+ * result is the same as the result of the full handshake.</p>
+ */
+@Component
+public class SessionResumptionCache {
+
+  private static final int DEFAULT_MAX_SIZE = 100000;
+  private static final long DEFAULT_TTL = 3600;
+
+  /**
+   * Maximum number of cached sessions.
+   */
+  @Value("#{properties[session_resumption_cache_size] ?: 100000}")
+  private int maxSize = DEFAULT_MAX_SIZE;
+
+  /**
+   * Time in seconds since the last resumption after which a session is evicted.
+   */
+  @Value("#{properties[session_resumption_cache_ttl] ?: 3600}")
+  private long ttl = DEFAULT_TTL;
+
+  private Cache<ByteBuffer, ResumedSession> sessions;
+
+  /**
+   * Creates the underlying cache.
+   */
+  @PostConstruct
+  public void init() {
+    sessions = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterAccess(ttl, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * Gets the session key of the verified session with the same encrypted
+   * session key and signature.
+   *
+   * @param encodedSessionKey the encrypted session key
+   * @param signature         the session key signature
+   * @return the verified session, or null if there is no such session
+   */
+  public ResumedSession get(byte[] encodedSessionKey, byte[] signature) {
+    if (sessions == null || encodedSessionKey == null || signature == null) {
+      return null;
+    }
+    ResumedSession session = sessions.getIfPresent(ByteBuffer.wrap(encodedSessionKey));
+    if (session != null && Arrays.equals(session.signature, signature)) {
+      return session;
+    }
+    return null;
+  }
+
+  /**
+   * Stores the verified session.
+   *
+   * @param encodedSessionKey the encrypted session key
+   * @param signature         the session key signature
+   * @param sessionKey        the decrypted session key
+   * @param endpointKey       the endpoint public key used to verify the signature
+   */
+  public void put(byte[] encodedSessionKey, byte[] signature,
+                  SecretKey sessionKey, PublicKey endpointKey) {
+    if (sessions == null || sessionKey == null) {
+      return;
+    }
+    sessions.put(ByteBuffer.wrap(encodedSessionKey.clone()),
+        new ResumedSession(signature.clone(), sessionKey, endpointKey.getEncoded()));
+  }
+
+  /**
+   * Gets the number of cached sessions.
+   *
+   * @return the number of cached sessions
+   */
+  public long size() {
+    return sessions != null ? sessions.size() : 0;
+  }
+
+  public void setMaxSize(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public void setTtl(long ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * Session key and endpoint public key of a verified session.
+   */
+  public static final class ResumedSession {
+
+    private final byte[] signature;
+    private final SecretKey sessionKey;
+    private final byte[] endpointKey;
+
+    private ResumedSession(byte[] signature, SecretKey sessionKey, byte[] endpointKey) {
+      this.signature = signature;
+      this.sessionKey = sessionKey;
+      this.endpointKey = endpointKey;
+    }
+
+    public SecretKey getSessionKey() {
+      return sessionKey;
+    }
+
+    /**
+     * Checks that the session was verified with the given endpoint key.
+     *
+     * @param key the endpoint public key
+     * @return true if the key matches
+     */
+    public boolean isVerifiedWith(PublicKey key) {
+      return key != null && Arrays.equals(endpointKey, key.getEncoded());
+    }
+  }
+}
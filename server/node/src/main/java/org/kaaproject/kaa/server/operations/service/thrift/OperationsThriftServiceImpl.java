@@ -42,6 +42,7 @@ import org.kaaproject.kaa.server.operations.service.cache.AppSeqNumber;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.cluster.ClusterService;
 import org.kaaproject.kaa.server.operations.service.event.EventService;
+import org.kaaproject.kaa.server.operations.service.filter.CompiledFilterCache;
 import org.kaaproject.kaa.server.operations.service.initialization.OperationsInitializationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +81,12 @@ public class OperationsThriftServiceImpl implements OperationsThriftService.Ifac
   @Autowired
   CacheService cacheService;
 
+  /**
+   * The compiled filter cache.
+   */
+  @Autowired
+  CompiledFilterCache filterCache;
+
   /**
    * The akka service.
    */
@@ -169,6 +176,7 @@ public class OperationsThriftServiceImpl implements OperationsThriftService.Ifac
         return;
       }
       if (notification.getProfileFilterId() != null) {
+        filterCache.resetFilter(notification.getProfileFilterId());
         ProfileFilterDto filterDto = cacheService.getFilter(notification.getProfileFilterId());
         LOG.debug("Processing filter  {}", filterDto);
         if (filterDto.getEndpointProfileSchemaId() != null
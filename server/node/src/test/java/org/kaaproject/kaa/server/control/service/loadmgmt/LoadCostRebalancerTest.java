@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.control.service.loadmgmt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.RedirectionRule;
+import org.kaaproject.kaa.server.common.zk.gen.LoadInfo;
+import org.kaaproject.kaa.server.common.zk.gen.LoadStats;
+import org.kaaproject.kaa.server.common.zk.gen.OperationsNodeInfo;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.LoadCostRebalancer;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.OperationsServerLoadHistory;
+import org.kaaproject.kaa.server.control.service.loadmgmt.dynamicmgmt.Rebalancer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadCostRebalancerTest {
+
+  private static final long MAX_HISTORY_TIME_LIVE = 300000;
+  private static final double DELTA = 1e-9;
+
+  private static OperationsServerLoadHistory history(OperationsNodeInfo... loads) {
+    OperationsServerLoadHistory history = new OperationsServerLoadHistory(MAX_HISTORY_TIME_LIVE);
+    for (OperationsNodeInfo load : loads) {
+      history.addOpsServerLoad(load.getLoadInfo(), load.getLoadStats());
+    }
+    return history;
+  }
+
+  /**
+   * Load reported by a server which doesn't report load statistics.
+   */
+  private static OperationsNodeInfo load(int endpointCount) {
+    OperationsNodeInfo nodeInfo = new OperationsNodeInfo();
+    nodeInfo.setLoadInfo(new LoadInfo(endpointCount, 1.0));
+    return nodeInfo;
+  }
+
+  private static OperationsNodeInfo load(int endpointCount, double syncLatencyP99) {
+    OperationsNodeInfo nodeInfo = load(endpointCount);
+    nodeInfo.setLoadStats(new LoadStats(0.0, syncLatencyP99, 0, 0.0, 0.0));
+    return nodeInfo;
+  }
+
+  @Test
+  public void testRecalculateEmptyHistory() {
+    Rebalancer rebalancer = new LoadCostRebalancer();
+
+    Map<Integer, OperationsServerLoadHistory> serversHistory = new HashMap<>();
+    serversHistory.put("dns1".hashCode(), history());
+    serversHistory.put("dns2".hashCode(), history());
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertNotNull(rules);
+    assertEquals(0, rules.size());
+  }
+
+  /**
+   * Only endpoint count is reported, e.g. by servers of an older version, so
+   * the rules match the ones of the endpoint count rebalancer.
+   */
+  @Test
+  public void testRecalculateByEndpointCount() {
+    Rebalancer rebalancer = new LoadCostRebalancer();
+
+    Integer server1 = "dns1".hashCode();
+    Integer server2 = "dns2".hashCode();
+    Integer server3 = "dns3".hashCode();
+    Integer server4 = "dns4".hashCode();
+    Map<Integer, OperationsServerLoadHistory> serversHistory = new LinkedHashMap<>();
+    serversHistory.put(server1, history(load(100000)));
+    serversHistory.put(server2, history(load(40000, 0.0)));
+    serversHistory.put(server3, history(load(10000)));
+    serversHistory.put(server4, history(load(10000, 0.0)));
+
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertEquals(1, rules.size());
+    assertEquals(2, rules.get(server1).size());
+    assertEquals(server3.intValue(), rules.get(server1).get(0).getAccessPointId());
+    assertEquals(0.375, rules.get(server1).get(0).getInitRedirectProbability(), DELTA);
+    assertEquals(0.0, rules.get(server1).get(0).getSessionRedirectProbability(), DELTA);
+    assertEquals(server4.intValue(), rules.get(server1).get(1).getAccessPointId());
+    assertEquals(0.375, rules.get(server1).get(1).getInitRedirectProbability(), DELTA);
+  }
+
+  /**
+   * Endpoint counts are equal, but the first server responds slower.
+   */
+  @Test
+  public void testRecalculateBySyncLatency() {
+    Rebalancer rebalancer = new LoadCostRebalancer();
+
+    Integer server1 = "dns1".hashCode();
+    Integer server2 = "dns2".hashCode();
+    Integer server3 = "dns3".hashCode();
+    Integer server4 = "dns4".hashCode();
+    Map<Integer, OperationsServerLoadHistory> serversHistory = new LinkedHashMap<>();
+    serversHistory.put(server1, history(load(1000, 300.0)));
+    serversHistory.put(server2, history(load(1000, 100.0)));
+    serversHistory.put(server3, history(load(1000, 100.0)));
+    serversHistory.put(server4, history(load(1000, 100.0)));
+
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertEquals(1, rules.size());
+    List<RedirectionRule> server1Rules = rules.get(server1);
+    assertEquals(3, server1Rules.size());
+    assertEquals(server2.intValue(), server1Rules.get(0).getAccessPointId());
+    for (RedirectionRule rule : server1Rules) {
+      assertEquals(0.25, rule.getInitRedirectProbability(), DELTA);
+    }
+  }
+
+  /**
+   * A single spike in the load history is smoothed and the remaining cost
+   * difference is too small to trigger rebalancing.
+   */
+  @Test
+  public void testRecalculateSmallDifference() {
+    Rebalancer rebalancer = new LoadCostRebalancer();
+
+    Map<Integer, OperationsServerLoadHistory> serversHistory = new LinkedHashMap<>();
+    serversHistory.put("dns1".hashCode(),
+        history(load(10000, 100.0), load(10000, 100.0), load(10000, 150.0)));
+    serversHistory.put("dns2".hashCode(), history(load(10000, 100.0)));
+    serversHistory.put("dns3".hashCode(), history(load(9500, 100.0)));
+
+    Map<Integer, List<RedirectionRule>> rules = rebalancer.recalculate(serversHistory);
+    assertEquals(0, rules.size());
+  }
+}
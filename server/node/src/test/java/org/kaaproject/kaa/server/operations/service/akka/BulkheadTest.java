@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+  @Test
+  public void testRejectsTasksWhenSaturated() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      bulkhead.execute(() -> {
+        started.countDown();
+        awaitQuietly(release);
+      });
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      bulkhead.execute(() -> awaitQuietly(release));
+      Assert.assertEquals(1, bulkhead.getQueuedCount());
+      Assert.assertEquals(1.0, bulkhead.getSaturation(), 0.0);
+      try {
+        bulkhead.execute(() -> { });
+        Assert.fail("Saturated bulkhead accepted a task");
+      } catch (RejectedExecutionException ex) {
+        Assert.assertEquals(1, bulkhead.getRejectedCount());
+      }
+    } finally {
+      release.countDown();
+      bulkhead.shutdown();
+    }
+  }
+
+  @Test
+  public void testExecutesTasks() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 2, 10);
+    CountDownLatch done = new CountDownLatch(5);
+    try {
+      for (int i = 0; i < 5; i++) {
+        bulkhead.execute(done::countDown);
+      }
+      Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+      Assert.assertEquals(0, bulkhead.getRejectedCount());
+    } finally {
+      bulkhead.shutdown();
+    }
+  }
+
+  @Test
+  public void testLaneRunsTasksInOrder() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 4, 100);
+    Executor lane = bulkhead.newLane();
+    List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+    List<Integer> expected = new ArrayList<>();
+    CountDownLatch done = new CountDownLatch(50);
+    try {
+      for (int i = 0; i < 50; i++) {
+        int task = i;
+        expected.add(task);
+        lane.execute(() -> {
+          executed.add(task);
+          done.countDown();
+        });
+      }
+      Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+      Assert.assertEquals(expected, executed);
+    } finally {
+      bulkhead.shutdown();
+    }
+  }
+
+  @Test
+  public void testLaneTasksCountTowardsQueueSize() throws Exception {
+    Bulkhead bulkhead = new Bulkhead("test", 1, 2);
+    Executor lane = bulkhead.newLane();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      lane.execute(() -> {
+        started.countDown();
+        awaitQuietly(release);
+      });
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      lane.execute(() -> { });
+      lane.execute(() -> { });
+      Assert.assertEquals(2, bulkhead.getQueuedCount());
+      try {
+        lane.execute(() -> { });
+        Assert.fail("Saturated lane accepted a task");
+      } catch (RejectedExecutionException ex) {
+        Assert.assertEquals(1, bulkhead.getRejectedCount());
+      }
+    } finally {
+      release.countDown();
+      bulkhead.shutdown();
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -115,11 +115,13 @@ import org.kaaproject.kaa.server.operations.service.event.RouteInfo;
 import org.kaaproject.kaa.server.operations.service.event.RouteTableAddress;
 import org.kaaproject.kaa.server.operations.service.event.RouteTableKey;
 import org.kaaproject.kaa.server.operations.service.event.UserRouteInfo;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
 import org.kaaproject.kaa.server.operations.service.metrics.MeterClient;
 import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
 import org.kaaproject.kaa.server.operations.service.notification.NotificationDeltaService;
 import org.kaaproject.kaa.server.operations.service.security.KeyStoreService;
+import org.kaaproject.kaa.server.operations.service.security.SessionResumptionCache;
 import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
 import org.kaaproject.kaa.server.sync.ClientSync;
 import org.kaaproject.kaa.server.sync.ConfigurationClientSync;
@@ -257,6 +259,10 @@ public class DefaultAkkaServiceTest {
     ReflectionTestUtils.setField(context, "ctlService", ctlService);
     ReflectionTestUtils.setField(context, "credentialsServiceLocator", credentialsServiceLocator);
     ReflectionTestUtils.setField(context, "registrationService", registrationService);
+    ReflectionTestUtils.setField(context, "loadStats", new OperationsLoadStats());
+    SessionResumptionCache sessionResumptionCache = new SessionResumptionCache();
+    sessionResumptionCache.init();
+    ReflectionTestUtils.setField(context, "sessionResumptionCache", sessionResumptionCache);
 
     clientPair = KeyUtil.generateKeyPair();
     targetPair = KeyUtil.generateKeyPair();
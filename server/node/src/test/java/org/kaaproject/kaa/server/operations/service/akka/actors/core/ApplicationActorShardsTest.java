@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+public class ApplicationActorShardsTest {
+
+  private static final String APP_TOKEN = "appToken";
+
+  @Test
+  public void testNotShardedMapping() {
+    EndpointObjectHash key = EndpointObjectHash.fromSha1("endpoint");
+    Assert.assertFalse(ApplicationActorShards.isSharded(1));
+    Assert.assertEquals(ApplicationActorShards.PRIMARY_SHARD_INDEX,
+        ApplicationActorShards.getShardIndex(key, 1));
+    Assert.assertEquals(APP_TOKEN, ApplicationActorShards.getShardName(APP_TOKEN, 0, 1));
+  }
+
+  @Test
+  public void testShardedMapping() {
+    int shardCount = 4;
+    int[] endpointsPerShard = new int[shardCount];
+    for (int i = 0; i < 1000; i++) {
+      EndpointObjectHash key = EndpointObjectHash.fromSha1("endpoint" + i);
+      int shardIndex = ApplicationActorShards.getShardIndex(key, shardCount);
+      Assert.assertTrue(shardIndex >= 0 && shardIndex < shardCount);
+      Assert.assertEquals(shardIndex, ApplicationActorShards.getShardIndex(
+          EndpointObjectHash.fromBytes(key.getData()), shardCount));
+      endpointsPerShard[shardIndex]++;
+    }
+    for (int count : endpointsPerShard) {
+      Assert.assertTrue(count > 0);
+    }
+    Assert.assertTrue(ApplicationActorShards.isSharded(shardCount));
+    Assert.assertEquals(APP_TOKEN + "-3",
+        ApplicationActorShards.getShardName(APP_TOKEN, 3, shardCount));
+  }
+
+  @Test
+  public void testTopicIsOwnedByPrimaryShardIfNotSharded() {
+    Assert.assertEquals(ApplicationActorShards.PRIMARY_SHARD_INDEX,
+        ApplicationActorShards.getTopicShardIndex("topic", 1));
+  }
+
+  @Test
+  public void testTopicIsOwnedBySingleShard() {
+    int shardCount = 4;
+    int[] topicsPerShard = new int[shardCount];
+    for (int i = 0; i < 1000; i++) {
+      String topicId = Integer.toString(i);
+      int shardIndex = ApplicationActorShards.getTopicShardIndex(topicId, shardCount);
+      Assert.assertTrue(shardIndex >= 0 && shardIndex < shardCount);
+      Assert.assertEquals(shardIndex,
+          ApplicationActorShards.getTopicShardIndex(new String(topicId), shardCount));
+      topicsPerShard[shardIndex]++;
+    }
+    for (int count : topicsPerShard) {
+      Assert.assertTrue(count > 0);
+    }
+  }
+}
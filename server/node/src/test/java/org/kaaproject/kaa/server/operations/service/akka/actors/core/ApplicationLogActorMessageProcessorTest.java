@@ -19,6 +19,7 @@ package org.kaaproject.kaa.server.operations.service.akka.actors.core;
 import akka.actor.ActorContext;
 import akka.actor.ActorRef;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -32,11 +33,16 @@ import org.kaaproject.kaa.common.dto.logs.LogSchemaDto;
 import org.kaaproject.kaa.server.common.dao.ApplicationService;
 import org.kaaproject.kaa.server.common.dao.CtlService;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogAppender;
+import org.kaaproject.kaa.server.common.log.shared.appender.LogDeliveryErrorCode;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEvent;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogEventPack;
 import org.kaaproject.kaa.server.common.log.shared.appender.LogSchema;
+import org.kaaproject.kaa.server.common.log.shared.appender.SpoolingLogAppender;
 import org.kaaproject.kaa.server.common.log.shared.appender.data.BaseLogEventPack;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Notification;
+import org.kaaproject.kaa.server.common.thrift.gen.operations.Operation;
 import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
+import org.kaaproject.kaa.server.operations.service.akka.Bulkhead;
 import org.kaaproject.kaa.server.operations.service.akka.actors.core.ApplicationLogActorMessageProcessor.VoidCallback;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.AbstractActorCallback;
 import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.LogEventPackMessage;
@@ -45,6 +51,8 @@ import org.kaaproject.kaa.server.operations.service.akka.messages.core.logs.Sing
 import org.kaaproject.kaa.server.operations.service.cache.AppVersionKey;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
 import org.kaaproject.kaa.server.operations.service.logs.LogAppenderService;
+import org.kaaproject.kaa.server.operations.service.metrics.MetricsService;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -52,9 +60,14 @@ import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Bohdan Khablenko
@@ -266,4 +279,204 @@ public class ApplicationLogActorMessageProcessorTest {
     Mockito.verify(optional).doAppend(Mockito.eq(message.getLogEventPack()), Mockito.any(VoidCallback.class));
     Mockito.verify(messageProcessor).sendSuccessMessageToEndpoint(message);
   }
+
+  /**
+   * A test to ensure that the spool of a removed log appender is deleted and
+   * its gauges are removed.
+   */
+  @Test
+  public void removeSpoolingAppenderTest() throws Exception {
+
+    File spoolDir = Files.createTempDirectory("logSpool").toFile();
+    MetricsService metricsService = Mockito.mock(MetricsService.class);
+    Mockito.when(context.getLogSpoolDir()).thenReturn(spoolDir.getAbsolutePath());
+    Mockito.when(context.getLogSpoolSegmentSize()).thenReturn(1024);
+    Mockito.when(context.getLogSpoolMaxSize()).thenReturn(4096L);
+    Mockito.when(context.getLogBatchSize()).thenReturn(1);
+    Mockito.when(context.getMetricsService()).thenReturn(metricsService);
+    logAppenders.add(optional);
+
+    ApplicationLogActorMessageProcessor messageProcessor = new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN);
+    String appenderId = optional.getAppenderId();
+    File appenderSpoolDir = new File(spoolDir, appenderId);
+    Assert.assertTrue(appenderSpoolDir.isDirectory());
+
+    Notification notification = new Notification();
+    notification.setAppenderId(appenderId);
+    notification.setOp(Operation.REMOVE_LOG_APPENDER);
+    messageProcessor.processLogAppenderNotification(notification);
+
+    for (String gauge : Arrays.asList("size", "lag", "drainRate")) {
+      Mockito.verify(metricsService).removeMetric("logSpool", appenderId, gauge);
+    }
+    Mockito.verify(optional, Mockito.timeout(5000)).close();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (appenderSpoolDir.exists() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertFalse(appenderSpoolDir.exists());
+    spoolDir.delete();
+  }
+
+  /**
+   * A test to ensure that the spool of an updated log appender is reopened
+   * by the new appender once the previous one has released it.
+   */
+  @Test
+  public void updateSpoolingAppenderTest() throws Exception {
+
+    File spoolDir = Files.createTempDirectory("logSpool").toFile();
+    Mockito.when(context.getLogSpoolDir()).thenReturn(spoolDir.getAbsolutePath());
+    Mockito.when(context.getLogSpoolSegmentSize()).thenReturn(1024);
+    Mockito.when(context.getLogSpoolMaxSize()).thenReturn(4096L);
+    Mockito.when(context.getLogBatchSize()).thenReturn(1);
+    logAppenders.add(optional);
+    String appenderId = optional.getAppenderId();
+    LogAppender updated = Mockito.mock(LogAppender.class);
+    Mockito.when(updated.getAppenderId()).thenReturn(appenderId);
+    Mockito.when(updated.isDeliveryConfirmationRequired()).thenReturn(Boolean.FALSE);
+    Mockito.when(updated.isSchemaVersionSupported(Mockito.anyInt())).thenReturn(Boolean.TRUE);
+    Mockito.when(logAppenderService.getApplicationAppender(appenderId)).thenReturn(updated);
+
+    ApplicationLogActorMessageProcessor messageProcessor = new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN);
+    Notification notification = new Notification();
+    notification.setAppenderId(appenderId);
+    notification.setOp(Operation.UPDATE_LOG_APPENDER);
+    messageProcessor.processLogAppenderNotification(notification);
+
+    Mockito.verify(optional).close();
+    List<LogAppender> appenders = messageProcessor.filterAppenders(LOG_SCHEMA_VERSION, false);
+    Assert.assertEquals(1, appenders.size());
+    Assert.assertTrue(appenders.get(0) instanceof SpoolingLogAppender);
+    Assert.assertTrue(new File(spoolDir, appenderId).isDirectory());
+
+    messageProcessor.stop();
+  }
+
+  /**
+   * A test to ensure that the endpoint receives an error when the appenders
+   * bulkhead rejects a log event pack for an appender that requires delivery
+   * confirmation.
+   */
+  @Test
+  public void rejectedRequiredAppenderTest() throws Exception {
+
+    Bulkhead bulkhead = new Bulkhead("appenders", 1, 1);
+    bulkhead.shutdown();
+    Mockito.when(context.getBulkhead(AkkaContext.APPENDERS_BULKHEAD)).thenReturn(bulkhead);
+    logAppenders.add(required[0]);
+
+    ApplicationLogActorMessageProcessor messageProcessor = Mockito.spy(new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN));
+    messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+
+    Mockito.verify(required[0], Mockito.never()).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+    Mockito.verify(messageProcessor).sendErrorMessageToEndpoint(message, LogDeliveryErrorCode.APPENDER_INTERNAL_ERROR);
+    Assert.assertEquals(1, bulkhead.getRejectedCount());
+  }
+
+  /**
+   * A test to ensure that a log event pack rejected by the appenders bulkhead
+   * for an optional appender is skipped and the endpoint still receives a
+   * response.
+   */
+  @Test
+  public void rejectedOptionalAppenderTest() throws Exception {
+
+    Bulkhead bulkhead = new Bulkhead("appenders", 1, 1);
+    bulkhead.shutdown();
+    Mockito.when(context.getBulkhead(AkkaContext.APPENDERS_BULKHEAD)).thenReturn(bulkhead);
+    logAppenders.add(optional);
+
+    ApplicationLogActorMessageProcessor messageProcessor = Mockito.spy(new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN));
+    messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+
+    Mockito.verify(optional, Mockito.never()).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+    Mockito.verify(messageProcessor).sendSuccessMessageToEndpoint(message);
+  }
+
+  /**
+   * A test to ensure that the log event packs are passed to an appender one
+   * at a time even though the appenders bulkhead has several threads.
+   */
+  @Test
+  public void appenderIsCalledSeriallyTest() throws Exception {
+
+    int packCount = 20;
+    Bulkhead bulkhead = new Bulkhead("appenders", 4, 100);
+    Mockito.when(context.getBulkhead(AkkaContext.APPENDERS_BULKHEAD)).thenReturn(bulkhead);
+    logAppenders.add(optional);
+    AtomicInteger active = new AtomicInteger();
+    AtomicInteger maxActive = new AtomicInteger();
+    CountDownLatch appended = new CountDownLatch(packCount);
+    Mockito.doAnswer(invocation -> {
+      maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      Thread.sleep(5);
+      active.decrementAndGet();
+      appended.countDown();
+      return null;
+    }).when(optional).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+
+    try {
+      ApplicationLogActorMessageProcessor messageProcessor = new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN);
+      for (int i = 0; i < packCount; i++) {
+        messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+      }
+
+      Assert.assertTrue(appended.await(5, TimeUnit.SECONDS));
+      Assert.assertEquals(1, maxActive.get());
+    } finally {
+      bulkhead.shutdown();
+    }
+  }
+
+  /**
+   * A test to ensure that an updated appender is closed after the log event
+   * packs already queued for it are appended, and that the appender which
+   * replaces it appends only after that.
+   */
+  @Test
+  public void updatedAppenderIsClosedInOrderTest() throws Exception {
+
+    Bulkhead bulkhead = new Bulkhead("appenders", 4, 100);
+    Mockito.when(context.getBulkhead(AkkaContext.APPENDERS_BULKHEAD)).thenReturn(bulkhead);
+    logAppenders.add(optional);
+    String appenderId = optional.getAppenderId();
+    LogAppender updated = Mockito.mock(LogAppender.class);
+    Mockito.when(updated.getAppenderId()).thenReturn(appenderId);
+    Mockito.when(updated.isDeliveryConfirmationRequired()).thenReturn(Boolean.FALSE);
+    Mockito.when(updated.isSchemaVersionSupported(Mockito.anyInt())).thenReturn(Boolean.TRUE);
+    Mockito.when(logAppenderService.getApplicationAppender(appenderId)).thenReturn(updated);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.doAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(optional).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+    CountDownLatch appended = new CountDownLatch(1);
+    Mockito.doAnswer(invocation -> {
+      appended.countDown();
+      return null;
+    }).when(updated).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+
+    try {
+      ApplicationLogActorMessageProcessor messageProcessor = new ApplicationLogActorMessageProcessor(context, APPLICATION_TOKEN);
+      messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+      messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+      Notification notification = new Notification();
+      notification.setAppenderId(appenderId);
+      notification.setOp(Operation.UPDATE_LOG_APPENDER);
+      messageProcessor.processLogAppenderNotification(notification);
+      messageProcessor.processLogEventPack(Mockito.mock(ActorContext.class), message);
+
+      Mockito.verify(optional, Mockito.never()).close();
+      release.countDown();
+      Assert.assertTrue(appended.await(5, TimeUnit.SECONDS));
+
+      InOrder inOrder = Mockito.inOrder(optional, updated);
+      inOrder.verify(optional, Mockito.times(2)).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+      inOrder.verify(optional).close();
+      inOrder.verify(updated).doAppend(Mockito.any(LogEventPack.class), Mockito.any());
+    } finally {
+      bulkhead.shutdown();
+    }
+  }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import akka.actor.ActorSystem;
+import akka.testkit.JavaTestKit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.user.UserVerifierDto;
+import org.kaaproject.kaa.server.common.verifier.UserVerifier;
+import org.kaaproject.kaa.server.common.verifier.UserVerifierCallback;
+import org.kaaproject.kaa.server.common.verifier.UserVerifierContext;
+import org.kaaproject.kaa.server.common.verifier.UserVerifierErrorCode;
+import org.kaaproject.kaa.server.operations.service.akka.Bulkhead;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.verification.UserVerificationRequestMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.user.verification.UserVerificationResponseMessage;
+import org.kaaproject.kaa.server.operations.service.user.EndpointUserService;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+public class ApplicationUserVerifierActorMessageProcessorTest {
+
+  private static final String APPLICATION_ID = "application_id";
+  private static final String VERIFIER_TOKEN = "verifier_token";
+  private static final String USER_ID = "user_id";
+
+  private EndpointUserService endpointUserService;
+  private Bulkhead bulkhead;
+  private ActorSystem system;
+  private JavaTestKit originator;
+
+  @Before
+  public void before() {
+    UserVerifierDto verifierDto = new UserVerifierDto();
+    verifierDto.setVerifierToken(VERIFIER_TOKEN);
+    verifierDto.setPluginClassName(TestUserVerifier.class.getName());
+    endpointUserService = Mockito.mock(EndpointUserService.class);
+    Mockito.when(endpointUserService.findUserVerifiers(APPLICATION_ID))
+        .thenReturn(Collections.singletonList(verifierDto));
+    bulkhead = new Bulkhead("verifiers", 1, 1);
+    system = ActorSystem.create("applicationUserVerifierTest");
+    originator = new JavaTestKit(system);
+  }
+
+  @After
+  public void after() {
+    bulkhead.shutdown();
+    JavaTestKit.shutdownActorSystem(system);
+  }
+
+  @Test
+  public void testUserIsVerifiedOnBulkhead() {
+    ApplicationUserVerifierActorMessageProcessor processor =
+        new ApplicationUserVerifierActorMessageProcessor(endpointUserService, APPLICATION_ID,
+            bulkhead);
+
+    processor.verifyUser(new UserVerificationRequestMessage(originator.getRef(),
+        VERIFIER_TOKEN, USER_ID, TestUserVerifier.VALID_TOKEN));
+
+    Assert.assertTrue(expectResponse().isSuccess());
+  }
+
+  @Test
+  public void testRejectedVerificationIsAnswered() {
+    bulkhead.shutdown();
+    ApplicationUserVerifierActorMessageProcessor processor =
+        new ApplicationUserVerifierActorMessageProcessor(endpointUserService, APPLICATION_ID,
+            bulkhead);
+
+    processor.verifyUser(new UserVerificationRequestMessage(originator.getRef(),
+        VERIFIER_TOKEN, USER_ID, TestUserVerifier.VALID_TOKEN));
+
+    UserVerificationResponseMessage response = expectResponse();
+    Assert.assertFalse(response.isSuccess());
+    Assert.assertEquals(UserVerifierErrorCode.INTERNAL_ERROR, response.getErrorCode());
+    Assert.assertEquals(1, bulkhead.getRejectedCount());
+  }
+
+  @Test
+  public void testFailedVerificationIsAnswered() {
+    ApplicationUserVerifierActorMessageProcessor processor =
+        new ApplicationUserVerifierActorMessageProcessor(endpointUserService, APPLICATION_ID,
+            bulkhead);
+
+    processor.verifyUser(new UserVerificationRequestMessage(originator.getRef(),
+        VERIFIER_TOKEN, USER_ID, "broken token"));
+
+    UserVerificationResponseMessage response = expectResponse();
+    Assert.assertFalse(response.isSuccess());
+    Assert.assertEquals(UserVerifierErrorCode.INTERNAL_ERROR, response.getErrorCode());
+  }
+
+  private UserVerificationResponseMessage expectResponse() {
+    return originator.expectMsgClass(JavaTestKit.duration("5 seconds"),
+        UserVerificationResponseMessage.class);
+  }
+
+  /**
+   * Accepts the valid token and fails on any other one.
+   */
+  public static class TestUserVerifier implements UserVerifier {
+
+    static final String VALID_TOKEN = "valid token";
+
+    @Override
+    public void init(UserVerifierContext context) {
+    }
+
+    @Override
+    public void checkAccessToken(String userExternalId, String accessToken,
+                                 UserVerifierCallback callback) {
+      if (!VALID_TOKEN.equals(accessToken)) {
+        throw new IllegalStateException("Unexpected token");
+      }
+      callback.onSuccess();
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.DeadLetter;
+import akka.actor.Props;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.SyncRequestMessage;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
+import org.kaaproject.kaa.server.sync.ClientSync;
+import org.kaaproject.kaa.server.transport.channel.ChannelType;
+import org.kaaproject.kaa.server.transport.session.SessionInfo;
+
+import java.util.UUID;
+
+public class SyncRequestDeadLetterListenerTest {
+
+  private static final long TIMEOUT = 5000;
+
+  private ActorSystem system;
+  private OperationsLoadStats loadStats;
+
+  @Before
+  public void before() {
+    system = ActorSystem.create("deadLetterListenerTest");
+    loadStats = new OperationsLoadStats();
+    ActorRef listener = system.actorOf(Props.create(
+        new SyncRequestDeadLetterListener.ActorCreator(loadStats)));
+    system.eventStream().subscribe(listener, DeadLetter.class);
+  }
+
+  @After
+  public void after() {
+    system.terminate();
+  }
+
+  @Test
+  public void testDroppedSyncRequestIsDequeued() throws Exception {
+    SyncRequestMessage message = syncRequest();
+    message.markQueued();
+    loadStats.onSyncRequestQueued();
+    Assert.assertEquals(1, loadStats.getLoadStats().getMailboxDepth().intValue());
+
+    system.deadLetters().tell(message, ActorRef.noSender());
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (loadStats.getLoadStats().getMailboxDepth() > 0
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assert.assertEquals(0, loadStats.getLoadStats().getMailboxDepth().intValue());
+  }
+
+  @Test
+  public void testSyncRequestIsDequeuedOnce() {
+    SyncRequestMessage message = syncRequest();
+    Assert.assertFalse(message.markDequeued());
+    message.markQueued();
+    Assert.assertTrue(message.markDequeued());
+    Assert.assertFalse(message.markDequeued());
+  }
+
+  private static SyncRequestMessage syncRequest() {
+    SessionInfo session = new SessionInfo(UUID.randomUUID(), 0, null, ChannelType.ASYNC, null,
+        EndpointObjectHash.fromSha1("endpoint"), "appToken", "sdkToken", 100, false);
+    return new SyncRequestMessage(session, new ClientSync(), null, ActorRef.noSender());
+  }
+}
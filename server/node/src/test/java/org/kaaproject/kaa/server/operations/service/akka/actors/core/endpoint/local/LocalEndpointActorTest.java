@@ -0,0 +1,173 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.akka.actors.core.endpoint.local;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.testkit.JavaTestKit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+import org.kaaproject.kaa.server.operations.pojo.SyncContext;
+import org.kaaproject.kaa.server.operations.service.OperationsService;
+import org.kaaproject.kaa.server.operations.service.akka.AkkaContext;
+import org.kaaproject.kaa.server.operations.service.akka.messages.core.endpoint.SyncRequestMessage;
+import org.kaaproject.kaa.server.operations.service.akka.messages.io.response.NettySessionResponseMessage;
+import org.kaaproject.kaa.server.operations.service.loadbalance.OperationsLoadStats;
+import org.kaaproject.kaa.server.sync.ClientSync;
+import org.kaaproject.kaa.server.sync.ClientSyncMetaData;
+import org.kaaproject.kaa.server.transport.channel.ChannelType;
+import org.kaaproject.kaa.server.transport.message.Message;
+import org.kaaproject.kaa.server.transport.session.SessionInfo;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests of the endpoint actor in the async sync mode.
+ */
+public class LocalEndpointActorTest {
+
+  private static final String APP_TOKEN = "APP_TOKEN";
+  private static final EndpointObjectHash ENDPOINT_KEY = EndpointObjectHash.fromSha1("key");
+
+  private ActorSystem system;
+  private ExecutorService syncExecutor;
+  private OperationsService operationsService;
+  private AkkaContext context;
+
+  @Before
+  public void before() {
+    system = ActorSystem.create("localEndpointActorTest");
+    syncExecutor = Executors.newSingleThreadExecutor();
+    operationsService = Mockito.mock(OperationsService.class,
+        invocation -> invocation.getArguments().length > 0
+            && invocation.getArguments()[0] instanceof SyncContext
+            ? invocation.getArguments()[0] : null);
+    context = Mockito.mock(AkkaContext.class);
+    Mockito.when(context.getOperationsService()).thenReturn(operationsService);
+    Mockito.when(context.isAsyncEndpointSync()).thenReturn(true);
+    Mockito.when(context.getEndpointSyncExecutor()).thenReturn(syncExecutor);
+    Mockito.when(context.getLoadStats()).thenReturn(new OperationsLoadStats());
+    Mockito.when(context.getLocalEndpointTimeout()).thenReturn(60000L);
+  }
+
+  @After
+  public void after() {
+    syncExecutor.shutdownNow();
+    JavaTestKit.shutdownActorSystem(system);
+  }
+
+  @Test
+  public void testSyncResultIsReplied() {
+    JavaTestKit probe = new JavaTestKit(system);
+    ActorRef endpointActor = createEndpointActor();
+
+    endpointActor.tell(syncRequest(1, probe.getRef()), ActorRef.noSender());
+
+    NettySessionResponseMessage response = expectResponse(probe);
+    Assert.assertNull(response.getError());
+    Assert.assertEquals(1, response.getResponse().getRequestId());
+  }
+
+  @Test
+  public void testSyncRequestsAreRepliedInOrder() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.when(operationsService.syncClientProfile(Mockito.any(SyncContext.class),
+        Mockito.any())).thenAnswer(invocation -> {
+          release.await(5, TimeUnit.SECONDS);
+          return invocation.getArguments()[0];
+        });
+    JavaTestKit probe = new JavaTestKit(system);
+    ActorRef endpointActor = createEndpointActor();
+
+    endpointActor.tell(syncRequest(1, probe.getRef()), ActorRef.noSender());
+    endpointActor.tell(syncRequest(2, probe.getRef()), ActorRef.noSender());
+    endpointActor.tell(syncRequest(3, probe.getRef()), ActorRef.noSender());
+    release.countDown();
+
+    for (int requestId = 1; requestId <= 3; requestId++) {
+      Assert.assertEquals(requestId, expectResponse(probe).getResponse().getRequestId());
+    }
+  }
+
+  @Test
+  public void testSyncFailedWithErrorIsReplied() throws Exception {
+    Mockito.when(operationsService.syncClientProfile(Mockito.any(SyncContext.class),
+        Mockito.any()))
+        .thenThrow(new AssertionError("sync failed"))
+        .thenAnswer(AdditionalAnswers.returnsFirstArg());
+    JavaTestKit probe = new JavaTestKit(system);
+    ActorRef endpointActor = createEndpointActor();
+
+    endpointActor.tell(syncRequest(1, probe.getRef()), ActorRef.noSender());
+    endpointActor.tell(syncRequest(2, probe.getRef()), ActorRef.noSender());
+
+    NettySessionResponseMessage response = expectResponse(probe);
+    Assert.assertNotNull(response.getError());
+    Assert.assertTrue(response.getError().getCause() instanceof AssertionError);
+    response = expectResponse(probe);
+    Assert.assertNull(response.getError());
+    Assert.assertEquals(2, response.getResponse().getRequestId());
+  }
+
+  @Test
+  public void testRejectedSyncIsReplied() {
+    syncExecutor.shutdown();
+    JavaTestKit probe = new JavaTestKit(system);
+    ActorRef endpointActor = createEndpointActor();
+
+    endpointActor.tell(syncRequest(1, probe.getRef()), ActorRef.noSender());
+    endpointActor.tell(syncRequest(2, probe.getRef()), ActorRef.noSender());
+
+    Assert.assertTrue(expectResponse(probe).getError() instanceof RejectedExecutionException);
+    Assert.assertTrue(expectResponse(probe).getError() instanceof RejectedExecutionException);
+  }
+
+  private ActorRef createEndpointActor() {
+    return system.actorOf(Props.create(
+        new LocalEndpointActorCreator(context, "actorKey", APP_TOKEN, ENDPOINT_KEY)));
+  }
+
+  private static NettySessionResponseMessage expectResponse(JavaTestKit probe) {
+    return probe.expectMsgClass(JavaTestKit.duration("5 seconds"),
+        NettySessionResponseMessage.class);
+  }
+
+  private static SyncRequestMessage syncRequest(int requestId, ActorRef originator) {
+    SessionInfo session = new SessionInfo(UUID.randomUUID(), 0, null, ChannelType.SYNC, null,
+        ENDPOINT_KEY, APP_TOKEN, "sdkToken", 100, false);
+    ClientSyncMetaData metaData = new ClientSyncMetaData();
+    metaData.setApplicationToken(APP_TOKEN);
+    metaData.setProfileHash(ByteBuffer.wrap(new byte[]{1}));
+    ClientSync request = new ClientSync();
+    request.setRequestId(requestId);
+    request.setClientSyncMetaData(metaData);
+    return new SyncRequestMessage(session, request, Mockito.mock(Message.class), originator);
+  }
+}
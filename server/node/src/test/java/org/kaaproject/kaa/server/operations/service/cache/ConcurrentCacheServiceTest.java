@@ -60,6 +60,7 @@ import org.kaaproject.kaa.server.common.dao.ProfileService;
 import org.kaaproject.kaa.server.common.dao.SdkProfileService;
 import org.kaaproject.kaa.server.operations.pojo.exceptions.GetDeltaException;
 import org.kaaproject.kaa.server.operations.service.cache.concurrent.ConcurrentCacheService;
+import org.kaaproject.kaa.server.operations.service.cache.concurrent.EndpointKeySnapshot;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFamilyVersion;
 import org.kaaproject.kaa.server.operations.service.event.EventClassFqnVersion;
 import org.kaaproject.kaa.server.operations.service.event.RouteTableKey;
@@ -73,6 +74,8 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.GeneralSecurityException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.KeyPairGenerator;
 import java.security.PublicKey;
 import java.security.SecureRandom;
@@ -715,6 +718,52 @@ public class ConcurrentCacheServiceTest extends AbstractTest {
     reset(endpointService);
   }
 
+  @Test
+  public void testMissingEndpointKeyIsCached() throws GetDeltaException {
+    assertNull(cacheService.getEndpointKey(publicKeyHash2));
+    assertNull(cacheService.getEndpointKey(publicKeyHash2));
+    verify(endpointService, times(1)).findEndpointProfileByKeyHash(publicKeyHash2.getData());
+    reset(endpointService);
+
+    cacheService.putEndpointKey(publicKeyHash2, publicKey2);
+    assertEquals(publicKey2, cacheService.getEndpointKey(publicKeyHash2));
+    verify(endpointService, times(0)).findEndpointProfileByKeyHash(publicKeyHash2.getData());
+  }
+
+  @Test
+  public void testSnapshotWarmUpSkipsDeregisteredEndpoints() throws Exception {
+    KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+    keyGen.initialize(512);
+    PublicKey registeredKey = keyGen.genKeyPair().getPublic();
+    EndpointObjectHash registeredHash = EndpointObjectHash.fromSha1(registeredKey.getEncoded());
+    EndpointObjectHash deregisteredHash = EndpointObjectHash.fromSha1(
+        keyGen.genKeyPair().getPublic().getEncoded());
+    EndpointProfileDto registered = new EndpointProfileDto();
+    registered.setEndpointKey(registeredKey.getEncoded());
+    when(endpointService.findEndpointProfileByKeyHash(registeredHash.getData()))
+        .thenReturn(registered);
+
+    Path location = Files.createTempFile("endpoint-keys", ".snapshot");
+    try {
+      EndpointKeySnapshot snapshot = new EndpointKeySnapshot(location);
+      snapshot.write(Arrays.asList(registeredHash, deregisteredHash));
+      ReflectionTestUtils.setField(cacheService, "endpointKeySnapshot", snapshot);
+      List<EndpointObjectHash> hashes = new ArrayList<>();
+      snapshot.read(60000, hashes::add);
+      ReflectionTestUtils.invokeMethod(cacheService, "warmUpEndpointKeys", hashes);
+      verify(endpointService, times(1)).findEndpointProfileByKeyHash(registeredHash.getData());
+      verify(endpointService, times(1)).findEndpointProfileByKeyHash(deregisteredHash.getData());
+      reset(endpointService);
+
+      assertEquals(registeredKey, cacheService.getEndpointKey(registeredHash));
+      assertNull(cacheService.getEndpointKey(deregisteredHash));
+      verify(endpointService, times(0)).findEndpointProfileByKeyHash(registeredHash.getData());
+    } finally {
+      ReflectionTestUtils.setField(cacheService, "endpointKeySnapshot", null);
+      Files.deleteIfExists(location);
+    }
+  }
+
   @Test
   public void testConcurrentGetEndpointMultipleTimes() throws GetDeltaException {
     for (int i = 0; i < STRESS_TEST_INVOCATIONS; i++) {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.concurrent;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.kaaproject.kaa.common.endpoint.security.KeyUtil;
+import org.kaaproject.kaa.common.hash.EndpointObjectHash;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class EndpointKeySnapshotTest {
+
+  private static final long MAX_AGE = 60000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    List<EndpointObjectHash> entries = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      entries.add(EndpointObjectHash.fromSha1(
+          KeyUtil.generateKeyPair().getPublic().getEncoded()));
+    }
+    EndpointKeySnapshot snapshot = new EndpointKeySnapshot(
+        folder.getRoot().toPath().resolve("keys.snapshot"));
+    Assert.assertEquals(3, snapshot.write(entries));
+
+    List<EndpointObjectHash> loaded = new ArrayList<>();
+    Assert.assertEquals(3, snapshot.read(MAX_AGE, loaded::add));
+    Assert.assertEquals(entries, loaded);
+
+    loaded.clear();
+    Assert.assertEquals(0, snapshot.read(-1, loaded::add));
+    Assert.assertTrue(loaded.isEmpty());
+  }
+
+  @Test
+  public void testReadMissingOrCorrupted() throws Exception {
+    Path location = folder.getRoot().toPath().resolve("keys.snapshot");
+    EndpointKeySnapshot snapshot = new EndpointKeySnapshot(location);
+    List<EndpointObjectHash> loaded = new ArrayList<>();
+    Assert.assertEquals(0, snapshot.read(MAX_AGE, loaded::add));
+
+    Files.write(location, new byte[] {0, 0, 0, 2, 0, 0});
+    Assert.assertEquals(0, snapshot.read(MAX_AGE, loaded::add));
+    Assert.assertTrue(loaded.isEmpty());
+  }
+}
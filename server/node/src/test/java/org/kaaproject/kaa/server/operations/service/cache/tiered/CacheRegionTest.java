@@ -0,0 +1,142 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.cache.tiered;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.server.operations.service.cache.Computable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CacheRegionTest {
+
+  private static final int N_THREADS = 20;
+
+  private static CacheRegion<Integer, String> createRegion(long maxWeight, long offHeapMaxSize,
+                                                           Computable<Integer, String> loader) {
+    CacheRegionConfig config = new CacheRegionConfig("test", maxWeight, CacheValueWeigher.ENTRIES,
+        0, 0, 0, offHeapMaxSize);
+    return new CacheRegion<>(config, loader, Runnable::run);
+  }
+
+  private static void launchCodeInParallelThreads(final int nThreads, final Runnable task)
+      throws InterruptedException {
+    final CountDownLatch startGate = new CountDownLatch(1);
+    final CountDownLatch endGate = new CountDownLatch(nThreads);
+
+    for (int i = 0; i < nThreads; i++) {
+      Thread thread = new Thread(() -> {
+        try {
+          startGate.await();
+          task.run();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        } finally {
+          endGate.countDown();
+        }
+      });
+      thread.start();
+    }
+
+    startGate.countDown();
+    endGate.await();
+  }
+
+  @Test
+  public void testParallelLoadIsPerformedOnce() throws InterruptedException {
+    final AtomicInteger loads = new AtomicInteger();
+    final CacheRegion<Integer, String> region = createRegion(100, 0, key -> {
+      loads.incrementAndGet();
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return String.valueOf(key);
+    });
+
+    launchCodeInParallelThreads(N_THREADS, () -> Assert.assertEquals("42", region.get(42)));
+
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(1, region.getLoadCount());
+  }
+
+  @Test
+  public void testNullValueIsNotCached() {
+    final AtomicInteger loads = new AtomicInteger();
+    CacheRegion<Integer, String> region = createRegion(100, 0, null);
+    Computable<Integer, String> worker = key -> {
+      loads.incrementAndGet();
+      return null;
+    };
+
+    Assert.assertNull(region.get(42, worker));
+    Assert.assertNull(region.get(42, worker));
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals(0, region.getSize());
+  }
+
+  @Test
+  public void testPutAndInvalidate() {
+    final AtomicInteger loads = new AtomicInteger();
+    CacheRegion<Integer, String> region = createRegion(100, 0, null);
+    Computable<Integer, String> worker = key -> {
+      loads.incrementAndGet();
+      return "loaded";
+    };
+
+    Assert.assertEquals("put", region.put(42, "put"));
+    Assert.assertEquals("put", region.get(42, worker));
+    Assert.assertEquals(0, loads.get());
+
+    region.invalidate(42);
+    Assert.assertEquals("loaded", region.get(42, worker));
+    Assert.assertEquals(1, loads.get());
+
+    region.put(42, null);
+    Assert.assertEquals(0, region.getSize());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetWithoutLoader() {
+    createRegion(100, 0, null).get(42);
+  }
+
+  @Test
+  public void testEvictedValueIsPromotedFromOffHeap() {
+    final AtomicInteger loads = new AtomicInteger();
+    CacheRegion<Integer, String> region = createRegion(1, 1024 * 1024, key -> {
+      loads.incrementAndGet();
+      return String.valueOf(key);
+    });
+
+    Assert.assertEquals("1", region.get(1));
+    Assert.assertEquals("2", region.get(2));
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals(1, region.getOffHeapEntryCount());
+
+    Assert.assertEquals("1", region.get(1));
+    Assert.assertEquals(2, loads.get());
+    Assert.assertEquals(1, region.getOffHeapHitCount());
+
+    region.invalidateAll();
+    Assert.assertEquals(0, region.getOffHeapEntryCount());
+    Assert.assertEquals("2", region.get(2));
+    Assert.assertEquals(3, loads.get());
+  }
+}
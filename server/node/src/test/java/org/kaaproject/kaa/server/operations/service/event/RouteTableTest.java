@@ -21,14 +21,17 @@ import org.junit.Before;
 import org.junit.Test;
 import org.kaaproject.kaa.common.hash.EndpointObjectHash;
 
+import java.util.ArrayList;
 import java.util.Collections;
 
 public class RouteTableTest {
 
   private static final String SERVER1 = "server1";
+  private static final String SERVER2 = "server2";
   private static final String ECF1 = "ECF1";
   private static final String APP_TOKEN = "APP_TOKEN";
   private static final EndpointObjectHash endpoint = EndpointObjectHash.fromSha1("endpoint1");
+  private static final EndpointObjectHash endpoint2 = EndpointObjectHash.fromSha1("endpoint2");
 
   private RouteTable testTable;
 
@@ -132,6 +135,44 @@ public class RouteTableTest {
     Assert.assertEquals(0, testTable.getRemoteServers().size());
   }
 
+  @Test
+  public void testClearServerDataKeepsOtherServers() {
+    RouteTableKey key1 = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    RouteTableKey key2 = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 2));
+    RouteTableAddress server1Address = new RouteTableAddress(endpoint, APP_TOKEN, SERVER1);
+    RouteTableAddress server2Address = new RouteTableAddress(endpoint2, APP_TOKEN, SERVER2);
+    testTable.add(key1, server1Address);
+    testTable.add(key2, server1Address);
+    testTable.add(key1, server2Address);
+    testTable.registerRouteInfoReport(Collections.singleton(server2Address), SERVER1);
+    testTable.registerRouteInfoReport(Collections.singleton(server2Address), SERVER2);
+
+    testTable.clearRemoteServerData(SERVER1);
+
+    Assert.assertEquals(Collections.singletonList(server2Address),
+        new ArrayList<>(testTable.getRoutes(key1, null)));
+    Assert.assertEquals(0, testTable.getRoutes(key2, null).size());
+    Assert.assertEquals(Collections.singleton(SERVER2), testTable.getRemoteServers());
+    Assert.assertTrue(testTable.isDeliveryRequired(SERVER1, server2Address));
+    Assert.assertFalse(testTable.isDeliveryRequired(SERVER2, server2Address));
+  }
+
+  @Test
+  public void testEndpointMovedToAnotherServer() {
+    RouteTableKey remoteKey = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
+    RouteTableAddress oldAddress = new RouteTableAddress(endpoint, APP_TOKEN, SERVER1);
+    RouteTableAddress newAddress = new RouteTableAddress(endpoint, APP_TOKEN, SERVER2);
+    testTable.add(remoteKey, oldAddress);
+    testTable.add(remoteKey, newAddress);
+
+    testTable.clearRemoteServerData(SERVER1);
+    Assert.assertEquals(Collections.singletonList(newAddress),
+        new ArrayList<>(testTable.getRoutes(remoteKey, null)));
+
+    testTable.removeLocal(endpoint);
+    Assert.assertEquals(0, testTable.getRoutes(remoteKey, null).size());
+  }
+
   @Test
   public void testRouteInfoReport() {
     RouteTableKey localKey = new RouteTableKey(APP_TOKEN, new EventClassFamilyVersion(ECF1, 1));
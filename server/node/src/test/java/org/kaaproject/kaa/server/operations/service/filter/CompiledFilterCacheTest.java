@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.filter;
+
+import org.apache.avro.Schema;
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.ProfileFilterDto;
+import org.kaaproject.kaa.common.endpoint.gen.ExtendedEndpointProfile;
+import org.springframework.expression.Expression;
+
+public class CompiledFilterCacheTest {
+
+  private static final String FILTER_ID = "filterId";
+  private static final String SCHEMA = ExtendedEndpointProfile.SCHEMA$.toString();
+
+  @Test
+  public void testFilterIsParsedOnce() {
+    CompiledFilterCache cache = new CompiledFilterCache();
+    ProfileFilterDto filter = buildFilter(1L, "true");
+
+    Expression first = cache.getExpression(filter);
+    Expression second = cache.getExpression(filter);
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.getFilterMisses());
+    Assert.assertEquals(1, cache.getFilterHits());
+  }
+
+  @Test
+  public void testFilterIsReparsedOnVersionChange() {
+    CompiledFilterCache cache = new CompiledFilterCache();
+    Expression first = cache.getExpression(buildFilter(1L, "true"));
+    Expression second = cache.getExpression(buildFilter(2L, "false"));
+
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(Boolean.FALSE, second.getValue(Boolean.class));
+    Assert.assertEquals(2, cache.getFilterMisses());
+  }
+
+  @Test
+  public void testResetFilter() {
+    CompiledFilterCache cache = new CompiledFilterCache();
+    ProfileFilterDto filter = buildFilter(1L, "true");
+    Expression first = cache.getExpression(filter);
+    cache.resetFilter(FILTER_ID);
+
+    Assert.assertNotSame(first, cache.getExpression(filter));
+    Assert.assertEquals(0, cache.getFilterHits());
+  }
+
+  @Test
+  public void testSchemaIsParsedOnce() {
+    CompiledFilterCache cache = new CompiledFilterCache();
+    Schema first = cache.getSchema(SCHEMA);
+    Schema second = cache.getSchema(SCHEMA);
+
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, cache.getSchemaMisses());
+    Assert.assertEquals(1, cache.getSchemaHits());
+  }
+
+  @Test
+  public void testFilterCacheIsBounded() {
+    CompiledFilterCache cache = new CompiledFilterCache(1, 1);
+    ProfileFilterDto filter = buildFilter(1L, "true");
+    ProfileFilterDto other = buildFilter(1L, "false");
+    other.setId("otherFilterId");
+
+    cache.getExpression(filter);
+    cache.getExpression(other);
+    cache.getExpression(filter);
+
+    Assert.assertEquals(3, cache.getFilterMisses());
+    Assert.assertEquals(0, cache.getFilterHits());
+  }
+
+  @Test
+  public void testSchemaCacheIsBounded() {
+    CompiledFilterCache cache = new CompiledFilterCache(1, 1);
+    cache.getSchema(SCHEMA);
+    cache.getSchema(Schema.create(Schema.Type.STRING).toString());
+    cache.getSchema(SCHEMA);
+
+    Assert.assertEquals(3, cache.getSchemaMisses());
+    Assert.assertEquals(0, cache.getSchemaHits());
+  }
+
+  private static ProfileFilterDto buildFilter(Long version, String body) {
+    ProfileFilterDto filter = new ProfileFilterDto();
+    filter.setId(FILTER_ID);
+    filter.setVersion(version);
+    filter.setBody(body);
+    return filter;
+  }
+}
@@ -340,6 +340,46 @@ public class DefaultHistoryDeltaServiceTest {
     Assert.assertEquals(1, historyDelta.getEndpointGroupStates().size());
   }
 
+  @Test
+  public void testDeltaMemoizedForSameGroupStates() {
+    ReflectionTestUtils.setField(historyDeltaService, "deltaCacheSize", 100);
+    ReflectionTestUtils.setField(historyDeltaService, "deltaCacheTtl", 3600L);
+    ((DefaultHistoryDeltaService) historyDeltaService).init();
+    Mockito.when(cacheService.getHistory(Mockito.any(HistoryKey.class))).thenReturn(toList(toDto(ChangeType.REMOVE_CONF, EG1_ID)));
+    Mockito.when(cacheService.getConfIdByKey(Mockito.any(ConfigurationIdKey.class))).thenReturn(CF2_ID);
+
+    profile.setGroupState(toList(new EndpointGroupStateDto(EG1_ID, PF1_ID, CF1_ID)));
+    HistoryDelta first = historyDeltaService.getDelta(profile, APP1_TOKEN, 101, 102);
+    first.getEndpointGroupStates().get(0).setConfigurationId(null);
+
+    profile.setGroupState(toList(new EndpointGroupStateDto(EG1_ID, PF1_ID, CF1_ID)));
+    HistoryDelta second = historyDeltaService.getDelta(profile, APP1_TOKEN, 101, 102);
+
+    Assert.assertTrue(second.isConfigurationChanged());
+    Assert.assertFalse(second.isTopicListChanged());
+    Assert.assertEquals(1, second.getEndpointGroupStates().size());
+    Assert.assertEquals(CF2_ID, second.getEndpointGroupStates().get(0).getConfigurationId());
+    Mockito.verify(cacheService, Mockito.times(1)).getConfIdByKey(Mockito.any(ConfigurationIdKey.class));
+  }
+
+  @Test
+  public void testDeltaNotMemoizedForDifferentFilterMatches() {
+    ReflectionTestUtils.setField(historyDeltaService, "deltaCacheSize", 100);
+    ReflectionTestUtils.setField(historyDeltaService, "deltaCacheTtl", 3600L);
+    ((DefaultHistoryDeltaService) historyDeltaService).init();
+    Mockito.when(cacheService.getHistory(Mockito.any(HistoryKey.class))).thenReturn(toList(toDto(ChangeType.ADD_PROF, EG2_ID, PF2_ID)));
+    Mockito.when(filterService.matches(Mockito.anyString(), Mockito.anyString(), Mockito.any(EndpointProfileDto.class))).thenReturn(true, false);
+
+    profile.setGroupState(toList(new EndpointGroupStateDto(EG1_ID, PF1_ID, CF1_ID)));
+    HistoryDelta matching = historyDeltaService.getDelta(profile, APP1_TOKEN, 101, 102);
+    profile.setGroupState(toList(new EndpointGroupStateDto(EG1_ID, PF1_ID, CF1_ID)));
+    HistoryDelta notMatching = historyDeltaService.getDelta(profile, APP1_TOKEN, 101, 102);
+
+    Assert.assertEquals(2, matching.getEndpointGroupStates().size());
+    Assert.assertEquals(1, notMatching.getEndpointGroupStates().size());
+    Assert.assertFalse(notMatching.isConfigurationChanged());
+  }
+
   public List<EndpointGroupStateDto> toList(EndpointGroupStateDto... dtos) {
     List<EndpointGroupStateDto> result = new ArrayList<>();
     for (EndpointGroupStateDto dto : dtos) {
@@ -74,6 +74,7 @@ public class DefaultNotificationDeltaServiceTest {
   private TopicService topicService;
   private EndpointService endpointService;
   private CacheService cacheService;
+  private NotificationStore notificationStore;
 
   @Before
   public void before() {
@@ -82,11 +83,15 @@ public class DefaultNotificationDeltaServiceTest {
     topicService = mock(TopicService.class);
     endpointService = mock(EndpointService.class);
     cacheService = mock(CacheService.class);
+    notificationStore = mock(NotificationStore.class);
+    Mockito.when(notificationStore.find(Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(),
+        Mockito.anyInt())).thenReturn(null);
 
     ReflectionTestUtils.setField(notificationDeltaService, "cacheService", cacheService);
     ReflectionTestUtils.setField(notificationDeltaService, "notificationService", notificationService);
     ReflectionTestUtils.setField(notificationDeltaService, "topicService", topicService);
     ReflectionTestUtils.setField(notificationDeltaService, "endpointService", endpointService);
+    ReflectionTestUtils.setField(notificationDeltaService, "notificationStore", notificationStore);
   }
 
   @Test
@@ -288,4 +293,36 @@ public class DefaultNotificationDeltaServiceTest {
     Assert.assertNull(response.getTopicList());
   }
 
+  @Test
+  public void getNotificationDeltaFromStore() {
+    EndpointProfileDto profile = new EndpointProfileDto();
+    profile.setEndpointKeyHash(ENDPOINT_KEY_HASH_BYTES);
+    profile.setSubscriptions(Collections.singletonList(T1));
+
+    NotificationDto t1Nf43 = new NotificationDto();
+    t1Nf43.setId(T1NF43);
+    t1Nf43.setSecNum(43);
+    t1Nf43.setExpiredAt(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(7)));
+
+    Mockito.when(notificationStore.find(T1, 42, 0, 0)).thenReturn(Collections.singletonList(t1Nf43));
+    Mockito.when(notificationService.findUnicastNotificationsByKeyHash(ENDPOINT_KEY_HASH_BYTES)).thenReturn(
+        Collections.<EndpointNotificationDto>emptyList());
+
+    GetNotificationRequest request = new GetNotificationRequest(0, profile, null, null,
+        Collections.singletonList(new TopicState(T1, 42)));
+    GetNotificationResponse response = notificationDeltaService.getNotificationDelta(request);
+
+    Mockito.verify(notificationService, Mockito.never()).findNotificationsByTopicIdAndVersionAndStartSecNum(
+        Mockito.anyString(), Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt());
+    Assert.assertEquals(1, response.getNotifications().size());
+    Assert.assertEquals(T1NF43, response.getNotifications().get(0).getId());
+    Assert.assertEquals(new Integer(43), response.getSubscriptionStates().get(T1));
+  }
+
+  @Test
+  public void testOnNotification() {
+    NotificationDto notification = new NotificationDto();
+    notificationDeltaService.onNotification(notification);
+    Mockito.verify(notificationStore).put(notification);
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.notification;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.NotificationDto;
+import org.kaaproject.kaa.common.dto.NotificationTypeDto;
+
+import java.util.List;
+
+public class TopicNotificationBufferTest {
+
+  private static final int SYSTEM_VERSION = 1;
+  private static final int USER_VERSION = 2;
+
+  private static NotificationDto notification(int seqNum, NotificationTypeDto type, int version) {
+    NotificationDto notification = new NotificationDto();
+    notification.setId("NF" + seqNum);
+    notification.setSecNum(seqNum);
+    notification.setType(type);
+    notification.setNfVersion(version);
+    return notification;
+  }
+
+  private static NotificationDto notification(int seqNum) {
+    return notification(seqNum, NotificationTypeDto.USER, USER_VERSION);
+  }
+
+  @Test
+  public void testFindAfterBase() {
+    TopicNotificationBuffer buffer = new TopicNotificationBuffer(4, 10);
+    Assert.assertTrue(buffer.find(10, SYSTEM_VERSION, USER_VERSION).isEmpty());
+    Assert.assertNull(buffer.find(9, SYSTEM_VERSION, USER_VERSION));
+
+    buffer.put(notification(11));
+    buffer.put(notification(12, NotificationTypeDto.SYSTEM, SYSTEM_VERSION));
+    buffer.put(notification(13, NotificationTypeDto.USER, USER_VERSION + 1));
+
+    List<NotificationDto> notifications = buffer.find(10, SYSTEM_VERSION, USER_VERSION);
+    Assert.assertEquals(2, notifications.size());
+    Assert.assertEquals(11, notifications.get(0).getSecNum());
+    Assert.assertEquals(12, notifications.get(1).getSecNum());
+    Assert.assertTrue(buffer.find(13, SYSTEM_VERSION, USER_VERSION).isEmpty());
+  }
+
+  @Test
+  public void testOldNotificationsAreIgnored() {
+    TopicNotificationBuffer buffer = new TopicNotificationBuffer(4, 10);
+    buffer.put(notification(10));
+    buffer.put(notification(11));
+    buffer.put(notification(11));
+    Assert.assertEquals(1, buffer.size());
+    Assert.assertEquals(1, buffer.find(10, SYSTEM_VERSION, USER_VERSION).size());
+  }
+
+  @Test
+  public void testOverflow() {
+    TopicNotificationBuffer buffer = new TopicNotificationBuffer(4, 0);
+    for (int i = 1; i <= 6; i++) {
+      buffer.put(notification(i));
+    }
+    Assert.assertEquals(4, buffer.size());
+    Assert.assertNull(buffer.find(1, SYSTEM_VERSION, USER_VERSION));
+    Assert.assertEquals(4, buffer.find(2, SYSTEM_VERSION, USER_VERSION).size());
+  }
+
+  @Test
+  public void testGapRestartsBuffer() {
+    TopicNotificationBuffer buffer = new TopicNotificationBuffer(4, 0);
+    buffer.put(notification(1));
+    buffer.put(notification(3));
+    Assert.assertEquals(1, buffer.size());
+    Assert.assertNull(buffer.find(1, SYSTEM_VERSION, USER_VERSION));
+    Assert.assertEquals(1, buffer.find(2, SYSTEM_VERSION, USER_VERSION).size());
+  }
+}
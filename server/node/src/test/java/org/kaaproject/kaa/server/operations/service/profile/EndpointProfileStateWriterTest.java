@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.operations.service.profile;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.kaa.common.dto.EndpointProfileDto;
+import org.kaaproject.kaa.common.dto.EndpointProfileStateDto;
+import org.kaaproject.kaa.server.common.dao.EndpointService;
+import org.mockito.ArgumentCaptor;
+
+public class EndpointProfileStateWriterTest {
+
+  private EndpointService endpointService;
+
+  @Before
+  public void before() {
+    endpointService = mock(EndpointService.class);
+  }
+
+  @Test
+  public void testSynchronousWrite() {
+    EndpointProfileStateWriter writer = new EndpointProfileStateWriter(endpointService, 0, 1);
+    writer.submit(profile("key1", 1));
+    writer.submit(profile("key1", 2));
+    verify(endpointService, times(2)).updateEndpointProfileState(any(EndpointProfileStateDto.class));
+    Assert.assertEquals(0, writer.getPendingCount());
+    writer.shutdown();
+  }
+
+  @Test
+  public void testSynchronousWriteUpdatesVersion() {
+    when(endpointService.updateEndpointProfileState(any(EndpointProfileStateDto.class)))
+        .thenReturn(6L);
+    EndpointProfileStateWriter writer = new EndpointProfileStateWriter(endpointService, 0, 1);
+    EndpointProfileDto profile = profile("key1", 1);
+    profile.setVersion(5L);
+    writer.submit(profile);
+    Assert.assertEquals(Long.valueOf(6L), profile.getVersion());
+    writer.shutdown();
+  }
+
+  @Test
+  public void testCoalescedWrite() {
+    EndpointProfileStateWriter writer = new EndpointProfileStateWriter(
+        endpointService, 60000, 2);
+    writer.submit(profile("key1", 1));
+    writer.submit(profile("key1", 2));
+    writer.submit(profile("key2", 1));
+    Assert.assertEquals(2, writer.getPendingCount());
+
+    writer.flush();
+    ArgumentCaptor<EndpointProfileStateDto> captor =
+        ArgumentCaptor.forClass(EndpointProfileStateDto.class);
+    verify(endpointService, times(2)).updateEndpointProfileState(captor.capture());
+    for (EndpointProfileStateDto state : captor.getAllValues()) {
+      if ("key1".equals(new String(state.getEndpointKeyHash()))) {
+        Assert.assertEquals(2, state.getSequenceNumber());
+      }
+    }
+    Assert.assertEquals(0, writer.getPendingCount());
+    writer.shutdown();
+  }
+
+  @Test
+  public void testDelayedWrite() {
+    EndpointProfileStateWriter writer = new EndpointProfileStateWriter(endpointService, 10, 1);
+    writer.submit(profile("key1", 1));
+    verify(endpointService, timeout(5000)).updateEndpointProfileState(any(EndpointProfileStateDto.class));
+    writer.shutdown();
+  }
+
+  private static EndpointProfileDto profile(String keyHash, int sequenceNumber) {
+    EndpointProfileDto profile = new EndpointProfileDto();
+    profile.setEndpointKeyHash(keyHash.getBytes());
+    profile.setSequenceNumber(sequenceNumber);
+    return profile;
+  }
+}
@@ -32,6 +32,7 @@ import org.kaaproject.kaa.server.operations.service.akka.AkkaService;
 import org.kaaproject.kaa.server.operations.service.cache.AppProfileVersionsKey;
 import org.kaaproject.kaa.server.operations.service.cache.AppSeqNumber;
 import org.kaaproject.kaa.server.operations.service.cache.CacheService;
+import org.kaaproject.kaa.server.operations.service.filter.CompiledFilterCache;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -51,6 +52,7 @@ public class OperationsThriftServiceTest {
   //mocks
   private AkkaService akkaService;
   private CacheService cacheService;
+  private CompiledFilterCache filterCache;
   private ApplicationService applicationService;
 
   @Before
@@ -59,8 +61,10 @@ public class OperationsThriftServiceTest {
     cacheService = mock(CacheService.class);
     akkaService = mock(AkkaService.class);
     applicationService = mock(ApplicationService.class);
+    filterCache = mock(CompiledFilterCache.class);
 
     ReflectionTestUtils.setField(operationsThriftService, "cacheService", cacheService);
+    ReflectionTestUtils.setField(operationsThriftService, "filterCache", filterCache);
     ReflectionTestUtils.setField(operationsThriftService, "akkaService", akkaService);
     ReflectionTestUtils.setField(operationsThriftService, "applicationService", applicationService);
   }
@@ -86,6 +90,7 @@ public class OperationsThriftServiceTest {
     Mockito.when(cacheService.getFilter(TEST_PF_ID)).thenReturn(pfDto);
     operationsThriftService.onNotification(notification);
     Mockito.verify(applicationService).findAppById(TEST_APP_ID);
+    Mockito.verify(filterCache).resetFilter(TEST_PF_ID);
     Mockito.verify(cacheService).getFilter(TEST_PF_ID);
     Mockito.verify(cacheService).resetFilters(new AppProfileVersionsKey(TEST_APP_TOKEN, TEST_PF_ENDPOINT_SCHEMA_VERSION, TEST_PF_SERVER_SCHEMA_VERSION));
     //Due to notification.setAppSeqNumber(0);
@@ -116,6 +121,7 @@ public class OperationsThriftServiceTest {
     Mockito.when(cacheService.getFilter(TEST_PF_ID)).thenReturn(pfDto);
     operationsThriftService.onNotification(notification);
     Mockito.verify(applicationService).findAppById(TEST_APP_ID);
+    Mockito.verify(filterCache).resetFilter(TEST_PF_ID);
     Mockito.verify(cacheService).getFilter(TEST_PF_ID);
     Mockito.verify(cacheService).resetFilters(new AppProfileVersionsKey(TEST_APP_TOKEN, TEST_PF_ENDPOINT_SCHEMA_VERSION, TEST_PF_SERVER_SCHEMA_VERSION));
     //Due to notification.setAppSeqNumber(TEST_APP_SEQ_NUMBER);
@@ -140,6 +146,7 @@ public class OperationsThriftServiceTest {
     operationsThriftService.onNotification(notification);
     Mockito.verify(applicationService).findAppById(TEST_APP_ID);
     Mockito.verify(cacheService, Mockito.times(0)).getFilter(Mockito.anyString());
+    Mockito.verify(filterCache, Mockito.times(0)).resetFilter(Mockito.anyString());
     Mockito.verify(cacheService, Mockito.times(0)).resetFilters(Mockito.any(AppProfileVersionsKey.class));
     Mockito.verify(cacheService, Mockito.times(0)).putAppSeqNumber(Mockito.anyString(), Mockito.any(AppSeqNumber.class));
     Mockito.verify(akkaService).onNotification(notification);
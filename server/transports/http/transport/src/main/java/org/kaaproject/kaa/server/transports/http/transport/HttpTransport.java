@@ -26,6 +26,7 @@ import io.netty.handler.codec.http.HttpResponse;
 import org.kaaproject.kaa.server.common.server.AbstractNettyServer;
 import org.kaaproject.kaa.server.common.server.CommandFactory;
 import org.kaaproject.kaa.server.common.server.KaaCommandProcessorFactory;
+import org.kaaproject.kaa.server.common.server.NettyServerOptions;
 import org.kaaproject.kaa.server.transport.AbstractKaaTransport;
 import org.kaaproject.kaa.server.transport.RangeExpressionParser;
 import org.kaaproject.kaa.server.transport.SpecificTransportContext;
@@ -83,7 +84,7 @@ public class HttpTransport extends AbstractKaaTransport<AvroHttpConfig> {
     final int maxBodySize = configuration.getMaxBodySize();
 
     this.netty = new AbstractNettyServer(configuration.getBindInterface(),
-        configuration.getBindPort()) {
+        configuration.getBindPort(), toServerOptions(configuration)) {
 
       @Override
       protected ChannelInitializer<SocketChannel> configureInitializer() throws Exception {
@@ -107,6 +108,20 @@ public class HttpTransport extends AbstractKaaTransport<AvroHttpConfig> {
     };
   }
 
+  private static NettyServerOptions toServerOptions(AvroHttpConfig configuration) {
+    NettyServerOptions options = new NettyServerOptions();
+    options.setNativeTransport(configuration.getNativeTransport());
+    options.setAcceptorThreads(configuration.getAcceptorThreads());
+    options.setWorkerThreads(configuration.getWorkerThreads());
+    options.setTcpNoDelay(configuration.getTcpNoDelay());
+    options.setKeepAlive(configuration.getKeepAlive());
+    if (configuration.getWriteBufferHighWaterMark() > 0) {
+      options.setWriteBufferLowWaterMark(configuration.getWriteBufferLowWaterMark());
+      options.setWriteBufferHighWaterMark(configuration.getWriteBufferHighWaterMark());
+    }
+    return options;
+  }
+
   @Override
   public void start() {
     LOG.info("Initializing netty");
@@ -21,6 +21,7 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.SocketChannel;
 
 import org.kaaproject.kaa.server.common.server.AbstractNettyServer;
+import org.kaaproject.kaa.server.common.server.NettyServerOptions;
 import org.kaaproject.kaa.server.transport.AbstractKaaTransport;
 import org.kaaproject.kaa.server.transport.RangeExpressionParser;
 import org.kaaproject.kaa.server.transport.SpecificTransportContext;
@@ -61,8 +62,8 @@ public class TcpTransport extends AbstractKaaTransport<AvroTcpConfig> {
         context.getCommonProperties().getProperty(PUBLIC_INTERFACE_PROP_NAME, LOCALHOST)));
 
     final KaaTcpCommandFactory factory = new KaaTcpCommandFactory();
-    this.netty = new
-        AbstractNettyServer(configuration.getBindInterface(), configuration.getBindPort()) {
+    this.netty = new AbstractNettyServer(configuration.getBindInterface(),
+        configuration.getBindPort(), toServerOptions(configuration)) {
 
       @Override
       protected ChannelInitializer<SocketChannel> configureInitializer() throws Exception {
@@ -82,6 +83,20 @@ public class TcpTransport extends AbstractKaaTransport<AvroTcpConfig> {
     };
   }
 
+  private static NettyServerOptions toServerOptions(AvroTcpConfig configuration) {
+    NettyServerOptions options = new NettyServerOptions();
+    options.setNativeTransport(configuration.getNativeTransport());
+    options.setAcceptorThreads(configuration.getAcceptorThreads());
+    options.setWorkerThreads(configuration.getWorkerThreads());
+    options.setTcpNoDelay(configuration.getTcpNoDelay());
+    options.setKeepAlive(configuration.getKeepAlive());
+    if (configuration.getWriteBufferHighWaterMark() > 0) {
+      options.setWriteBufferLowWaterMark(configuration.getWriteBufferLowWaterMark());
+      options.setWriteBufferHighWaterMark(configuration.getWriteBufferHighWaterMark());
+    }
+    return options;
+  }
+
   @Override
   public void start() {
     LOG.info("Initializing netty");
@@ -16,12 +16,11 @@
 
 package org.kaaproject.kaa.server.transports.tcp.transport.netty;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.handler.codec.bytes.ByteArrayDecoder;
-import io.netty.handler.codec.bytes.ByteArrayEncoder;
 import io.netty.util.Attribute;
 
 import org.kaaproject.kaa.server.common.server.AbstractNettyServer;
@@ -67,9 +66,10 @@ public abstract class AbstractKaaTcpServerInitializer extends ChannelInitializer
     Attribute<UUID> uuidAttr = ch.attr(AbstractNettyServer.UUID_KEY);
     uuidAttr.set(uuid);
 
-    p.addLast("binaryDecoder", new ByteArrayDecoder());
+    ch.config().setAllocator(PooledByteBufAllocator.DEFAULT);
+
+    p.addLast("kaaTcpFrameDecoder", new KaaTcpFrameDecoder());
     p.addLast("kaaTcpDecoder", getDecoder());
-    p.addLast("binaryEncoder", new ByteArrayEncoder());
     p.addLast("kaaTcpEncoder", new KaaTcpEncoder());
     p.addLast("mainHandler", getMainHandler(uuid));
     p.addLast("kaaTcpExceptionHandler", new KaaTcpExceptionHandler());
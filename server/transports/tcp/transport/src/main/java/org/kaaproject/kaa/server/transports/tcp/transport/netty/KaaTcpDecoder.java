@@ -16,6 +16,8 @@
 
 package org.kaaproject.kaa.server.transports.tcp.transport.netty;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 
@@ -26,14 +28,13 @@ import org.kaaproject.kaa.server.common.server.KaaCommandProcessorFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-
 /**
  * KaaTcpDecoder Class.
+ * Decodes frames emitted by {@link KaaTcpFrameDecoder}.
  *
  * @author Yaroslav Zeygerman
  */
-public class KaaTcpDecoder extends SimpleChannelInboundHandler<byte[]> {
+public class KaaTcpDecoder extends SimpleChannelInboundHandler<ByteBuf> {
   public static final String KAA_TCP_COMMAND_NAME = "KaaTcp";
   private static final Logger LOG = LoggerFactory.getLogger(KaaTcpDecoder.class);
   private ChannelHandlerContext currentCtx;
@@ -69,12 +70,13 @@ public class KaaTcpDecoder extends SimpleChannelInboundHandler<byte[]> {
   }
 
   @Override
-  protected void channelRead0(ChannelHandlerContext ctx, byte[] data) throws Exception {
+  protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) throws Exception {
     if (LOG.isTraceEnabled()) {
-      LOG.trace("channelRead0: {}", Arrays.toString(data));
+      LOG.trace("channelRead0: {}", ByteBufUtil.hexDump(frame));
     }
     currentCtx = ctx;
-    messageFactory.getFramer().pushBytes(data);
+    byte type = KaaTcpFrameDecoder.readFixedHeader(frame);
+    messageFactory.getFramer().pushFrame(type, frame.nioBuffer());
   }
 
 }
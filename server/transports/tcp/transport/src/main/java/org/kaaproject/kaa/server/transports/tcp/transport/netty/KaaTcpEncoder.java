@@ -16,6 +16,8 @@
 
 package org.kaaproject.kaa.server.transports.tcp.transport.netty;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -26,10 +28,10 @@ import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MqttFrame;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-
 /**
  * KaaTcpEncoder Class.
+ * Packs frames directly into buffers of the channel allocator, which are
+ * pooled direct buffers by default.
  *
  * @author Yaroslav Zeygerman
  */
@@ -44,9 +46,17 @@ public class KaaTcpEncoder extends ChannelOutboundHandlerAdapter {
       super.write(ctx, msg, promise);
     } else {
       MqttFrame frame = (MqttFrame) msg;
-      byte[] data = frame.getFrame().array();
+      int size = frame.getFrameSize();
+      ByteBuf data = ctx.alloc().ioBuffer(size);
+      try {
+        frame.writeFrame(data.nioBuffer(0, size));
+        data.writerIndex(size);
+      } catch (RuntimeException ex) {
+        data.release();
+        throw ex;
+      }
       if (LOG.isTraceEnabled()) {
-        LOG.trace("Sending {} data for frame {}", Arrays.toString(data), frame);
+        LOG.trace("Sending {} data for frame {}", ByteBufUtil.hexDump(data), frame);
       }
       if (LOG.isTraceEnabled()) {
         LOG.trace("Channel promise before writeAndFlush isSuccess [{}] isDone [{}]"
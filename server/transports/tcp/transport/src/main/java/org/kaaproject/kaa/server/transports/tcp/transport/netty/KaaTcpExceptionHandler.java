@@ -47,7 +47,7 @@ public class KaaTcpExceptionHandler extends ChannelInboundHandlerAdapter {
       reason = DisconnectReason.INTERNAL_ERROR;
     }
     Disconnect message = new Disconnect(reason);
-    ChannelFuture future = ctx.writeAndFlush(message.getFrame().array());
+    ChannelFuture future = ctx.writeAndFlush(message);
     future.addListener(ChannelFutureListener.CLOSE);
     ctx.close();
   }
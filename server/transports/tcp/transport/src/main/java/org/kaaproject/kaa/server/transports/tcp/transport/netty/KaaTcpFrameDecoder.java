@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.transports.tcp.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+
+import java.util.List;
+
+/**
+ * KaaTcpFrameDecoder Class.
+ * Cuts incoming byte stream into KaaTcp frames using the MQTT fixed header.
+ * Each frame, including its fixed header, is emitted as a retained slice of
+ * the received buffer, so frame bytes are not copied.
+ */
+public class KaaTcpFrameDecoder extends ByteToMessageDecoder {
+
+  /**
+   * Max count of bytes used to encode remaining length.
+   */
+  private static final int MAX_REMAINING_LENGTH_BYTES = 4;
+
+  /**
+   * Skips fixed header of the frame emitted by this decoder.
+   *
+   * @param frame the frame
+   * @return the frame message type
+   */
+  public static byte readFixedHeader(ByteBuf frame) {
+    byte type = (byte) ((frame.readByte() & 0xFF) >> 4);
+    while ((frame.readByte() & 0x80) != 0) {
+      // skip remaining length
+    }
+    return type;
+  }
+
+  @Override
+  protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+    int start = in.readerIndex();
+    int headerLength = 1;
+    int remainingLength = 0;
+    int multiplier = 1;
+    while (true) {
+      if (in.writerIndex() <= start + headerLength) {
+        return;
+      }
+      byte digit = in.getByte(start + headerLength);
+      ++headerLength;
+      remainingLength += (digit & 0x7F) * multiplier;
+      if ((digit & 0x80) == 0) {
+        break;
+      }
+      if (headerLength > MAX_REMAINING_LENGTH_BYTES) {
+        throw new CorruptedFrameException("Remaining length exceeds "
+            + MAX_REMAINING_LENGTH_BYTES + " bytes");
+      }
+      multiplier *= 0x80;
+    }
+    int frameLength = headerLength + remainingLength;
+    if (in.readableBytes() < frameLength) {
+      return;
+    }
+    out.add(in.readSlice(frameLength).retain());
+  }
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -42,6 +43,7 @@ public class KaaTcpEncoderTest {
   @Before
   public void setUp() {
     ctx = mock(ChannelHandlerContext.class);
+    when(ctx.alloc()).thenReturn(UnpooledByteBufAllocator.DEFAULT);
     future = mock(ChannelFuture.class);
     when(ctx.writeAndFlush(any(Object.class), any(ChannelPromise.class))).thenReturn(future);
     promise = mock(ChannelPromise.class);
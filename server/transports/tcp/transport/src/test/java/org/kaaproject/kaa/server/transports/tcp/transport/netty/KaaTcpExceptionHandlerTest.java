@@ -29,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.Disconnect;
 import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.Disconnect.DisconnectReason;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MqttFrame;
 import org.kaaproject.kaa.server.common.server.BadRequestException;
 import org.mockito.ArgumentCaptor;
 
@@ -48,9 +49,9 @@ public class KaaTcpExceptionHandlerTest {
   public void badRequestExceptionTest() throws Exception {
     kaaTcpExceptionHandler.exceptionCaught(ctx, new BadRequestException("Bad request"));
     verify(ctx).writeAndFlush(any(Object.class));
-    ArgumentCaptor<byte[]> argumentCaptor = ArgumentCaptor.forClass(byte[].class);
+    ArgumentCaptor<MqttFrame> argumentCaptor = ArgumentCaptor.forClass(MqttFrame.class);
     verify(ctx).writeAndFlush(argumentCaptor.capture());
-    Assert.assertTrue(Arrays.equals(argumentCaptor.getValue(), getMessageByteArrayForReason(DisconnectReason.BAD_REQUEST)));
+    Assert.assertTrue(Arrays.equals(argumentCaptor.getValue().getFrame().array(), getMessageByteArrayForReason(DisconnectReason.BAD_REQUEST)));
     verify(ctx).close();
   }
 
@@ -58,9 +59,9 @@ public class KaaTcpExceptionHandlerTest {
   public void internalErrorExceptionTest() throws Exception {
     kaaTcpExceptionHandler.exceptionCaught(ctx, new Exception("Internal error occurred"));
     verify(ctx).writeAndFlush(any(Object.class));
-    ArgumentCaptor<byte[]> argumentCaptor = ArgumentCaptor.forClass(byte[].class);
+    ArgumentCaptor<MqttFrame> argumentCaptor = ArgumentCaptor.forClass(MqttFrame.class);
     verify(ctx).writeAndFlush(argumentCaptor.capture());
-    Assert.assertTrue(Arrays.equals(argumentCaptor.getValue(), getMessageByteArrayForReason(DisconnectReason.INTERNAL_ERROR)));
+    Assert.assertTrue(Arrays.equals(argumentCaptor.getValue().getFrame().array(), getMessageByteArrayForReason(DisconnectReason.INTERNAL_ERROR)));
     verify(ctx).close();
   }
 
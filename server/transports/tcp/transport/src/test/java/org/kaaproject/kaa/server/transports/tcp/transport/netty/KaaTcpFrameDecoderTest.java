@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014-2016 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.kaa.server.transports.tcp.transport.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.MqttFrame;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.PingRequest;
+import org.kaaproject.kaa.common.channels.protocols.kaatcp.messages.SyncRequest;
+import org.kaaproject.kaa.server.common.server.KaaCommandProcessor;
+import org.kaaproject.kaa.server.transports.tcp.transport.commands.KaaTcpCommandFactory;
+
+import java.util.Arrays;
+
+public class KaaTcpFrameDecoderTest {
+
+  private static byte[] toBytes(MqttFrame frame) {
+    return frame.getFrame().array();
+  }
+
+  private static byte[] readBytes(ByteBuf buf) {
+    byte[] bytes = new byte[buf.readableBytes()];
+    buf.readBytes(bytes);
+    buf.release();
+    return bytes;
+  }
+
+  @Test
+  public void splitFrameTest() {
+    byte[] frame = toBytes(new SyncRequest(new byte[300], false, true));
+    EmbeddedChannel channel = new EmbeddedChannel(new KaaTcpFrameDecoder());
+
+    Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(frame, 0, 1)));
+    Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(frame, 1, 2)));
+    Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(frame, 3, frame.length - 3)));
+
+    Assert.assertTrue(Arrays.equals(frame, readBytes((ByteBuf) channel.readInbound())));
+    Assert.assertNull(channel.readInbound());
+  }
+
+  @Test
+  public void severalFramesTest() {
+    byte[] ping = toBytes(new PingRequest());
+    byte[] sync = toBytes(new SyncRequest(new byte[] {1, 2, 3}, false, false));
+    EmbeddedChannel channel = new EmbeddedChannel(new KaaTcpFrameDecoder());
+
+    Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(ping, sync)));
+
+    Assert.assertTrue(Arrays.equals(ping, readBytes((ByteBuf) channel.readInbound())));
+    Assert.assertTrue(Arrays.equals(sync, readBytes((ByteBuf) channel.readInbound())));
+    Assert.assertNull(channel.readInbound());
+  }
+
+  @Test(expected = DecoderException.class)
+  public void corruptedRemainingLengthTest() {
+    EmbeddedChannel channel = new EmbeddedChannel(new KaaTcpFrameDecoder());
+    channel.writeInbound(Unpooled.wrappedBuffer(new byte[] {
+        (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01}));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void decodeSyncRequestTest() {
+    byte[] avroObject = new byte[] {1, 2, 3, 4, 5};
+    byte[] frame = toBytes(new SyncRequest(avroObject, false, true));
+    EmbeddedChannel channel = new EmbeddedChannel(
+        new KaaTcpFrameDecoder(), new KaaTcpDecoder(new KaaTcpCommandFactory()));
+
+    Assert.assertFalse(channel.writeInbound(Unpooled.wrappedBuffer(frame, 0, 4)));
+    Assert.assertTrue(channel.writeInbound(Unpooled.wrappedBuffer(frame, 4, frame.length - 4)));
+
+    KaaCommandProcessor<MqttFrame, MqttFrame> processor =
+        (KaaCommandProcessor<MqttFrame, MqttFrame>) channel.readInbound();
+    SyncRequest request = (SyncRequest) processor.getRequest();
+    Assert.assertTrue(Arrays.equals(avroObject, request.getAvroObject()));
+    Assert.assertTrue(request.isEncrypted());
+    Assert.assertFalse(request.isZipped());
+  }
+}